@@ -22,6 +22,18 @@ repositories {
     maven("https://repo.extendedclip.com/releases/") // PlaceholderAPI
 }
 
+// JMH 基準測試 (src/jmh/java)，共用測試的 Mockito 與 Paper API classpath
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations {
+    named("jmhImplementation") { extendsFrom(testImplementation.get()) }
+    named("jmhCompileOnly") { extendsFrom(compileOnly.get()) }
+    named("jmhRuntimeOnly") { extendsFrom(testRuntimeOnly.get()) }
+}
+
 dependencies {
     // Paper API (Folia-compatible)
     paperweight.paperDevBundle("1.21.4-R0.1-SNAPSHOT")
@@ -45,18 +57,50 @@ dependencies {
     testImplementation("org.mockito:mockito-core:5.11.0")
     testImplementation("org.mockito:mockito-junit-jupiter:5.11.0")
     testImplementation("com.github.MilkBowl:VaultAPI:1.7.1") // Vault on test classpath for Mockito inline mock maker
+    testRuntimeOnly("org.xerial:sqlite-jdbc:3.47.1.0") // CMI 資料庫匯入測試使用本機 SQLite 檔案
+
+    // JMH 效能基準測試
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+    "jmhRuntimeOnly"("org.xerial:sqlite-jdbc:3.47.1.0")
 }
 
 tasks.test {
     useJUnitPlatform()
 }
 
+// 執行基準測試: ./gradlew jmh -Pjmh.include=CurrencyManager
+// 結果輸出至 build/reports/jmh/results.json，並附帶 GC 配置量分析 (-prof gc)
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks in src/jmh/java."
+    dependsOn(tasks.named("jmhClasses"))
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+
+    val resultFile = layout.buildDirectory.file("reports/jmh/results.json")
+    outputs.file(resultFile)
+    doFirst { resultFile.get().asFile.parentFile.mkdirs() }
+
+    args(
+        project.findProperty("jmh.include")?.toString() ?: ".*",
+        "-prof", "gc",
+        "-rf", "json",
+        "-rff", resultFile.get().asFile.absolutePath
+    )
+}
+
 tasks {
     compileJava {
         options.encoding = "UTF-8"
         options.release.set(21)
     }
 
+    named<JavaCompile>("compileJmhJava") {
+        options.encoding = "UTF-8"
+        options.release.set(21)
+    }
+
     javadoc {
         options.encoding = "UTF-8"
         (options as StandardJavadocDocletOptions).addStringOption("Xdoclint:none", "-quiet")
@@ -0,0 +1,148 @@
+package com.smile.aceeconomy.benchmark;
+
+import com.smile.aceeconomy.AceEconomy;
+import com.smile.aceeconomy.data.Currency;
+import com.smile.aceeconomy.manager.ConfigManager;
+import com.smile.aceeconomy.manager.CurrencyManager;
+import com.smile.aceeconomy.manager.PermissionManager;
+import com.smile.aceeconomy.storage.StorageExecutor;
+import com.smile.aceeconomy.storage.StorageHandler;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.plugin.PluginManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 基準測試共用環境。
+ * <p>
+ * 以 Mockito 模擬插件與設定檔，並透過 {@link Bukkit#setServer(Server)} 安裝模擬伺服器，
+ * 讓所有執行緒 (包含 ForkJoinPool) 都能呼叫 Bukkit 靜態方法。
+ * 資料庫檔案建立於暫存目錄，於 {@link #close()} 時刪除。
+ * </p>
+ */
+public final class BenchmarkFixture implements AutoCloseable {
+
+    public static final Currency DOLLAR = new Currency("dollar", "金幣", "$", "#,##0.00", true);
+    public static final Currency TOKEN = new Currency("token", "代幣", "ⓒ", "#,##0", false);
+
+    private static final Logger LOGGER = Logger.getLogger("AceEconomy-Bench");
+
+    static {
+        // 避免基準測試輸出被插件日誌淹沒
+        LOGGER.setLevel(Level.WARNING);
+    }
+
+    private final Path dataFolder;
+    private final AceEconomy plugin;
+    private final ConfigManager configManager;
+    private final StorageExecutor storageExecutor;
+
+    private BenchmarkFixture(Path dataFolder, AceEconomy plugin, ConfigManager configManager,
+            StorageExecutor storageExecutor) {
+        this.dataFolder = dataFolder;
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.storageExecutor = storageExecutor;
+    }
+
+    /**
+     * 建立基準測試環境。
+     *
+     * @return 環境
+     * @throws IOException 若無法建立暫存目錄
+     */
+    public static BenchmarkFixture create() throws IOException {
+        installServer();
+
+        Path dataFolder = Files.createTempDirectory("aceeco-jmh");
+
+        ConfigManager configManager = stub(ConfigManager.class);
+        when(configManager.getCurrencies()).thenReturn(Map.of("dollar", DOLLAR, "token", TOKEN));
+        when(configManager.getDefaultCurrency()).thenReturn(DOLLAR);
+        when(configManager.getCurrency("dollar")).thenReturn(DOLLAR);
+        when(configManager.getCurrency("token")).thenReturn(TOKEN);
+        when(configManager.getStartBalance()).thenReturn(0.0);
+        when(configManager.isAllowNegativeBalance()).thenReturn(false);
+        when(configManager.getDatabaseType()).thenReturn("sqlite");
+        when(configManager.getJournalQueueCapacity()).thenReturn(65536);
+        when(configManager.getJournalFlushLatency()).thenReturn(50L);
+        when(configManager.getJournalMaxBatchSize()).thenReturn(512);
+        when(configManager.getJournalOverflowPolicy()).thenReturn("drop");
+
+        StorageExecutor storageExecutor = new StorageExecutor(StorageExecutor.Mode.VIRTUAL, 10, LOGGER);
+
+        AceEconomy plugin = stub(AceEconomy.class);
+        when(plugin.getLogger()).thenReturn(LOGGER);
+        when(plugin.getDataFolder()).thenReturn(dataFolder.toFile());
+        when(plugin.getConfigManager()).thenReturn(configManager);
+        when(plugin.getStorageExecutor()).thenReturn(storageExecutor);
+
+        return new BenchmarkFixture(dataFolder, plugin, configManager, storageExecutor);
+    }
+
+    /**
+     * 安裝模擬伺服器 (每個 JVM 只能安裝一次)。
+     */
+    private static synchronized void installServer() {
+        if (Bukkit.getServer() != null) {
+            return;
+        }
+        Server server = stub(Server.class);
+        PluginManager pluginManager = stub(PluginManager.class);
+        when(server.getLogger()).thenReturn(LOGGER);
+        when(server.getPluginManager()).thenReturn(pluginManager);
+        when(server.getPlayer(any(java.util.UUID.class))).thenReturn(null);
+        Bukkit.setServer(server);
+    }
+
+    /**
+     * 建立綁定於此環境的貨幣管理器，並註冊到模擬插件。
+     *
+     * @return 貨幣管理器
+     */
+    public CurrencyManager newCurrencyManager() {
+        PermissionManager permissionManager = stub(PermissionManager.class);
+        CurrencyManager currencyManager = new CurrencyManager(plugin, permissionManager,
+                stub(StorageHandler.class), configManager);
+        when(plugin.getCurrencyManager()).thenReturn(currencyManager);
+        return currencyManager;
+    }
+
+    /**
+     * 建立不記錄呼叫紀錄的模擬物件 (避免數百萬次呼叫累積在記憶體中並扭曲配置量分析)。
+     */
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+
+    public AceEconomy plugin() {
+        return plugin;
+    }
+
+    public ConfigManager configManager() {
+        return configManager;
+    }
+
+    public StorageExecutor storageExecutor() {
+        return storageExecutor;
+    }
+
+    @Override
+    public void close() throws IOException {
+        storageExecutor.shutdown(10_000L);
+        try (Stream<Path> paths = Files.walk(dataFolder)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.smile.aceeconomy.benchmark;
+
+import com.smile.aceeconomy.data.Currency;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Currency#format(double)} 基準測試 (單執行緒與多執行緒共用同一貨幣實例)。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CurrencyFormatBenchmark {
+
+    private final Currency currency = BenchmarkFixture.DOLLAR;
+
+    @Benchmark
+    @Threads(1)
+    public String singleThread() {
+        return currency.format(ThreadLocalRandom.current().nextDouble(0, 10_000_000));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String contended() {
+        return currency.format(ThreadLocalRandom.current().nextDouble(0, 10_000_000));
+    }
+}
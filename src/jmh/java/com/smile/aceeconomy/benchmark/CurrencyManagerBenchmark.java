@@ -0,0 +1,85 @@
+package com.smile.aceeconomy.benchmark;
+
+import com.smile.aceeconomy.manager.CurrencyManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CurrencyManager#deposit} / {@link CurrencyManager#withdraw} 基準測試。
+ * <p>
+ * 每次操作存入再取出相同金額，餘額保持不變，可無限次重複。
+ * 分為單執行緒、多執行緒爭用同一帳戶，以及多執行緒各自操作不同帳戶三種情境。
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CurrencyManagerBenchmark {
+
+    private static final double AMOUNT = 12.5;
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        BenchmarkFixture fixture;
+        CurrencyManager currencyManager;
+        UUID hotAccount;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            fixture = BenchmarkFixture.create();
+            currencyManager = fixture.newCurrencyManager();
+            hotAccount = UUID.randomUUID();
+            currencyManager.createAccount(hotAccount, "Hot");
+            currencyManager.deposit(hotAccount, "dollar", 1_000_000);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            fixture.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PerThread {
+        UUID account;
+
+        @Setup(Level.Trial)
+        public void setUp(Shared shared) {
+            account = UUID.randomUUID();
+            shared.currencyManager.createAccount(account, "Bench-" + Thread.currentThread().getId());
+            shared.currencyManager.deposit(account, "dollar", 1_000_000);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean singleThread(Shared shared) {
+        shared.currencyManager.deposit(shared.hotAccount, "dollar", AMOUNT);
+        return shared.currencyManager.withdraw(shared.hotAccount, "dollar", AMOUNT, null);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean contendedSameAccount(Shared shared) {
+        shared.currencyManager.deposit(shared.hotAccount, "dollar", AMOUNT);
+        return shared.currencyManager.withdraw(shared.hotAccount, "dollar", AMOUNT, null);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean disjointAccounts(Shared shared, PerThread thread) {
+        shared.currencyManager.deposit(thread.account, "dollar", AMOUNT);
+        return shared.currencyManager.withdraw(thread.account, "dollar", AMOUNT, null);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public double contendedRead(Shared shared) {
+        return shared.currencyManager.getBalance(shared.hotAccount, "dollar");
+    }
+}
@@ -0,0 +1,88 @@
+package com.smile.aceeconomy.benchmark;
+
+import com.smile.aceeconomy.api.EconomyProvider;
+import com.smile.aceeconomy.manager.CurrencyManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EconomyProvider#transfer} 基準測試 (包含事件呼叫與非同步排程的完整路徑)。
+ * <p>
+ * 每次操作來回轉帳一次，雙方餘額保持不變。
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EconomyProviderBenchmark {
+
+    private static final double AMOUNT = 7.25;
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        BenchmarkFixture fixture;
+        CurrencyManager currencyManager;
+        EconomyProvider economyProvider;
+        UUID alice;
+        UUID bob;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            fixture = BenchmarkFixture.create();
+            currencyManager = fixture.newCurrencyManager();
+            economyProvider = new EconomyProvider(fixture.plugin());
+            alice = openAccount(currencyManager, "Alice");
+            bob = openAccount(currencyManager, "Bob");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            fixture.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PerThread {
+        UUID from;
+        UUID to;
+
+        @Setup(Level.Trial)
+        public void setUp(Shared shared) {
+            from = openAccount(shared.currencyManager, "From");
+            to = openAccount(shared.currencyManager, "To");
+        }
+    }
+
+    private static UUID openAccount(CurrencyManager currencyManager, String name) {
+        UUID uuid = UUID.randomUUID();
+        currencyManager.createAccount(uuid, name);
+        currencyManager.deposit(uuid, "dollar", 1_000_000);
+        return uuid;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean singleThread(Shared shared) {
+        shared.economyProvider.transfer(shared.alice, shared.bob, "dollar", AMOUNT).join();
+        return shared.economyProvider.transfer(shared.bob, shared.alice, "dollar", AMOUNT).join();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean contendedSameAccounts(Shared shared) {
+        shared.economyProvider.transfer(shared.alice, shared.bob, "dollar", AMOUNT).join();
+        return shared.economyProvider.transfer(shared.bob, shared.alice, "dollar", AMOUNT).join();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean disjointAccounts(Shared shared, PerThread thread) {
+        shared.economyProvider.transfer(thread.from, thread.to, "dollar", AMOUNT).join();
+        return shared.economyProvider.transfer(thread.to, thread.from, "dollar", AMOUNT).join();
+    }
+}
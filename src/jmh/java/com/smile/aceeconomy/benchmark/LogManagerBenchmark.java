@@ -0,0 +1,81 @@
+package com.smile.aceeconomy.benchmark;
+
+import com.smile.aceeconomy.data.TransactionType;
+import com.smile.aceeconomy.manager.LogManager;
+import com.smile.aceeconomy.storage.DatabaseConnection;
+import com.smile.aceeconomy.storage.implementation.SQLiteImplementation;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link LogManager#logTransaction} 基準測試。
+ * <p>
+ * 日誌寫入暫存的 SQLite 檔案；佇列溢出策略為 block，因此量測結果為群組提交可持續的吞吐量，
+ * 而非單純的入列速度。
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogManagerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        BenchmarkFixture fixture;
+        SQLiteImplementation storage;
+        DatabaseConnection databaseConnection;
+        LogManager logManager;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            fixture = BenchmarkFixture.create();
+            when(fixture.configManager().getJournalOverflowPolicy()).thenReturn("block");
+
+            // 由 SQLiteImplementation 建立資料表結構
+            storage = new SQLiteImplementation(fixture.plugin(), fixture.storageExecutor());
+            storage.init();
+
+            databaseConnection = new DatabaseConnection(fixture.plugin());
+            if (!databaseConnection.initialize()) {
+                throw new IllegalStateException("無法連線至基準測試資料庫");
+            }
+            logManager = new LogManager(fixture.plugin(), databaseConnection, fixture.newCurrencyManager(),
+                    fixture.storageExecutor());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            logManager.shutdown();
+            databaseConnection.shutdown();
+            storage.shutdown();
+            fixture.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PerThread {
+        final UUID sender = UUID.randomUUID();
+        final UUID receiver = UUID.randomUUID();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void singleThread(Shared shared, PerThread thread) {
+        shared.logManager.logTransaction(thread.sender, thread.receiver, 10.0, "dollar", TransactionType.PAY,
+                null, null, null);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void multiThread(Shared shared, PerThread thread) {
+        shared.logManager.logTransaction(thread.sender, thread.receiver, 10.0, "dollar", TransactionType.PAY,
+                null, null, null);
+    }
+}
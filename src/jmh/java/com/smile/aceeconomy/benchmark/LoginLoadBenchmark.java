@@ -0,0 +1,73 @@
+package com.smile.aceeconomy.benchmark;
+
+import com.smile.aceeconomy.data.Account;
+import com.smile.aceeconomy.storage.implementation.SQLiteImplementation;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登入高峰帳戶載入基準測試 (暫存 SQLite 檔案)。
+ * <p>
+ * 比較逐一查詢名稱與餘額，以及 {@link SQLiteImplementation#loadAccounts} 單一 JOIN 查詢
+ * 載入同一批玩家所需的時間。
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoginLoadBenchmark {
+
+    @Param({"16", "256"})
+    int players;
+
+    BenchmarkFixture fixture;
+    SQLiteImplementation storage;
+    List<UUID> uuids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = BenchmarkFixture.create();
+        storage = new SQLiteImplementation(fixture.plugin(), fixture.storageExecutor());
+        storage.init();
+
+        uuids = new ArrayList<>(players);
+        List<Account> accounts = new ArrayList<>(players);
+        for (int i = 0; i < players; i++) {
+            UUID uuid = UUID.randomUUID();
+            uuids.add(uuid);
+            accounts.add(new Account(uuid, "Bench" + i, Map.of("dollar", 100.0 + i, "token", (double) i)));
+        }
+        storage.saveAccounts(accounts).join();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        storage.shutdown();
+        fixture.close();
+    }
+
+    @Benchmark
+    public List<Account> perAccount() {
+        List<CompletableFuture<Account>> futures = new ArrayList<>(uuids.size());
+        for (UUID uuid : uuids) {
+            futures.add(storage.getNameByUuid(uuid).thenCompose(username -> storage.getBalances(uuid)
+                    .thenApply(balances -> new Account(uuid, username, balances))));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    @Benchmark
+    public Map<UUID, Account> bulk() {
+        return storage.loadAccounts(uuids).join();
+    }
+}
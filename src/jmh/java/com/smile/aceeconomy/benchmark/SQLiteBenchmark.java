@@ -0,0 +1,78 @@
+package com.smile.aceeconomy.benchmark;
+
+import com.smile.aceeconomy.storage.implementation.SQLiteImplementation;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SQLiteImplementation#setBalance} 基準測試 (暫存 SQLite 檔案)。
+ * <p>
+ * 多執行緒情境分為所有執行緒寫入同一列，以及各自寫入不同列兩種。
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class SQLiteBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        BenchmarkFixture fixture;
+        SQLiteImplementation storage;
+        UUID hotAccount;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            fixture = BenchmarkFixture.create();
+            storage = new SQLiteImplementation(fixture.plugin(), fixture.storageExecutor());
+            storage.init();
+            hotAccount = UUID.randomUUID();
+            storage.updatePlayerName(hotAccount, "Hot").join();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            storage.shutdown();
+            fixture.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PerThread {
+        UUID account;
+
+        @Setup(Level.Trial)
+        public void setUp(Shared shared) {
+            account = UUID.randomUUID();
+            shared.storage.updatePlayerName(account, "Bench").join();
+        }
+    }
+
+    private static double nextAmount() {
+        return ThreadLocalRandom.current().nextDouble(0, 1_000_000);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void singleThread(Shared shared) {
+        shared.storage.setBalance(shared.hotAccount, "dollar", nextAmount()).join();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void contendedSameRow(Shared shared) {
+        shared.storage.setBalance(shared.hotAccount, "dollar", nextAmount()).join();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void disjointRows(Shared shared, PerThread thread) {
+        shared.storage.setBalance(thread.account, "dollar", nextAmount()).join();
+    }
+}
@@ -46,13 +46,19 @@ public final class AceEconomy extends JavaPlugin implements Listener {
     private MessageManager messageManager;
     private com.smile.aceeconomy.storage.StorageProvider storageProvider;
     private StorageHandler storageHandler;
+    private com.smile.aceeconomy.storage.StorageExecutor storageExecutor;
     private CurrencyManager currencyManager;
     private EconomyProvider economyProvider;
     private DiscordWebhook discordWebhook;
     private com.smile.aceeconomy.manager.LeaderboardManager leaderboardManager;
+    private AceEcoExpansion placeholderExpansion;
     private com.smile.aceeconomy.manager.UserCacheManager userCacheManager;
     private com.smile.aceeconomy.manager.PermissionManager permissionManager;
+    private com.smile.aceeconomy.manager.LimitCache limitCache;
+    private com.smile.aceeconomy.manager.CompletionIndex completionIndex;
     private com.smile.aceeconomy.manager.MigrationManager migrationManager;
+    private com.smile.aceeconomy.manager.WriteBehindManager writeBehindManager;
+    private com.smile.aceeconomy.manager.LogManager logManager;
 
     /**
      * 取得插件實例。
@@ -75,6 +81,11 @@ public final class AceEconomy extends JavaPlugin implements Listener {
         messageManager = new MessageManager(this);
         messageManager.load(configManager.getLocale());
 
+        // 初始化儲存執行器 (所有儲存與日誌 I/O 皆在此執行，不佔用共用 ForkJoinPool)
+        storageExecutor = new com.smile.aceeconomy.storage.StorageExecutor(
+                com.smile.aceeconomy.storage.StorageExecutor.Mode.parse(configManager.getStorageExecutorType()),
+                configManager.getStorageExecutorMaxConcurrency(), getLogger());
+
         // 初始化儲存處理器（根據設定選擇）
         initializeStorage();
 
@@ -87,13 +98,35 @@ public final class AceEconomy extends JavaPlugin implements Listener {
         // 初始化貨幣管理器 (使用 ConfigManager 和 PermissionManager)
         currencyManager = new CurrencyManager(this, permissionManager, storageHandler, configManager);
 
+        // 初始化玩家限制快取 (負債上限等權限 meta 在加入時解析，交易時不再查詢權限插件)
+        limitCache = new com.smile.aceeconomy.manager.LimitCache(this, permissionManager);
+        limitCache.start(configManager.getLimitRefreshInterval());
+        currencyManager.setLimitCache(limitCache);
+        Bukkit.getPluginManager().registerEvents(
+                new com.smile.aceeconomy.listeners.LimitCacheListener(this, limitCache), this);
+
+        // 初始化延遲寫入管理器
+        if (configManager.isWriteBehindEnabled()) {
+            writeBehindManager = new com.smile.aceeconomy.manager.WriteBehindManager(storageHandler, getLogger(),
+                    configManager.getWriteBehindFlushInterval(), configManager.getWriteBehindFlushThreshold(),
+                    configManager.getWriteBehindBatchSize());
+            writeBehindManager.start();
+            currencyManager.setWriteBehindManager(writeBehindManager);
+            getLogger().info("已啟用延遲寫入 (間隔 " + configManager.getWriteBehindFlushInterval() + "ms)");
+        }
+
+        // 初始化離線帳戶快取 (必須在延遲寫入之後，載入時需優先使用佇列中的帳戶)
+        // 容量為 0 時仍需建立：離線餘額操作期間帳戶會暫存於此
+        currencyManager.enableOfflineAccountCache(configManager.getOfflineCacheMaxSize(),
+                configManager.getOfflineCacheTtl());
+
         // 初始化日誌管理器 (暫時保留 DatabaseConnection 依賴)
-        com.smile.aceeconomy.manager.LogManager logManager = null;
         if (storageProvider != null) {
             // 使用適配器將 StorageProvider 轉為 DatabaseConnection 介面
             com.smile.aceeconomy.storage.DatabaseConnection legacyConnection = new com.smile.aceeconomy.storage.LegacyConnectionAdapter(
                     this, storageProvider);
-            logManager = new com.smile.aceeconomy.manager.LogManager(this, legacyConnection, currencyManager);
+            logManager = new com.smile.aceeconomy.manager.LogManager(this, legacyConnection, currencyManager,
+                    storageExecutor);
         }
 
         if (logManager != null) {
@@ -108,15 +141,26 @@ public final class AceEconomy extends JavaPlugin implements Listener {
         // 初始化排行榜管理器 (使用 StorageProvider)
         if (storageProvider != null) {
             leaderboardManager = new com.smile.aceeconomy.manager.LeaderboardManager(this, storageProvider);
+            currencyManager.setLeaderboardManager(leaderboardManager);
+            leaderboardManager.seedIndex();
 
             // 初始化玩家快取管理器
-            userCacheManager = new com.smile.aceeconomy.manager.UserCacheManager(storageProvider, getLogger());
-            Bukkit.getPluginManager().registerEvents(
-                    new com.smile.aceeconomy.listeners.PlayerConnectionListener(userCacheManager), this);
+            userCacheManager = new com.smile.aceeconomy.manager.UserCacheManager(storageProvider, getLogger(),
+                    configManager.getNameCacheMaxSize());
+            userCacheManager.warm(configManager.getNameCacheMaxSize());
         } else {
             getLogger().warning("未使用 SQL 資料庫或連線失敗，排行榜與離線功能將失效。");
         }
 
+        // 初始化指令補全索引 (重載插件時補上已在線上的玩家)
+        completionIndex = new com.smile.aceeconomy.manager.CompletionIndex(userCacheManager);
+        completionIndex.refreshCurrencies(currencyManager.getRegisteredCurrencies());
+        for (org.bukkit.entity.Player online : Bukkit.getOnlinePlayers()) {
+            completionIndex.addOnlinePlayer(online.getName());
+        }
+        Bukkit.getPluginManager().registerEvents(
+                new com.smile.aceeconomy.listeners.PlayerConnectionListener(userCacheManager, completionIndex), this);
+
         // 初始化經濟服務提供者
         economyProvider = new EconomyProvider(this);
 
@@ -150,7 +194,7 @@ public final class AceEconomy extends JavaPlugin implements Listener {
     /**
      * 初始化儲存處理器。
      * <p>
-     * 根據設定檔選擇 JSON 或 SQL 儲存。
+     * 根據設定檔選擇 JSON、Segment 或 SQL 儲存。
      * </p>
      */
     private void initializeStorage() {
@@ -160,18 +204,32 @@ public final class AceEconomy extends JavaPlugin implements Listener {
             String storageType = configManager.getDatabaseType();
 
             if ("json".equalsIgnoreCase(storageType) || "yaml".equalsIgnoreCase(storageType)) {
-                storageHandler = new JsonStorageHandler(getDataFolder().toPath(), getLogger());
+                storageHandler = new JsonStorageHandler(getDataFolder().toPath(), getLogger(), storageExecutor);
                 storageHandler.initialize();
                 getLogger().info("使用 JSON 儲存");
                 return;
             }
 
-            storageProvider = com.smile.aceeconomy.storage.StorageFactory.create(this, configManager);
+            if ("segment".equalsIgnoreCase(storageType)) {
+                storageHandler = new com.smile.aceeconomy.storage.SegmentStorageHandler(getDataFolder().toPath(),
+                        getLogger(), storageExecutor, configManager.getSegmentSizeBytes(),
+                        configManager.getSegmentCommitIntervalMillis(), configManager.getSegmentCompactionThreshold());
+                storageHandler.initialize();
+                getLogger().info("使用 Segment 儲存");
+                return;
+            }
+
+            storageProvider = com.smile.aceeconomy.storage.StorageFactory.create(this, configManager,
+                    storageExecutor);
             storageProvider.init();
 
             // 為了向下相容，仍使用 StorageHandler 處理 Account 持久化
             // StorageProvider 負責細粒度查詢 (balance, leaderboard, user cache)
-            storageHandler = new com.smile.aceeconomy.storage.implementation.SQLiteStorageAdapter(storageProvider);
+            com.smile.aceeconomy.manager.LoginBatcher loginBatcher = new com.smile.aceeconomy.manager.LoginBatcher(
+                    storageProvider, getLogger(), configManager.getLoginBatchWindow(),
+                    configManager.getLoginBatchMaxSize());
+            storageHandler = new com.smile.aceeconomy.storage.implementation.SQLiteStorageAdapter(storageProvider,
+                    loginBatcher);
             storageHandler.initialize();
 
             getLogger().info("使用 SQL 儲存系統 (" + storageType + ")");
@@ -179,7 +237,7 @@ public final class AceEconomy extends JavaPlugin implements Listener {
             getLogger().severe("儲存系統初始化失敗: " + e.getMessage());
             e.printStackTrace();
             getLogger().severe("回退至 JSON 儲存");
-            storageHandler = new JsonStorageHandler(getDataFolder().toPath(), getLogger());
+            storageHandler = new JsonStorageHandler(getDataFolder().toPath(), getLogger(), storageExecutor);
             storageHandler.initialize();
 
             // 確保 storageProvider 為 null
@@ -314,7 +372,9 @@ public final class AceEconomy extends JavaPlugin implements Listener {
         }
 
         // 註冊擴展
-        new AceEcoExpansion(this).register();
+        placeholderExpansion = new AceEcoExpansion(this);
+        placeholderExpansion.start();
+        placeholderExpansion.register();
         getLogger().info("\u001B[32m[AceEconomy] PlaceholderAPI 掛鉤成功！\u001B[0m");
     }
 
@@ -323,11 +383,36 @@ public final class AceEconomy extends JavaPlugin implements Listener {
         // 取消註冊所有服務
         Bukkit.getServicesManager().unregisterAll(this);
 
-        // 關閉儲存處理器
+        // 停止佔位符快照更新
+        if (placeholderExpansion != null) {
+            placeholderExpansion.stop();
+        }
+
+        // 停止玩家限制快取更新
+        if (limitCache != null) {
+            limitCache.stop();
+        }
+
+        // 排空延遲寫入佇列 (必須在關閉儲存層之前)
+        if (writeBehindManager != null) {
+            writeBehindManager.shutdown();
+        }
+
+        // 排空交易日誌佇列
+        if (logManager != null) {
+            logManager.shutdown();
+        }
+
+        // 關閉儲存處理器 (送出尚未處理的登入載入請求)
         if (storageHandler != null) {
             storageHandler.shutdown();
         }
 
+        // 等待進行中的儲存工作完成 (必須在排空佇列之後、關閉連線池之前)
+        if (storageExecutor != null) {
+            storageExecutor.shutdown(10_000L);
+        }
+
         // 關閉 StorageProvider (包含連線池)
         if (storageProvider != null) {
             storageProvider.shutdown();
@@ -355,8 +440,23 @@ public final class AceEconomy extends JavaPlugin implements Listener {
         UUID uuid = event.getUniqueId();
         String playerName = event.getName();
 
+        // 若帳戶仍在延遲寫入佇列中，直接沿用記憶體中的最新資料
+        if (writeBehindManager != null) {
+            Account pending = writeBehindManager.getPendingAccount(uuid);
+            if (pending != null) {
+                if (!playerName.equals(pending.getOwnerName())) {
+                    pending.setOwnerName(playerName);
+                    writeBehindManager.markDirty(pending);
+                }
+                currencyManager.cacheAccount(pending);
+                getLogger().info("已從寫入佇列恢復玩家資料: " + playerName);
+                return;
+            }
+        }
+
         // 非同步載入帳戶資料（此事件本身已在非同步執行緒）
-        storageHandler.loadAccount(uuid).thenAccept(account -> {
+        // 經由離線帳戶快取載入：離線期間被異動或正在被離線操作使用的帳戶會沿用同一個物件
+        currencyManager.loadAccount(uuid).thenAccept(account -> {
             if (account == null) {
                 // 帳戶不存在，建立新帳戶
                 account = currencyManager.createAccount(uuid, playerName);
@@ -364,7 +464,13 @@ public final class AceEconomy extends JavaPlugin implements Listener {
                 storageHandler.saveAccount(account);
             } else {
                 // 更新玩家名稱（可能已改名）
-                account.setOwnerName(playerName);
+                if (!playerName.equals(account.getOwnerName())) {
+                    account.setOwnerName(playerName);
+                    // 延遲寫入模式下離線時不會另外儲存，改名必須標記為待寫入
+                    if (writeBehindManager != null) {
+                        writeBehindManager.markDirty(account);
+                    }
+                }
                 // 加入快取
                 currencyManager.cacheAccount(account);
             }
@@ -395,6 +501,12 @@ public final class AceEconomy extends JavaPlugin implements Listener {
             return;
         }
 
+        // 啟用延遲寫入時，變動已在佇列中，由背景執行緒合併寫入，避免大量離線造成寫入尖峰
+        if (writeBehindManager != null) {
+            currencyManager.uncacheAccount(uuid);
+            return;
+        }
+
         // 使用 Folia 的非同步排程器儲存資料
         Bukkit.getAsyncScheduler().runNow(this, scheduledTask -> {
             storageHandler.saveAccount(account).thenRun(() -> {
@@ -428,6 +540,15 @@ public final class AceEconomy extends JavaPlugin implements Listener {
         return leaderboardManager;
     }
 
+    /**
+     * 取得儲存執行器。
+     *
+     * @return 儲存執行器實例
+     */
+    public com.smile.aceeconomy.storage.StorageExecutor getStorageExecutor() {
+        return storageExecutor;
+    }
+
     /**
      * 取得儲存處理器。
      *
@@ -437,6 +558,15 @@ public final class AceEconomy extends JavaPlugin implements Listener {
         return storageHandler;
     }
 
+    /**
+     * 取得 SQL 儲存提供者。
+     *
+     * @return 儲存提供者，使用 JSON 儲存時為 null
+     */
+    public com.smile.aceeconomy.storage.StorageProvider getStorageProvider() {
+        return storageProvider;
+    }
+
     /**
      * 取得經濟服務提供者。
      *
@@ -482,7 +612,43 @@ public final class AceEconomy extends JavaPlugin implements Listener {
         return permissionManager;
     }
 
+    /**
+     * 取得玩家限制快取。
+     *
+     * @return 玩家限制快取實例
+     */
+    public com.smile.aceeconomy.manager.LimitCache getLimitCache() {
+        return limitCache;
+    }
+
+    /**
+     * 取得指令補全索引。
+     *
+     * @return 指令補全索引實例
+     */
+    public com.smile.aceeconomy.manager.CompletionIndex getCompletionIndex() {
+        return completionIndex;
+    }
+
     public com.smile.aceeconomy.manager.MigrationManager getMigrationManager() {
         return migrationManager;
     }
+
+    /**
+     * 取得延遲寫入管理器。
+     *
+     * @return 延遲寫入管理器，若未啟用則為 null
+     */
+    public com.smile.aceeconomy.manager.WriteBehindManager getWriteBehindManager() {
+        return writeBehindManager;
+    }
+
+    /**
+     * 取得日誌管理器。
+     *
+     * @return 日誌管理器，若未啟用則為 null
+     */
+    public com.smile.aceeconomy.manager.LogManager getLogManager() {
+        return logManager;
+    }
 }
@@ -2,10 +2,15 @@ package com.smile.aceeconomy.api;
 
 import com.smile.aceeconomy.AceEconomy;
 import com.smile.aceeconomy.manager.CurrencyManager;
+import com.smile.aceeconomy.manager.OfflineAccountCache;
 import org.bukkit.Bukkit;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 /**
  * 經濟服務提供者。
@@ -24,6 +29,7 @@ public class EconomyProvider {
 
     private final AceEconomy plugin;
     private final CurrencyManager currencyManager;
+    private final Executor executor;
 
     /**
      * 建立經濟服務提供者。
@@ -33,6 +39,7 @@ public class EconomyProvider {
     public EconomyProvider(AceEconomy plugin) {
         this.plugin = plugin;
         this.currencyManager = plugin.getCurrencyManager();
+        this.executor = plugin.getStorageExecutor();
     }
 
     /**
@@ -68,7 +75,8 @@ public class EconomyProvider {
             return CompletableFuture.completedFuture(currencyManager.getBalance(uuid, currencyId));
         }
 
-        return plugin.getStorageHandler().loadAccount(uuid)
+        // 離線玩家經由離線帳戶快取載入，重複查詢不會再讀取儲存層
+        return currencyManager.loadAccount(uuid)
                 .thenApply(account -> account != null ? account.getBalance(currencyId) : 0.0);
     }
 
@@ -92,14 +100,10 @@ public class EconomyProvider {
      * @return 操作是否成功的 CompletableFuture
      */
     public CompletableFuture<Boolean> deposit(UUID uuid, String currencyId, double amount) {
-        return CompletableFuture.supplyAsync(() -> {
-            if (amount <= 0) {
-                return false;
-            }
-            if (!currencyManager.hasAccount(uuid)) {
-                return false;
-            }
-
+        if (!Double.isFinite(amount) || amount <= 0) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return withAccounts(() -> {
             double currentBalance = currencyManager.getBalance(uuid, currencyId);
             EconomyTransactionEvent event = new EconomyTransactionEvent(
                     uuid, amount, EconomyTransactionEvent.TransactionType.DEPOSIT, currentBalance);
@@ -110,7 +114,7 @@ public class EconomyProvider {
             }
 
             return currencyManager.deposit(uuid, currencyId, amount);
-        });
+        }, uuid);
     }
 
     /**
@@ -158,14 +162,10 @@ public class EconomyProvider {
      * @return 操作是否成功的 CompletableFuture
      */
     public CompletableFuture<Boolean> withdraw(UUID uuid, String currencyId, double amount, UUID banknoteUuid) {
-        return CompletableFuture.supplyAsync(() -> {
-            if (amount <= 0) {
-                return false;
-            }
-            if (!currencyManager.hasAccount(uuid)) {
-                return false;
-            }
-
+        if (!Double.isFinite(amount) || amount <= 0) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return withAccounts(() -> {
             double currentBalance = currencyManager.getBalance(uuid, currencyId);
             // 移除手動檢查，交由 CurrencyManager 處理 (含債務系統)
             // if (currentBalance < amount) { return false; }
@@ -179,7 +179,7 @@ public class EconomyProvider {
             }
 
             return currencyManager.withdraw(uuid, currencyId, amount, banknoteUuid);
-        });
+        }, uuid);
     }
 
     /**
@@ -202,14 +202,10 @@ public class EconomyProvider {
      * @return 操作是否成功的 CompletableFuture
      */
     public CompletableFuture<Boolean> setBalance(UUID uuid, String currencyId, double amount) {
-        return CompletableFuture.supplyAsync(() -> {
-            if (amount < 0 && !plugin.getConfigManager().isAllowNegativeBalance()) {
-                return false;
-            }
-            if (!currencyManager.hasAccount(uuid)) {
-                return false;
-            }
-
+        if (!Double.isFinite(amount) || (amount < 0 && !plugin.getConfigManager().isAllowNegativeBalance())) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return withAccounts(() -> {
             double currentBalance = currencyManager.getBalance(uuid, currencyId);
             EconomyTransactionEvent event = new EconomyTransactionEvent(
                     uuid, amount, EconomyTransactionEvent.TransactionType.SET, currentBalance);
@@ -220,7 +216,7 @@ public class EconomyProvider {
             }
 
             return currencyManager.setBalance(uuid, currencyId, amount);
-        });
+        }, uuid);
     }
 
     /**
@@ -245,14 +241,10 @@ public class EconomyProvider {
      * @return 操作是否成功的 CompletableFuture
      */
     public CompletableFuture<Boolean> transfer(UUID from, UUID to, String currencyId, double amount) {
-        return CompletableFuture.supplyAsync(() -> {
-            if (amount <= 0) {
-                return false;
-            }
-            if (!currencyManager.hasAccount(from) || !currencyManager.hasAccount(to)) {
-                return false;
-            }
-
+        if (!Double.isFinite(amount) || amount <= 0) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return withAccounts(() -> {
             double fromBalance = currencyManager.getBalance(from, currencyId);
             double toBalance = currencyManager.getBalance(to, currencyId);
 
@@ -273,24 +265,59 @@ public class EconomyProvider {
                 return false;
             }
 
-            boolean withdrawSuccess = currencyManager.withdraw(from, currencyId, amount, null);
-            if (!withdrawSuccess) {
-                return false;
-            }
+            // 單一臨界區內完成扣款與入帳，並只寫入一筆 PAY 紀錄
+            return currencyManager.transfer(from, to, currencyId, amount);
+        }, from, to);
+    }
 
-            boolean depositSuccess = currencyManager.deposit(to, currencyId, amount);
-            if (!depositSuccess) {
-                // Rollback
-                currencyManager.deposit(from, currencyId, amount);
-                return false;
+    /**
+     * 在所有相關帳戶都已載入的情況下執行餘額操作。
+     * <p>
+     * 線上玩家直接在儲存執行器上執行；涉及離線玩家時，先經由離線帳戶快取載入並釘選帳戶，
+     * 操作期間帳戶不會被淘汰或重新載入，與線上帳戶使用相同的 CAS 保護，
+     * 變動再由延遲寫入批次儲存。任一帳戶不存在時回傳 false。
+     * </p>
+     *
+     * @param operation 餘額操作
+     * @param uuids     操作涉及的玩家
+     * @return 操作結果
+     */
+    private CompletableFuture<Boolean> withAccounts(Supplier<Boolean> operation, UUID... uuids) {
+        boolean allOnline = true;
+        for (UUID uuid : uuids) {
+            if (currencyManager.getAccount(uuid) == null) {
+                allOnline = false;
+                break;
             }
+        }
+        if (allOnline) {
+            return CompletableFuture.supplyAsync(operation, executor);
+        }
+
+        List<CompletableFuture<OfflineAccountCache.Lease>> leases = new ArrayList<>(uuids.length);
+        for (UUID uuid : uuids) {
+            leases.add(currencyManager.acquireAccount(uuid));
+        }
 
-            return true;
+        return CompletableFuture.allOf(leases.toArray(CompletableFuture[]::new)).thenApplyAsync(ignored -> {
+            for (CompletableFuture<OfflineAccountCache.Lease> lease : leases) {
+                if (lease.join() == null) {
+                    return false;
+                }
+            }
+            return operation.get();
+        }, executor).whenComplete((result, throwable) -> {
+            // 所有載入都已完成 (成功或失敗)，釋放成功取得的租用
+            for (CompletableFuture<OfflineAccountCache.Lease> lease : leases) {
+                if (!lease.isCompletedExceptionally() && lease.join() != null) {
+                    lease.join().close();
+                }
+            }
         });
     }
 
     /**
-     * 檢查玩家帳戶是否已載入（在線）。
+     * 檢查玩家帳戶是否已載入（在線，或在離線帳戶快取中）。
      *
      * @param uuid 玩家 UUID
      * @return 帳戶是否已載入
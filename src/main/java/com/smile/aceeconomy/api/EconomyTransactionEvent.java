@@ -13,6 +13,10 @@ import java.util.UUID;
  * 在任何經濟交易（存款、提款、轉帳）執行前觸發，
  * 允許其他插件監聽並取消交易。
  * </p>
+ * <p>
+ * Vault 快速路徑上的交易會先在呼叫執行緒上完成，再以事後事件非同步通知
+ * ({@link #isDeferred()} 為 true)，此時取消事件不會影響已完成的交易。
+ * </p>
  *
  * @author Smile
  */
@@ -40,6 +44,7 @@ public class EconomyTransactionEvent extends Event implements Cancellable {
     private final double amount;
     private final TransactionType type;
     private final double balanceBefore;
+    private final boolean deferred;
     private boolean cancelled = false;
 
     /**
@@ -51,11 +56,26 @@ public class EconomyTransactionEvent extends Event implements Cancellable {
      * @param balanceBefore 交易前餘額
      */
     public EconomyTransactionEvent(UUID target, double amount, TransactionType type, double balanceBefore) {
+        this(target, amount, type, balanceBefore, false);
+    }
+
+    /**
+     * 建立經濟交易事件。
+     *
+     * @param target        交易目標的 UUID
+     * @param amount        交易金額
+     * @param type          交易類型
+     * @param balanceBefore 交易前餘額
+     * @param deferred      交易是否已完成 (事後通知)
+     */
+    public EconomyTransactionEvent(UUID target, double amount, TransactionType type, double balanceBefore,
+            boolean deferred) {
         super(true); // 非同步事件
         this.target = target;
         this.amount = amount;
         this.type = type;
         this.balanceBefore = balanceBefore;
+        this.deferred = deferred;
     }
 
     /**
@@ -107,6 +127,18 @@ public class EconomyTransactionEvent extends Event implements Cancellable {
         };
     }
 
+    /**
+     * 交易是否已在事件觸發前完成 (Vault 快速路徑的事後通知)。
+     * <p>
+     * 為 true 時取消事件沒有作用。
+     * </p>
+     *
+     * @return 是否為事後通知
+     */
+    public boolean isDeferred() {
+        return deferred;
+    }
+
     @Override
     public boolean isCancelled() {
         return cancelled;
@@ -2,6 +2,7 @@ package com.smile.aceeconomy.commands;
 
 import com.smile.aceeconomy.AceEconomy;
 import com.smile.aceeconomy.event.EconomyTransactionEvent;
+import com.smile.aceeconomy.manager.LimitCache;
 import com.smile.aceeconomy.migration.CMIMigrator;
 import com.smile.aceeconomy.migration.EssentialsMigrator;
 import com.smile.aceeconomy.migration.Migrator;
@@ -18,7 +19,6 @@ import org.jetbrains.annotations.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.stream.Collectors;
 
 /**
  * 管理員指令處理器。
@@ -119,6 +119,15 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
             }
 
             plugin.getConfigManager().reload();
+            // 貨幣設定可能已變更，重建貨幣補全
+            if (plugin.getCompletionIndex() != null) {
+                plugin.getCompletionIndex().refreshCurrencies(plugin.getCurrencyManager().getRegisteredCurrencies());
+            }
+            // 預設債務上限可能已變更，重新解析線上玩家的限制
+            LimitCache limitCache = plugin.getLimitCache();
+            if (limitCache != null) {
+                Bukkit.getAsyncScheduler().runNow(plugin, task -> limitCache.refreshAll());
+            }
             plugin.getMessageManager().send(sender, "general.reload-success");
 
             // Console Log
@@ -144,6 +153,11 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
             plugin.getMessageManager().send(sender, "general.invalid-amount", Placeholder.parsed("amount", amountStr));
             return true;
         }
+        if (!Double.isFinite(amount)) {
+            // Double.parseDouble 接受 "Infinity" 與 "NaN"
+            plugin.getMessageManager().send(sender, "general.invalid-amount", Placeholder.parsed("amount", amountStr));
+            return true;
+        }
 
         // 金額驗證
         if (amount < 0 && !action.equals("set")) {
@@ -189,16 +203,13 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
 
     private void executeAdminAction(CommandSender sender, java.util.UUID targetUuid, String targetName, String action,
             double amount, String currencyId) {
-        // 先載入目標帳戶 (非同步)
-        plugin.getStorageHandler().loadAccount(targetUuid).thenAccept(account -> {
+        // 先載入目標帳戶 (離線玩家會保留在離線帳戶快取中，供 EconomyProvider 操作)
+        plugin.getCurrencyManager().loadAccount(targetUuid).thenAccept(account -> {
             if (account == null) {
                 plugin.getMessageManager().send(sender, "economy.account-not-found");
                 return;
             }
 
-            // Fix: Cache the account so CurrencyManager/EconomyProvider can access it
-            plugin.getCurrencyManager().cacheAccount(account);
-
             String currencyName = plugin.getConfigManager().getCurrency(currencyId).name();
             final String fCurrencyName = currencyName;
             final double fAmount = amount;
@@ -301,6 +312,7 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
         }
 
         String pluginName = args[1].toLowerCase();
+        boolean dryRun = args.length >= 3 && args[2].equalsIgnoreCase("--dry-run");
 
         // 建立對應的遷移器
         Migrator migrator = switch (pluginName) {
@@ -333,24 +345,40 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
 
         // 在非同步執行緒執行遷移
         Bukkit.getAsyncScheduler().runNow(plugin, task -> {
-            migrator.migrate(sender, processed -> {
+            migrator.migrate(sender, dryRun, progress -> {
                 // 回報進度
                 plugin.getMessageManager().send(sender, "admin.migration-progress",
-                        Placeholder.parsed("processed", String.valueOf(processed)));
+                        Placeholder.parsed("current", String.valueOf(progress.processed())),
+                        Placeholder.parsed("total", String.valueOf(progress.discovered())),
+                        Placeholder.parsed("rate", String.valueOf(progress.perSecond())));
             }).thenAccept(result -> {
                 // 遷移完成
                 migrationInProgress.set(false);
 
                 if (result.totalCount() == 0) {
                     plugin.getMessageManager().send(sender, "admin.migration-no-data");
+                } else if (result.dryRun()) {
+                    plugin.getMessageManager().send(sender, "admin.migration-dry-run-complete",
+                            Placeholder.parsed("success", String.valueOf(result.successCount())),
+                            Placeholder.parsed("fail", String.valueOf(result.failCount())),
+                            Placeholder.parsed("skipped", String.valueOf(result.skippedCount())),
+                            Placeholder.parsed("total", String.valueOf(result.totalCount())),
+                            Placeholder.parsed("balance", String.format("%.2f", result.totalBalance())));
                 } else {
                     plugin.getMessageManager().send(sender, "admin.migration-complete",
                             Placeholder.parsed("success", String.valueOf(result.successCount())),
-                            Placeholder.parsed("fail", String.valueOf(result.failCount())));
+                            Placeholder.parsed("fail", String.valueOf(result.failCount())),
+                            Placeholder.parsed("skipped", String.valueOf(result.skippedCount())));
                 }
 
                 plugin.getLogger().info("資料遷移完成：成功 " + result.successCount() +
-                        "，失敗 " + result.failCount() + "，共 " + result.totalCount());
+                        "，略過 " + result.skippedCount() + "，失敗 " + result.failCount() +
+                        "，共 " + result.totalCount());
+
+                // 匯入的資料直接寫入儲存層，需重建排行榜索引
+                if (!result.dryRun() && result.successCount() > 0 && plugin.getLeaderboardManager() != null) {
+                    plugin.getLeaderboardManager().rebuildIndex();
+                }
 
             }).exceptionally(throwable -> {
                 // 遷移失敗
@@ -411,12 +439,24 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
                 net.kyori.adventure.text.format.NamedTextColor.YELLOW));
         plugin.getLogger().info("開始儲存遷移至: " + targetType);
 
-        mm.migrate(targetType).thenAccept(result -> {
+        com.smile.aceeconomy.storage.TableCopier.ProgressListener progress = (table, copied, total,
+                rate) -> sender.sendMessage(net.kyori.adventure.text.Component.text(
+                        "遷移 " + table + ": " + copied + "/" + total + " (" + rate + " 筆/秒)",
+                        net.kyori.adventure.text.format.NamedTextColor.GRAY));
+
+        mm.migrate(targetType, progress).thenAccept(result -> {
             migrationInProgress.set(false);
+            for (com.smile.aceeconomy.manager.MigrationManager.TableReport report : result.tables()) {
+                sender.sendMessage(net.kyori.adventure.text.Component.text(
+                        "驗證 " + report.table() + ": 來源 " + report.sourceRows() + " 筆，目標 "
+                                + report.targetRows() + " 筆，檢查碼" + (report.checksumMatches() ? "相符" : "不符"),
+                        report.verified() ? net.kyori.adventure.text.format.NamedTextColor.GRAY
+                                : net.kyori.adventure.text.format.NamedTextColor.RED));
+            }
             if (result.success()) {
                 sender.sendMessage(net.kyori.adventure.text.Component.text(
                         "遷移完成！使用者: " + result.users() + "，餘額: " + result.balances()
-                                + "，耗時: " + result.duration() + "ms",
+                                + "，交易記錄: " + result.logs() + "，耗時: " + result.duration() + "ms",
                         net.kyori.adventure.text.format.NamedTextColor.GREEN));
                 plugin.getLogger().info("儲存遷移完成: " + result.message());
             } else {
@@ -499,29 +539,21 @@ public class AdminCommand implements CommandExecutor, TabCompleter {
                         .filter(t -> t.startsWith(prefix))
                         .toList();
             } else {
-                // 補全在線玩家名稱
-                List<String> completions = new ArrayList<>();
-                String prefix = args[1].toLowerCase();
-                for (Player player : Bukkit.getOnlinePlayers()) {
-                    if (player.getName().toLowerCase().startsWith(prefix)) {
-                        completions.add(player.getName());
-                    }
-                }
-                return completions;
+                // 補全玩家名稱 (輸入至少一個字元後包含離線玩家)
+                return plugin.getCompletionIndex().completePlayers(args[1], null);
             }
         } else if (args.length == 3) {
             String action = args[0].toLowerCase();
-            if (!action.equals("import")) {
-                return List.of("100", "500", "1000", "10000");
+            if (action.equals("import")) {
+                // 補全試跑旗標
+                return "--dry-run".startsWith(args[2].toLowerCase()) ? List.of("--dry-run") : List.of();
             }
+            return List.of("100", "500", "1000", "10000");
         } else if (args.length == 4) {
             String action = args[0].toLowerCase();
             if (action.equals("give") || action.equals("take") || action.equals("set")) {
                 // 補全貨幣 ID
-                String prefix = args[3].toLowerCase();
-                return plugin.getCurrencyManager().getRegisteredCurrencies().stream()
-                        .filter(c -> c.toLowerCase().startsWith(prefix))
-                        .collect(Collectors.toList());
+                return plugin.getCompletionIndex().completeCurrencies(args[3]);
             }
         }
 
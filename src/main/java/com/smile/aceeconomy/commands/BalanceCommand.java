@@ -12,9 +12,7 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * 餘額查詢指令處理器。
@@ -125,7 +123,7 @@ public class BalanceCommand implements CommandExecutor, TabCompleter {
                     return;
                 }
 
-                plugin.getStorageHandler().loadAccount(uuid).thenAccept(account -> {
+                currencyManager.loadAccount(uuid).thenAccept(account -> {
                     if (account == null) {
                         plugin.getMessageManager().send(sender, "economy.account-not-found");
                     } else {
@@ -160,20 +158,10 @@ public class BalanceCommand implements CommandExecutor, TabCompleter {
             @NotNull String alias, @NotNull String[] args) {
         if (args.length == 1) {
             // 補全在線玩家名稱
-            List<String> completions = new ArrayList<>();
-            String prefix = args[0].toLowerCase();
-            for (Player player : Bukkit.getOnlinePlayers()) {
-                if (player.getName().toLowerCase().startsWith(prefix)) {
-                    completions.add(player.getName());
-                }
-            }
-            return completions;
+            return plugin.getCompletionIndex().completeOnlinePlayers(args[0]);
         } else if (args.length == 2) {
             // 補全貨幣 ID
-            String prefix = args[1].toLowerCase();
-            return currencyManager.getRegisteredCurrencies().stream()
-                    .filter(c -> c.toLowerCase().startsWith(prefix))
-                    .collect(Collectors.toList());
+            return plugin.getCompletionIndex().completeCurrencies(args[1]);
         }
         return List.of();
     }
@@ -11,7 +11,12 @@ import org.bukkit.command.CommandSender;
 import org.jetbrains.annotations.NotNull;
 
 import java.text.SimpleDateFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class HistoryCommand implements CommandExecutor {
 
@@ -19,6 +24,23 @@ public class HistoryCommand implements CommandExecutor {
     private final LogManager logManager;
     private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
 
+    /**
+     * 每頁筆數
+     */
+    private static final int PAGE_SIZE = 10;
+
+    /**
+     * 瀏覽狀態閒置多久後移除 (毫秒)
+     */
+    private static final long VIEW_TTL_MILLIS = java.util.concurrent.TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * 各查詢者最近查看的玩家與已知的頁面游標 (查詢者名稱 -> 瀏覽狀態)。
+     * 依序翻頁時直接使用上一頁留下的游標；跳頁時從最近的已知游標往後跳。
+     * 閒置超過 {@link #VIEW_TTL_MILLIS} 的狀態在下次執行指令時移除。
+     */
+    private final Map<String, HistoryView> views = new ConcurrentHashMap<>();
+
     public HistoryCommand(AceEconomy plugin, LogManager logManager) {
         this.plugin = plugin;
         this.logManager = logManager;
@@ -61,7 +83,25 @@ public class HistoryCommand implements CommandExecutor {
                 // 若是完全沒玩過的玩家 UUID 可能不準確或無資料
             }
 
-            logManager.getHistory(targetUuid, currentPage, 10).thenAccept(logs -> {
+            long now = System.currentTimeMillis();
+            views.values().removeIf(existing -> existing.isExpired(now));
+            HistoryView view = views.compute(sender.getName(),
+                    (key, existing) -> existing != null && existing.target.equals(targetUuid) && currentPage > 1
+                            ? existing
+                            : new HistoryView(targetUuid));
+            view.touch(now);
+
+            resolveCursor(view, currentPage).thenCompose(cursor -> {
+                if (cursor == null && currentPage > 1) {
+                    // 頁碼超出範圍
+                    return CompletableFuture.completedFuture(new LogManager.HistoryPage(List.of(), null));
+                }
+                return logManager.getHistory(targetUuid, cursor, PAGE_SIZE);
+            }).thenAccept(historyPage -> {
+                if (historyPage.next() != null) {
+                    view.put(currentPage + 1, historyPage.next());
+                }
+                List<LogManager.TransactionLog> logs = historyPage.logs();
                 if (logs.isEmpty()) {
                     plugin.getMessageManager().send(sender, "history.empty");
                     return;
@@ -125,4 +165,58 @@ public class HistoryCommand implements CommandExecutor {
 
         return true;
     }
+
+    /**
+     * 取得指定頁碼的起始游標。
+     * 已知則直接回傳，否則從最近的已知頁面往後跳過所需筆數 (只讀取索引)。
+     *
+     * @return 起始游標；第一頁或頁碼超出範圍時為 null
+     */
+    private CompletableFuture<LogManager.HistoryCursor> resolveCursor(HistoryView view, int page) {
+        if (page <= 1) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Map.Entry<Integer, LogManager.HistoryCursor> known = view.floor(page);
+        int fromPage = known != null ? known.getKey() : 1;
+        LogManager.HistoryCursor from = known != null ? known.getValue() : null;
+        if (fromPage == page) {
+            return CompletableFuture.completedFuture(from);
+        }
+        return logManager.seekHistory(view.target, from, (page - fromPage) * PAGE_SIZE).thenApply(cursor -> {
+            if (cursor != null) {
+                view.put(page, cursor);
+            }
+            return cursor;
+        });
+    }
+
+    /**
+     * 查詢者的瀏覽狀態：目標玩家與已知的頁面起始游標。
+     */
+    private static final class HistoryView {
+        private final UUID target;
+        private final TreeMap<Integer, LogManager.HistoryCursor> cursors = new TreeMap<>();
+        private volatile long lastAccess;
+
+        private HistoryView(UUID target) {
+            this.target = target;
+            this.lastAccess = System.currentTimeMillis();
+        }
+
+        private void touch(long now) {
+            lastAccess = now;
+        }
+
+        private boolean isExpired(long now) {
+            return now - lastAccess > VIEW_TTL_MILLIS;
+        }
+
+        private synchronized void put(int page, LogManager.HistoryCursor cursor) {
+            cursors.put(page, cursor);
+        }
+
+        private synchronized Map.Entry<Integer, LogManager.HistoryCursor> floor(int page) {
+            return cursors.floorEntry(page);
+        }
+    }
 }
@@ -12,9 +12,7 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * 轉帳指令處理器。
@@ -77,6 +75,11 @@ public class PayCommand implements CommandExecutor, TabCompleter {
             plugin.getMessageManager().send(sender, "general.invalid-amount", Placeholder.parsed("amount", amountStr));
             return true;
         }
+        if (!Double.isFinite(amount)) {
+            // Double.parseDouble 接受 "Infinity" 與 "NaN"
+            plugin.getMessageManager().send(sender, "general.invalid-amount", Placeholder.parsed("amount", amountStr));
+            return true;
+        }
 
         // 防止負數
         if (amount <= 0) {
@@ -134,8 +137,8 @@ public class PayCommand implements CommandExecutor, TabCompleter {
 
     private void executeTransfer(Player sender, java.util.UUID targetUuid, String targetName, double amount,
             String currencyId) {
-        // 先載入目標帳戶 (非同步)
-        plugin.getStorageHandler().loadAccount(targetUuid).thenAccept(targetAccount -> {
+        // 先載入目標帳戶 (離線玩家會保留在離線帳戶快取中，供後續轉帳使用)
+        plugin.getCurrencyManager().loadAccount(targetUuid).thenAccept(targetAccount -> {
             if (targetAccount == null) {
                 // 可能是新玩家還沒建立帳戶
                 plugin.getMessageManager().send(sender, "general.player-no-account");
@@ -197,23 +200,13 @@ public class PayCommand implements CommandExecutor, TabCompleter {
     public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command,
             @NotNull String alias, @NotNull String[] args) {
         if (args.length == 1) {
-            // 補全在線玩家名稱（排除自己）
-            List<String> completions = new ArrayList<>();
-            String prefix = args[0].toLowerCase();
-            for (Player player : Bukkit.getOnlinePlayers()) {
-                if (!player.equals(sender) && player.getName().toLowerCase().startsWith(prefix)) {
-                    completions.add(player.getName());
-                }
-            }
-            return completions;
+            // 補全玩家名稱（排除自己，輸入至少一個字元後包含離線玩家）
+            return plugin.getCompletionIndex().completePlayers(args[0], sender.getName());
         } else if (args.length == 2) {
             return List.of("100", "500", "1000");
         } else if (args.length == 3) {
             // 補全貨幣 ID
-            String prefix = args[2].toLowerCase();
-            return plugin.getCurrencyManager().getRegisteredCurrencies().stream()
-                    .filter(c -> c.toLowerCase().startsWith(prefix))
-                    .collect(Collectors.toList());
+            return plugin.getCompletionIndex().completeCurrencies(args[2]);
         }
         return List.of();
     }
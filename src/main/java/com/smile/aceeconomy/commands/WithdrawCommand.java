@@ -73,6 +73,11 @@ public class WithdrawCommand implements CommandExecutor, TabCompleter {
             plugin.getMessageManager().send(sender, "general.invalid-amount", Placeholder.parsed("amount", args[0]));
             return true;
         }
+        if (!Double.isFinite(amount)) {
+            // Double.parseDouble 接受 "Infinity" 與 "NaN"
+            plugin.getMessageManager().send(sender, "general.invalid-amount", Placeholder.parsed("amount", args[0]));
+            return true;
+        }
 
         // 金額驗證
         if (amount <= 0) {
@@ -1,12 +1,25 @@
 package com.smile.aceeconomy.data;
 
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 帳戶資料物件。
  * <p>
  * 儲存玩家的經濟資料，包含擁有者 UUID、餘額和擁有者名稱。
  * </p>
+ * <p>
+ * 餘額以 {@link CurrencyIndex} 的貨幣序號為索引，存放於 {@link AtomicLongArray}，
+ * 每格為 double 的原始位元；若該貨幣啟用定點數模式，則為 long 最小單位數量。
+ * 讀取無需加鎖，更新以 CAS 完成且不配置物件。
+ * 當出現新貨幣需要擴充陣列時，舊陣列的每格會先以 CAS 凍結再複製，
+ * 確保擴充期間的並行更新不會遺失。
+ * </p>
+ * <p>
+ * 跨帳戶的轉帳需要雙方的變動同時生效，因此另以 {@link #getTransferLock()} 保護：
+ * 轉帳持有雙方的鎖，建立寫入快照時持有該帳戶的鎖，快照便不會落在扣款與入帳之間。
+ * </p>
  *
  * @author Smile
  */
@@ -18,9 +31,24 @@ public class Account {
     private final UUID owner;
 
     /**
-     * 帳戶餘額 (Currency ID -> Amount) - 使用 ConcurrentHashMap 確保執行緒安全
+     * 尚未設定餘額的貨幣格 (與一般 NaN 位元不同)
+     */
+    private static final long ABSENT = 0x7ff8_0000_0000_0001L;
+
+    /**
+     * 已被擴充流程凍結的格，讀寫方需改讀新陣列
+     */
+    private static final long FROZEN = 0x7ff8_0000_0000_0002L;
+
+    /**
+     * 帳戶餘額格 (貨幣序號 -> double 原始位元或最小單位數量)
      */
-    private final java.util.concurrent.ConcurrentHashMap<String, Double> balances;
+    private volatile AtomicLongArray cells;
+
+    /**
+     * 轉帳與快照使用的鎖 (單一帳戶的存提款不需持有)
+     */
+    private final ReentrantLock transferLock = new ReentrantLock();
 
     /**
      * 帳戶擁有者的名稱（用於顯示）
@@ -42,7 +70,19 @@ public class Account {
     public Account(UUID owner, String ownerName, java.util.Map<String, Double> initialBalances) {
         this.owner = owner;
         this.ownerName = ownerName;
-        this.balances = new java.util.concurrent.ConcurrentHashMap<>(initialBalances);
+        AtomicLongArray initial = newCells(CurrencyIndex.size());
+        for (java.util.Map.Entry<String, Double> entry : initialBalances.entrySet()) {
+            int ordinal = CurrencyIndex.ordinalOf(entry.getKey());
+            if (ordinal >= initial.length()) {
+                AtomicLongArray grown = newCells(CurrencyIndex.size());
+                for (int i = 0; i < initial.length(); i++) {
+                    grown.set(i, initial.get(i));
+                }
+                initial = grown;
+            }
+            initial.set(ordinal, encode(entry.getValue(), CurrencyIndex.scaleOf(ordinal)));
+        }
+        this.cells = initial;
     }
 
     /**
@@ -81,7 +121,30 @@ public class Account {
      * @return 目前餘額，若無則回傳 0.0
      */
     public double getBalance(String currencyId) {
-        return balances.getOrDefault(currencyId, 0.0);
+        int ordinal = CurrencyIndex.lookup(currencyId);
+        if (ordinal < 0) {
+            return 0.0;
+        }
+        return decode(readCell(ordinal), CurrencyIndex.scaleOf(ordinal));
+    }
+
+    /**
+     * 取得指定貨幣的餘額 (最小單位數量)。
+     * <p>
+     * 僅適用於已啟用定點數模式的貨幣。
+     * </p>
+     *
+     * @param currencyId 貨幣 ID
+     * @return 目前餘額的最小單位數量，若無則回傳 0
+     * @throws IllegalStateException 如果該貨幣未啟用定點數模式
+     */
+    public long getBalanceMinor(String currencyId) {
+        int ordinal = CurrencyIndex.lookup(currencyId);
+        if (ordinal < 0 || CurrencyIndex.scaleOf(ordinal) < 0) {
+            throw new IllegalStateException("貨幣未啟用定點數模式: " + currencyId);
+        }
+        long raw = readCell(ordinal);
+        return raw == ABSENT ? 0L : raw;
     }
 
     /**
@@ -100,16 +163,145 @@ public class Account {
      * @param balance    新餘額
      */
     public void setBalance(String currencyId, double balance) {
-        balances.put(currencyId, balance);
+        getAndSetBalance(currencyId, balance);
+    }
+
+    /**
+     * 設定指定貨幣的餘額並回傳舊餘額。
+     *
+     * @param currencyId 貨幣 ID
+     * @param balance    新餘額
+     * @return 設定前的餘額，若無則回傳 0.0
+     */
+    public double getAndSetBalance(String currencyId, double balance) {
+        int ordinal = CurrencyIndex.ordinalOf(currencyId);
+        int scale = CurrencyIndex.scaleOf(ordinal);
+        long update = encode(balance, scale);
+        while (true) {
+            AtomicLongArray current = cellsFor(ordinal);
+            long raw = current.get(ordinal);
+            if (raw == FROZEN) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (current.compareAndSet(ordinal, raw, update)) {
+                return decode(raw, scale);
+            }
+        }
+    }
+
+    /**
+     * 將指定貨幣的餘額增加 delta (可為負數)。
+     *
+     * @param currencyId 貨幣 ID
+     * @param delta      變動量
+     * @return 變動後的餘額
+     * @throws IllegalArgumentException 如果變動量無法以最小單位表示 (定點數模式)
+     * @throws ArithmeticException      如果變動後的最小單位數量溢位 (定點數模式)
+     */
+    public double addBalance(String currencyId, double delta) {
+        int ordinal = CurrencyIndex.ordinalOf(currencyId);
+        int scale = CurrencyIndex.scaleOf(ordinal);
+        long deltaMinor = scale >= 0 ? Currency.toMinorUnits(delta, scale) : 0L;
+        while (true) {
+            AtomicLongArray current = cellsFor(ordinal);
+            long raw = current.get(ordinal);
+            if (raw == FROZEN) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long next = scale >= 0
+                    ? checkedMinor(Math.addExact(raw == ABSENT ? 0L : raw, deltaMinor))
+                    : Double.doubleToRawLongBits(decode(raw, scale) + delta);
+            if (current.compareAndSet(ordinal, raw, next)) {
+                return decode(next, scale);
+            }
+        }
+    }
+
+    /**
+     * 若指定貨幣目前的餘額等於 expected，則原子地更新為 update。
+     * <p>
+     * 未設定過的貨幣視為餘額 0.0；定點數模式下以最小單位比較。
+     * </p>
+     *
+     * @param currencyId 貨幣 ID
+     * @param expected   預期的目前餘額
+     * @param update     新餘額
+     * @return 是否更新成功
+     */
+    public boolean compareAndSetBalance(String currencyId, double expected, double update) {
+        int ordinal = CurrencyIndex.ordinalOf(currencyId);
+        int scale = CurrencyIndex.scaleOf(ordinal);
+        if (scale >= 0) {
+            return compareAndSetCell(ordinal, Currency.toMinorUnits(expected, scale),
+                    Currency.toMinorUnits(update, scale));
+        }
+        long updateRaw = Double.doubleToRawLongBits(update);
+        while (true) {
+            AtomicLongArray current = cellsFor(ordinal);
+            long raw = current.get(ordinal);
+            if (raw == FROZEN) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (decode(raw, scale) != expected) {
+                return false;
+            }
+            if (current.compareAndSet(ordinal, raw, updateRaw)) {
+                return true;
+            }
+        }
     }
 
     /**
-     * 取得所有餘額 Map (唯讀)。
+     * 若指定貨幣目前的最小單位數量等於 expected，則原子地更新為 update。
+     * <p>
+     * 僅適用於已啟用定點數模式的貨幣。
+     * </p>
+     *
+     * @param currencyId 貨幣 ID
+     * @param expected   預期的目前最小單位數量
+     * @param update     新的最小單位數量
+     * @return 是否更新成功
+     * @throws IllegalStateException 如果該貨幣未啟用定點數模式
+     * @throws ArithmeticException   如果新的最小單位數量與內部保留值衝突
+     */
+    public boolean compareAndSetBalanceMinor(String currencyId, long expected, long update) {
+        int ordinal = CurrencyIndex.ordinalOf(currencyId);
+        if (CurrencyIndex.scaleOf(ordinal) < 0) {
+            throw new IllegalStateException("貨幣未啟用定點數模式: " + currencyId);
+        }
+        return compareAndSetCell(ordinal, expected, checkedMinor(update));
+    }
+
+    /**
+     * 取得所有餘額 Map (唯讀快照)。
      *
      * @return 餘額 Map
      */
     public java.util.Map<String, Double> getBalances() {
-        return java.util.Collections.unmodifiableMap(balances);
+        AtomicLongArray current = cells;
+        java.util.Map<String, Double> snapshot = new java.util.HashMap<>();
+        for (int i = 0; i < current.length(); i++) {
+            long raw = readCell(i);
+            if (raw != ABSENT) {
+                snapshot.put(CurrencyIndex.idOf(i), decode(raw, CurrencyIndex.scaleOf(i)));
+            }
+        }
+        return java.util.Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * 取得帳戶的轉帳鎖。
+     * <p>
+     * 同時鎖定多個帳戶時必須依擁有者 UUID 由小到大取得，避免死鎖。
+     * </p>
+     *
+     * @return 轉帳鎖
+     */
+    public ReentrantLock getTransferLock() {
+        return transferLock;
     }
 
     /**
@@ -129,4 +321,101 @@ public class Account {
     public void setOwnerName(String ownerName) {
         this.ownerName = ownerName;
     }
+
+    /**
+     * 以最小單位比較並更新定點數格 (ABSENT 視為 0)。
+     */
+    private boolean compareAndSetCell(int ordinal, long expected, long update) {
+        while (true) {
+            AtomicLongArray current = cellsFor(ordinal);
+            long raw = current.get(ordinal);
+            if (raw == FROZEN) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if ((raw == ABSENT ? 0L : raw) != expected) {
+                return false;
+            }
+            if (current.compareAndSet(ordinal, raw, update)) {
+                return true;
+            }
+        }
+    }
+
+    private static long encode(double value, int scale) {
+        return scale >= 0 ? checkedMinor(Currency.toMinorUnits(value, scale)) : Double.doubleToRawLongBits(value);
+    }
+
+    /**
+     * 拒絕與 ABSENT / FROZEN 相同的最小單位數量 (兩者都在 long 的可表示範圍內)。
+     */
+    private static long checkedMinor(long minor) {
+        if (minor == ABSENT || minor == FROZEN) {
+            throw new ArithmeticException("餘額超出可表示的範圍");
+        }
+        return minor;
+    }
+
+    private static double decode(long raw, int scale) {
+        if (raw == ABSENT) {
+            return 0.0;
+        }
+        return scale >= 0 ? Currency.fromMinorUnits(raw, scale) : Double.longBitsToDouble(raw);
+    }
+
+    /**
+     * 讀取指定序號的格，遇到凍結格時改讀擴充後的新陣列。
+     *
+     * @param ordinal 貨幣序號
+     * @return 格的原始位元，超出陣列範圍時回傳 ABSENT
+     */
+    private long readCell(int ordinal) {
+        while (true) {
+            AtomicLongArray current = cells;
+            if (ordinal >= current.length()) {
+                return ABSENT;
+            }
+            long raw = current.get(ordinal);
+            if (raw != FROZEN) {
+                return raw;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * 取得涵蓋指定序號的陣列，必要時擴充。
+     *
+     * @param ordinal 貨幣序號
+     * @return 目前的餘額格陣列
+     */
+    private AtomicLongArray cellsFor(int ordinal) {
+        AtomicLongArray current = cells;
+        if (ordinal < current.length()) {
+            return current;
+        }
+        return grow(ordinal);
+    }
+
+    private synchronized AtomicLongArray grow(int ordinal) {
+        AtomicLongArray current = cells;
+        if (ordinal < current.length()) {
+            return current;
+        }
+        AtomicLongArray grown = newCells(Math.max(ordinal + 1, CurrencyIndex.size()));
+        for (int i = 0; i < current.length(); i++) {
+            // 凍結舊格，之後對舊陣列的 CAS 都會失敗並重試新陣列
+            grown.set(i, current.getAndSet(i, FROZEN));
+        }
+        cells = grown;
+        return grown;
+    }
+
+    private static AtomicLongArray newCells(int length) {
+        AtomicLongArray array = new AtomicLongArray(length);
+        for (int i = 0; i < length; i++) {
+            array.set(i, ABSENT);
+        }
+        return array;
+    }
 }
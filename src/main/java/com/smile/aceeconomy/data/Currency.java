@@ -11,12 +11,22 @@ import java.text.DecimalFormat;
  * @author Smile
  */
 public class Currency {
+
+    /**
+     * 最小單位可支援的最大小數位數
+     */
+    public static final int MAX_SCALE = 8;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L };
+
     private final String id;
     private final String name;
     private final String symbol;
     private final String format;
     private final boolean isDefault;
     private final DecimalFormat decimalFormat;
+    private final int scale;
 
     /**
      * 建立貨幣資料物件。
@@ -34,6 +44,7 @@ public class Currency {
         this.format = format;
         this.isDefault = isDefault;
         this.decimalFormat = new DecimalFormat(symbol + format);
+        this.scale = Math.min(decimalFormat.getMaximumFractionDigits(), MAX_SCALE);
     }
 
     public String id() {
@@ -56,6 +67,77 @@ public class Currency {
         return isDefault;
     }
 
+    /**
+     * 取得最小單位的小數位數 (由格式推導，例如 "#,##0.00" 為 2)。
+     *
+     * @return 小數位數
+     */
+    public int scale() {
+        return scale;
+    }
+
+    /**
+     * 將金額轉換為最小單位數量 (四捨五入)。
+     *
+     * @param amount 金額
+     * @return 最小單位數量
+     * @throws IllegalArgumentException 如果金額不是有限值或超出可表示的範圍
+     */
+    public long toMinorUnits(double amount) {
+        return toMinorUnits(amount, scale);
+    }
+
+    /**
+     * 將最小單位數量轉換為金額。
+     *
+     * @param minorUnits 最小單位數量
+     * @return 金額
+     */
+    public double fromMinorUnits(long minorUnits) {
+        return fromMinorUnits(minorUnits, scale);
+    }
+
+    /**
+     * 依指定小數位數將金額轉換為最小單位數量 (四捨五入)。
+     *
+     * @param amount 金額
+     * @param scale  小數位數
+     * @return 最小單位數量
+     * @throws IllegalArgumentException 如果金額不是有限值或超出可表示的範圍
+     */
+    public static long toMinorUnits(double amount, int scale) {
+        if (!isRepresentable(amount, scale)) {
+            throw new IllegalArgumentException("金額超出可表示的範圍: " + amount);
+        }
+        return Math.round(amount * POWERS_OF_TEN[scale]);
+    }
+
+    /**
+     * 檢查金額能否以指定小數位數的最小單位表示。
+     * <p>
+     * 金額必須是有限值，且絕對值不超過 {@code Long.MAX_VALUE / 10^scale}
+     * (否則 {@link Math#round(double)} 會靜默地截斷為 {@code Long.MAX_VALUE})。
+     * </p>
+     *
+     * @param amount 金額
+     * @param scale  小數位數
+     * @return 是否可表示
+     */
+    public static boolean isRepresentable(double amount, int scale) {
+        return Double.isFinite(amount) && Math.abs(amount) <= (double) (Long.MAX_VALUE / POWERS_OF_TEN[scale]);
+    }
+
+    /**
+     * 依指定小數位數將最小單位數量轉換為金額。
+     *
+     * @param minorUnits 最小單位數量
+     * @param scale      小數位數
+     * @return 金額
+     */
+    public static double fromMinorUnits(long minorUnits, int scale) {
+        return (double) minorUnits / POWERS_OF_TEN[scale];
+    }
+
     /**
      * 格式化金額。
      *
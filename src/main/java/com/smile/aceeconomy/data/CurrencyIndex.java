@@ -0,0 +1,145 @@
+package com.smile.aceeconomy.data;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 貨幣序號註冊表。
+ * <p>
+ * 將貨幣 ID 對應到全域唯一、連續的整數序號，
+ * 讓 {@link Account} 能以陣列索引存放各貨幣餘額，避免逐次查詢雜湊表與裝箱。
+ * 序號一經分配即不會回收，因此任何執行緒取得的序號皆永久有效。
+ * </p>
+ * <p>
+ * 啟用定點數模式時，每種貨幣另外登記最小單位的小數位數 (scale)，
+ * {@link Account} 會以 long 最小單位數量存放該貨幣的餘額；未登記者維持 double。
+ * </p>
+ *
+ * @author Smile
+ */
+public final class CurrencyIndex {
+
+    private static final ConcurrentHashMap<String, Integer> ORDINALS = new ConcurrentHashMap<>();
+
+    /**
+     * 序號 -> 貨幣 ID (寫入時複製，讀取無需同步)
+     */
+    private static volatile String[] ids = new String[0];
+
+    /**
+     * 序號 -> 最小單位小數位數 (-1 表示使用 double)
+     */
+    private static volatile int[] scales = new int[0];
+
+    private CurrencyIndex() {
+    }
+
+    /**
+     * 取得貨幣的序號，若尚未註冊則分配新序號。
+     *
+     * @param currencyId 貨幣 ID
+     * @return 貨幣序號
+     */
+    public static int ordinalOf(String currencyId) {
+        Integer ordinal = ORDINALS.get(currencyId);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        return register(currencyId);
+    }
+
+    /**
+     * 查詢貨幣的序號，不會分配新序號。
+     *
+     * @param currencyId 貨幣 ID
+     * @return 貨幣序號，若尚未註冊則回傳 -1
+     */
+    public static int lookup(String currencyId) {
+        Integer ordinal = ORDINALS.get(currencyId);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * 取得序號對應的貨幣 ID。
+     *
+     * @param ordinal 貨幣序號
+     * @return 貨幣 ID
+     */
+    public static String idOf(int ordinal) {
+        return ids[ordinal];
+    }
+
+    /**
+     * 取得目前已註冊的貨幣數量。
+     *
+     * @return 貨幣數量
+     */
+    public static int size() {
+        return ids.length;
+    }
+
+    /**
+     * 取得序號對應貨幣的最小單位小數位數。
+     *
+     * @param ordinal 貨幣序號
+     * @return 小數位數，若未啟用定點數則回傳 -1
+     */
+    public static int scaleOf(int ordinal) {
+        return scales[ordinal];
+    }
+
+    /**
+     * 取得貨幣的最小單位小數位數。
+     *
+     * @param currencyId 貨幣 ID
+     * @return 小數位數，若未啟用定點數或貨幣未註冊則回傳 -1
+     */
+    public static int scaleOf(String currencyId) {
+        int ordinal = lookup(currencyId);
+        return ordinal < 0 ? -1 : scales[ordinal];
+    }
+
+    /**
+     * 為貨幣啟用定點數模式。
+     * <p>
+     * 必須在任何帳戶載入之前呼叫，因為既有帳戶的餘額格不會被轉換。
+     * 已登記的小數位數在執行期間不可變更。
+     * </p>
+     *
+     * @param currencyId 貨幣 ID
+     * @param scale      小數位數
+     * @return 是否登記成功 (已登記為不同小數位數時回傳 false)
+     */
+    public static synchronized boolean configureScale(String currencyId, int scale) {
+        int ordinal = ordinalOf(currencyId);
+        int[] current = scales;
+        if (current[ordinal] == scale) {
+            return true;
+        }
+        if (current[ordinal] >= 0) {
+            return false;
+        }
+        int[] next = current.clone();
+        next[ordinal] = scale;
+        scales = next;
+        return true;
+    }
+
+    private static synchronized int register(String currencyId) {
+        Integer existing = ORDINALS.get(currencyId);
+        if (existing != null) {
+            return existing;
+        }
+        String[] current = ids;
+        int ordinal = current.length;
+        String[] next = Arrays.copyOf(current, ordinal + 1);
+        next[ordinal] = currencyId;
+        int[] nextScales = Arrays.copyOf(scales, ordinal + 1);
+        nextScales[ordinal] = -1;
+        // 先發布陣列，再發布對應，確保取得序號者必能反查 ID 與小數位數
+        scales = nextScales;
+        ids = next;
+        ORDINALS.put(currencyId, ordinal);
+        return ordinal;
+    }
+}
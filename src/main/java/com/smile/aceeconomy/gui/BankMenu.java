@@ -104,7 +104,7 @@ public class BankMenu implements InventoryHolder {
 
                 // 2. Fetch History (Async Future)
                 CompletableFuture<List<LogManager.TransactionLog>> historyFuture = plugin.getCurrencyManager()
-                        .getLogManager().getHistory(uuid, 1, 3);
+                        .getLogManager().getHistory(uuid, null, 3).thenApply(LogManager.HistoryPage::logs);
 
                 historyFuture.thenAccept(history -> {
                     // Update GUI on Entity Thread
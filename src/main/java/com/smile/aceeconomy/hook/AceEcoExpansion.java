@@ -3,13 +3,24 @@ package com.smile.aceeconomy.hook;
 import com.smile.aceeconomy.AceEconomy;
 import com.smile.aceeconomy.manager.CurrencyManager;
 import com.smile.aceeconomy.manager.LeaderboardManager;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.DoubleFunction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -18,7 +29,12 @@ import java.util.regex.Pattern;
  * <p>
  * 提供 AceEconomy 的佔位符支援。
  * </p>
- * 
+ * <p>
+ * 計分板與全息圖每 tick 都可能輪詢佔位符，因此解析時不做任何 I/O 也不取得鎖：
+ * 佔位符字串只解析一次並快取為 {@link Resolver}；排行榜資料由背景工作定期產生不可變快照，
+ * 以 volatile 參照整批替換，名稱與格式化後的餘額皆已預先計算。
+ * </p>
+ *
  * 支援的佔位符:
  * - %aceeco_balance% - 預設貨幣餘額
  * - %aceeco_balance_formatted% - 格式化餘額
@@ -37,19 +53,22 @@ public class AceEcoExpansion extends PlaceholderExpansion {
     private final CurrencyManager currencyManager;
 
     /**
-     * 原始數值格式化器（兩位小數）
+     * 原始數值格式化器（兩位小數）。DecimalFormat 非執行緒安全，每個執行緒各持一份。
      */
-    private static final DecimalFormat RAW_FORMAT = new DecimalFormat("0.00");
+    private static final ThreadLocal<DecimalFormat> RAW_FORMAT = ThreadLocal
+            .withInitial(() -> new DecimalFormat("0.00"));
 
     /**
      * 完整格式化器（貨幣符號 + 千分位）
      */
-    private static final DecimalFormat FORMATTED = new DecimalFormat("$#,##0.00");
+    private static final ThreadLocal<DecimalFormat> FORMATTED = ThreadLocal
+            .withInitial(() -> new DecimalFormat("$#,##0.00"));
 
     /**
      * 千分位格式化器
      */
-    private static final DecimalFormat COMMAS_FORMAT = new DecimalFormat("#,##0");
+    private static final ThreadLocal<DecimalFormat> COMMAS_FORMAT = ThreadLocal
+            .withInitial(() -> new DecimalFormat("#,##0"));
 
     // 匹配 top_name_<rank> 或 top_name_<currency>_<rank>
     private static final Pattern TOP_NAME_PATTERN = Pattern.compile("top_name_(?:([a-zA-Z_]+)_)?(\\d+)");
@@ -58,6 +77,18 @@ public class AceEcoExpansion extends PlaceholderExpansion {
     // 匹配 balance_<currency> 或 balance_<currency>_formatted
     private static final Pattern BALANCE_CURRENCY_PATTERN = Pattern.compile("balance_([a-zA-Z_]+?)(?:_formatted)?$");
 
+    /**
+     * 解析器快取上限 (避免任意佔位符字串使快取無限成長)
+     */
+    private static final int MAX_CACHED_RESOLVERS = 1024;
+
+    // 佔位符字串 -> 解析器
+    private final Map<String, Resolver> resolvers = new ConcurrentHashMap<>();
+
+    private volatile Snapshot snapshot;
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private ScheduledTask refreshTask;
+
     /**
      * 建立 PlaceholderAPI 擴展。
      *
@@ -66,6 +97,70 @@ public class AceEcoExpansion extends PlaceholderExpansion {
     public AceEcoExpansion(AceEconomy plugin) {
         this.plugin = plugin;
         this.currencyManager = plugin.getCurrencyManager();
+        LeaderboardManager leaderboard = plugin.getLeaderboardManager();
+        this.snapshot = new Snapshot(leaderboard != null && leaderboard.isEnabled(),
+                currencyManager.getDefaultCurrencyId(), Map.of());
+    }
+
+    /**
+     * 啟動排行榜快照的背景更新工作。
+     */
+    public void start() {
+        long seconds = Math.max(1, plugin.getConfig().getLong("leaderboard.placeholder-refresh-seconds", 5));
+        refresh();
+        refreshTask = Bukkit.getAsyncScheduler().runAtFixedRate(plugin, task -> refresh(),
+                seconds, seconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 停止背景更新工作。
+     */
+    public void stop() {
+        if (refreshTask != null) {
+            refreshTask.cancel();
+            refreshTask = null;
+        }
+    }
+
+    /**
+     * 重新產生排行榜快照。
+     * <p>
+     * 完成後以新快照整批替換舊快照；同時間最多只有一個更新在進行。
+     * </p>
+     *
+     * @return 完成時的 Future
+     */
+    public CompletableFuture<Void> refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        String defaultCurrency = currencyManager.getDefaultCurrencyId();
+        LeaderboardManager leaderboard = plugin.getLeaderboardManager();
+        if (leaderboard == null || !leaderboard.isEnabled()) {
+            snapshot = new Snapshot(false, defaultCurrency, Map.of());
+            refreshing.set(false);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        List<String> currencyIds = new ArrayList<>(plugin.getConfigManager().getCurrencies().keySet());
+        List<CompletableFuture<List<LeaderboardManager.TopEntry>>> futures = new ArrayList<>(currencyIds.size());
+        for (String currencyId : currencyIds) {
+            futures.add(leaderboard.getTopAccounts(currencyId));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenRun(() -> {
+            Map<String, TopSnapshot> top = new HashMap<>();
+            for (int i = 0; i < currencyIds.size(); i++) {
+                top.put(currencyIds.get(i), TopSnapshot.of(futures.get(i).join()));
+            }
+            snapshot = new Snapshot(true, defaultCurrency, Map.copyOf(top));
+        }).whenComplete((ignored, error) -> {
+            refreshing.set(false);
+            if (error != null) {
+                plugin.getLogger().warning("更新佔位符排行榜快照失敗: " + error.getMessage());
+            }
+        });
     }
 
     @Override
@@ -91,85 +186,151 @@ public class AceEcoExpansion extends PlaceholderExpansion {
 
     @Override
     public @Nullable String onRequest(OfflinePlayer player, @NotNull String params) {
-        String lowParams = params.toLowerCase();
+        Resolver resolver = resolvers.get(params);
+        if (resolver == null) {
+            resolver = parse(params.toLowerCase(Locale.ROOT));
+            if (resolvers.size() < MAX_CACHED_RESOLVERS) {
+                resolvers.putIfAbsent(params, resolver);
+            }
+        }
+        return resolver.resolve(player);
+    }
 
+    /**
+     * 將佔位符字串解析為解析器 (每個字串只會解析一次)。
+     *
+     * @param key 小寫的佔位符字串
+     * @return 解析器
+     */
+    private Resolver parse(String key) {
         // 預設貨幣餘額類佔位符
-        if (player != null) {
-            String defaultCurrency = currencyManager.getDefaultCurrencyId();
-            double balance = currencyManager.getBalance(player.getUniqueId(), defaultCurrency);
-
-            switch (lowParams) {
-                case "balance" -> {
-                    return RAW_FORMAT.format(balance);
-                }
-                case "balance_formatted" -> {
-                    return FORMATTED.format(balance);
-                }
-                case "balance_commas" -> {
-                    return COMMAS_FORMAT.format(balance);
-                }
-                case "balance_int" -> {
-                    return String.valueOf((long) balance);
-                }
+        switch (key) {
+            case "balance" -> {
+                return balanceResolver(null, value -> RAW_FORMAT.get().format(value));
             }
-
-            // 檢查是否是指定貨幣餘額: balance_<currency> 或 balance_<currency>_formatted
-            if (lowParams.startsWith("balance_") && !lowParams.equals("balance_formatted")
-                    && !lowParams.equals("balance_commas") && !lowParams.equals("balance_int")) {
-                Matcher m = BALANCE_CURRENCY_PATTERN.matcher(lowParams);
-                if (m.matches()) {
-                    String currencyId = m.group(1);
-                    if (currencyManager.currencyExists(currencyId)) {
-                        double currencyBalance = currencyManager.getBalance(player.getUniqueId(), currencyId);
-                        if (lowParams.endsWith("_formatted")) {
-                            return FORMATTED.format(currencyBalance);
-                        }
-                        return RAW_FORMAT.format(currencyBalance);
-                    }
-                }
+            case "balance_formatted" -> {
+                return balanceResolver(null, value -> FORMATTED.get().format(value));
+            }
+            case "balance_commas" -> {
+                return balanceResolver(null, value -> COMMAS_FORMAT.get().format(value));
+            }
+            case "balance_int" -> {
+                return balanceResolver(null, value -> String.valueOf((long) value));
             }
         }
 
-        // 排行榜佔位符 (不需要玩家)
-        LeaderboardManager leaderboard = plugin.getLeaderboardManager();
-        if (leaderboard == null || !leaderboard.isEnabled()) {
-            return "N/A";
+        // 指定貨幣餘額: balance_<currency> 或 balance_<currency>_formatted
+        if (key.startsWith("balance_")) {
+            Matcher m = BALANCE_CURRENCY_PATTERN.matcher(key);
+            if (m.matches()) {
+                if (key.endsWith("_formatted")) {
+                    return balanceResolver(m.group(1), value -> FORMATTED.get().format(value));
+                }
+                return balanceResolver(m.group(1), value -> RAW_FORMAT.get().format(value));
+            }
         }
 
-        String defaultCurrency = currencyManager.getDefaultCurrencyId();
-
         // top_name_<rank> 或 top_name_<currency>_<rank>
-        Matcher nameMatcher = TOP_NAME_PATTERN.matcher(lowParams);
+        Matcher nameMatcher = TOP_NAME_PATTERN.matcher(key);
         if (nameMatcher.matches()) {
-            String currencyId = nameMatcher.group(1) != null ? nameMatcher.group(1) : defaultCurrency;
-            int rank = Integer.parseInt(nameMatcher.group(2));
-            return getTopName(leaderboard, currencyId, rank);
+            return topResolver(nameMatcher.group(1), parseRank(nameMatcher.group(2)), true);
         }
 
         // top_balance_<rank> 或 top_balance_<currency>_<rank>
-        Matcher balMatcher = TOP_BALANCE_PATTERN.matcher(lowParams);
+        Matcher balMatcher = TOP_BALANCE_PATTERN.matcher(key);
         if (balMatcher.matches()) {
-            String currencyId = balMatcher.group(1) != null ? balMatcher.group(1) : defaultCurrency;
-            int rank = Integer.parseInt(balMatcher.group(2));
-            return getTopBalance(leaderboard, currencyId, rank);
+            return topResolver(balMatcher.group(1), parseRank(balMatcher.group(2)), false);
         }
 
-        return null;
+        return player -> noMatch();
+    }
+
+    /**
+     * 建立餘額解析器 (直接讀取記憶體中的帳戶，不需取得鎖)。
+     *
+     * @param currencyId 貨幣 ID，null 表示預設貨幣
+     * @param formatter  格式化方式
+     * @return 解析器
+     */
+    private Resolver balanceResolver(String currencyId, DoubleFunction<String> formatter) {
+        return player -> {
+            if (player == null) {
+                return noMatch();
+            }
+            String id = currencyId != null ? currencyId : currencyManager.getDefaultCurrencyId();
+            if (!currencyManager.currencyExists(id)) {
+                return noMatch();
+            }
+            return formatter.apply(currencyManager.getBalance(player.getUniqueId(), id));
+        };
+    }
+
+    /**
+     * 建立排行榜解析器 (只讀取目前的快照)。
+     *
+     * @param currencyId 貨幣 ID，null 表示預設貨幣
+     * @param rank       名次
+     * @param name       true 回傳玩家名稱，false 回傳格式化餘額
+     * @return 解析器
+     */
+    private Resolver topResolver(String currencyId, int rank, boolean name) {
+        return player -> {
+            Snapshot current = snapshot;
+            if (!current.enabled()) {
+                return "N/A";
+            }
+            TopSnapshot top = current.top().get(currencyId != null ? currencyId : current.defaultCurrency());
+            if (top == null || rank < 1 || rank > top.names().size()) {
+                return name ? "---" : "0";
+            }
+            return name ? top.names().get(rank - 1) : top.balances().get(rank - 1);
+        };
     }
 
-    private String getTopName(LeaderboardManager leaderboard, String currencyId, int rank) {
-        List<LeaderboardManager.TopEntry> entries = leaderboard.getTopAccounts(currencyId).join();
-        if (rank < 1 || rank > entries.size()) {
-            return "---";
+    /**
+     * 無對應佔位符時的回傳值 (排行榜停用時回傳 N/A)。
+     */
+    private String noMatch() {
+        return snapshot.enabled() ? null : "N/A";
+    }
+
+    private static int parseRank(String digits) {
+        try {
+            return Integer.parseInt(digits);
+        } catch (NumberFormatException e) {
+            return -1;
         }
-        return entries.get(rank - 1).name();
     }
 
-    private String getTopBalance(LeaderboardManager leaderboard, String currencyId, int rank) {
-        List<LeaderboardManager.TopEntry> entries = leaderboard.getTopAccounts(currencyId).join();
-        if (rank < 1 || rank > entries.size()) {
-            return "0";
+    /**
+     * 已解析的佔位符。
+     */
+    @FunctionalInterface
+    private interface Resolver {
+        @Nullable
+        String resolve(@Nullable OfflinePlayer player);
+    }
+
+    /**
+     * 排行榜快照 (不可變)。
+     */
+    private record Snapshot(boolean enabled, String defaultCurrency, Map<String, TopSnapshot> top) {
+    }
+
+    /**
+     * 單一貨幣的排行榜快照，餘額已預先格式化。
+     */
+    private record TopSnapshot(List<String> names, List<String> balances) {
+
+        private static TopSnapshot of(List<LeaderboardManager.TopEntry> entries) {
+            List<String> names = new ArrayList<>(entries.size());
+            List<String> balances = new ArrayList<>(entries.size());
+            DecimalFormat format = FORMATTED.get();
+            for (LeaderboardManager.TopEntry entry : entries) {
+                names.add(entry.name() != null ? entry.name() : "---");
+                balances.add(format.format(entry.balance()));
+            }
+            return new TopSnapshot(List.copyOf(names), List.copyOf(balances));
         }
-        return FORMATTED.format(entries.get(rank - 1).balance());
     }
 }
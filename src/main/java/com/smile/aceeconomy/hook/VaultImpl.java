@@ -2,20 +2,29 @@ package com.smile.aceeconomy.hook;
 
 import com.smile.aceeconomy.AceEconomy;
 import com.smile.aceeconomy.api.EconomyProvider;
+import com.smile.aceeconomy.api.EconomyTransactionEvent;
 import com.smile.aceeconomy.manager.CurrencyManager;
 import net.milkbowl.vault.economy.Economy;
 import net.milkbowl.vault.economy.EconomyResponse;
+import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Vault 經濟介面實作。
  * <p>
  * 將 Vault 的同步方法映射至 {@link CurrencyManager} 的記憶體快取。
  * 由於快取是即時的，大部分操作可同步完成。
- * 對於離線玩家（未在快取中），會回傳適當的錯誤回應。
+ * 離線玩家的存款與提款會經由離線帳戶快取載入帳戶後執行 (例如拍賣場付款給離線賣家)。
+ * </p>
+ * <p>
+ * Vault 是呼叫量最大的入口 (商店、工作、技能獎勵)，且多半在主執行緒或區域執行緒上呼叫。
+ * 啟用快速路徑時，線上玩家的存提款直接在呼叫執行緒上對記憶體帳戶執行 CAS 操作，
+ * 不切換執行緒也不等待；交易事件改為事後非同步通知 (無法取消)，
+ * 交易紀錄本來就只是放入日誌佇列，由背景執行緒寫入。
  * </p>
  *
  * @author Smile
@@ -56,6 +65,10 @@ public class VaultImpl implements Economy {
 
     @Override
     public int fractionalDigits() {
+        // 定點數模式下回報實際的最小單位，讓商店插件在送出前先行取整
+        if (plugin.getConfigManager().isFixedPointEnabled()) {
+            return plugin.getConfigManager().getDefaultCurrency().scale();
+        }
         return 2;
     }
 
@@ -145,12 +158,15 @@ public class VaultImpl implements Economy {
         if (amount < 0) {
             return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, "金額不能為負數");
         }
+        if (!Double.isFinite(amount)) {
+            return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, "無效的金額");
+        }
 
-        if (!currencyManager.hasAccount(player.getUniqueId())) {
-            return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, "帳戶未載入（玩家離線）");
+        if (isFastPath(player.getUniqueId())) {
+            return withdrawNow(player.getUniqueId(), amount);
         }
 
-        // 使用 EconomyProvider 進行操作（同步等待結果）
+        // 使用 EconomyProvider 進行操作（同步等待結果，離線玩家會先載入帳戶）
         boolean success;
         String errorMessage = "餘額不足或交易被取消";
         try {
@@ -166,7 +182,7 @@ public class VaultImpl implements Economy {
             }
         }
 
-        double balance = currencyManager.getBalance(player.getUniqueId());
+        double balance = balanceAfter(player);
         if (success) {
             return new EconomyResponse(amount, balance, EconomyResponse.ResponseType.SUCCESS, null);
         } else {
@@ -194,19 +210,113 @@ public class VaultImpl implements Economy {
         if (amount < 0) {
             return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, "金額不能為負數");
         }
+        if (!Double.isFinite(amount)) {
+            return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, "無效的金額");
+        }
 
-        if (!currencyManager.hasAccount(player.getUniqueId())) {
-            return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, "帳戶未載入（玩家離線）");
+        if (isFastPath(player.getUniqueId())) {
+            return depositNow(player.getUniqueId(), amount);
         }
 
-        // 使用 EconomyProvider 進行操作（同步等待結果）
-        boolean success = economyProvider.deposit(player.getUniqueId(), amount).join();
+        // 使用 EconomyProvider 進行操作（同步等待結果，離線玩家會先載入帳戶）
+        boolean success;
+        String errorMessage = "交易被取消或帳戶不存在";
+        try {
+            success = economyProvider.deposit(player.getUniqueId(), amount).join();
+        } catch (Exception e) {
+            success = false;
+            Throwable cause = e.getCause();
+            errorMessage = cause != null ? cause.getMessage() : e.getMessage();
+        }
 
-        double balance = currencyManager.getBalance(player.getUniqueId());
+        double balance = balanceAfter(player);
         if (success) {
             return new EconomyResponse(amount, balance, EconomyResponse.ResponseType.SUCCESS, null);
         } else {
-            return new EconomyResponse(0, balance, EconomyResponse.ResponseType.FAILURE, "交易被取消");
+            return new EconomyResponse(0, balance, EconomyResponse.ResponseType.FAILURE, errorMessage);
+        }
+    }
+
+    /**
+     * 是否可走快速路徑 (已啟用且玩家帳戶在線上快取中)。
+     */
+    private boolean isFastPath(UUID uuid) {
+        return plugin.getConfigManager().isVaultFastPath() && currencyManager.getAccount(uuid) != null;
+    }
+
+    /**
+     * 在呼叫執行緒上直接提款，交易事件事後非同步通知。
+     */
+    private EconomyResponse withdrawNow(UUID uuid, double amount) {
+        double balanceBefore = currencyManager.getBalance(uuid);
+        boolean success;
+        String errorMessage = "餘額不足";
+        try {
+            success = currencyManager.withdraw(uuid, amount);
+        } catch (RuntimeException e) {
+            // 餘額不足 (InsufficientFundsException) 或貨幣無效
+            success = false;
+            errorMessage = e.getMessage();
+        }
+
+        if (!success) {
+            return new EconomyResponse(0, currencyManager.getBalance(uuid), EconomyResponse.ResponseType.FAILURE,
+                    errorMessage);
+        }
+        fireDeferred(uuid, amount, EconomyTransactionEvent.TransactionType.WITHDRAW, balanceBefore);
+        return new EconomyResponse(amount, currencyManager.getBalance(uuid), EconomyResponse.ResponseType.SUCCESS,
+                null);
+    }
+
+    /**
+     * 在呼叫執行緒上直接存款，交易事件事後非同步通知。
+     */
+    private EconomyResponse depositNow(UUID uuid, double amount) {
+        double balanceBefore = currencyManager.getBalance(uuid);
+        boolean success;
+        String errorMessage = "金額無效";
+        try {
+            success = currencyManager.deposit(uuid, amount);
+        } catch (RuntimeException e) {
+            success = false;
+            errorMessage = e.getMessage();
+        }
+
+        if (!success) {
+            return new EconomyResponse(0, currencyManager.getBalance(uuid), EconomyResponse.ResponseType.FAILURE,
+                    errorMessage);
+        }
+        fireDeferred(uuid, amount, EconomyTransactionEvent.TransactionType.DEPOSIT, balanceBefore);
+        return new EconomyResponse(amount, currencyManager.getBalance(uuid), EconomyResponse.ResponseType.SUCCESS,
+                null);
+    }
+
+    /**
+     * 以非同步排程觸發事後交易事件；沒有監聽器時不建立事件。
+     */
+    private void fireDeferred(UUID uuid, double amount, EconomyTransactionEvent.TransactionType type,
+            double balanceBefore) {
+        if (EconomyTransactionEvent.getHandlerList().getRegisteredListeners().length == 0 || !plugin.isEnabled()) {
+            return;
+        }
+        EconomyTransactionEvent event = new EconomyTransactionEvent(uuid, amount, type, balanceBefore, true);
+        Bukkit.getAsyncScheduler().runNow(plugin, task -> Bukkit.getPluginManager().callEvent(event));
+    }
+
+    /**
+     * 取得操作後的餘額 (離線玩家的帳戶在操作結束後可能已離開快取，需重新查詢)。
+     *
+     * @param player 玩家
+     * @return 餘額
+     */
+    private double balanceAfter(OfflinePlayer player) {
+        if (currencyManager.hasAccount(player.getUniqueId())) {
+            return currencyManager.getBalance(player.getUniqueId());
+        }
+        try {
+            return economyProvider.getBalance(player.getUniqueId()).join();
+        } catch (Exception e) {
+            return 0.0;
         }
     }
 
@@ -64,7 +64,7 @@ public class BanknoteInputListener implements Listener {
         double amount;
         try {
             amount = Double.parseDouble(rawMessage);
-            if (amount <= 0) {
+            if (!Double.isFinite(amount) || amount <= 0) {
                 plugin.getMessageManager().send(player, "gui.input-invalid");
                 return;
             }
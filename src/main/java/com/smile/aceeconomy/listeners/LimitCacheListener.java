@@ -0,0 +1,77 @@
+package com.smile.aceeconomy.listeners;
+
+import com.smile.aceeconomy.AceEconomy;
+import com.smile.aceeconomy.manager.LimitCache;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * 玩家限制快取監聽器。
+ * <p>
+ * 玩家加入與切換世界時 (權限 meta 可能依世界而不同) 非同步重新解析限制，
+ * 離線時移除快取項目。
+ * </p>
+ *
+ * @author Smile
+ */
+public class LimitCacheListener implements Listener {
+
+    private final AceEconomy plugin;
+    private final LimitCache limitCache;
+
+    /**
+     * 建立玩家限制快取監聽器。
+     *
+     * @param plugin     插件實例
+     * @param limitCache 玩家限制快取
+     */
+    public LimitCacheListener(AceEconomy plugin, LimitCache limitCache) {
+        this.plugin = plugin;
+        this.limitCache = limitCache;
+    }
+
+    /**
+     * 處理玩家加入事件。
+     *
+     * @param event 玩家加入事件
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        refreshAsync(event.getPlayer());
+    }
+
+    /**
+     * 處理玩家切換世界事件。
+     *
+     * @param event 切換世界事件
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        refreshAsync(event.getPlayer());
+    }
+
+    /**
+     * 處理玩家離線事件。
+     *
+     * @param event 離線事件
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        limitCache.invalidate(event.getPlayer().getUniqueId());
+    }
+
+    private void refreshAsync(Player player) {
+        Bukkit.getAsyncScheduler().runNow(plugin, task -> {
+            // 解析期間玩家可能已離線，避免留下過期項目
+            if (player.isOnline()) {
+                limitCache.refresh(player);
+            }
+        });
+    }
+}
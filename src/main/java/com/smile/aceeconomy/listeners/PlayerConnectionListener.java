@@ -1,16 +1,19 @@
 package com.smile.aceeconomy.listeners;
 
+import com.smile.aceeconomy.manager.CompletionIndex;
 import com.smile.aceeconomy.manager.UserCacheManager;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 
 /**
  * 玩家連線監聽器。
  * <p>
- * 在玩家加入伺服器時，非同步更新玩家名稱快取。
+ * 在玩家加入伺服器時，非同步更新玩家名稱快取，
+ * 並在加入與離開時維護指令補全的線上玩家索引。
  * </p>
  *
  * @author Smile
@@ -18,14 +21,17 @@ import org.bukkit.event.player.PlayerJoinEvent;
 public class PlayerConnectionListener implements Listener {
 
     private final UserCacheManager userCacheManager;
+    private final CompletionIndex completionIndex;
 
     /**
      * 建立玩家連線監聽器。
      *
-     * @param userCacheManager 玩家名稱快取管理器
+     * @param userCacheManager 玩家名稱快取管理器 (可為 null，未使用 SQL 儲存時)
+     * @param completionIndex  指令補全索引
      */
-    public PlayerConnectionListener(UserCacheManager userCacheManager) {
+    public PlayerConnectionListener(UserCacheManager userCacheManager, CompletionIndex completionIndex) {
         this.userCacheManager = userCacheManager;
+        this.completionIndex = completionIndex;
     }
 
     /**
@@ -40,6 +46,19 @@ public class PlayerConnectionListener implements Listener {
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
-        userCacheManager.updateCache(player.getUniqueId(), player.getName());
+        completionIndex.addOnlinePlayer(player.getName());
+        if (userCacheManager != null) {
+            userCacheManager.updateCache(player.getUniqueId(), player.getName());
+        }
+    }
+
+    /**
+     * 處理玩家離開事件。
+     *
+     * @param event 玩家離開事件
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        completionIndex.removeOnlinePlayer(event.getPlayer().getName());
     }
 }
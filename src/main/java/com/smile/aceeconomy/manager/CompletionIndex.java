@@ -0,0 +1,126 @@
+package com.smile.aceeconomy.manager;
+
+import com.smile.aceeconomy.utils.PrefixTrie;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 指令補全索引。
+ * <p>
+ * 由各指令共用的補全資料：線上玩家名稱由 {@link com.smile.aceeconomy.listeners.PlayerConnectionListener}
+ * 在玩家加入與離開時增量維護，貨幣 ID 在啟動與重載時重建，
+ * 離線玩家名稱則取自 {@link UserCacheManager} 的名稱索引。
+ * 補全結果皆已排序且有數量上限，每次按鍵不必再走訪所有線上玩家或建立完整清單。
+ * </p>
+ *
+ * @author Smile
+ */
+public class CompletionIndex {
+
+    /**
+     * 每次補全最多回傳的筆數
+     */
+    public static final int MAX_RESULTS = 50;
+
+    private final PrefixTrie onlinePlayers = new PrefixTrie(MAX_RESULTS);
+    private final PrefixTrie currencies = new PrefixTrie(MAX_RESULTS);
+    private final UserCacheManager userCacheManager;
+
+    /**
+     * 建立指令補全索引。
+     *
+     * @param userCacheManager 玩家名稱快取管理器 (可為 null，表示不補全離線玩家)
+     */
+    public CompletionIndex(UserCacheManager userCacheManager) {
+        this.userCacheManager = userCacheManager;
+    }
+
+    /**
+     * 記錄上線的玩家。
+     *
+     * @param name 玩家名稱
+     */
+    public void addOnlinePlayer(String name) {
+        onlinePlayers.add(name);
+    }
+
+    /**
+     * 移除離線的玩家。
+     *
+     * @param name 玩家名稱
+     */
+    public void removeOnlinePlayer(String name) {
+        onlinePlayers.remove(name);
+    }
+
+    /**
+     * 以目前的貨幣設定重建貨幣 ID 補全。
+     *
+     * @param currencyIds 貨幣 ID 集合
+     */
+    public void refreshCurrencies(Collection<String> currencyIds) {
+        currencies.replaceAll(currencyIds);
+    }
+
+    /**
+     * 補全線上玩家名稱。
+     *
+     * @param prefix 名稱前綴
+     * @return 依字母排序的不可變清單
+     */
+    public List<String> completeOnlinePlayers(String prefix) {
+        return onlinePlayers.complete(prefix);
+    }
+
+    /**
+     * 補全玩家名稱：先列出線上玩家，輸入至少一個字元後再補上名稱索引中的離線玩家。
+     *
+     * @param prefix  名稱前綴
+     * @param exclude 要排除的名稱 (例如指令發送者自己，可為 null)
+     * @return 補全清單
+     */
+    public List<String> completePlayers(String prefix, String exclude) {
+        List<String> online = onlinePlayers.complete(prefix);
+        boolean withOffline = userCacheManager != null && !prefix.isEmpty() && online.size() < MAX_RESULTS;
+        if (exclude == null && !withOffline) {
+            return online;
+        }
+
+        List<String> completions = new ArrayList<>(online.size() + (withOffline ? 8 : 0));
+        for (String name : online) {
+            if (!name.equalsIgnoreCase(exclude)) {
+                completions.add(name);
+            }
+        }
+        if (withOffline) {
+            List<String> offline = userCacheManager.completeNames(prefix, MAX_RESULTS - online.size());
+            for (String name : offline) {
+                if (!name.equalsIgnoreCase(exclude) && !containsIgnoreCase(online, name)) {
+                    completions.add(name);
+                }
+            }
+        }
+        return completions;
+    }
+
+    /**
+     * 補全貨幣 ID。
+     *
+     * @param prefix 貨幣 ID 前綴
+     * @return 依字母排序的不可變清單
+     */
+    public List<String> completeCurrencies(String prefix) {
+        return currencies.complete(prefix);
+    }
+
+    private static boolean containsIgnoreCase(List<String> names, String name) {
+        for (String candidate : names) {
+            if (candidate.equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
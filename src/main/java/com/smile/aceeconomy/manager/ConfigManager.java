@@ -42,6 +42,44 @@ public class ConfigManager {
     private long maxLifetime;
     private boolean mysqlSsl;
 
+    // SQLite 連線設定 (僅於啟動時套用)
+    private int sqliteReaderPoolSize;
+    private long sqliteMmapSize;
+
+    // 儲存執行器設定 (僅於啟動時套用)
+    private String storageExecutorType;
+    private int storageExecutorMaxConcurrency;
+    private long loginBatchWindow;
+    private int loginBatchMaxSize;
+    private int offlineCacheMaxSize;
+    private long offlineCacheTtl;
+    private int nameCacheMaxSize;
+    private int migrationBatchSize;
+    private int migrationQueueCapacity;
+    private int importWorkers;
+    private String cmiDatabase;
+
+    // Segment 儲存設定
+    private long segmentSizeBytes;
+    private long segmentCommitIntervalMillis;
+    private double segmentCompactionThreshold;
+
+    // 延遲寫入設定
+    private boolean writeBehindEnabled;
+    private long writeBehindFlushInterval;
+    private int writeBehindFlushThreshold;
+    private int writeBehindBatchSize;
+
+    // 定點數模式 (僅於啟動時套用)
+    private boolean fixedPointEnabled;
+    private boolean fixedPointApplied;
+
+    // 交易日誌佇列設定
+    private int journalQueueCapacity;
+    private long journalFlushLatency;
+    private int journalMaxBatchSize;
+    private String journalOverflowPolicy;
+
     private final Map<String, Currency> currencies = new java.util.HashMap<>();
     private Currency defaultCurrency;
 
@@ -60,6 +98,8 @@ public class ConfigManager {
     // 經濟系統設定
     private boolean allowNegativeBalance;
     private double defaultDebtLimit;
+    private boolean vaultFastPath;
+    private long limitRefreshInterval;
 
     /**
      * 建立設定檔管理器。
@@ -277,9 +317,51 @@ public class ConfigManager {
         mysqlPassword = config.getString("storage.mysql.password", "password");
         poolSize = config.getInt("storage.pool-size", 10);
         maxLifetime = config.getLong("storage.max-lifetime", 1800000L);
+        sqliteReaderPoolSize = config.getInt("storage.sqlite.reader-pool-size", 0);
+        sqliteMmapSize = config.getLong("storage.sqlite.mmap-size", 268435456L);
+        storageExecutorType = config.getString("storage.executor.type", "virtual");
+        int maxConcurrency = config.getInt("storage.executor.max-concurrency", 0);
+        storageExecutorMaxConcurrency = maxConcurrency > 0 ? maxConcurrency : Math.max(1, poolSize);
+        loginBatchWindow = config.getLong("storage.login-batch.window-ms", 5L);
+        loginBatchMaxSize = config.getInt("storage.login-batch.max-size", 256);
+        offlineCacheMaxSize = config.getInt("storage.offline-cache.max-size", 1000);
+        offlineCacheTtl = config.getLong("storage.offline-cache.ttl-seconds", 300L);
+        nameCacheMaxSize = config.getInt("storage.name-cache.max-size", 10000);
+        migrationBatchSize = Math.max(1, config.getInt("storage.migration.batch-size", 1000));
+        migrationQueueCapacity = Math.max(1, config.getInt("storage.migration.queue-capacity", 8));
+        int workers = config.getInt("storage.migration.import-workers", 0);
+        importWorkers = workers > 0 ? workers : Math.max(2, Runtime.getRuntime().availableProcessors());
+        cmiDatabase = config.getString("storage.migration.cmi-database", "plugins/CMI/cmi.sqlite.db");
+
+        // Segment 儲存設定
+        segmentSizeBytes = Math.max(1, config.getLong("storage.segment.segment-size-mb", 64)) * 1024L * 1024L;
+        segmentCommitIntervalMillis = Math.max(0, config.getLong("storage.segment.commit-interval-ms", 2));
+        segmentCompactionThreshold = Math.min(1.0,
+                Math.max(0.1, config.getDouble("storage.segment.compaction-threshold", 0.5)));
+
+        // 延遲寫入設定
+        writeBehindEnabled = config.getBoolean("storage.write-behind.enabled", true);
+        writeBehindFlushInterval = config.getLong("storage.write-behind.flush-interval-ms", 5000L);
+        writeBehindFlushThreshold = config.getInt("storage.write-behind.flush-threshold", 500);
+        writeBehindBatchSize = config.getInt("storage.write-behind.batch-size", 200);
+
+        // 交易日誌佇列設定
+        journalQueueCapacity = config.getInt("logging.journal.queue-capacity", 8192);
+        journalFlushLatency = config.getLong("logging.journal.flush-latency-ms", 50L);
+        journalMaxBatchSize = config.getInt("logging.journal.max-batch-size", 500);
+        journalOverflowPolicy = config.getString("logging.journal.overflow-policy", "spill");
+
+        // 定點數模式：帳戶餘額格的解讀方式在執行期間不可變更，重載時僅提示
+        boolean fixedPoint = config.getBoolean("storage.fixed-point.enabled", false);
+        if (!fixedPointApplied) {
+            fixedPointEnabled = fixedPoint;
+        } else if (fixedPoint != fixedPointEnabled) {
+            plugin.getLogger().warning("storage.fixed-point.enabled 的變更需重新啟動伺服器才會生效");
+        }
 
         // 貨幣設定
         loadCurrencies();
+        applyFixedPointScales();
 
         // 起始餘額
         startBalance = config.getDouble("start-balance", 1000.0);
@@ -301,6 +383,8 @@ public class ConfigManager {
         // 經濟系統設定
         allowNegativeBalance = config.getBoolean("economy.allow-negative-balance", true);
         defaultDebtLimit = config.getDouble("economy.default-debt-limit", 0.0);
+        vaultFastPath = config.getBoolean("economy.vault-fast-path", true);
+        limitRefreshInterval = config.getLong("economy.limit-refresh-seconds", 60L);
     }
 
     // ==================== 資料庫設定 ====================
@@ -308,7 +392,7 @@ public class ConfigManager {
     /**
      * 取得資料庫類型。
      *
-     * @return "sqlite" 或 "mysql"
+     * @return "sqlite"、"mysql"、"segment" 或 "json"
      */
     public String getDatabaseType() {
         return databaseType;
@@ -380,6 +464,276 @@ public class ConfigManager {
         return mysqlSsl;
     }
 
+    // ==================== SQLite 設定 ====================
+
+    /**
+     * 取得 SQLite 唯讀連線池大小。
+     *
+     * @return 連線數，0 表示依 CPU 核心數自動決定
+     */
+    public int getSQLiteReaderPoolSize() {
+        return sqliteReaderPoolSize;
+    }
+
+    /**
+     * 取得 SQLite 記憶體映射 (mmap) 大小。
+     *
+     * @return 大小 (bytes)，0 表示停用
+     */
+    public long getSQLiteMmapSize() {
+        return sqliteMmapSize;
+    }
+
+    // ==================== 儲存執行器設定 ====================
+
+    /**
+     * 取得儲存執行器類型。
+     *
+     * @return "virtual" 或 "platform"
+     */
+    public String getStorageExecutorType() {
+        return storageExecutorType;
+    }
+
+    /**
+     * 取得儲存執行器的最大同時執行工作數 (未設定時與連線池大小相同)。
+     *
+     * @return 最大同時執行工作數
+     */
+    public int getStorageExecutorMaxConcurrency() {
+        return storageExecutorMaxConcurrency;
+    }
+
+    // ==================== 登入批次載入設定 ====================
+
+    /**
+     * 取得登入帳戶載入的收集窗口。
+     *
+     * @return 窗口 (毫秒)，0 表示不合併
+     */
+    public long getLoginBatchWindow() {
+        return loginBatchWindow;
+    }
+
+    /**
+     * 取得每批次最多載入的帳戶數。
+     *
+     * @return 帳戶數
+     */
+    public int getLoginBatchMaxSize() {
+        return loginBatchMaxSize;
+    }
+
+    // ==================== 離線帳戶快取設定 ====================
+
+    /**
+     * 取得離線帳戶快取的容量上限。
+     *
+     * @return 帳戶數，0 表示停用
+     */
+    public int getOfflineCacheMaxSize() {
+        return offlineCacheMaxSize;
+    }
+
+    /**
+     * 取得離線帳戶未被存取多久後過期。
+     *
+     * @return 秒數
+     */
+    public long getOfflineCacheTtl() {
+        return offlineCacheTtl;
+    }
+
+    // ==================== 玩家名稱索引設定 ====================
+
+    /**
+     * 取得玩家名稱索引的容量上限 (啟動時預熱相同數量的最近上線玩家)。
+     *
+     * @return 玩家數
+     */
+    public int getNameCacheMaxSize() {
+        return nameCacheMaxSize;
+    }
+
+    // ==================== 資料遷移設定 ====================
+
+    /**
+     * 取得儲存遷移每次讀取與提交的筆數。
+     *
+     * @return 筆數
+     */
+    public int getMigrationBatchSize() {
+        return migrationBatchSize;
+    }
+
+    /**
+     * 取得儲存遷移讀取端可預先讀取的批次數 (讀寫之間的佇列容量)。
+     *
+     * @return 批次數
+     */
+    public int getMigrationQueueCapacity() {
+        return migrationQueueCapacity;
+    }
+
+    /**
+     * 取得匯入其他插件資料時的檔案解析執行緒數。
+     *
+     * @return 執行緒數
+     */
+    public int getImportWorkers() {
+        return importWorkers;
+    }
+
+    /**
+     * 取得 CMI SQLite 資料庫檔案路徑 (匯入 CMI 資料時優先讀取)。
+     *
+     * @return 資料庫檔案路徑
+     */
+    public String getCmiDatabase() {
+        return cmiDatabase;
+    }
+
+    // ==================== Segment 儲存設定 ====================
+
+    /**
+     * 取得單一 segment 檔案的大小上限。
+     *
+     * @return 位元組數
+     */
+    public long getSegmentSizeBytes() {
+        return segmentSizeBytes;
+    }
+
+    /**
+     * 取得群組提交時等待合併更多寫入的時間。
+     *
+     * @return 毫秒數
+     */
+    public long getSegmentCommitIntervalMillis() {
+        return segmentCommitIntervalMillis;
+    }
+
+    /**
+     * 取得觸發壓縮的過期記錄比例。
+     *
+     * @return 比例 (0.1 - 1.0)
+     */
+    public double getSegmentCompactionThreshold() {
+        return segmentCompactionThreshold;
+    }
+
+    // ==================== 延遲寫入設定 ====================
+
+    /**
+     * 是否啟用延遲寫入。
+     *
+     * @return 是否啟用
+     */
+    public boolean isWriteBehindEnabled() {
+        return writeBehindEnabled;
+    }
+
+    /**
+     * 取得延遲寫入刷新間隔 (即最大資料遺失時間窗口)。
+     *
+     * @return 刷新間隔 (毫秒)
+     */
+    public long getWriteBehindFlushInterval() {
+        return writeBehindFlushInterval;
+    }
+
+    /**
+     * 取得觸發立即刷新的髒帳戶數量門檻。
+     *
+     * @return 髒帳戶數量門檻
+     */
+    public int getWriteBehindFlushThreshold() {
+        return writeBehindFlushThreshold;
+    }
+
+    /**
+     * 取得每批次寫入的帳戶數量上限。
+     *
+     * @return 批次大小
+     */
+    public int getWriteBehindBatchSize() {
+        return writeBehindBatchSize;
+    }
+
+    // ==================== 定點數設定 ====================
+
+    /**
+     * 是否以最小單位 (long) 儲存餘額。
+     *
+     * @return 是否啟用定點數模式
+     */
+    public boolean isFixedPointEnabled() {
+        return fixedPointEnabled;
+    }
+
+    // ==================== 交易日誌設定 ====================
+
+    /**
+     * 取得交易日誌佇列容量。
+     *
+     * @return 佇列容量
+     */
+    public int getJournalQueueCapacity() {
+        return journalQueueCapacity;
+    }
+
+    /**
+     * 取得交易日誌最大刷新延遲。
+     *
+     * @return 刷新延遲 (毫秒)
+     */
+    public long getJournalFlushLatency() {
+        return journalFlushLatency;
+    }
+
+    /**
+     * 取得交易日誌每批次最大筆數。
+     *
+     * @return 批次大小
+     */
+    public int getJournalMaxBatchSize() {
+        return journalMaxBatchSize;
+    }
+
+    /**
+     * 取得交易日誌佇列滿載時的溢出策略。
+     *
+     * @return "block"、"spill" 或 "drop"
+     */
+    public String getJournalOverflowPolicy() {
+        return journalOverflowPolicy;
+    }
+
+    /**
+     * 為所有貨幣登記定點數的小數位數。
+     * <p>
+     * 首次載入時 (尚無帳戶) 登記全部貨幣；重載時僅登記新出現的貨幣，
+     * 已登記貨幣的小數位數變更需重新啟動。
+     * </p>
+     */
+    private void applyFixedPointScales() {
+        if (!fixedPointEnabled) {
+            fixedPointApplied = true;
+            return;
+        }
+        for (Currency currency : currencies.values()) {
+            if (fixedPointApplied && com.smile.aceeconomy.data.CurrencyIndex.lookup(currency.id()) >= 0
+                    && com.smile.aceeconomy.data.CurrencyIndex.scaleOf(currency.id()) < 0) {
+                plugin.getLogger().warning("貨幣 " + currency.id() + " 已有使用中的餘額，需重新啟動才能啟用定點數");
+                continue;
+            }
+            if (!com.smile.aceeconomy.data.CurrencyIndex.configureScale(currency.id(), currency.scale())) {
+                plugin.getLogger().warning("貨幣 " + currency.id() + " 的小數位數變更需重新啟動伺服器才會生效");
+            }
+        }
+        fixedPointApplied = true;
+    }
+
     /**
      * 載入貨幣設定。
      * 自動偵測舊版設定並遷移至新格式。
@@ -628,6 +982,24 @@ public class ConfigManager {
         return defaultDebtLimit;
     }
 
+    /**
+     * Vault 對線上玩家的存提款是否在呼叫執行緒上同步完成 (交易事件改為事後非同步通知)。
+     *
+     * @return 是否啟用
+     */
+    public boolean isVaultFastPath() {
+        return vaultFastPath;
+    }
+
+    /**
+     * 取得線上玩家限制 (負債上限、最大餘額) 的重新解析間隔。
+     *
+     * @return 間隔 (秒)
+     */
+    public long getLimitRefreshInterval() {
+        return limitRefreshInterval;
+    }
+
     // ==================== 一般設定 ====================
 
     /**
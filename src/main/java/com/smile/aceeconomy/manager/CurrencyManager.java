@@ -2,21 +2,28 @@ package com.smile.aceeconomy.manager;
 
 import com.smile.aceeconomy.AceEconomy;
 import com.smile.aceeconomy.data.Account;
+import com.smile.aceeconomy.data.CurrencyIndex;
 import com.smile.aceeconomy.storage.StorageHandler;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 貨幣管理器。
  * <p>
  * 負責管理玩家帳戶的記憶體快取與餘額操作。
- * 使用 {@link ConcurrentHashMap} 儲存帳戶資料，
- * 並透過 {@link ReentrantReadWriteLock} 確保餘額操作的執行緒安全。
+ * 使用 {@link ConcurrentHashMap} 儲存線上玩家的帳戶資料，
+ * 餘額操作直接以 {@link Account} 的 CAS 方法完成，讀取不需加鎖。
+ * </p>
+ * <p>
+ * 啟用離線帳戶快取後，透過 {@link #loadAccount(UUID)} 載入的離線帳戶會保留在第二層快取中，
+ * 之後的查詢與餘額操作直接在記憶體中完成，不再重新讀取儲存層。
  * </p>
  *
  * @author Smile
@@ -28,15 +35,19 @@ public class CurrencyManager {
      */
     private final ConcurrentHashMap<UUID, Account> accountCache = new ConcurrentHashMap<>();
 
-    /**
-     * 帳戶鎖定器：UUID -> ReadWriteLock (用於餘額操作)
-     */
-    private final ConcurrentHashMap<UUID, ReentrantReadWriteLock> accountLocks = new ConcurrentHashMap<>();
-
     private final StorageHandler storageHandler;
     private final ConfigManager configManager;
     private final AceEconomy plugin;
     private LogManager logManager;
+    private WriteBehindManager writeBehindManager;
+    private LeaderboardManager leaderboardManager;
+    private OfflineAccountCache offlineAccounts;
+    private LimitCache limitCache;
+
+    /**
+     * 停用延遲寫入時，離線帳戶的逐帳戶序列化寫入：UUID -> 寫入狀態
+     */
+    private final ConcurrentHashMap<UUID, OfflineSave> offlineSaves = new ConcurrentHashMap<>();
 
     /**
      * 建立貨幣管理器。
@@ -67,6 +78,79 @@ public class CurrencyManager {
         this.logManager = logManager;
     }
 
+    /**
+     * 設定延遲寫入管理器。
+     * <p>
+     * 設定後，所有餘額變動都會標記為髒資料並由背景執行緒批次寫入。
+     * </p>
+     *
+     * @param writeBehindManager 延遲寫入管理器 (可為 null 表示停用)
+     */
+    public void setWriteBehindManager(WriteBehindManager writeBehindManager) {
+        this.writeBehindManager = writeBehindManager;
+    }
+
+    /**
+     * 設定排行榜管理器。
+     * <p>
+     * 設定後，所有餘額變動都會增量更新記憶體排行榜索引。
+     * </p>
+     *
+     * @param leaderboardManager 排行榜管理器 (可為 null)
+     */
+    public void setLeaderboardManager(LeaderboardManager leaderboardManager) {
+        this.leaderboardManager = leaderboardManager;
+    }
+
+    /**
+     * 設定玩家限制快取。
+     * <p>
+     * 設定後，線上玩家的負債上限直接從快取讀取，不再於每次交易時查詢權限插件。
+     * </p>
+     *
+     * @param limitCache 玩家限制快取 (可為 null)
+     */
+    public void setLimitCache(LimitCache limitCache) {
+        this.limitCache = limitCache;
+    }
+
+    /**
+     * 啟用離線帳戶快取。
+     *
+     * @param maxSize    最多保存的離線帳戶數
+     * @param ttlSeconds 未被存取多久後過期 (秒)
+     */
+    public void enableOfflineAccountCache(int maxSize, long ttlSeconds) {
+        this.offlineAccounts = new OfflineAccountCache(this::loadFromStorage, maxSize, ttlSeconds);
+    }
+
+    /**
+     * 取得離線帳戶快取。
+     *
+     * @return 離線帳戶快取，若未啟用則為 null
+     */
+    public OfflineAccountCache getOfflineAccountCache() {
+        return offlineAccounts;
+    }
+
+    /**
+     * 標記帳戶的指定貨幣為已變動，並更新排行榜索引。
+     *
+     * @param account    帳戶
+     * @param currencyId 貨幣 ID
+     */
+    private void markDirty(Account account, String currencyId) {
+        if (writeBehindManager != null) {
+            writeBehindManager.markDirty(account, currencyId);
+        } else if (accountCache.get(account.getOwner()) != account) {
+            // 離線帳戶沒有「玩家離線時儲存」的時機，變動後立即寫回
+            saveOfflineAccount(account);
+        }
+        if (leaderboardManager != null) {
+            leaderboardManager.onBalanceChanged(account, currencyId);
+        }
+    }
+
     /**
      * 取得所有已註冊的貨幣 ID。
      *
@@ -124,16 +208,6 @@ public class CurrencyManager {
         }
     }
 
-    /**
-     * 取得帳戶的讀寫鎖。
-     *
-     * @param uuid 玩家 UUID
-     * @return 該帳戶的讀寫鎖
-     */
-    private ReentrantReadWriteLock getLock(UUID uuid) {
-        return accountLocks.computeIfAbsent(uuid, k -> new ReentrantReadWriteLock());
-    }
-
     /**
      * 建立新帳戶並加入快取。
      *
@@ -143,41 +217,49 @@ public class CurrencyManager {
      */
     public Account createAccount(UUID uuid, String ownerName) {
         Account account = new Account(uuid, ownerName, configManager.getStartBalance());
-        accountCache.put(uuid, account);
+        cacheAccount(account);
         return account;
     }
 
     /**
-     * 將帳戶加入快取。
+     * 將帳戶加入快取 (玩家登入時)。
      *
      * @param account 帳戶資料
      */
     public void cacheAccount(Account account) {
         accountCache.put(account.getOwner(), account);
+        if (offlineAccounts != null) {
+            offlineAccounts.remove(account.getOwner());
+        }
     }
 
     /**
-     * 從快取中移除帳戶。
+     * 從快取中移除帳戶 (玩家離線時)。
+     * <p>
+     * 啟用離線帳戶快取時，帳戶會移至離線快取，之後的離線查詢可直接命中最新資料。
+     * </p>
      *
      * @param uuid 玩家 UUID
      */
     public void uncacheAccount(UUID uuid) {
-        accountCache.remove(uuid);
-        accountLocks.remove(uuid);
+        Account account = accountCache.remove(uuid);
+        if (account != null && offlineAccounts != null) {
+            offlineAccounts.put(account);
+        }
     }
 
     /**
-     * 檢查帳戶是否已在快取中。
+     * 檢查帳戶是否已載入 (線上玩家，或已在離線快取中的離線玩家)。
      *
      * @param uuid 玩家 UUID
-     * @return 是否已快取
+     * @return 是否已載入
      */
     public boolean hasAccount(UUID uuid) {
-        return accountCache.containsKey(uuid);
+        return resolve(uuid) != null;
     }
 
     /**
-     * 從快取中取得帳戶。
+     * 從線上玩家快取中取得帳戶。
      *
      * @param uuid 玩家 UUID
      * @return 帳戶資料，若不存在則回傳 null
@@ -186,6 +268,140 @@ public class CurrencyManager {
         return accountCache.get(uuid);
     }
 
+    /**
+     * 非同步載入帳戶 (線上或離線玩家)。
+     * <p>
+     * 線上玩家直接回傳快取中的帳戶；離線玩家經由離線帳戶快取載入，
+     * 並行的請求共用同一次查詢。若帳戶不存在，Future 以 null 完成。
+     * </p>
+     *
+     * @param uuid 玩家 UUID
+     * @return 帳戶 Future
+     */
+    public CompletableFuture<Account> loadAccount(UUID uuid) {
+        Account online = accountCache.get(uuid);
+        if (online != null) {
+            return CompletableFuture.completedFuture(online);
+        }
+        if (offlineAccounts == null) {
+            return loadFromStorage(uuid);
+        }
+        return offlineAccounts.get(uuid).thenApply(account -> {
+            // 載入期間玩家可能已登入，以線上帳戶為準
+            Account current = accountCache.get(uuid);
+            if (current != null) {
+                offlineAccounts.remove(uuid);
+                return current;
+            }
+            return account;
+        });
+    }
+
+    /**
+     * 載入並鎖定帳戶，供離線玩家的餘額操作使用。
+     * <p>
+     * 線上玩家直接回傳其帳戶；離線玩家的帳戶在租用期間會被釘選在離線帳戶快取中，
+     * 不會被淘汰或重新載入，因此並行的操作都作用在同一個帳戶物件上 (與線上帳戶相同的 CAS 保護)。
+     * 操作完成後必須關閉回傳的租用。帳戶不存在 (或未啟用離線帳戶快取) 時 Future 以 null 完成。
+     * </p>
+     *
+     * @param uuid 玩家 UUID
+     * @return 帳戶租用 Future
+     */
+    public CompletableFuture<OfflineAccountCache.Lease> acquireAccount(UUID uuid) {
+        Account online = accountCache.get(uuid);
+        if (online != null) {
+            return CompletableFuture.completedFuture(OfflineAccountCache.Lease.unpinned(online));
+        }
+        if (offlineAccounts == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return offlineAccounts.acquire(uuid);
+    }
+
+    /**
+     * 從儲存層載入帳戶。
+     * <p>
+     * 尚未寫入儲存層的帳戶 (延遲寫入佇列或離線寫入中) 優先沿用記憶體中的物件，避免讀到舊資料。
+     * </p>
+     */
+    private CompletableFuture<Account> loadFromStorage(UUID uuid) {
+        if (writeBehindManager != null) {
+            Account pending = writeBehindManager.getPendingAccount(uuid);
+            if (pending != null) {
+                return CompletableFuture.completedFuture(pending);
+            }
+        }
+        OfflineSave save = offlineSaves.get(uuid);
+        if (save != null) {
+            return CompletableFuture.completedFuture(save.account);
+        }
+        return storageHandler.loadAccount(uuid);
+    }
+
+    /**
+     * 寫回離線帳戶 (停用延遲寫入時)。
+     * <p>
+     * 同一帳戶的寫入依序執行，避免較舊的快照在較新的快照之後才提交；
+     * 若已有尚未開始的寫入，本次變動會由該次寫入一併帶出，不再另外排入。
+     * </p>
+     *
+     * @param account 帳戶
+     */
+    private void saveOfflineAccount(Account account) {
+        UUID uuid = account.getOwner();
+        OfflineSave save = offlineSaves.computeIfAbsent(uuid, k -> new OfflineSave(account));
+        if (!save.queued.compareAndSet(false, true)) {
+            return;
+        }
+
+        synchronized (save) {
+            CompletableFuture<Void> tail = save.tail.thenCompose(ignored -> {
+                // 寫入開始時才讀取餘額，之後的變動需要另一次寫入
+                save.queued.set(false);
+                return storageHandler.saveAccount(account);
+            }).exceptionally(throwable -> {
+                plugin.getLogger().severe("儲存離線帳戶失敗 (" + uuid + "): " + throwable.getMessage());
+                return null;
+            });
+            save.tail = tail;
+            tail.whenComplete((result, throwable) -> {
+                synchronized (save) {
+                    if (save.tail == tail && !save.queued.get()) {
+                        offlineSaves.remove(uuid, save);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * 離線帳戶寫入狀態。
+     */
+    private static final class OfflineSave {
+        private final Account account;
+        private final AtomicBoolean queued = new AtomicBoolean();
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+        private OfflineSave(Account account) {
+            this.account = account;
+        }
+    }
+
+    /**
+     * 取得已載入的帳戶 (線上玩家優先，其次為離線快取)。
+     *
+     * @param uuid 玩家 UUID
+     * @return 帳戶，若未載入則回傳 null
+     */
+    private Account resolve(UUID uuid) {
+        Account account = accountCache.get(uuid);
+        if (account == null && offlineAccounts != null) {
+            account = offlineAccounts.getIfPresent(uuid);
+        }
+        return account;
+    }
+
     /**
      * 取得玩家餘額 (預設貨幣)。
      *
@@ -206,18 +422,11 @@ public class CurrencyManager {
      */
     public double getBalance(UUID uuid, String currencyId) {
         validateCurrency(currencyId);
-        Account account = accountCache.get(uuid);
+        Account account = resolve(uuid);
         if (account == null) {
             return 0.0;
         }
-
-        ReentrantReadWriteLock lock = getLock(uuid);
-        lock.readLock().lock();
-        try {
-            return account.getBalance(currencyId);
-        } finally {
-            lock.readLock().unlock();
-        }
+        return account.getBalance(currencyId);
     }
 
     /**
@@ -229,11 +438,30 @@ public class CurrencyManager {
      * @return 是否足夠
      */
     public boolean hasEnough(UUID uuid, String currencyId, double amount) {
+        if (Double.isNaN(amount)) {
+            return false;
+        }
         if (amount <= 0)
             return true;
+        if (isUnrepresentable(currencyId, amount)) {
+            return false;
+        }
 
         double balance = getBalance(uuid, currencyId);
 
+        // 定點數模式下以最小單位比較，避免 0.1 + 0.2 之類的誤差
+        int scale = CurrencyIndex.scaleOf(currencyId);
+        if (scale >= 0) {
+            long balanceMinor = com.smile.aceeconomy.data.Currency.toMinorUnits(balance, scale);
+            long amountMinor = com.smile.aceeconomy.data.Currency.toMinorUnits(amount, scale);
+            try {
+                checkSufficientFundsMinor(uuid, currencyId, balanceMinor, amountMinor, scale);
+                return true;
+            } catch (com.smile.aceeconomy.exception.InsufficientFundsException e) {
+                return false;
+            }
+        }
+
         // 若為預設貨幣且啟用負資產
         if (configManager.isAllowNegativeBalance() && currencyId.equals(getDefaultCurrencyId())) {
             double debtLimit = getDebtLimit(uuid);
@@ -264,32 +492,33 @@ public class CurrencyManager {
      * @throws IllegalArgumentException 如果貨幣 ID 無效
      */
     public boolean deposit(UUID uuid, String currencyId, double amount) {
-        if (amount <= 0) {
+        if (!Double.isFinite(amount) || amount <= 0) {
             return false;
         }
         validateCurrency(currencyId);
+        if (isUnrepresentable(currencyId, amount) || isBelowMinorUnit(currencyId, amount)) {
+            return false;
+        }
 
-        Account account = accountCache.get(uuid);
+        Account account = resolve(uuid);
         if (account == null) {
             return false;
         }
 
-        ReentrantReadWriteLock lock = getLock(uuid);
-        lock.writeLock().lock();
         try {
-            double currentBalance = account.getBalance(currencyId);
-            double newBalance = currentBalance + amount;
-            account.setBalance(currencyId, newBalance);
-
-            if (logManager != null) {
-                logManager.logTransaction(null, uuid, amount, currencyId,
-                        com.smile.aceeconomy.data.TransactionType.DEPOSIT, null, "System Deposit", null);
-            }
+            account.addBalance(currencyId, amount);
+        } catch (ArithmeticException e) {
+            // 入帳後的餘額超出可表示的範圍
+            return false;
+        }
+        markDirty(account, currencyId);
 
-            return true;
-        } finally {
-            lock.writeLock().unlock();
+        if (logManager != null) {
+            logManager.logTransaction(null, uuid, appliedAmount(currencyId, amount), currencyId,
+                    com.smile.aceeconomy.data.TransactionType.DEPOSIT, null, "System Deposit", null);
         }
+
+        return true;
     }
 
     /**
@@ -360,59 +589,257 @@ public class CurrencyManager {
      * @throws com.smile.aceeconomy.exception.InsufficientFundsException 如果餘額不足且非強制
      */
     public boolean withdraw(UUID uuid, String currencyId, double amount, UUID banknoteUuid, boolean force) {
-        if (amount <= 0) {
+        if (!Double.isFinite(amount) || amount <= 0) {
             return false;
         }
         validateCurrency(currencyId);
+        if (isUnrepresentable(currencyId, amount) || isBelowMinorUnit(currencyId, amount)) {
+            return false;
+        }
 
-        Account account = accountCache.get(uuid);
+        Account account = resolve(uuid);
         if (account == null) {
             return false;
         }
 
-        ReentrantReadWriteLock lock = getLock(uuid);
-        lock.writeLock().lock();
         try {
-            double currentBalance = account.getBalance(currencyId);
+            debit(uuid, account, currencyId, amount, force);
+        } catch (ArithmeticException e) {
+            // 強制扣款後的餘額超出可表示的範圍
+            return false;
+        }
+        markDirty(account, currencyId);
 
-            // 檢查餘額 (若非強制)
-            if (!force) {
-                // 若為預設貨幣且啟用負資產，檢查債務上限
-                if (configManager.isAllowNegativeBalance() && currencyId.equals(getDefaultCurrencyId())) {
-                    double debtLimit = getDebtLimit(uuid);
-                    if (currentBalance - amount < -debtLimit) {
-                        throw new com.smile.aceeconomy.exception.InsufficientFundsException(
-                                "餘額不足！您的債務上限為: " + debtLimit);
-                    }
-                } else {
-                    // 一般檢查
-                    if (currentBalance < amount) {
-                        throw new com.smile.aceeconomy.exception.InsufficientFundsException("餘額不足！");
-                    }
+        if (logManager != null) {
+            logManager.logTransaction(uuid, null, appliedAmount(currencyId, amount), currencyId,
+                    com.smile.aceeconomy.data.TransactionType.WITHDRAW, banknoteUuid, "System Withdraw", null);
+        }
+
+        return true;
+    }
+
+    /**
+     * 以 CAS 迴圈從帳戶扣款。
+     * <p>
+     * 每次重試都以最新餘額重新檢查，確保並行扣款不會突破餘額或債務上限。
+     * </p>
+     *
+     * @param uuid       玩家 UUID
+     * @param account    帳戶
+     * @param currencyId 貨幣 ID
+     * @param amount     扣款金額
+     * @param force      是否強制（忽略餘額檢查）
+     * @throws com.smile.aceeconomy.exception.InsufficientFundsException 如果餘額不足且非強制
+     * @throws ArithmeticException                                       如果強制扣款後的餘額溢位
+     */
+    private void debit(UUID uuid, Account account, String currencyId, double amount, boolean force) {
+        if (force) {
+            account.addBalance(currencyId, -amount);
+            return;
+        }
+
+        int scale = CurrencyIndex.scaleOf(currencyId);
+        if (scale >= 0) {
+            long amountMinor = com.smile.aceeconomy.data.Currency.toMinorUnits(amount, scale);
+            while (true) {
+                long currentMinor = account.getBalanceMinor(currencyId);
+                long remaining = checkSufficientFundsMinor(uuid, currencyId, currentMinor, amountMinor, scale);
+                if (account.compareAndSetBalanceMinor(currencyId, currentMinor, remaining)) {
+                    return;
                 }
             }
+        }
 
-            account.setBalance(currencyId, currentBalance - amount);
-
-            if (logManager != null) {
-                logManager.logTransaction(uuid, null, amount, currencyId,
-                        com.smile.aceeconomy.data.TransactionType.WITHDRAW, banknoteUuid, "System Withdraw", null);
+        while (true) {
+            double currentBalance = account.getBalance(currencyId);
+            checkSufficientFunds(uuid, currencyId, currentBalance, amount);
+            if (account.compareAndSetBalance(currencyId, currentBalance, currentBalance - amount)) {
+                return;
             }
+        }
+    }
 
+    /**
+     * 檢查金額是否無法處理：非有限值 (NaN、Infinity)，或在定點數模式下超出最小單位可表示的範圍。
+     *
+     * @param currencyId 貨幣 ID
+     * @param amount     金額
+     * @return 是否無法處理
+     */
+    private boolean isUnrepresentable(String currencyId, double amount) {
+        if (!Double.isFinite(amount)) {
             return true;
-        } finally {
-            lock.writeLock().unlock();
         }
+        int scale = CurrencyIndex.scaleOf(currencyId);
+        return scale >= 0 && !com.smile.aceeconomy.data.Currency.isRepresentable(amount, scale);
     }
 
     /**
-     * 取得玩家的債務上限。
+     * 檢查金額在定點數模式下是否小於該貨幣的最小單位 (四捨五入後為 0)。
      *
-     * @param uuid 玩家 UUID
-     * @return 債務上限 (正數)
+     * @param currencyId 貨幣 ID
+     * @param amount     金額
+     * @return 是否小於最小單位
+     */
+    private boolean isBelowMinorUnit(String currencyId, double amount) {
+        int scale = CurrencyIndex.scaleOf(currencyId);
+        return scale >= 0 && com.smile.aceeconomy.data.Currency.toMinorUnits(amount, scale) == 0;
+    }
+
+    /**
+     * 取得實際套用至餘額的金額 (定點數模式下為四捨五入至最小單位後的值)。
+     * <p>
+     * 交易紀錄以此金額寫入，確保歷史紀錄與餘額變動一致。
+     * </p>
+     *
+     * @param currencyId 貨幣 ID
+     * @param amount     呼叫端傳入的金額
+     * @return 實際套用的金額
+     */
+    private double appliedAmount(String currencyId, double amount) {
+        int scale = CurrencyIndex.scaleOf(currencyId);
+        if (scale < 0) {
+            return amount;
+        }
+        return com.smile.aceeconomy.data.Currency.fromMinorUnits(
+                com.smile.aceeconomy.data.Currency.toMinorUnits(amount, scale), scale);
+    }
+
+    /**
+     * 檢查扣款後餘額是否仍在允許範圍內。
+     *
+     * @param uuid           玩家 UUID
+     * @param currencyId     貨幣 ID
+     * @param currentBalance 目前餘額
+     * @param amount         扣款金額
+     * @throws com.smile.aceeconomy.exception.InsufficientFundsException 如果餘額不足
+     */
+    private void checkSufficientFunds(UUID uuid, String currencyId, double currentBalance, double amount) {
+        // 若為預設貨幣且啟用負資產，檢查債務上限
+        if (configManager.isAllowNegativeBalance() && currencyId.equals(getDefaultCurrencyId())) {
+            double debtLimit = getDebtLimit(uuid);
+            if (currentBalance - amount < -debtLimit) {
+                throw new com.smile.aceeconomy.exception.InsufficientFundsException(
+                        "餘額不足！您的債務上限為: " + debtLimit);
+            }
+        } else {
+            // 一般檢查
+            if (currentBalance < amount) {
+                throw new com.smile.aceeconomy.exception.InsufficientFundsException("餘額不足！");
+            }
+        }
+    }
+
+    /**
+     * 以最小單位檢查扣款後餘額是否仍在允許範圍內 (定點數模式)。
+     *
+     * @param uuid         玩家 UUID
+     * @param currencyId   貨幣 ID
+     * @param currentMinor 目前餘額 (最小單位)
+     * @param amountMinor  扣款金額 (最小單位)
+     * @param scale        小數位數
+     * @return 扣款後的餘額 (最小單位)
+     * @throws com.smile.aceeconomy.exception.InsufficientFundsException 如果餘額不足或扣款後溢位
+     */
+    private long checkSufficientFundsMinor(UUID uuid, String currencyId, long currentMinor, long amountMinor,
+            int scale) {
+        long remaining;
+        try {
+            remaining = Math.subtractExact(currentMinor, amountMinor);
+        } catch (ArithmeticException e) {
+            // 已為負數的帳戶扣除極大金額會溢位成正數，必須拒絕
+            throw new com.smile.aceeconomy.exception.InsufficientFundsException("餘額不足！");
+        }
+        if (configManager.isAllowNegativeBalance() && currencyId.equals(getDefaultCurrencyId())) {
+            double debtLimit = getDebtLimit(uuid);
+            long debtLimitMinor = com.smile.aceeconomy.data.Currency.isRepresentable(debtLimit, scale)
+                    ? com.smile.aceeconomy.data.Currency.toMinorUnits(debtLimit, scale)
+                    : Long.MAX_VALUE;
+            if (remaining < -Math.abs(debtLimitMinor)) {
+                throw new com.smile.aceeconomy.exception.InsufficientFundsException(
+                        "餘額不足！您的債務上限為: " + debtLimit);
+            }
+        } else if (remaining < 0) {
+            throw new com.smile.aceeconomy.exception.InsufficientFundsException("餘額不足！");
+        }
+        return remaining;
+    }
+
+    /**
+     * 在兩個帳戶之間轉帳。
+     * <p>
+     * 依 UUID 順序持有雙方帳戶的轉帳鎖 (避免互相轉帳時死鎖)，
+     * 在同一個臨界區內以 CAS 扣款並入帳，入帳失敗時退回扣款；
+     * 寫入快照同樣持有帳戶的轉帳鎖，因此不會保存只完成一半的轉帳。
+     * 只寫入一筆 PAY 交易紀錄。
+     * </p>
+     *
+     * @param from       發送方 UUID
+     * @param to         接收方 UUID
+     * @param currencyId 貨幣 ID
+     * @param amount     轉帳金額
+     * @return 操作是否成功 (金額無效、同一帳戶、帳戶未載入或接收方餘額溢位時回傳 false)
+     * @throws IllegalArgumentException                                  如果貨幣 ID 無效
+     * @throws com.smile.aceeconomy.exception.InsufficientFundsException 如果發送方餘額不足
      */
+    public boolean transfer(UUID from, UUID to, String currencyId, double amount) {
+        if (!Double.isFinite(amount) || amount <= 0 || from.equals(to)) {
+            return false;
+        }
+        validateCurrency(currencyId);
+        if (isUnrepresentable(currencyId, amount) || isBelowMinorUnit(currencyId, amount)) {
+            return false;
+        }
+
+        Account fromAccount = resolve(from);
+        Account toAccount = resolve(to);
+        if (fromAccount == null || toAccount == null) {
+            return false;
+        }
+
+        // 固定的鎖定順序：UUID 較小者先鎖
+        boolean fromFirst = from.compareTo(to) < 0;
+        ReentrantLock firstLock = (fromFirst ? fromAccount : toAccount).getTransferLock();
+        ReentrantLock secondLock = (fromFirst ? toAccount : fromAccount).getTransferLock();
+
+        firstLock.lock();
+        try {
+            secondLock.lock();
+            try {
+                debit(from, fromAccount, currencyId, amount, false);
+                try {
+                    toAccount.addBalance(currencyId, amount);
+                } catch (ArithmeticException e) {
+                    // 接收方入帳後溢位，退回發送方的扣款並拒絕轉帳
+                    fromAccount.addBalance(currencyId, amount);
+                    return false;
+                } catch (RuntimeException e) {
+                    // 入帳失敗，退回發送方的扣款
+                    fromAccount.addBalance(currencyId, amount);
+                    throw e;
+                }
+                markDirty(fromAccount, currencyId);
+                markDirty(toAccount, currencyId);
+            } finally {
+                secondLock.unlock();
+            }
+        } finally {
+            firstLock.unlock();
+        }
+
+        if (logManager != null) {
+            logManager.logTransaction(from, to, appliedAmount(currencyId, amount), currencyId,
+                    com.smile.aceeconomy.data.TransactionType.PAY, null, "Transfer", null);
+        }
+
+        return true;
+    }
+
     /**
      * 取得玩家的債務上限。
+     * <p>
+     * 線上玩家讀取限制快取；不在快取中的玩家才查詢權限插件。
+     * </p>
      *
      * @param uuid 玩家 UUID
      * @return 債務上限 (正數)
@@ -421,6 +848,12 @@ public class CurrencyManager {
         if (!configManager.isAllowNegativeBalance()) {
             return 0.0;
         }
+        if (limitCache != null) {
+            LimitCache.Limits limits = limitCache.get(uuid);
+            if (limits != null) {
+                return limits.debtLimit();
+            }
+        }
         OfflinePlayer player = Bukkit.getOfflinePlayer(uuid);
         return permissionManager.getDebtLimit(player);
     }
@@ -442,6 +875,9 @@ public class CurrencyManager {
      * @throws IllegalArgumentException 如果貨幣 ID 無效
      */
     public boolean setBalance(UUID uuid, String currencyId, double amount) {
+        if (!Double.isFinite(amount)) {
+            return false;
+        }
         if (amount < 0) {
             // Check if debt system is enabled
             if (!configManager.isAllowNegativeBalance()) {
@@ -454,27 +890,24 @@ public class CurrencyManager {
             }
         }
         validateCurrency(currencyId);
+        if (isUnrepresentable(currencyId, amount)) {
+            return false;
+        }
 
-        Account account = accountCache.get(uuid);
+        Account account = resolve(uuid);
         if (account == null) {
             return false;
         }
 
-        ReentrantReadWriteLock lock = getLock(uuid);
-        lock.writeLock().lock();
-        try {
-            double oldBalance = account.getBalance(currencyId);
-            account.setBalance(currencyId, amount);
+        double oldBalance = account.getAndSetBalance(currencyId, amount);
+        markDirty(account, currencyId);
 
-            if (logManager != null) {
-                logManager.logTransaction(null, uuid, amount, currencyId,
-                        com.smile.aceeconomy.data.TransactionType.SET, null, "Set Balance", oldBalance);
-            }
-
-            return true;
-        } finally {
-            lock.writeLock().unlock();
+        if (logManager != null) {
+            logManager.logTransaction(null, uuid, appliedAmount(currencyId, amount), currencyId,
+                    com.smile.aceeconomy.data.TransactionType.SET, null, "Set Balance", oldBalance);
         }
+
+        return true;
     }
 
     /**
@@ -486,6 +919,15 @@ public class CurrencyManager {
         return logManager;
     }
 
+    /**
+     * 取得延遲寫入管理器。
+     *
+     * @return 延遲寫入管理器，若未啟用則為 null
+     */
+    public WriteBehindManager getWriteBehindManager() {
+        return writeBehindManager;
+    }
+
     /**
      * 取得儲存處理器。
      *
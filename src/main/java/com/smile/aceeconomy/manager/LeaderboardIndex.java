@@ -0,0 +1,302 @@
+package com.smile.aceeconomy.manager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.DoubleSupplier;
+
+/**
+ * 單一貨幣的排行榜索引。
+ * <p>
+ * 以附帶子樹大小的 Treap (順序統計樹) 依「餘額由高至低、UUID 由小至大」排序，
+ * 插入、刪除、名次查詢皆為 O(log n)，前 N 名為 O(log n + N)。
+ * 讀取使用讀鎖，可與其他讀取並行。
+ * </p>
+ *
+ * @author Smile
+ */
+public class LeaderboardIndex {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Node> nodes = new HashMap<>();
+    private Node root;
+
+    /**
+     * 新增或更新玩家的餘額。
+     *
+     * @param uuid    玩家 UUID
+     * @param name    玩家名稱
+     * @param balance 餘額
+     */
+    public void update(UUID uuid, String name, double balance) {
+        update(uuid, name, () -> balance);
+    }
+
+    /**
+     * 新增或更新玩家的餘額，並在持有寫入鎖時才讀取餘額。
+     * <p>
+     * 並行變動時，最後取得鎖的更新必定讀到最新餘額，索引因此不會停留在舊值。
+     * </p>
+     *
+     * @param uuid    玩家 UUID
+     * @param name    玩家名稱
+     * @param balance 餘額來源
+     */
+    public void update(UUID uuid, String name, DoubleSupplier balance) {
+        lock.writeLock().lock();
+        try {
+            upsert(uuid, name, balance.getAsDouble());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 僅在玩家尚未存在於索引時加入 (用於初始載入，避免覆蓋較新的即時更新)。
+     *
+     * @param uuid    玩家 UUID
+     * @param name    玩家名稱
+     * @param balance 餘額
+     */
+    public void putIfAbsent(UUID uuid, String name, double balance) {
+        lock.writeLock().lock();
+        try {
+            if (!nodes.containsKey(uuid)) {
+                upsert(uuid, name, balance);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 從索引移除玩家。
+     *
+     * @param uuid 玩家 UUID
+     */
+    public void remove(UUID uuid) {
+        lock.writeLock().lock();
+        try {
+            Node node = nodes.remove(uuid);
+            if (node != null) {
+                root = delete(root, node);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 清空索引。
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            nodes.clear();
+            root = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 取得前 N 名。
+     *
+     * @param limit 名次數量上限
+     * @return 依名次排序的條目
+     */
+    public List<LeaderboardManager.TopEntry> top(int limit) {
+        lock.readLock().lock();
+        try {
+            List<LeaderboardManager.TopEntry> result = new ArrayList<>(Math.min(limit, nodes.size()));
+            collect(root, limit, result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 取得玩家的名次。
+     *
+     * @param uuid 玩家 UUID
+     * @return 名次 (從 1 開始)，若不在索引中則回傳 -1
+     */
+    public int rankOf(UUID uuid) {
+        lock.readLock().lock();
+        try {
+            Node target = nodes.get(uuid);
+            if (target == null) {
+                return -1;
+            }
+            int rank = 1;
+            Node current = root;
+            while (current != null) {
+                int cmp = compare(target, current);
+                if (cmp == 0) {
+                    return rank + size(current.left);
+                }
+                if (cmp < 0) {
+                    current = current.left;
+                } else {
+                    rank += size(current.left) + 1;
+                    current = current.right;
+                }
+            }
+            return -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 取得索引中的玩家數量。
+     *
+     * @return 玩家數量
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== Treap ====================
+
+    private void upsert(UUID uuid, String name, double balance) {
+        Node existing = nodes.get(uuid);
+        if (existing != null) {
+            if (existing.balance == balance) {
+                existing.name = name;
+                return;
+            }
+            root = delete(root, existing);
+        }
+        Node node = new Node(uuid, name, balance, ThreadLocalRandom.current().nextInt());
+        nodes.put(uuid, node);
+        root = insert(root, node);
+    }
+
+    private static Node insert(Node t, Node node) {
+        if (t == null) {
+            return node;
+        }
+        if (node.priority > t.priority) {
+            Node[] parts = split(t, node);
+            node.left = parts[0];
+            node.right = parts[1];
+            node.update();
+            return node;
+        }
+        if (compare(node, t) < 0) {
+            t.left = insert(t.left, node);
+        } else {
+            t.right = insert(t.right, node);
+        }
+        t.update();
+        return t;
+    }
+
+    private static Node delete(Node t, Node node) {
+        if (t == null) {
+            return null;
+        }
+        int cmp = compare(node, t);
+        if (cmp == 0) {
+            return merge(t.left, t.right);
+        }
+        if (cmp < 0) {
+            t.left = delete(t.left, node);
+        } else {
+            t.right = delete(t.right, node);
+        }
+        t.update();
+        return t;
+    }
+
+    /**
+     * 依 key 分割為 (小於 key, 大於等於 key) 兩棵樹。
+     */
+    private static Node[] split(Node t, Node key) {
+        if (t == null) {
+            return new Node[] { null, null };
+        }
+        if (compare(t, key) < 0) {
+            Node[] parts = split(t.right, key);
+            t.right = parts[0];
+            t.update();
+            return new Node[] { t, parts[1] };
+        }
+        Node[] parts = split(t.left, key);
+        t.left = parts[1];
+        t.update();
+        return new Node[] { parts[0], t };
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static void collect(Node t, int limit, List<LeaderboardManager.TopEntry> out) {
+        if (t == null || out.size() >= limit) {
+            return;
+        }
+        collect(t.left, limit, out);
+        if (out.size() < limit) {
+            out.add(new LeaderboardManager.TopEntry(out.size() + 1, t.name, t.balance));
+            collect(t.right, limit, out);
+        }
+    }
+
+    /**
+     * 排序：餘額由高至低，同額時 UUID 由小至大。
+     */
+    private static int compare(Node a, Node b) {
+        int cmp = Double.compare(b.balance, a.balance);
+        return cmp != 0 ? cmp : a.uuid.compareTo(b.uuid);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node {
+        private final UUID uuid;
+        private String name;
+        private final double balance;
+        private final int priority;
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        private Node(UUID uuid, String name, double balance, int priority) {
+            this.uuid = uuid;
+            this.name = name;
+            this.balance = balance;
+            this.priority = priority;
+        }
+
+        private void update() {
+            size = 1 + LeaderboardIndex.size(left) + LeaderboardIndex.size(right);
+        }
+    }
+}
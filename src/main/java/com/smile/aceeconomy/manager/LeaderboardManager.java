@@ -22,8 +22,9 @@ import java.util.logging.Logger;
 /**
  * 排行榜管理器。
  * <p>
- * 使用 Cache-Aside 策略管理財富排行榜。
- * 查詢時若快取過期，會觸發非同步更新。
+ * 預設於啟動時串流讀取 ace_balances 建立每種貨幣的記憶體索引 ({@link LeaderboardIndex})，
+ * 之後由 {@link CurrencyManager} 的每次餘額變動增量更新，查詢前 N 名與名次皆不需存取資料庫。
+ * 索引停用或尚未建立完成時，退回 Cache-Aside 策略：查詢時若快取過期，會觸發非同步更新。
  * </p>
  *
  * @author Smile
@@ -42,6 +43,17 @@ public class LeaderboardManager {
 
     private final Map<String, AtomicBoolean> refreshingFlags = new ConcurrentHashMap<>();
 
+    /**
+     * 排行榜最多保留的名次 (與資料庫查詢的 LIMIT 相同)
+     */
+    private static final int TOP_LIMIT = 100;
+
+    // 記憶體索引：currencyId -> LeaderboardIndex
+    private final Map<String, LeaderboardIndex> indexes = new ConcurrentHashMap<>();
+    private boolean indexEnabled = true;
+    private volatile boolean indexReady = false;
+    private final AtomicBoolean seeding = new AtomicBoolean(false);
+
     public LeaderboardManager(AceEconomy plugin, com.smile.aceeconomy.storage.StorageProvider storageProvider) {
         this.plugin = plugin;
         this.storageProvider = storageProvider;
@@ -56,6 +68,92 @@ public class LeaderboardManager {
         this.enabled = plugin.getConfig().getBoolean("leaderboard.enabled", true);
         this.cacheTimeMillis = plugin.getConfig().getLong("leaderboard.cache-time-seconds", 300) * 1000;
         this.pageSize = plugin.getConfig().getInt("leaderboard.page-size", 10);
+        this.indexEnabled = plugin.getConfig().getBoolean("leaderboard.in-memory-index", true);
+    }
+
+    /**
+     * 串流讀取資料庫中的所有餘額，建立記憶體排行榜索引。
+     * <p>
+     * 建立期間的即時變動會直接寫入索引，且不會被較舊的資料庫資料覆蓋。
+     * </p>
+     *
+     * @return 完成時的 Future
+     */
+    public CompletableFuture<Void> seedIndex() {
+        if (!indexEnabled || !seeding.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        long start = System.currentTimeMillis();
+        return storageProvider.forEachBalance((uuid, currencyId, balance, username) -> getIndex(currencyId)
+                .putIfAbsent(uuid, username != null ? username : "Unknown", balance))
+                .thenAccept(rows -> {
+                    indexReady = true;
+                    logger.info("排行榜索引已建立 (" + rows + " 筆餘額，耗時 "
+                            + (System.currentTimeMillis() - start) + "ms)");
+                }).whenComplete((ignored, error) -> {
+                    seeding.set(false);
+                    if (error != null) {
+                        logger.severe("建立排行榜索引失敗，改用資料庫查詢: " + error.getMessage());
+                        error.printStackTrace();
+                    }
+                });
+    }
+
+    /**
+     * 清空並重新建立記憶體排行榜索引 (例如匯入外部資料後)。
+     *
+     * @return 完成時的 Future
+     */
+    public CompletableFuture<Void> rebuildIndex() {
+        if (!indexEnabled) {
+            return CompletableFuture.completedFuture(null);
+        }
+        indexReady = false;
+        indexes.values().forEach(LeaderboardIndex::clear);
+        return seedIndex();
+    }
+
+    /**
+     * 通知帳戶餘額已變動，增量更新排行榜索引。
+     *
+     * @param account    帳戶
+     * @param currencyId 貨幣 ID
+     */
+    public void onBalanceChanged(com.smile.aceeconomy.data.Account account, String currencyId) {
+        if (!indexEnabled) {
+            return;
+        }
+        getIndex(currencyId).update(account.getOwner(), account.getOwnerName(),
+                () -> account.getBalance(currencyId));
+    }
+
+    /**
+     * 取得玩家在指定貨幣排行榜中的名次。
+     *
+     * @param uuid       玩家 UUID
+     * @param currencyId 貨幣 ID
+     * @return 名次 (從 1 開始)，若索引未就緒或玩家不在排行榜則回傳 -1
+     */
+    public int getRank(UUID uuid, String currencyId) {
+        if (!enabled || !isIndexReady()) {
+            return -1;
+        }
+        LeaderboardIndex index = indexes.get(currencyId);
+        return index != null ? index.rankOf(uuid) : -1;
+    }
+
+    /**
+     * 記憶體索引是否已建立完成並可供查詢。
+     *
+     * @return 是否就緒
+     */
+    public boolean isIndexReady() {
+        return indexEnabled && indexReady;
+    }
+
+    private LeaderboardIndex getIndex(String currencyId) {
+        return indexes.computeIfAbsent(currencyId, k -> new LeaderboardIndex());
     }
 
     /**
@@ -77,6 +175,11 @@ public class LeaderboardManager {
             return CompletableFuture.completedFuture(Collections.emptyList());
         }
 
+        if (isIndexReady()) {
+            LeaderboardIndex index = indexes.get(currencyId);
+            return CompletableFuture.completedFuture(index != null ? index.top(TOP_LIMIT) : Collections.emptyList());
+        }
+
         CachedLeaderboard cached = leaderboardCache.get(currencyId);
         long now = System.currentTimeMillis();
 
@@ -111,7 +214,7 @@ public class LeaderboardManager {
 
         isRefreshing.set(true);
 
-        return storageProvider.getTopAccounts(currencyId, 100).thenApply(topMap -> {
+        return storageProvider.getTopAccounts(currencyId, TOP_LIMIT).thenApply(topMap -> {
             List<TopEntry> newCache = new ArrayList<>();
 
             int rank = 1;
@@ -148,6 +251,10 @@ public class LeaderboardManager {
     }
 
     public long getLastUpdated(String currencyId) {
+        // 記憶體索引為即時資料
+        if (isIndexReady()) {
+            return System.currentTimeMillis();
+        }
         CachedLeaderboard cached = leaderboardCache.get(currencyId);
         return cached != null ? cached.lastUpdated : 0;
     }
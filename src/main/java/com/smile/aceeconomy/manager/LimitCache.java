@@ -0,0 +1,128 @@
+package com.smile.aceeconomy.manager;
+
+import com.smile.aceeconomy.AceEconomy;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 玩家限制快取 (負債上限)。
+ * <p>
+ * 負債上限來自權限插件的 meta (經由 Vault Chat API)，每次查詢都需要呼叫外部插件。
+ * 此快取在玩家加入與切換世界時解析一次，並由背景工作定期重新解析線上玩家，
+ * 讓提款等熱路徑只讀取記憶體中的數值。
+ * </p>
+ * <p>
+ * 未在快取中的玩家 (例如離線玩家) 由呼叫端直接查詢權限管理器。
+ * </p>
+ *
+ * @author Smile
+ */
+public class LimitCache {
+
+    private final AceEconomy plugin;
+    private final PermissionManager permissionManager;
+
+    /**
+     * 已解析的限制：UUID -> 限制值
+     */
+    private final ConcurrentHashMap<UUID, Limits> limits = new ConcurrentHashMap<>();
+
+    private ScheduledTask refreshTask;
+
+    /**
+     * 建立玩家限制快取。
+     *
+     * @param plugin            插件實例
+     * @param permissionManager 權限管理器
+     */
+    public LimitCache(AceEconomy plugin, PermissionManager permissionManager) {
+        this.plugin = plugin;
+        this.permissionManager = permissionManager;
+    }
+
+    /**
+     * 啟動定期重新解析線上玩家限制的背景工作 (並立即解析一次，涵蓋重載插件時已在線上的玩家)。
+     *
+     * @param intervalSeconds 間隔 (秒)
+     */
+    public void start(long intervalSeconds) {
+        long seconds = Math.max(1L, intervalSeconds);
+        Bukkit.getAsyncScheduler().runNow(plugin, task -> refreshAll());
+        refreshTask = Bukkit.getAsyncScheduler().runAtFixedRate(plugin, task -> refreshAll(),
+                seconds, seconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 停止背景工作並清空快取。
+     */
+    public void stop() {
+        if (refreshTask != null) {
+            refreshTask.cancel();
+            refreshTask = null;
+        }
+        limits.clear();
+    }
+
+    /**
+     * 重新解析玩家的限制。
+     *
+     * @param player 玩家
+     * @return 解析後的限制
+     */
+    public Limits refresh(Player player) {
+        Limits resolved = new Limits(permissionManager.getDebtLimit(player));
+        limits.put(player.getUniqueId(), resolved);
+        return resolved;
+    }
+
+    /**
+     * 重新解析所有線上玩家的限制，並移除已離線玩家的項目。
+     */
+    public void refreshAll() {
+        limits.keySet().removeIf(uuid -> Bukkit.getPlayer(uuid) == null);
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            refresh(player);
+        }
+    }
+
+    /**
+     * 取得已解析的限制。
+     *
+     * @param uuid 玩家 UUID
+     * @return 限制值，若未在快取中則回傳 null
+     */
+    public Limits get(UUID uuid) {
+        return limits.get(uuid);
+    }
+
+    /**
+     * 移除玩家的限制 (例如玩家離線)。
+     *
+     * @param uuid 玩家 UUID
+     */
+    public void invalidate(UUID uuid) {
+        limits.remove(uuid);
+    }
+
+    /**
+     * 取得目前快取的玩家數。
+     *
+     * @return 玩家數
+     */
+    public int size() {
+        return limits.size();
+    }
+
+    /**
+     * 已解析的玩家限制。
+     *
+     * @param debtLimit 負債上限 (正數)
+     */
+    public record Limits(double debtLimit) {
+    }
+}
@@ -11,19 +11,11 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.io.BufferedWriter;
+import java.util.concurrent.Executor;
 import java.io.File;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
 
 import com.google.gson.Gson;
@@ -45,20 +37,25 @@ public class LogManager {
     private final CurrencyManager currencyManager;
     private final File logDir;
     private final Gson gson;
-    private final ReentrantLock fileLock = new ReentrantLock();
+    private final TransactionJournal journal;
+    private final Executor executor;
 
-    private static final String INSERT_LOG = """
-            INSERT INTO ace_transaction_logs
-            (transaction_id, banknote_uuid, sender_uuid, receiver_uuid, currency_type, amount, type, reverted, old_balance)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
-            """;
+    /**
+     * 交易歷史查詢 (第一頁)。
+     */
+    private static final String SELECT_HISTORY = historyQuery("*", false);
+
+    /**
+     * 交易歷史查詢 (游標之後)。
+     */
+    private static final String SELECT_HISTORY_AFTER = historyQuery("*", true);
+
+    /**
+     * 只讀取分頁鍵的交易歷史查詢 (用於跳頁，僅需走訪索引)。
+     */
+    private static final String SELECT_HISTORY_KEYS = historyQuery("timestamp, log_id", false);
 
-    private static final String SELECT_HISTORY = """
-            SELECT * FROM ace_transaction_logs
-            WHERE sender_uuid = ? OR receiver_uuid = ?
-            ORDER BY timestamp DESC
-            LIMIT ? OFFSET ?
-            """;
+    private static final String SELECT_HISTORY_KEYS_AFTER = historyQuery("timestamp, log_id", true);
 
     private static final String SELECT_BY_ID = "SELECT * FROM ace_transaction_logs WHERE transaction_id = ?";
 
@@ -66,8 +63,18 @@ public class LogManager {
 
     private static final String UPDATE_REVERTED = "UPDATE ace_transaction_logs SET reverted = ? WHERE transaction_id = ?";
 
-    public LogManager(AceEconomy plugin, DatabaseConnection databaseConnection, CurrencyManager currencyManager) {
+    /**
+     * 建立日誌管理器。
+     *
+     * @param plugin             插件實例
+     * @param databaseConnection 資料庫連線
+     * @param currencyManager    貨幣管理器
+     * @param executor           儲存執行器 (查詢與回溯在此執行)
+     */
+    public LogManager(AceEconomy plugin, DatabaseConnection databaseConnection, CurrencyManager currencyManager,
+            Executor executor) {
         this.databaseConnection = databaseConnection;
+        this.executor = executor;
         this.logger = plugin.getLogger();
         this.currencyManager = currencyManager;
         this.logDir = new File(plugin.getDataFolder(), "logs");
@@ -75,6 +82,40 @@ public class LogManager {
             this.logDir.mkdirs();
         }
         this.gson = new GsonBuilder().setDateFormat("yyyy-MM-dd HH:mm:ss").create();
+
+        ConfigManager configManager = plugin.getConfigManager();
+        this.journal = new TransactionJournal(databaseConnection, logger, gson, logDir,
+                configManager.getJournalQueueCapacity(), configManager.getJournalFlushLatency(),
+                configManager.getJournalMaxBatchSize(),
+                TransactionJournal.OverflowPolicy.parse(configManager.getJournalOverflowPolicy()));
+    }
+
+    /**
+     * 關閉日誌管理器並排空交易日誌佇列。
+     */
+    public void shutdown() {
+        journal.shutdown();
+        TransactionJournal.Metrics metrics = journal.getMetrics();
+        logger.info("[AceEconomy] 交易日誌已排空 (寫入 " + metrics.written() + " 筆，溢出 " + metrics.spilled()
+                + " 筆，丟棄 " + metrics.dropped() + " 筆)");
+    }
+
+    /**
+     * 將交易日誌佇列與溢出檔中的紀錄全部寫入資料庫。
+     *
+     * @return 刷新完成的 Future
+     */
+    public CompletableFuture<Void> flushJournal() {
+        return journal.flush();
+    }
+
+    /**
+     * 取得交易日誌佇列的統計數據。
+     *
+     * @return 統計數據
+     */
+    public TransactionJournal.Metrics getJournalMetrics() {
+        return journal.getMetrics();
     }
 
     /**
@@ -91,55 +132,10 @@ public class LogManager {
      */
     public void logTransaction(UUID sender, UUID receiver, double amount, String currency, TransactionType type,
             UUID banknoteUuid, String context, Double oldBalance) {
-        // 非同步寫入檔案日誌
-        CompletableFuture.runAsync(() -> {
-            Map<String, Object> logData = new LinkedHashMap<>();
-            logData.put("transaction_id",
-                    (context != null && !context.isEmpty()) ? context : "generated-" + UUID.randomUUID());
-            logData.put("type", type.name());
-            logData.put("sender", sender != null ? sender.toString() : "N/A");
-            logData.put("receiver", receiver != null ? receiver.toString() : "N/A");
-            logData.put("currency", currency);
-            logData.put("amount", amount);
-            logData.put("banknote_uuid", banknoteUuid != null ? banknoteUuid.toString() : null);
-            logData.put("old_balance", oldBalance);
-            logData.put("context", context);
-
-            logToFile("INFO", "TRANSACTION", logData);
-        });
-
-        CompletableFuture.runAsync(() -> {
-            try (Connection conn = databaseConnection.getConnection();
-                    PreparedStatement pstmt = conn.prepareStatement(INSERT_LOG)) {
-
-                String transactionId = (context != null && !context.isEmpty()) ? context : UUID.randomUUID().toString();
-
-                pstmt.setString(1, transactionId);
-                pstmt.setString(2, banknoteUuid != null ? banknoteUuid.toString() : null);
-                pstmt.setString(3, sender != null ? sender.toString() : null);
-                pstmt.setString(4, receiver != null ? receiver.toString() : null);
-                pstmt.setString(5, currency);
-                pstmt.setDouble(6, amount);
-                pstmt.setString(7, type.name());
-                pstmt.setBoolean(8, false);
-                if (oldBalance != null) {
-                    pstmt.setDouble(9, oldBalance);
-                } else {
-                    pstmt.setNull(9, java.sql.Types.DOUBLE);
-                }
-
-                pstmt.executeUpdate();
-
-            } catch (SQLException e) {
-                logger.severe("記錄交易失敗: " + e.getMessage());
-                e.printStackTrace();
-                // 記錄錯誤到檔案
-                Map<String, Object> errorData = new LinkedHashMap<>();
-                errorData.put("error", e.getMessage());
-                errorData.put("sql_state", e.getSQLState());
-                logToFile("ERROR", "DATABASE", errorData);
-            }
-        });
+        // 交由群組提交佇列處理，呼叫端不進行任何 I/O
+        String transactionId = (context != null && !context.isEmpty()) ? context : UUID.randomUUID().toString();
+        journal.append(new TransactionJournal.Entry(transactionId, banknoteUuid, sender, receiver, currency, amount,
+                type, oldBalance, context, System.currentTimeMillis()));
     }
 
     /**
@@ -170,7 +166,7 @@ public class LogManager {
                 sql.append(" AND type IN ('GIVE', 'TAKE', 'SET')");
             }
 
-            try (Connection conn = databaseConnection.getConnection();
+            try (Connection conn = databaseConnection.getReadConnection();
                     PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
 
                 pstmt.setString(1, player.toString());
@@ -188,31 +184,35 @@ public class LogManager {
                 e.printStackTrace();
             }
             return logs;
-        });
+        }, executor);
     }
 
     /**
-     * 取得玩家交易歷史記錄。
+     * 取得玩家交易歷史記錄 (游標分頁)。
+     * <p>
+     * 以 (timestamp, log_id) 為游標，從上一頁最後一筆之後繼續讀取，
+     * 不論翻到第幾頁都只掃描所需的索引範圍，而非以 OFFSET 讀取並丟棄前面所有記錄。
+     * </p>
      *
      * @param player 玩家 UUID
-     * @param page   頁碼 (從 1 開始)
+     * @param cursor 上一頁回傳的游標 (null 表示第一頁)
      * @param limit  每頁筆數
-     * @return 交易記錄列表
+     * @return 此頁的交易記錄與下一頁游標
      */
-    public CompletableFuture<List<TransactionLog>> getHistory(UUID player, int page, int limit) {
+    public CompletableFuture<HistoryPage> getHistory(UUID player, HistoryCursor cursor, int limit) {
         return CompletableFuture.supplyAsync(() -> {
-            List<TransactionLog> logs = new ArrayList<>();
-            try (Connection conn = databaseConnection.getConnection();
-                    PreparedStatement pstmt = conn.prepareStatement(SELECT_HISTORY)) {
+            List<TransactionLog> logs = new ArrayList<>(limit);
+            String lastTimestamp = null;
+            try (Connection conn = databaseConnection.getReadConnection();
+                    PreparedStatement pstmt = conn.prepareStatement(
+                            cursor == null ? SELECT_HISTORY : SELECT_HISTORY_AFTER)) {
 
-                pstmt.setString(1, player.toString());
-                pstmt.setString(2, player.toString());
-                pstmt.setInt(3, limit);
-                pstmt.setInt(4, (page - 1) * limit);
+                bindHistory(pstmt, player, cursor, limit);
 
                 try (ResultSet rs = pstmt.executeQuery()) {
                     while (rs.next()) {
                         logs.add(mapResultSetToLog(rs));
+                        lastTimestamp = rs.getString("timestamp");
                     }
                 }
 
@@ -220,8 +220,89 @@ public class LogManager {
                 logger.severe("查詢交易歷史失敗: " + e.getMessage());
                 e.printStackTrace();
             }
-            return logs;
-        });
+
+            HistoryCursor next = null;
+            if (logs.size() == limit && lastTimestamp != null) {
+                next = new HistoryCursor(lastTimestamp, logs.get(logs.size() - 1).logId());
+            }
+            return new HistoryPage(logs, next);
+        }, executor);
+    }
+
+    /**
+     * 從游標往後跳過指定筆數的交易歷史，回傳跳過後的游標。
+     * <p>
+     * 只讀取分頁鍵 (索引即可涵蓋)，供直接跳到較後面的頁碼時使用。
+     * </p>
+     *
+     * @param player 玩家 UUID
+     * @param cursor 起始游標 (null 表示從最新一筆開始)
+     * @param skip   要跳過的筆數
+     * @return 跳過後的游標；若記錄不足 {@code skip} 筆則為 null
+     */
+    public CompletableFuture<HistoryCursor> seekHistory(UUID player, HistoryCursor cursor, int skip) {
+        if (skip <= 0) {
+            return CompletableFuture.completedFuture(cursor);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection conn = databaseConnection.getReadConnection();
+                    PreparedStatement pstmt = conn.prepareStatement(
+                            cursor == null ? SELECT_HISTORY_KEYS : SELECT_HISTORY_KEYS_AFTER)) {
+
+                bindHistory(pstmt, player, cursor, skip);
+
+                int count = 0;
+                String timestamp = null;
+                int logId = 0;
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        timestamp = rs.getString("timestamp");
+                        logId = rs.getInt("log_id");
+                        count++;
+                    }
+                }
+                return count == skip && timestamp != null ? new HistoryCursor(timestamp, logId) : null;
+
+            } catch (SQLException e) {
+                logger.severe("查詢交易歷史失敗: " + e.getMessage());
+                e.printStackTrace();
+            }
+            return null;
+        }, executor);
+    }
+
+    /**
+     * 組合交易歷史查詢。
+     * <p>
+     * 發送者與接收者各自在 (uuid, timestamp) 索引上做範圍掃描並取前 N 筆，
+     * 再以 UNION 合併 (同時為發送者與接收者的記錄只保留一筆) 後重新排序取前 N 筆。
+     * 游標條件寫成 {@code timestamp <= ? AND (timestamp < ? OR log_id < ?)}，讓索引可直接定位起點。
+     * 游標的時間以資料庫保存的原始形式繫結 (SQLite 為 CURRENT_TIMESTAMP 文字)，
+     * 若改以 {@link Timestamp} 繫結，SQLite 會收到整數，而整數永遠排在文字之前，比較條件便永遠不成立。
+     * </p>
+     */
+    private static String historyQuery(String columns, boolean afterCursor) {
+        String cursorCondition = afterCursor ? " AND timestamp <= ? AND (timestamp < ? OR log_id < ?)" : "";
+        String branch = "SELECT " + columns + " FROM ace_transaction_logs WHERE %s = ?" + cursorCondition
+                + " ORDER BY timestamp DESC, log_id DESC LIMIT ?";
+        return "SELECT * FROM (" + branch.formatted("sender_uuid") + ") AS sent"
+                + " UNION SELECT * FROM (" + branch.formatted("receiver_uuid") + ") AS received"
+                + " ORDER BY timestamp DESC, log_id DESC LIMIT ?";
+    }
+
+    private void bindHistory(PreparedStatement pstmt, UUID player, HistoryCursor cursor, int limit)
+            throws SQLException {
+        int index = 1;
+        for (int branch = 0; branch < 2; branch++) {
+            pstmt.setString(index++, player.toString());
+            if (cursor != null) {
+                pstmt.setString(index++, cursor.timestamp());
+                pstmt.setString(index++, cursor.timestamp());
+                pstmt.setInt(index++, cursor.logId());
+            }
+            pstmt.setInt(index++, limit);
+        }
+        pstmt.setInt(index, limit);
     }
 
     /**
@@ -232,7 +313,7 @@ public class LogManager {
      */
     public CompletableFuture<TransactionLog> getTransaction(String transactionId) {
         return CompletableFuture.supplyAsync(() -> {
-            try (Connection conn = databaseConnection.getConnection();
+            try (Connection conn = databaseConnection.getReadConnection();
                     PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_ID)) {
 
                 pstmt.setString(1, transactionId);
@@ -248,7 +329,7 @@ public class LogManager {
                 e.printStackTrace();
             }
             return null;
-        });
+        }, executor);
     }
 
     /**
@@ -268,36 +349,43 @@ public class LogManager {
             }
 
             // 執行回溯邏輯
-            return CompletableFuture.supplyAsync(() -> {
-                // 檢查接收者餘額是否足夠扣回 (若是轉帳或給予)
-                UUID receiverUuid = log.receiverUuid();
-                UUID senderUuid = log.senderUuid();
-                double amount = log.amount();
-                TransactionType type = log.type();
-
-                // 根據交易類型決定回溯行為
-                // PAY: Receiver -> Sender (從接收者扣除，還給發送者)
-                // GIVE: Receiver -> Null (從接收者扣除)
-                // TAKE: Null -> Receiver (還給接收者)
-                // WITHDRAW: Null -> Receiver (還給接收者 - 假設提款是將錢變成物品，回溯則是把錢還給玩家，但物品難以追蹤，這裡假設單純補錢)
-                // DEPOSIT: Receiver -> Null (從接收者扣除)
-
-                // 檢查接收者餘額 (僅在需要扣錢時)
-                boolean needDeductFromReceiver = type == TransactionType.PAY || type == TransactionType.GIVE
-                        || type == TransactionType.DEPOSIT;
-
+            // 檢查接收者餘額是否足夠扣回 (若是轉帳或給予)
+            UUID receiverUuid = log.receiverUuid();
+            UUID senderUuid = log.senderUuid();
+            double amount = log.amount();
+            TransactionType type = log.type();
+
+            // 根據交易類型決定回溯行為
+            // PAY: Receiver -> Sender (從接收者扣除，還給發送者)
+            // GIVE: Receiver -> Null (從接收者扣除)
+            // TAKE: Null -> Receiver (還給接收者)
+            // WITHDRAW: Null -> Receiver (還給接收者 - 假設提款是將錢變成物品，回溯則是把錢還給玩家，但物品難以追蹤，這裡假設單純補錢)
+            // DEPOSIT: Receiver -> Null (從接收者扣除)
+
+            // 檢查接收者餘額 (僅在需要扣錢時)
+            boolean needDeductFromReceiver = type == TransactionType.PAY || type == TransactionType.GIVE
+                    || type == TransactionType.DEPOSIT;
+
+            // 先以租用載入並釘選相關帳戶 (離線玩家載入至離線帳戶快取)，
+            // 整個回溯期間帳戶不會被淘汰或重新載入；載入在儲存執行器之外完成，不在執行器任務中等待
+            CompletableFuture<OfflineAccountCache.Lease> receiverLease = receiverUuid != null
+                    ? currencyManager.acquireAccount(receiverUuid)
+                    : CompletableFuture.completedFuture(null);
+            CompletableFuture<OfflineAccountCache.Lease> senderLease = senderUuid != null
+                    ? currencyManager.acquireAccount(senderUuid)
+                    : CompletableFuture.completedFuture(null);
+
+            // 載入失敗時仍繼續，由下方檢查回報對應的錯誤訊息
+            CompletableFuture<Void> loaded = CompletableFuture.allOf(receiverLease, senderLease)
+                    .handle((ignored, throwable) -> null);
+
+            return loaded.thenApplyAsync(ignored -> {
                 if (needDeductFromReceiver && receiverUuid != null) {
-                    if (!currencyManager.hasAccount(receiverUuid)) {
-                        // 嘗試載入離線玩家 (此處簡化，若 CurrencyManager 支援自動載入最好，否則需手動處理)
-                        // 這裡假設 CurrencyManager 若有實現離線操作最好，若無則檢查
-                        // 由於 CurrencyManager 主要是記憶體快取，若玩家不在線上可能需要先載入
-                        try {
-                            if (currencyManager.getStorageHandler().loadAccount(receiverUuid).join() == null) {
-                                return "<red>接收者帳戶不存在！</red>";
-                            }
-                        } catch (Exception e) {
-                            return "<red>載入接收者資料失敗！</red>";
-                        }
+                    if (receiverLease.isCompletedExceptionally()) {
+                        return "<red>載入接收者資料失敗！</red>";
+                    }
+                    if (receiverLease.join() == null) {
+                        return "<red>接收者帳戶不存在！</red>";
                     }
 
                     // 這裡重新讀取餘額確保準確 (若玩家在線上)
@@ -310,6 +398,11 @@ public class LogManager {
                     // if (balance < amount) return "<red>接收者餘額不足，無法回溯！</red>";
                 }
 
+                // 發送者若離線，同樣須已載入至離線帳戶快取 (退款才能入帳)
+                if (senderUuid != null && senderLease.isCompletedExceptionally()) {
+                    return "<red>載入發送者資料失敗！</red>";
+                }
+
                 // 開始執行回溯
                 try {
                     // 1. 執行資金反向操作
@@ -374,6 +467,13 @@ public class LogManager {
                     e.printStackTrace();
                     return "<red>回溯執行失敗: " + e.getMessage() + "</red>";
                 }
+            }, executor).whenComplete((result, throwable) -> {
+                // 回溯結束後釋放成功取得的租用
+                for (CompletableFuture<OfflineAccountCache.Lease> lease : List.of(receiverLease, senderLease)) {
+                    if (!lease.isCompletedExceptionally() && lease.join() != null) {
+                        lease.join().close();
+                    }
+                }
             });
         });
     }
@@ -386,7 +486,7 @@ public class LogManager {
      */
     public CompletableFuture<TransactionLog> getTransactionByBanknote(UUID banknoteUuid) {
         return CompletableFuture.supplyAsync(() -> {
-            try (Connection conn = databaseConnection.getConnection();
+            try (Connection conn = databaseConnection.getReadConnection();
                     PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_BANKNOTE)) {
 
                 pstmt.setString(1, banknoteUuid.toString());
@@ -402,7 +502,7 @@ public class LogManager {
                 e.printStackTrace();
             }
             return null;
-        });
+        }, executor);
     }
 
     private TransactionLog mapResultSetToLog(ResultSet rs) throws SQLException {
@@ -447,28 +547,8 @@ public class LogManager {
         if (logDir == null)
             return;
 
-        // 建立日誌物件
-        Map<String, Object> logEntry = new LinkedHashMap<>();
-        logEntry.put("timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-        logEntry.put("level", level);
-        logEntry.put("category", category);
-        logEntry.putAll(data);
-
-        String jsonLog = gson.toJson(logEntry);
-        String dateStr = LocalDate.now().toString(); // YYYY-MM-DD
-        File file = new File(logDir, "log-" + dateStr + ".jsonl");
-
-        fileLock.lock();
-        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
-                java.nio.file.StandardOpenOption.CREATE, java.nio.file.StandardOpenOption.APPEND)) {
-            writer.write(jsonLog);
-            writer.newLine();
-        } catch (IOException e) {
-            logger.severe("寫入日誌檔案失敗: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            fileLock.unlock();
-        }
+        // 與交易日誌共用長期開啟的檔案寫入器
+        journal.writeFileLine(journal.formatLine(level, category, data));
     }
 
     public record TransactionLog(
@@ -484,4 +564,22 @@ public class LogManager {
             boolean reverted,
             Double oldBalance) {
     }
+
+    /**
+     * 交易歷史分頁游標 (上一頁最後一筆的時間與 ID)。
+     *
+     * @param timestamp 時間欄位在資料庫中保存的原始字串
+     * @param logId     記錄 ID
+     */
+    public record HistoryCursor(String timestamp, int logId) {
+    }
+
+    /**
+     * 交易歷史的一頁。
+     *
+     * @param logs 此頁記錄 (由新到舊)
+     * @param next 下一頁游標，若已無更多記錄則為 null
+     */
+    public record HistoryPage(List<TransactionLog> logs, HistoryCursor next) {
+    }
 }
@@ -0,0 +1,200 @@
+package com.smile.aceeconomy.manager;
+
+import com.smile.aceeconomy.data.Account;
+import com.smile.aceeconomy.storage.StorageProvider;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * 登入帳戶載入批次器。
+ * <p>
+ * 伺服器重啟後常有大量玩家同時登入，逐一載入帳戶會造成大量的連線借用與查詢。
+ * 此批次器收集一小段時間窗口內的載入請求，合併為一次
+ * {@link StorageProvider#loadAccounts(java.util.Collection)} 呼叫，
+ * 讓登入高峰的資料庫往返次數與玩家數量無關。
+ * </p>
+ * <p>
+ * 第一個請求抵達時開始計時，窗口結束或累積數量達到上限時送出整批；
+ * 同一批次中重複的 UUID 共用同一個 Future。
+ * </p>
+ *
+ * @author Smile
+ */
+public class LoginBatcher {
+
+    private final StorageProvider storageProvider;
+    private final Logger logger;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService timer;
+
+    private final Object lock = new Object();
+    private Map<UUID, CompletableFuture<Account>> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean shutdown = false;
+
+    // 統計數據
+    private final AtomicLong totalRequests = new AtomicLong();
+    private final AtomicLong totalBatches = new AtomicLong();
+    private final AtomicInteger largestBatch = new AtomicInteger();
+
+    /**
+     * 建立登入批次器。
+     *
+     * @param storageProvider 儲存提供者
+     * @param logger          日誌記錄器
+     * @param windowMillis    收集窗口 (毫秒)，0 表示不等待 (每個請求各自查詢)
+     * @param maxBatchSize    每批次最多載入的帳戶數
+     */
+    public LoginBatcher(StorageProvider storageProvider, Logger logger, long windowMillis, int maxBatchSize) {
+        this.storageProvider = storageProvider;
+        this.logger = logger;
+        this.windowMillis = Math.max(0L, windowMillis);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "AceEconomy-LoginBatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 載入帳戶。
+     * <p>
+     * 若帳戶不存在，Future 以 null 完成；查詢失敗時以例外完成。
+     * </p>
+     *
+     * @param uuid 玩家 UUID
+     * @return 帳戶 Future
+     */
+    public CompletableFuture<Account> load(UUID uuid) {
+        totalRequests.incrementAndGet();
+
+        CompletableFuture<Account> future;
+        Map<UUID, CompletableFuture<Account>> ready = null;
+        synchronized (lock) {
+            if (windowMillis == 0 || shutdown) {
+                future = new CompletableFuture<>();
+                ready = Map.of(uuid, future);
+            } else {
+                future = pending.get(uuid);
+                if (future != null) {
+                    return future;
+                }
+                future = new CompletableFuture<>();
+                pending.put(uuid, future);
+
+                if (pending.size() >= maxBatchSize) {
+                    ready = drain();
+                } else if (pending.size() == 1) {
+                    scheduledFlush = timer.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+
+        if (ready != null) {
+            dispatch(ready);
+        }
+        return future;
+    }
+
+    /**
+     * 立即送出目前收集的請求。
+     */
+    public void flush() {
+        Map<UUID, CompletableFuture<Account>> batch;
+        synchronized (lock) {
+            batch = drain();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    /**
+     * 取出目前批次 (須持有鎖)。
+     */
+    private Map<UUID, CompletableFuture<Account>> drain() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        Map<UUID, CompletableFuture<Account>> batch = pending;
+        pending = new LinkedHashMap<>();
+        return batch;
+    }
+
+    private void dispatch(Map<UUID, CompletableFuture<Account>> batch) {
+        totalBatches.incrementAndGet();
+        largestBatch.accumulateAndGet(batch.size(), Math::max);
+
+        CompletableFuture<Map<UUID, Account>> result;
+        try {
+            result = storageProvider.loadAccounts(List.copyOf(batch.keySet()));
+        } catch (RuntimeException e) {
+            // 儲存執行器已關閉等同步錯誤
+            result = CompletableFuture.failedFuture(e);
+        }
+
+        result.whenComplete((accounts, throwable) -> {
+            if (throwable != null) {
+                logger.warning("[AceEconomy] 批次載入 " + batch.size() + " 個帳戶失敗: " + throwable.getMessage());
+                batch.values().forEach(future -> future.completeExceptionally(throwable));
+                return;
+            }
+            for (Map.Entry<UUID, CompletableFuture<Account>> entry : batch.entrySet()) {
+                entry.getValue().complete(accounts.get(entry.getKey()));
+            }
+        });
+    }
+
+    /**
+     * 停止計時器並送出剩餘的請求。
+     * <p>
+     * 必須在儲存執行器關閉之前呼叫。
+     * </p>
+     */
+    public void shutdown() {
+        Map<UUID, CompletableFuture<Account>> batch;
+        synchronized (lock) {
+            shutdown = true;
+            batch = drain();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+        timer.shutdownNow();
+        logger.info("[AceEconomy] 登入批次器已關閉 (共 " + totalRequests.get() + " 個請求，" + totalBatches.get()
+                + " 個批次，最大批次 " + largestBatch.get() + " 個)");
+    }
+
+    /**
+     * 取得統計快照。
+     *
+     * @return 統計數據
+     */
+    public Metrics getMetrics() {
+        return new Metrics(totalRequests.get(), totalBatches.get(), largestBatch.get());
+    }
+
+    /**
+     * 登入批次器統計數據。
+     *
+     * @param requests     累計載入請求數
+     * @param batches      累計送出的批次數
+     * @param largestBatch 最大批次的帳戶數
+     */
+    public record Metrics(long requests, long batches, int largestBatch) {
+    }
+}
@@ -1,18 +1,71 @@
 package com.smile.aceeconomy.manager;
 
 import com.smile.aceeconomy.AceEconomy;
+import com.smile.aceeconomy.storage.MigrationJobStore;
 import com.smile.aceeconomy.storage.StorageProvider;
+import com.smile.aceeconomy.storage.TableCopier;
+import com.smile.aceeconomy.storage.TableCopier.Column;
+import com.smile.aceeconomy.storage.TableCopier.ColumnType;
+import com.smile.aceeconomy.storage.TableCopier.Table;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 /**
  * 資料遷移管理器。
  * <p>
  * 負責在不同儲存系統之間遷移資料。
+ * 玩家、餘額與交易記錄三張資料表依序以 {@link TableCopier} 串流複製 (讀取與寫入重疊進行、逐批提交)，
+ * 完成後重新讀取目標資料表，比對各表的列數與檢查碼。
+ * </p>
+ * <p>
+ * 每張表都是一個可續傳的遷移工作，檢查點與資料在目標資料庫的同一個交易中提交
+ * (ace_migration_jobs)。中斷後再次執行同一方向的遷移會從檢查點繼續；
+ * 已完成且來源與目標皆未變更的表則直接略過。
  * </p>
  */
 public class MigrationManager {
 
+    /**
+     * 回報進度的最短間隔 (毫秒)
+     */
+    private static final long PROGRESS_INTERVAL_MILLIS = 5000L;
+
+    /**
+     * 要遷移的資料表 (依序複製；生成欄位 username_lower 由目標資料庫自行計算)
+     */
+    private static final List<Table> TABLES = List.of(
+            new Table("ace_users", List.of(
+                    new Column("uuid", ColumnType.STRING),
+                    new Column("username", ColumnType.STRING),
+                    new Column("last_seen", ColumnType.LONG)),
+                    List.of("uuid")),
+            new Table("ace_balances", List.of(
+                    new Column("uuid", ColumnType.STRING),
+                    new Column("currency_id", ColumnType.STRING),
+                    new Column("balance", ColumnType.DOUBLE),
+                    new Column("username", ColumnType.STRING),
+                    new Column("balance_minor", ColumnType.LONG),
+                    new Column("minor_scale", ColumnType.LONG)),
+                    List.of("uuid", "currency_id")),
+            new Table("ace_transaction_logs", List.of(
+                    new Column("log_id", ColumnType.LONG),
+                    new Column("transaction_id", ColumnType.STRING),
+                    new Column("banknote_uuid", ColumnType.STRING),
+                    new Column("timestamp", ColumnType.TIMESTAMP),
+                    new Column("sender_uuid", ColumnType.STRING),
+                    new Column("receiver_uuid", ColumnType.STRING),
+                    new Column("currency_type", ColumnType.STRING),
+                    new Column("currency_id", ColumnType.STRING),
+                    new Column("amount", ColumnType.DOUBLE),
+                    new Column("type", ColumnType.STRING),
+                    new Column("reverted", ColumnType.BOOLEAN),
+                    new Column("old_balance", ColumnType.DOUBLE)),
+                    List.of("log_id")));
+
     private final AceEconomy plugin;
     private final StorageProvider currentStorage;
 
@@ -25,55 +78,206 @@ public class MigrationManager {
      * 執行遷移。
      *
      * @param targetType 目標儲存類型 (mysql/sqlite)
+     * @param listener   進度回報 (可為 null)
      * @return 遷移結果
      */
-    /**
-     * 執行遷移。
-     *
-     * @param targetType 目標儲存類型 (mysql/sqlite)
-     * @return 遷移結果
-     */
-    public CompletableFuture<MigrationResult> migrate(String targetType) {
+    public CompletableFuture<MigrationResult> migrate(String targetType, TableCopier.ProgressListener listener) {
         long startTime = System.currentTimeMillis();
 
         return CompletableFuture.supplyAsync(() -> {
             StorageProvider targetStorage = null;
+            List<TableReport> reports = new ArrayList<>();
             try {
                 // Initialize target storage
+                boolean targetMySQL;
                 if (targetType.equalsIgnoreCase("mysql") || targetType.equalsIgnoreCase("mariadb")) {
-                    targetStorage = new com.smile.aceeconomy.storage.implementation.MySQLImplementation(plugin,
-                            plugin.getConfigManager());
+                    targetMySQL = true;
                 } else if (targetType.equalsIgnoreCase("sqlite")) {
-                    targetStorage = new com.smile.aceeconomy.storage.implementation.SQLiteImplementation(plugin);
+                    targetMySQL = false;
                 } else {
                     throw new IllegalArgumentException("Unsupported target type: " + targetType);
                 }
+                if (targetMySQL == currentStorage.isMySQL()) {
+                    throw new IllegalArgumentException("目標儲存類型與目前使用中的相同: " + targetType);
+                }
 
+                targetStorage = targetMySQL
+                        ? new com.smile.aceeconomy.storage.implementation.MySQLImplementation(plugin,
+                                plugin.getConfigManager(), plugin.getStorageExecutor())
+                        : new com.smile.aceeconomy.storage.implementation.SQLiteImplementation(plugin,
+                                plugin.getStorageExecutor());
                 targetStorage.init();
 
-                // Dump from current
-                com.smile.aceeconomy.data.DataDump dump = currentStorage.dumpAllData().join();
+                // 先寫出尚在記憶體中的餘額變動
+                WriteBehindManager writeBehindManager = plugin.getWriteBehindManager();
+                if (writeBehindManager != null) {
+                    writeBehindManager.flushNow().join();
+                }
+                // 交易日誌佇列與溢出檔也須先寫入，否則複製的交易記錄會缺少最近的交易
+                LogManager logManager = plugin.getLogManager();
+                if (logManager != null) {
+                    logManager.flushJournal().join();
+                }
+
+                ConfigManager configManager = plugin.getConfigManager();
+                TableCopier copier = new TableCopier(configManager.getMigrationBatchSize(),
+                        configManager.getMigrationQueueCapacity(), PROGRESS_INTERVAL_MILLIS);
+                MigrationJobStore jobs = new MigrationJobStore(targetMySQL);
+                String sourceType = currentStorage.isMySQL() ? "mysql" : "sqlite";
+
+                for (Table table : TABLES) {
+                    try (Connection source = currentStorage.openMigrationReadConnection();
+                            Connection target = targetStorage.openMigrationWriteConnection()) {
+                        reports.add(migrateTable(copier, jobs, jobId(sourceType, table), table, source, target,
+                                targetMySQL, listener));
+                    }
+                }
 
-                // Import to target
-                targetStorage.importData(dump).join();
+                // 記錄各工作的最終狀態：驗證失敗的表下次從頭開始
+                try (Connection target = targetStorage.openMigrationWriteConnection()) {
+                    for (int i = 0; i < TABLES.size(); i++) {
+                        TableReport report = reports.get(i);
+                        jobs.save(target, new MigrationJobStore.Job(jobId(sourceType, TABLES.get(i)),
+                                report.verified() ? MigrationJobStore.Status.COMPLETED
+                                        : MigrationJobStore.Status.FAILED,
+                                null, report.sourceRows(), report.sourceChecksum(), System.currentTimeMillis()));
+                    }
+                }
 
                 long duration = System.currentTimeMillis() - startTime;
-                return new MigrationResult(dump.users().size(), dump.balances().size(), duration, true,
-                        "Migration successful");
+                List<String> mismatched = reports.stream().filter(report -> !report.verified())
+                        .map(TableReport::table).toList();
+                for (TableReport report : reports) {
+                    plugin.getLogger().info("[AceEconomy] 驗證 " + report.table() + ": 來源 " + report.sourceRows()
+                            + " 筆，目標 " + report.targetRows() + " 筆，檢查碼"
+                            + (report.checksumMatches() ? "相符" : "不符"));
+                }
+                if (!mismatched.isEmpty()) {
+                    return new MigrationResult(reports, duration, false,
+                            "Verification failed for " + String.join(", ", mismatched));
+                }
+                return new MigrationResult(reports, duration, true, "Migration successful");
 
             } catch (Exception e) {
                 plugin.getLogger().severe("Migration failed: " + e.getMessage());
                 e.printStackTrace();
                 long duration = System.currentTimeMillis() - startTime;
-                return new MigrationResult(0, 0, duration, false, "Migration failed: " + e.getMessage());
+                return new MigrationResult(reports, duration, false, "Migration failed: " + e.getMessage());
             } finally {
                 if (targetStorage != null) {
                     targetStorage.shutdown();
                 }
             }
-        });
+        }, com.smile.aceeconomy.migration.Migrator.dedicatedThread("AceEconomy-Migration"));
     }
 
-    public record MigrationResult(int users, int balances, long duration, boolean success, String message) {
+    /**
+     * 遷移單一資料表 (可續傳)。
+     * <p>
+     * 未完成的工作從檢查點繼續；已完成的工作若來源與目標的列數、檢查碼皆與記錄相同則略過，
+     * 否則 (或上次驗證失敗) 從頭重新複製。
+     * </p>
+     */
+    private TableReport migrateTable(TableCopier copier, MigrationJobStore jobs, String jobId, Table table,
+            Connection source, Connection target, boolean targetMySQL, TableCopier.ProgressListener listener)
+            throws SQLException {
+        MigrationJobStore.Job job = jobs.find(target, jobId);
+
+        TableCopier.Checkpoint from = TableCopier.Checkpoint.START;
+        if (job != null && job.status() == MigrationJobStore.Status.RUNNING && job.checkpoint() != null) {
+            from = new TableCopier.Checkpoint(table.decodeKey(job.checkpoint()), job.processed(), job.checksum());
+            plugin.getLogger().info("[AceEconomy] 從檢查點繼續遷移 " + table.name() + " (已完成 " + job.processed()
+                    + " 筆)");
+        } else if (job != null && job.status() == MigrationJobStore.Status.COMPLETED) {
+            TableCopier.Totals sourceTotals = copier.scan(table, source);
+            TableCopier.Totals targetTotals = copier.scan(table, target);
+            if (sourceTotals.rows() == job.processed() && sourceTotals.checksum() == job.checksum()
+                    && sourceTotals.equals(targetTotals)) {
+                plugin.getLogger().info("[AceEconomy] " + table.name() + " 已遷移且未變更，略過");
+                return new TableReport(table.name(), sourceTotals.rows(), targetTotals.rows(),
+                        sourceTotals.checksum(), targetTotals.checksum());
+            }
+        }
+
+        long expected = TableCopier.count(source, table.name());
+        plugin.getLogger().info("[AceEconomy] 開始遷移 " + table.name() + " (" + expected + " 筆)");
+
+        TableCopier.Totals copied = copier.copy(table, source, target, targetMySQL, expected, from,
+                (conn, checkpoint) -> jobs.save(conn, new MigrationJobStore.Job(jobId,
+                        MigrationJobStore.Status.RUNNING, table.encodeKey(checkpoint.lastKey()), checkpoint.rows(),
+                        checkpoint.checksum(), System.currentTimeMillis())),
+                (name, done, total, rate) -> {
+                    plugin.getLogger().info("[AceEconomy] 遷移 " + name + ": " + done + "/" + total
+                            + " (" + rate + " 筆/秒)");
+                    if (listener != null) {
+                        listener.onProgress(name, done, total, rate);
+                    }
+                });
+        TableCopier.Totals verified = copier.scan(table, target);
+        return new TableReport(table.name(), copied.rows(), verified.rows(), copied.checksum(),
+                verified.checksum());
+    }
+
+    private static String jobId(String sourceType, Table table) {
+        return "migrate:" + sourceType + ":" + table.name();
+    }
+
+    /**
+     * 遷移結果。
+     *
+     * @param tables   各資料表的驗證報告
+     * @param duration 耗時 (毫秒)
+     * @param success  是否成功 (含驗證)
+     * @param message  結果訊息
+     */
+    public record MigrationResult(List<TableReport> tables, long duration, boolean success, String message) {
+
+        /**
+         * 取得指定資料表複製的列數。
+         *
+         * @param table 資料表名稱
+         * @return 列數，若未遷移則為 0
+         */
+        public long rows(String table) {
+            for (TableReport report : tables) {
+                if (report.table().equals(table)) {
+                    return report.sourceRows();
+                }
+            }
+            return 0;
+        }
+
+        public long users() {
+            return rows("ace_users");
+        }
+
+        public long balances() {
+            return rows("ace_balances");
+        }
+
+        public long logs() {
+            return rows("ace_transaction_logs");
+        }
+    }
+
+    /**
+     * 單一資料表的遷移驗證報告。
+     *
+     * @param table          資料表名稱
+     * @param sourceRows     從來源讀取的列數
+     * @param targetRows     目標資料表的列數
+     * @param sourceChecksum 來源檢查碼
+     * @param targetChecksum 目標檢查碼
+     */
+    public record TableReport(String table, long sourceRows, long targetRows, long sourceChecksum,
+            long targetChecksum) {
+
+        public boolean checksumMatches() {
+            return sourceChecksum == targetChecksum;
+        }
+
+        public boolean verified() {
+            return sourceRows == targetRows && checksumMatches();
+        }
     }
 }
@@ -0,0 +1,192 @@
+package com.smile.aceeconomy.manager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 玩家名稱索引 (不區分大小寫)。
+ * <p>
+ * 以小寫名稱為鍵的有序索引，提供名稱 ↔ UUID 的記憶體查詢與名稱前綴搜尋，
+ * 讓離線玩家的 {@code /pay}、{@code /balance} 不必每次查詢資料庫。
+ * </p>
+ * <p>
+ * 讀取不加鎖；寫入 (玩家加入、查詢後回填) 以自身為鎖，處理改名與名稱被其他玩家沿用的情況。
+ * 數量超過上限時，淘汰最久未使用的一批項目。
+ * </p>
+ *
+ * @author Smile
+ */
+public class NameIndex {
+
+    /**
+     * 超過上限時一次淘汰的比例 (避免每次寫入都掃描)
+     */
+    private static final int EVICT_DIVISOR = 10;
+
+    private final int maxSize;
+
+    /**
+     * 小寫名稱 -> 項目 (依名稱排序，供前綴搜尋)
+     */
+    private final ConcurrentSkipListMap<String, Entry> byName = new ConcurrentSkipListMap<>();
+
+    /**
+     * UUID -> 小寫名稱
+     */
+    private final ConcurrentHashMap<UUID, String> byUuid = new ConcurrentHashMap<>();
+
+    /**
+     * 邏輯時鐘，用於判斷最近使用順序
+     */
+    private final AtomicLong clock = new AtomicLong();
+
+    /**
+     * 建立玩家名稱索引。
+     *
+     * @param maxSize 最多保存的玩家數
+     */
+    public NameIndex(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * 正規化名稱 (去除空白並轉為小寫)。
+     *
+     * @param name 玩家名稱
+     * @return 正規化後的名稱
+     */
+    public static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 記錄玩家名稱。
+     * <p>
+     * 玩家改名時移除舊名稱；名稱已屬於其他玩家時，改由此玩家使用。
+     * </p>
+     *
+     * @param uuid 玩家 UUID
+     * @param name 玩家名稱
+     */
+    public synchronized void put(UUID uuid, String name) {
+        if (name == null || name.isBlank()) {
+            return;
+        }
+        String key = normalize(name);
+
+        String previousKey = byUuid.put(uuid, key);
+        if (previousKey != null && !previousKey.equals(key)) {
+            Entry previous = byName.get(previousKey);
+            if (previous != null && previous.uuid.equals(uuid)) {
+                byName.remove(previousKey, previous);
+            }
+        }
+        Entry displaced = byName.put(key, new Entry(uuid, name.trim(), clock.incrementAndGet()));
+        if (displaced != null && !displaced.uuid.equals(uuid)) {
+            byUuid.remove(displaced.uuid, key);
+        }
+
+        if (byName.size() > maxSize) {
+            evict();
+        }
+    }
+
+    /**
+     * 以名稱查詢 UUID。
+     *
+     * @param name 玩家名稱 (不區分大小寫)
+     * @return UUID，若不在索引中則回傳 null
+     */
+    public UUID getUuid(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        Entry entry = byName.get(normalize(name));
+        if (entry == null) {
+            return null;
+        }
+        entry.lastUsed = clock.incrementAndGet();
+        return entry.uuid;
+    }
+
+    /**
+     * 以 UUID 查詢名稱。
+     *
+     * @param uuid 玩家 UUID
+     * @return 玩家名稱 (原始大小寫)，若不在索引中則回傳 null
+     */
+    public String getName(UUID uuid) {
+        String key = byUuid.get(uuid);
+        if (key == null) {
+            return null;
+        }
+        Entry entry = byName.get(key);
+        if (entry == null || !entry.uuid.equals(uuid)) {
+            return null;
+        }
+        entry.lastUsed = clock.incrementAndGet();
+        return entry.name;
+    }
+
+    /**
+     * 以前綴搜尋玩家名稱。
+     *
+     * @param prefix 名稱前綴 (不區分大小寫)
+     * @param limit  最多筆數
+     * @return 符合的玩家名稱 (原始大小寫)，依名稱排序
+     */
+    public List<String> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        List<String> names = new ArrayList<>(Math.min(limit, 16));
+        for (Map.Entry<String, Entry> entry : byName.tailMap(key, true).entrySet()) {
+            if (names.size() >= limit || !entry.getKey().startsWith(key)) {
+                break;
+            }
+            names.add(entry.getValue().name);
+        }
+        return names;
+    }
+
+    /**
+     * 取得索引中的玩家數。
+     *
+     * @return 玩家數
+     */
+    public int size() {
+        return byName.size();
+    }
+
+    /**
+     * 淘汰最久未使用的一批項目 (須持有鎖)。
+     */
+    private void evict() {
+        int excess = byName.size() - maxSize + Math.max(1, maxSize / EVICT_DIVISOR);
+        List<Map.Entry<String, Entry>> candidates = new ArrayList<>(byName.entrySet());
+        candidates.sort(Comparator.comparingLong(e -> e.getValue().lastUsed));
+        for (int i = 0; i < excess && i < candidates.size(); i++) {
+            Map.Entry<String, Entry> victim = candidates.get(i);
+            if (byName.remove(victim.getKey(), victim.getValue())) {
+                byUuid.remove(victim.getValue().uuid, victim.getKey());
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final UUID uuid;
+        private final String name;
+        private volatile long lastUsed;
+
+        private Entry(UUID uuid, String name, long lastUsed) {
+            this.uuid = uuid;
+            this.name = name;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
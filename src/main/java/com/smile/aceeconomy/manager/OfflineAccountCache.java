@@ -0,0 +1,371 @@
+package com.smile.aceeconomy.manager;
+
+import com.smile.aceeconomy.data.Account;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 離線帳戶快取。
+ * <p>
+ * {@link CurrencyManager} 的第二層快取，保存最近被指令或 API 存取過的離線玩家帳戶，
+ * 避免每次查詢或異動離線玩家都重新從儲存層載入。
+ * 容量有上限 (超過時淘汰最久未使用的帳戶)，且帳戶在一段時間未被存取後過期。
+ * </p>
+ * <p>
+ * 同一個 UUID 同時只會有一個載入查詢，並行的請求共用同一個 Future。
+ * 過期時間以最後存取時間計算，因此存取順序即為過期順序，
+ * 每次存取時只需從最舊的一端移除已過期的帳戶。
+ * </p>
+ * <p>
+ * 離線餘額操作期間以 {@link #acquire(UUID)} 釘選帳戶：被釘選的帳戶不會被淘汰或過期，
+ * 確保同一位玩家在操作期間只有一個 {@link Account} 物件，並行的操作都作用在同一組 CAS 餘額格上，
+ * 不會因為重新載入而遺失變動。容量為 0 時帳戶只在釘選期間暫存。
+ * </p>
+ *
+ * @author Smile
+ */
+public class OfflineAccountCache {
+
+    private final Function<UUID, CompletableFuture<Account>> loader;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    /**
+     * 帳戶快取 (存取順序)，以自身為鎖
+     */
+    private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * 載入中的帳戶：UUID -> Future
+     */
+    private final ConcurrentHashMap<UUID, CompletableFuture<Account>> loading = new ConcurrentHashMap<>();
+
+    // 統計數據
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    /**
+     * 建立離線帳戶快取。
+     *
+     * @param loader     帳戶載入器 (帳戶不存在時以 null 完成)
+     * @param maxSize    最多保存的帳戶數 (0 表示只在釘選期間暫存)
+     * @param ttlSeconds 未被存取多久後過期 (秒)
+     */
+    public OfflineAccountCache(Function<UUID, CompletableFuture<Account>> loader, int maxSize, long ttlSeconds) {
+        this(loader, maxSize, ttlSeconds, System::nanoTime);
+    }
+
+    OfflineAccountCache(Function<UUID, CompletableFuture<Account>> loader, int maxSize, long ttlSeconds,
+            LongSupplier clock) {
+        this.loader = loader;
+        this.maxSize = Math.max(0, maxSize);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(1L, ttlSeconds));
+        this.clock = clock;
+    }
+
+    /**
+     * 取得已在快取中的帳戶 (不會觸發載入)。
+     *
+     * @param uuid 玩家 UUID
+     * @return 帳戶，若不在快取中或已過期則回傳 null
+     */
+    public Account getIfPresent(UUID uuid) {
+        long now = clock.getAsLong();
+        synchronized (entries) {
+            Entry entry = entries.get(uuid);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.pins == 0 && entry.expiresAt - now <= 0) {
+                entries.remove(uuid);
+                expirations.incrementAndGet();
+                return null;
+            }
+            entry.expiresAt = now + ttlNanos;
+            expireEldest(now);
+            return entry.account;
+        }
+    }
+
+    /**
+     * 載入並釘選帳戶。
+     * <p>
+     * 釘選期間帳戶不會被淘汰或過期；使用完畢後必須關閉回傳的 {@link Lease}。
+     * 帳戶不存在時 Future 以 null 完成。
+     * </p>
+     *
+     * @param uuid 玩家 UUID
+     * @return 帳戶租用 Future
+     */
+    public CompletableFuture<Lease> acquire(UUID uuid) {
+        return get(uuid).thenApply(account -> account != null ? pin(account) : null);
+    }
+
+    /**
+     * 釘選帳戶；若帳戶在載入後已被淘汰，重新放回快取。
+     */
+    private Lease pin(Account account) {
+        long now = clock.getAsLong();
+        synchronized (entries) {
+            Entry entry = entries.get(account.getOwner());
+            if (entry == null) {
+                entry = new Entry(account, now + ttlNanos);
+                entries.put(account.getOwner(), entry);
+            }
+            entry.pins++;
+            entry.expiresAt = now + ttlNanos;
+            return new Lease(this, entry);
+        }
+    }
+
+    private void unpin(Entry entry) {
+        long now = clock.getAsLong();
+        synchronized (entries) {
+            entry.pins--;
+            entry.expiresAt = now + ttlNanos;
+            trim(now);
+        }
+    }
+
+    /**
+     * 取得帳戶，不在快取中時載入。
+     * <p>
+     * 並行請求同一個 UUID 只會觸發一次載入。帳戶不存在時 Future 以 null 完成，且不會被快取。
+     * </p>
+     *
+     * @param uuid 玩家 UUID
+     * @return 帳戶 Future
+     */
+    public CompletableFuture<Account> get(UUID uuid) {
+        Account cached = getIfPresent(uuid);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return CompletableFuture.completedFuture(cached);
+        }
+        misses.incrementAndGet();
+
+        CompletableFuture<Account> promise = new CompletableFuture<>();
+        CompletableFuture<Account> existing = loading.putIfAbsent(uuid, promise);
+        if (existing != null) {
+            return existing;
+        }
+
+        loads.incrementAndGet();
+        CompletableFuture<Account> load;
+        try {
+            load = loader.apply(uuid);
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+
+        load.whenComplete((account, throwable) -> {
+            // 先放入快取再移除載入中標記，避免兩者之間的空窗觸發重複載入
+            Account result = throwable == null && account != null ? putIfAbsent(account) : account;
+            loading.remove(uuid, promise);
+            if (throwable != null) {
+                promise.completeExceptionally(throwable);
+            } else {
+                promise.complete(result);
+            }
+        });
+        return promise;
+    }
+
+    /**
+     * 放入帳戶 (例如玩家離線時保留最新的記憶體帳戶)，覆蓋既有項目。
+     *
+     * @param account 帳戶
+     */
+    public void put(Account account) {
+        long now = clock.getAsLong();
+        synchronized (entries) {
+            Entry existing = entries.get(account.getOwner());
+            if (existing != null && existing.pins > 0) {
+                // 釘選中的帳戶仍在使用，不可替換
+                return;
+            }
+            entries.put(account.getOwner(), new Entry(account, now + ttlNanos));
+            trim(now);
+        }
+    }
+
+    /**
+     * 放入剛載入的帳戶；若載入期間已有較新的帳戶放入，沿用既有帳戶。
+     */
+    private Account putIfAbsent(Account account) {
+        long now = clock.getAsLong();
+        synchronized (entries) {
+            Entry existing = entries.get(account.getOwner());
+            if (existing != null && (existing.pins > 0 || existing.expiresAt - now > 0)) {
+                return existing.account;
+            }
+            entries.put(account.getOwner(), new Entry(account, now + ttlNanos));
+            trim(now);
+            return account;
+        }
+    }
+
+    /**
+     * 移除帳戶 (例如玩家登入後改由線上快取管理)。
+     *
+     * @param uuid 玩家 UUID
+     * @return 被移除的帳戶，若不在快取中則回傳 null
+     */
+    public Account remove(UUID uuid) {
+        synchronized (entries) {
+            Entry entry = entries.remove(uuid);
+            return entry != null ? entry.account : null;
+        }
+    }
+
+    /**
+     * 清空快取。
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * 取得目前快取的帳戶數。
+     *
+     * @return 帳戶數
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * 淘汰超過容量與已過期的帳戶 (須持有鎖，釘選中的帳戶除外)。
+     */
+    private void trim(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            if (iterator.next().pins > 0) {
+                continue;
+            }
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+        expireEldest(now);
+    }
+
+    /**
+     * 從最久未存取的一端移除已過期的帳戶 (須持有鎖，釘選中的帳戶除外)。
+     */
+    private void expireEldest(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.pins > 0) {
+                continue;
+            }
+            if (entry.expiresAt - now > 0) {
+                return;
+            }
+            iterator.remove();
+            expirations.incrementAndGet();
+        }
+    }
+
+    /**
+     * 取得統計快照。
+     *
+     * @return 統計數據
+     */
+    public Metrics getMetrics() {
+        return new Metrics(size(), hits.get(), misses.get(), loads.get(), evictions.get(), expirations.get());
+    }
+
+    private static final class Entry {
+        private final Account account;
+        private long expiresAt;
+        private int pins;
+
+        private Entry(Account account, long expiresAt) {
+            this.account = account;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * 帳戶租用 (釘選)。
+     */
+    public static final class Lease implements AutoCloseable {
+
+        private final OfflineAccountCache cache;
+        private final Entry entry;
+        private final Account account;
+        private boolean closed;
+
+        private Lease(OfflineAccountCache cache, Entry entry) {
+            this.cache = cache;
+            this.entry = entry;
+            this.account = entry.account;
+        }
+
+        private Lease(Account account) {
+            this.cache = null;
+            this.entry = null;
+            this.account = account;
+        }
+
+        /**
+         * 建立不需釘選的租用 (線上玩家的帳戶由線上快取保存)。
+         *
+         * @param account 帳戶
+         * @return 租用
+         */
+        static Lease unpinned(Account account) {
+            return new Lease(account);
+        }
+
+        /**
+         * 取得帳戶。
+         *
+         * @return 帳戶
+         */
+        public Account account() {
+            return account;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                if (cache != null) {
+                    cache.unpin(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * 離線帳戶快取統計數據。
+     *
+     * @param size        目前快取的帳戶數
+     * @param hits        累計命中次數
+     * @param misses      累計未命中次數
+     * @param loads       累計實際載入次數 (未命中但共用進行中載入的請求不計)
+     * @param evictions   累計因容量淘汰的帳戶數
+     * @param expirations 累計過期的帳戶數
+     */
+    public record Metrics(int size, long hits, long misses, long loads, long evictions, long expirations) {
+    }
+}
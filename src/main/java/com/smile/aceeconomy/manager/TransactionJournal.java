@@ -0,0 +1,737 @@
+package com.smile.aceeconomy.manager;
+
+import com.google.gson.Gson;
+import com.smile.aceeconomy.data.TransactionType;
+import com.smile.aceeconomy.storage.DatabaseConnection;
+import com.smile.aceeconomy.storage.StatementCache;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * 交易日誌群組提交 (Group Commit) 佇列。
+ * <p>
+ * 以有界佇列接收交易紀錄，由單一消費執行緒批次寫入：
+ * 資料庫端使用多列 INSERT，檔案端使用長期開啟的緩衝寫入器。
+ * 佇列滿載時依設定的溢出策略處理 (阻塞、溢出至磁碟、丟棄並計數)。
+ * </p>
+ *
+ * @author Smile
+ */
+public class TransactionJournal {
+
+    /**
+     * 佇列滿載時的處理策略。
+     */
+    public enum OverflowPolicy {
+        /** 阻塞呼叫端直到佇列有空位 */
+        BLOCK,
+        /** 寫入磁碟溢出檔，閒置時再補寫至資料庫 */
+        SPILL,
+        /** 丟棄紀錄並累計計數 */
+        DROP;
+
+        /**
+         * 解析設定值，無法辨識時回傳 SPILL。
+         *
+         * @param value 設定值
+         * @return 溢出策略
+         */
+        public static OverflowPolicy parse(String value) {
+            if (value == null) {
+                return SPILL;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return SPILL;
+            }
+        }
+    }
+
+    /**
+     * 單筆交易紀錄。
+     *
+     * @param transactionId 交易 ID
+     * @param banknoteUuid  支票 UUID (可為 null)
+     * @param senderUuid    發送者 UUID (可為 null)
+     * @param receiverUuid  接收者 UUID (可為 null)
+     * @param currency      貨幣 ID
+     * @param amount        金額
+     * @param type          交易類型
+     * @param oldBalance    變更前餘額 (可為 null)
+     * @param context       上下文資訊
+     * @param createdAt     建立時間 (毫秒)
+     */
+    public record Entry(
+            String transactionId,
+            UUID banknoteUuid,
+            UUID senderUuid,
+            UUID receiverUuid,
+            String currency,
+            double amount,
+            TransactionType type,
+            Double oldBalance,
+            String context,
+            long createdAt) {
+    }
+
+    /**
+     * 每個 INSERT 陳述式的最大列數 (10 個參數 × 64 列，低於 SQLite 的 999 變數上限)。
+     */
+    private static final int ROWS_PER_STATEMENT = 64;
+
+    private static final String INSERT_PREFIX = """
+            INSERT INTO ace_transaction_logs
+            (transaction_id, timestamp, banknote_uuid, sender_uuid, receiver_uuid, currency_type, amount, type, reverted, old_balance)
+            VALUES\s""";
+
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * SQLite 的 CURRENT_TIMESTAMP 格式 (UTC 文字)。交易時間以相同格式寫入，
+     * 與以預設值填入的舊紀錄可直接比較與排序。
+     */
+    private static final DateTimeFormatter SQLITE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+            .withZone(ZoneOffset.UTC);
+
+    /**
+     * 可用的 INSERT 列數。批次依此拆分，讓不同大小的批次只會用到少數幾種 SQL，
+     * 可長期保留在陳述式快取中。
+     */
+    private static final int[] STATEMENT_ROWS = { ROWS_PER_STATEMENT, 32, 16, 8, 4, 2, 1 };
+
+    private static final String[] INSERT_SQL = new String[ROWS_PER_STATEMENT + 1];
+
+    static {
+        for (int rows : STATEMENT_ROWS) {
+            INSERT_SQL[rows] = buildInsert(rows);
+        }
+    }
+
+    private final DatabaseConnection databaseConnection;
+    private final StatementCache statements;
+    private final Logger logger;
+    private final Gson gson;
+    private final File logDir;
+    private final File spillFile;
+    private final File replayFile;
+
+    private final ArrayBlockingQueue<Entry> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final long flushLatencyMillis;
+    private final int maxBatchSize;
+    private final Thread consumer;
+    private volatile boolean running = true;
+
+    // 長期開啟的日誌檔案寫入器 (每日輪替)
+    private final ReentrantLock fileLock = new ReentrantLock();
+    private BufferedWriter fileWriter;
+    private LocalDate fileDate;
+
+    private final ReentrantLock spillLock = new ReentrantLock();
+    private long nextReplayAttempt = 0;
+
+    // 等待排空的刷新請求 (由消費執行緒完成)
+    private final ConcurrentLinkedQueue<CompletableFuture<Void>> flushRequests = new ConcurrentLinkedQueue<>();
+
+    // 統計數據
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong maxQueueDepth = new AtomicLong();
+    private volatile int lastBatchSize = 0;
+    private volatile long lastDropWarning = 0;
+
+    /**
+     * 建立交易日誌佇列並啟動消費執行緒。
+     *
+     * @param databaseConnection 資料庫連線
+     * @param logger             日誌記錄器
+     * @param gson               JSON 序列化器
+     * @param logDir             日誌目錄
+     * @param capacity           佇列容量
+     * @param flushLatencyMillis 最大刷新延遲 (毫秒)
+     * @param maxBatchSize       每批次最大筆數
+     * @param overflowPolicy     溢出策略
+     */
+    public TransactionJournal(DatabaseConnection databaseConnection, Logger logger, Gson gson, File logDir,
+            int capacity, long flushLatencyMillis, int maxBatchSize, OverflowPolicy overflowPolicy) {
+        this.databaseConnection = databaseConnection;
+        this.statements = databaseConnection.getStatementCache();
+        this.logger = logger;
+        this.gson = gson;
+        this.logDir = logDir;
+        this.spillFile = new File(logDir, "journal-spill.jsonl");
+        this.replayFile = new File(logDir, "journal-spill.replay.jsonl");
+        this.queue = new ArrayBlockingQueue<>(Math.max(16, capacity));
+        this.flushLatencyMillis = Math.max(1L, flushLatencyMillis);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.overflowPolicy = overflowPolicy;
+
+        this.consumer = new Thread(this::runConsumer, "AceEconomy-LogJournal");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * 加入一筆交易紀錄。
+     * <p>
+     * 正常情況下不會阻塞；佇列滿載時依溢出策略處理。
+     * </p>
+     *
+     * @param entry 交易紀錄
+     */
+    public void append(Entry entry) {
+        enqueued.incrementAndGet();
+
+        if (!running) {
+            // 已關閉，直接溢出至磁碟，下次啟動時補寫
+            spill(List.of(entry));
+            return;
+        }
+
+        if (!queue.offer(entry)) {
+            switch (overflowPolicy) {
+                case BLOCK -> {
+                    try {
+                        queue.put(entry);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        spill(List.of(entry));
+                    }
+                }
+                case SPILL -> spill(List.of(entry));
+                case DROP -> {
+                    long total = dropped.incrementAndGet();
+                    long now = System.currentTimeMillis();
+                    if (now - lastDropWarning > 10_000L) {
+                        lastDropWarning = now;
+                        logger.warning("[AceEconomy] 交易日誌佇列已滿，已丟棄 " + total + " 筆紀錄！");
+                    }
+                }
+            }
+        }
+
+        int depth = queue.size();
+        if (depth > maxQueueDepth.get()) {
+            maxQueueDepth.accumulateAndGet(depth, Math::max);
+        }
+    }
+
+    /**
+     * 消費執行緒主迴圈。
+     */
+    private void runConsumer() {
+        List<Entry> batch = new ArrayList<>(maxBatchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                completeFlushRequests();
+                Entry first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    // 閒置時補寫溢出檔
+                    replaySpill();
+                    flushFile();
+                    continue;
+                }
+
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushLatencyMillis;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    Entry next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.severe("[AceEconomy] 交易日誌寫入執行緒發生錯誤: " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                batch.clear();
+            }
+        }
+
+        completeFlushRequests();
+        closeFile();
+    }
+
+    /**
+     * 排空佇列與溢出檔後完成等待中的刷新請求 (在消費執行緒上執行)。
+     */
+    private void completeFlushRequests() {
+        List<CompletableFuture<Void>> waiting = new ArrayList<>();
+        CompletableFuture<Void> request;
+        while ((request = flushRequests.poll()) != null) {
+            waiting.add(request);
+        }
+        if (waiting.isEmpty()) {
+            return;
+        }
+
+        List<Entry> batch = new ArrayList<>(maxBatchSize);
+        while (queue.drainTo(batch, maxBatchSize) > 0) {
+            writeBatch(batch);
+            batch.clear();
+        }
+        // 刷新時不等待補寫的重試間隔
+        nextReplayAttempt = 0;
+        replaySpill();
+        flushFile();
+
+        boolean pending = spillFile.exists() || replayFile.exists();
+        for (CompletableFuture<Void> future : waiting) {
+            if (pending) {
+                future.completeExceptionally(new IllegalStateException("部分交易日誌仍在溢出檔中，尚未寫入資料庫"));
+            } else {
+                future.complete(null);
+            }
+        }
+    }
+
+    /**
+     * 寫入一個批次：先寫檔案，再以多列 INSERT 寫入資料庫。
+     * 資料庫寫入失敗時整批溢出至磁碟，等待稍後補寫。
+     *
+     * @param batch 交易紀錄批次
+     */
+    private void writeBatch(List<Entry> batch) {
+        writeFileEntries(batch);
+
+        try {
+            insertRows(batch);
+            written.addAndGet(batch.size());
+            batches.incrementAndGet();
+            lastBatchSize = batch.size();
+        } catch (SQLException e) {
+            logger.severe("記錄交易失敗 (" + batch.size() + " 筆，已溢出至磁碟): " + e.getMessage());
+            Map<String, Object> errorData = new LinkedHashMap<>();
+            errorData.put("error", e.getMessage());
+            errorData.put("sql_state", e.getSQLState());
+            writeFileLine(formatLine("ERROR", "DATABASE", errorData));
+            spill(batch);
+        }
+    }
+
+    /**
+     * 以單一交易、多列 INSERT 寫入資料庫。
+     *
+     * @param entries 交易紀錄
+     * @throws SQLException 寫入失敗
+     */
+    private void insertRows(List<Entry> entries) throws SQLException {
+        try (Connection conn = databaseConnection.getConnection()) {
+            boolean originalAutoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                int offset = 0;
+                while (offset < entries.size()) {
+                    int rows = statementRows(entries.size() - offset);
+                    List<Entry> chunk = entries.subList(offset, offset + rows);
+                    offset += rows;
+                    try (StatementCache.Lease lease = statements.prepare(conn, INSERT_SQL[rows])) {
+                        PreparedStatement pstmt = lease.statement();
+                        int index = 1;
+                        for (Entry entry : chunk) {
+                            pstmt.setString(index++, entry.transactionId());
+                            bindTimestamp(pstmt, index++, entry.createdAt());
+                            pstmt.setString(index++, entry.banknoteUuid() != null ? entry.banknoteUuid().toString() : null);
+                            pstmt.setString(index++, entry.senderUuid() != null ? entry.senderUuid().toString() : null);
+                            pstmt.setString(index++, entry.receiverUuid() != null ? entry.receiverUuid().toString() : null);
+                            pstmt.setString(index++, entry.currency());
+                            pstmt.setDouble(index++, entry.amount());
+                            pstmt.setString(index++, entry.type().name());
+                            pstmt.setBoolean(index++, false);
+                            if (entry.oldBalance() != null) {
+                                pstmt.setDouble(index++, entry.oldBalance());
+                            } else {
+                                pstmt.setNull(index++, java.sql.Types.DOUBLE);
+                            }
+                        }
+                        pstmt.executeUpdate();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(originalAutoCommit);
+            }
+        }
+    }
+
+    /**
+     * 以交易建立時間填入 timestamp 欄位 (溢出後補寫的紀錄仍保留原本的交易時間)。
+     *
+     * @param pstmt     陳述式
+     * @param index     參數位置
+     * @param createdAt 建立時間 (毫秒)
+     * @throws SQLException 設定失敗
+     */
+    private void bindTimestamp(PreparedStatement pstmt, int index, long createdAt) throws SQLException {
+        if (databaseConnection.isMySQL()) {
+            pstmt.setTimestamp(index, new Timestamp(createdAt));
+        } else {
+            pstmt.setString(index, SQLITE_TIMESTAMP.format(Instant.ofEpochMilli(createdAt)));
+        }
+    }
+
+    /**
+     * 取得不超過剩餘筆數的最大可用 INSERT 列數。
+     *
+     * @param remaining 剩餘筆數
+     * @return 列數
+     */
+    private static int statementRows(int remaining) {
+        for (int rows : STATEMENT_ROWS) {
+            if (rows <= remaining) {
+                return rows;
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * 建立多列 INSERT 陳述式。
+     *
+     * @param rows 列數
+     * @return SQL 字串
+     */
+    private static String buildInsert(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (ROW_PLACEHOLDER.length() + 2));
+        sql.append(INSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDER);
+        }
+        return sql.toString();
+    }
+
+    // ==================== 檔案日誌 ====================
+
+    /**
+     * 格式化一行 JSON 日誌。
+     *
+     * @param level    日誌等級
+     * @param category 類別
+     * @param data     詳細資料
+     * @return JSON 字串
+     */
+    String formatLine(String level, String category, Map<String, Object> data) {
+        Map<String, Object> logEntry = new LinkedHashMap<>();
+        logEntry.put("timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        logEntry.put("level", level);
+        logEntry.put("category", category);
+        logEntry.putAll(data);
+        return gson.toJson(logEntry);
+    }
+
+    /**
+     * 將交易紀錄寫入當日的日誌檔 (不立即 flush)。
+     *
+     * @param entries 交易紀錄
+     */
+    private void writeFileEntries(List<Entry> entries) {
+        fileLock.lock();
+        try {
+            BufferedWriter writer = currentWriter();
+            for (Entry entry : entries) {
+                Map<String, Object> logEntry = new LinkedHashMap<>();
+                logEntry.put("timestamp", LocalDateTime.ofInstant(
+                        java.time.Instant.ofEpochMilli(entry.createdAt()), java.time.ZoneId.systemDefault())
+                        .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                logEntry.put("level", "INFO");
+                logEntry.put("category", "TRANSACTION");
+                logEntry.put("transaction_id", entry.transactionId());
+                logEntry.put("type", entry.type().name());
+                logEntry.put("sender", entry.senderUuid() != null ? entry.senderUuid().toString() : "N/A");
+                logEntry.put("receiver", entry.receiverUuid() != null ? entry.receiverUuid().toString() : "N/A");
+                logEntry.put("currency", entry.currency());
+                logEntry.put("amount", entry.amount());
+                logEntry.put("banknote_uuid", entry.banknoteUuid() != null ? entry.banknoteUuid().toString() : null);
+                logEntry.put("old_balance", entry.oldBalance());
+                logEntry.put("context", entry.context());
+                writer.write(gson.toJson(logEntry));
+                writer.newLine();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            logger.severe("寫入日誌檔案失敗: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * 直接寫入一行到當日的日誌檔。
+     *
+     * @param line JSON 字串
+     */
+    void writeFileLine(String line) {
+        fileLock.lock();
+        try {
+            BufferedWriter writer = currentWriter();
+            writer.write(line);
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            logger.severe("寫入日誌檔案失敗: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * 取得當日的寫入器，跨日時自動輪替。必須持有 fileLock。
+     *
+     * @return 緩衝寫入器
+     * @throws IOException 開啟失敗
+     */
+    private BufferedWriter currentWriter() throws IOException {
+        LocalDate today = LocalDate.now();
+        if (fileWriter == null || !today.equals(fileDate)) {
+            closeFileQuietly();
+            File file = new File(logDir, "log-" + today + ".jsonl");
+            fileWriter = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            fileDate = today;
+        }
+        return fileWriter;
+    }
+
+    private void flushFile() {
+        fileLock.lock();
+        try {
+            if (fileWriter != null) {
+                fileWriter.flush();
+            }
+        } catch (IOException e) {
+            logger.warning("刷新日誌檔案失敗: " + e.getMessage());
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    private void closeFile() {
+        fileLock.lock();
+        try {
+            closeFileQuietly();
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    private void closeFileQuietly() {
+        if (fileWriter != null) {
+            try {
+                fileWriter.close();
+            } catch (IOException e) {
+                logger.warning("關閉日誌檔案失敗: " + e.getMessage());
+            }
+            fileWriter = null;
+        }
+    }
+
+    // ==================== 溢出處理 ====================
+
+    /**
+     * 將紀錄附加至溢出檔。
+     *
+     * @param entries 交易紀錄
+     */
+    private void spill(List<Entry> entries) {
+        spillLock.lock();
+        try (BufferedWriter writer = Files.newBufferedWriter(spillFile.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Entry entry : entries) {
+                writer.write(gson.toJson(entry));
+                writer.newLine();
+            }
+            spilled.addAndGet(entries.size());
+        } catch (IOException e) {
+            dropped.addAndGet(entries.size());
+            logger.severe("[AceEconomy] 無法寫入交易日誌溢出檔，" + entries.size() + " 筆紀錄遺失: " + e.getMessage());
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    /**
+     * 將溢出檔中的紀錄補寫至資料庫。
+     * <p>
+     * 先將溢出檔改名為補寫檔，避免與新的溢出寫入衝突；
+     * 整個補寫檔在同一個交易中寫入，提交後才刪除補寫檔。
+     * 補寫失敗時整批回滾並保留補寫檔，下次閒置時再試，不會產生重複紀錄。
+     * </p>
+     */
+    private void replaySpill() {
+        if (System.currentTimeMillis() < nextReplayAttempt) {
+            return;
+        }
+        if (!replayFile.exists()) {
+            spillLock.lock();
+            try {
+                if (!spillFile.exists()) {
+                    return;
+                }
+                Files.move(spillFile.toPath(), replayFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                logger.warning("無法準備溢出檔補寫: " + e.getMessage());
+                return;
+            } finally {
+                spillLock.unlock();
+            }
+        }
+
+        List<Entry> pending = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(replayFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    pending.add(gson.fromJson(line, Entry.class));
+                }
+            }
+        } catch (Exception e) {
+            logger.warning("讀取溢出檔失敗: " + e.getMessage());
+            nextReplayAttempt = System.currentTimeMillis() + 30_000L;
+            return;
+        }
+
+        try {
+            insertRows(pending);
+        } catch (SQLException e) {
+            logger.warning("補寫溢出的交易日誌失敗，30 秒後重試: " + e.getMessage());
+            nextReplayAttempt = System.currentTimeMillis() + 30_000L;
+            return;
+        }
+
+        written.addAndGet(pending.size());
+        logger.info("[AceEconomy] 已補寫 " + pending.size() + " 筆溢出的交易日誌");
+        try {
+            Files.deleteIfExists(replayFile.toPath());
+        } catch (IOException e) {
+            // 紀錄已提交，改名保留以免下次重複補寫
+            logger.severe("無法刪除已補寫的溢出檔，請手動移除 " + replayFile.getName() + ": " + e.getMessage());
+            replayFile.renameTo(new File(logDir, replayFile.getName() + ".done-" + System.currentTimeMillis()));
+        }
+    }
+
+    // ==================== 生命週期 ====================
+
+    /**
+     * 將佇列與溢出檔中的紀錄全部寫入資料庫。
+     * <p>
+     * 呼叫前加入的紀錄在 Future 完成時皆已提交；
+     * 若資料庫寫入失敗而仍有紀錄留在溢出檔，Future 以例外完成。
+     * </p>
+     *
+     * @return 刷新完成的 Future
+     */
+    public CompletableFuture<Void> flush() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        flushRequests.add(future);
+        // 已關閉時消費執行緒可能已處理完最後一輪請求，沒有人會完成這個請求
+        if (!running && flushRequests.remove(future)) {
+            future.completeExceptionally(new IllegalStateException("交易日誌已關閉"));
+        }
+        return future;
+    }
+
+    /**
+     * 停止接收新紀錄並排空佇列。
+     */
+    public void shutdown() {
+        running = false;
+        try {
+            consumer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (consumer.isAlive()) {
+            logger.warning("[AceEconomy] 交易日誌執行緒未能在時限內結束，剩餘紀錄溢出至磁碟。");
+        }
+
+        // 仍在佇列中的紀錄溢出至磁碟，下次啟動時補寫
+        List<Entry> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            spill(remaining);
+        }
+    }
+
+    // ==================== 統計數據 ====================
+
+    /**
+     * 取得統計快照。
+     *
+     * @return 統計數據
+     */
+    public Metrics getMetrics() {
+        return new Metrics(queue.size(), queue.remainingCapacity() + queue.size(), maxQueueDepth.get(),
+                enqueued.get(), written.get(), batches.get(), lastBatchSize, spilled.get(), dropped.get());
+    }
+
+    /**
+     * 交易日誌佇列統計數據。
+     *
+     * @param queueDepth    目前佇列深度
+     * @param capacity      佇列容量
+     * @param maxQueueDepth 觀測到的最大佇列深度
+     * @param enqueued      累計加入筆數
+     * @param written       累計寫入資料庫筆數
+     * @param batches       累計批次數
+     * @param lastBatchSize 上次批次筆數
+     * @param spilled       累計溢出至磁碟筆數
+     * @param dropped       累計丟棄筆數
+     */
+    public record Metrics(int queueDepth, int capacity, long maxQueueDepth, long enqueued, long written,
+            long batches, int lastBatchSize, long spilled, long dropped) {
+    }
+}
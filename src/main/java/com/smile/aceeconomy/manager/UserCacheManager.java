@@ -1,5 +1,8 @@
 package com.smile.aceeconomy.manager;
 
+import com.smile.aceeconomy.data.UserRecord;
+
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
@@ -10,6 +13,10 @@ import java.util.logging.Logger;
  * 管理 {@code ace_users} 表，提供非同步的 Name ↔ UUID 解析，
  * 支援離線玩家操作。
  * </p>
+ * <p>
+ * 解析結果保存在記憶體中的 {@link NameIndex} (不區分大小寫)：啟動時預熱最近上線的玩家，
+ * 其餘名稱在第一次查詢後回填，重複查詢同一位離線玩家不再存取資料庫。
+ * </p>
  *
  * @author Smile
  */
@@ -17,16 +24,40 @@ public class UserCacheManager {
 
     private final com.smile.aceeconomy.storage.StorageProvider storageProvider;
     private final Logger logger;
+    private final NameIndex nameIndex;
 
     /**
      * 建立玩家名稱快取管理器。
      *
      * @param storageProvider 儲存提供者
      * @param logger          日誌記錄器
+     * @param maxSize         名稱索引最多保存的玩家數
      */
-    public UserCacheManager(com.smile.aceeconomy.storage.StorageProvider storageProvider, Logger logger) {
+    public UserCacheManager(com.smile.aceeconomy.storage.StorageProvider storageProvider, Logger logger,
+            int maxSize) {
         this.storageProvider = storageProvider;
         this.logger = logger;
+        this.nameIndex = new NameIndex(maxSize);
+    }
+
+    /**
+     * 非同步預熱名稱索引 (載入最近上線的玩家)。
+     *
+     * @param limit 最多載入的玩家數
+     * @return 完成時的 Future
+     */
+    public CompletableFuture<Void> warm(int limit) {
+        return storageProvider.getRecentUsers(limit).thenAccept(users -> {
+            // 由舊至新寫入，名稱重複時保留最近上線的玩家
+            for (int i = users.size() - 1; i >= 0; i--) {
+                UserRecord user = users.get(i);
+                nameIndex.put(user.uuid(), user.name());
+            }
+            logger.info("已預熱玩家名稱索引 (" + nameIndex.size() + " 位玩家)");
+        }).exceptionally(throwable -> {
+            logger.warning("預熱玩家名稱索引失敗: " + throwable.getMessage());
+            return null;
+        });
     }
 
     /**
@@ -39,6 +70,7 @@ public class UserCacheManager {
      * @param username 玩家名稱
      */
     public void updateCache(UUID uuid, String username) {
+        nameIndex.put(uuid, username);
         storageProvider.updatePlayerName(uuid, username);
     }
 
@@ -52,7 +84,18 @@ public class UserCacheManager {
      * @return 包含 UUID 的 CompletableFuture，若找不到則為 null
      */
     public CompletableFuture<UUID> getUUID(String username) {
-        return storageProvider.getUuidByName(username);
+        UUID cached = nameIndex.getUuid(username);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return storageProvider.getUserByName(username).thenApply(user -> {
+            if (user == null) {
+                return null;
+            }
+            // 以資料庫中的原始大小寫回填，而非查詢時輸入的名稱
+            nameIndex.put(user.uuid(), user.name() != null ? user.name() : username);
+            return user.uuid();
+        });
     }
 
     /**
@@ -65,6 +108,26 @@ public class UserCacheManager {
      * @return 包含玩家名稱的 CompletableFuture，若找不到則為 null
      */
     public CompletableFuture<String> getName(UUID uuid) {
-        return storageProvider.getNameByUuid(uuid);
+        String cached = nameIndex.getName(uuid);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return storageProvider.getNameByUuid(uuid).thenApply(name -> {
+            if (name != null && !"Unknown".equals(name)) {
+                nameIndex.put(uuid, name);
+            }
+            return name;
+        });
+    }
+
+    /**
+     * 以前綴搜尋已知的玩家名稱 (包含離線玩家，僅查詢記憶體索引)。
+     *
+     * @param prefix 名稱前綴 (不區分大小寫)
+     * @param limit  最多筆數
+     * @return 符合的玩家名稱
+     */
+    public List<String> completeNames(String prefix, int limit) {
+        return nameIndex.complete(prefix, limit);
     }
 }
@@ -0,0 +1,389 @@
+package com.smile.aceeconomy.manager;
+
+import com.smile.aceeconomy.data.Account;
+import com.smile.aceeconomy.storage.StorageHandler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * 延遲寫入 (Write-Behind) 管理器。
+ * <p>
+ * 追蹤已變動的帳戶與貨幣，將多次變動合併後，
+ * 依固定間隔或髒資料數量門檻，在專屬執行緒上批次寫入儲存層。
+ * 最大的資料遺失時間窗口為一個刷新間隔。
+ * </p>
+ *
+ * @author Smile
+ */
+public class WriteBehindManager {
+
+    /**
+     * 髒帳戶：UUID -> 待寫入項目
+     */
+    private final ConcurrentHashMap<UUID, DirtyEntry> dirtyAccounts = new ConcurrentHashMap<>();
+
+    /**
+     * 寫入中的帳戶：UUID -> Account (已取出佇列但尚未提交)
+     */
+    private final ConcurrentHashMap<UUID, Account> inFlightAccounts = new ConcurrentHashMap<>();
+
+    private final StorageHandler storageHandler;
+    private final Logger logger;
+    private final long flushIntervalMillis;
+    private final int flushThreshold;
+    private final int batchSize;
+    private final ScheduledExecutorService executor;
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private volatile boolean shutdown = false;
+
+    // 統計數據
+    private final AtomicLong totalMarked = new AtomicLong();
+    private final AtomicLong totalFlushed = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private volatile long lastFlushDurationMillis = 0;
+    private volatile long lastFlushTime = System.currentTimeMillis();
+
+    /**
+     * 建立延遲寫入管理器。
+     *
+     * @param storageHandler      儲存處理器
+     * @param logger              日誌記錄器
+     * @param flushIntervalMillis 刷新間隔 (毫秒)
+     * @param flushThreshold      觸發立即刷新的髒帳戶數量
+     * @param batchSize           每批次寫入的帳戶數量上限
+     */
+    public WriteBehindManager(StorageHandler storageHandler, Logger logger, long flushIntervalMillis,
+            int flushThreshold, int batchSize) {
+        this.storageHandler = storageHandler;
+        this.logger = logger;
+        this.flushIntervalMillis = Math.max(100L, flushIntervalMillis);
+        this.flushThreshold = Math.max(1, flushThreshold);
+        this.batchSize = Math.max(1, batchSize);
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "AceEconomy-WriteBehind");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 啟動定時刷新任務。
+     */
+    public void start() {
+        executor.scheduleWithFixedDelay(this::flushSafely, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 標記帳戶的指定貨幣為已變動。
+     *
+     * @param account    帳戶
+     * @param currencyId 貨幣 ID
+     */
+    public void markDirty(Account account, String currencyId) {
+        // 使用 compute 確保與刷新時的 remove 互斥，避免變動被加入已取出的項目
+        dirtyAccounts.compute(account.getOwner(), (uuid, entry) -> {
+            DirtyEntry target = entry != null ? entry : new DirtyEntry(account);
+            target.currencies.add(currencyId);
+            return target;
+        });
+        totalMarked.incrementAndGet();
+        checkThreshold();
+    }
+
+    /**
+     * 標記整個帳戶為已變動 (所有貨幣與名稱)。
+     *
+     * @param account 帳戶
+     */
+    public void markDirty(Account account) {
+        dirtyAccounts.compute(account.getOwner(), (uuid, entry) -> {
+            DirtyEntry target = entry != null ? entry : new DirtyEntry(account);
+            target.currencies.addAll(account.getBalances().keySet());
+            return target;
+        });
+        totalMarked.incrementAndGet();
+        checkThreshold();
+    }
+
+    /**
+     * 取得尚未寫入的帳戶物件。
+     * <p>
+     * 玩家離線後重新登入時，若帳戶仍在佇列中，必須沿用此物件，
+     * 否則會從資料庫讀到舊的餘額。
+     * </p>
+     *
+     * @param uuid 玩家 UUID
+     * @return 待寫入的帳戶，若無則回傳 null
+     */
+    public Account getPendingAccount(UUID uuid) {
+        DirtyEntry entry = dirtyAccounts.get(uuid);
+        if (entry != null) {
+            return entry.account;
+        }
+        return inFlightAccounts.get(uuid);
+    }
+
+    /**
+     * 檢查髒帳戶數量是否超過門檻，超過時排程立即刷新。
+     */
+    private void checkThreshold() {
+        if (dirtyAccounts.size() >= flushThreshold && !shutdown && flushScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    flushScheduled.set(false);
+                    flushSafely();
+                });
+            } catch (java.util.concurrent.RejectedExecutionException e) {
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * 執行刷新並捕捉例外，避免中斷定時任務。
+     */
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.severe("[AceEconomy] 延遲寫入刷新失敗: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 將所有髒帳戶寫入儲存層。
+     * <p>
+     * 僅應在寫入執行緒上呼叫 (或於關閉時)。
+     * 寫入失敗的帳戶會重新放回佇列等待下次刷新。
+     * </p>
+     */
+    private void flush() {
+        if (dirtyAccounts.isEmpty()) {
+            lastFlushTime = System.currentTimeMillis();
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        boolean partialWrites = storageHandler.supportsPartialWrites();
+        List<UUID> keys = new ArrayList<>(dirtyAccounts.keySet());
+
+        for (int i = 0; i < keys.size(); i += batchSize) {
+            List<UUID> batchKeys = keys.subList(i, Math.min(i + batchSize, keys.size()));
+            Map<UUID, DirtyEntry> batch = new HashMap<>();
+            List<Account> snapshots = new ArrayList<>(batchKeys.size());
+
+            for (UUID uuid : batchKeys) {
+                // 取出時同步登記為寫入中，確保 getPendingAccount 不會出現空窗
+                dirtyAccounts.computeIfPresent(uuid, (key, entry) -> {
+                    inFlightAccounts.put(key, entry.account);
+                    batch.put(key, entry);
+                    return null;
+                });
+            }
+
+            if (batch.isEmpty()) {
+                continue;
+            }
+
+            for (DirtyEntry entry : batch.values()) {
+                snapshots.add(entry.snapshot(partialWrites));
+            }
+
+            try {
+                storageHandler.saveAccounts(snapshots).join();
+                totalFlushed.addAndGet(snapshots.size());
+            } catch (Exception e) {
+                failedFlushes.incrementAndGet();
+                logger.warning("[AceEconomy] 批次寫入 " + snapshots.size() + " 個帳戶失敗，將於下次重試: "
+                        + e.getMessage());
+                requeue(batch);
+            } finally {
+                for (Map.Entry<UUID, DirtyEntry> done : batch.entrySet()) {
+                    inFlightAccounts.remove(done.getKey(), done.getValue().account);
+                }
+            }
+        }
+
+        flushCount.incrementAndGet();
+        lastFlushDurationMillis = System.currentTimeMillis() - start;
+        lastFlushTime = System.currentTimeMillis();
+
+        if (lastFlushDurationMillis > flushIntervalMillis) {
+            logger.warning("[AceEconomy] 延遲寫入刷新耗時 " + lastFlushDurationMillis + "ms，超過刷新間隔 "
+                    + flushIntervalMillis + "ms，儲存層可能已過載。");
+        }
+    }
+
+    /**
+     * 將寫入失敗的項目重新放回佇列，與期間新產生的變動合併。
+     *
+     * @param batch 失敗的批次
+     */
+    private void requeue(Map<UUID, DirtyEntry> batch) {
+        for (Map.Entry<UUID, DirtyEntry> failed : batch.entrySet()) {
+            dirtyAccounts.merge(failed.getKey(), failed.getValue(), (current, old) -> {
+                current.currencies.addAll(old.currencies);
+                return current;
+            });
+        }
+    }
+
+    /**
+     * 立即刷新所有髒帳戶並等待完成。
+     *
+     * @return 刷新完成的 Future
+     */
+    public CompletableFuture<Void> flushNow() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                flushSafely();
+                future.complete(null);
+            });
+        } catch (java.util.concurrent.RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 關閉管理器並排空佇列。
+     * <p>
+     * 停止定時任務後，在寫入執行緒上執行最後一次刷新；
+     * 若仍有失敗項目會重試一次，確保停用插件前所有變動皆已寫入。
+     * </p>
+     */
+    public void shutdown() {
+        shutdown = true;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warning("[AceEconomy] 延遲寫入執行緒未能在時限內結束，強制停止。");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        // 執行緒已停止，於當前執行緒排空剩餘資料
+        for (int attempt = 0; attempt < 2 && !dirtyAccounts.isEmpty(); attempt++) {
+            flushSafely();
+        }
+
+        if (!dirtyAccounts.isEmpty()) {
+            logger.severe("[AceEconomy] 關閉時仍有 " + dirtyAccounts.size() + " 個帳戶未能寫入！");
+        } else {
+            logger.info("[AceEconomy] 延遲寫入佇列已排空 (共寫入 " + totalFlushed.get() + " 個帳戶)");
+        }
+    }
+
+    // ==================== 統計數據 ====================
+
+    /**
+     * 取得目前等待寫入的帳戶數量。
+     *
+     * @return 髒帳戶數量
+     */
+    public int getPendingCount() {
+        return dirtyAccounts.size();
+    }
+
+    /**
+     * 取得目前最舊髒資料的等待時間。
+     *
+     * @return 等待時間 (毫秒)，若無髒資料回傳 0
+     */
+    public long getOldestPendingAgeMillis() {
+        long now = System.currentTimeMillis();
+        long oldest = now;
+        for (DirtyEntry entry : dirtyAccounts.values()) {
+            oldest = Math.min(oldest, entry.dirtySince);
+        }
+        return now - oldest;
+    }
+
+    /**
+     * 取得統計快照。
+     *
+     * @return 統計數據
+     */
+    public Metrics getMetrics() {
+        return new Metrics(getPendingCount(), getOldestPendingAgeMillis(), totalMarked.get(), totalFlushed.get(),
+                flushCount.get(), failedFlushes.get(), lastFlushDurationMillis, lastFlushTime);
+    }
+
+    /**
+     * 延遲寫入統計數據。
+     *
+     * @param pendingAccounts         等待寫入的帳戶數量
+     * @param oldestPendingAgeMillis  最舊髒資料的等待時間 (毫秒)
+     * @param totalMarked             累計標記次數
+     * @param totalFlushed            累計寫入帳戶數
+     * @param flushCount              累計刷新次數
+     * @param failedFlushes           累計失敗批次數
+     * @param lastFlushDurationMillis 上次刷新耗時 (毫秒)
+     * @param lastFlushTime           上次刷新時間戳
+     */
+    public record Metrics(int pendingAccounts, long oldestPendingAgeMillis, long totalMarked, long totalFlushed,
+            long flushCount, long failedFlushes, long lastFlushDurationMillis, long lastFlushTime) {
+    }
+
+    /**
+     * 待寫入項目：帳戶參考與變動的貨幣集合。
+     */
+    private static final class DirtyEntry {
+        private final Account account;
+        private final Set<String> currencies = ConcurrentHashMap.newKeySet();
+        private final long dirtySince = System.currentTimeMillis();
+
+        private DirtyEntry(Account account) {
+            this.account = account;
+        }
+
+        /**
+         * 建立帳戶快照，避免寫入期間資料被修改。
+         * <p>
+         * 若儲存層支援局部寫入，僅包含變動過的貨幣；
+         * 否則 (例如 JSON 整檔覆寫) 必須包含所有貨幣。
+         * 持有帳戶的轉帳鎖，快照不會落在轉帳的扣款與入帳之間。
+         * </p>
+         *
+         * @param partial 是否僅包含變動的貨幣
+         * @return 帳戶快照
+         */
+        private Account snapshot(boolean partial) {
+            account.getTransferLock().lock();
+            try {
+                if (!partial) {
+                    return new Account(account.getOwner(), account.getOwnerName(), account.getBalances());
+                }
+                Map<String, Double> balances = new HashMap<>();
+                for (String currencyId : currencies) {
+                    balances.put(currencyId, account.getBalance(currencyId));
+                }
+                return new Account(account.getOwner(), account.getOwnerName(), balances);
+            } finally {
+                account.getTransferLock().unlock();
+            }
+        }
+    }
+
+}
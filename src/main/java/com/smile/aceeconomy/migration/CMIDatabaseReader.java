@@ -0,0 +1,276 @@
+package com.smile.aceeconomy.migration;
+
+import com.smile.aceeconomy.data.Account;
+import com.smile.aceeconomy.storage.MigrationJobStore;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * CMI 資料庫串流讀取器。
+ * <p>
+ * 讀取端以唯讀、單向並設定 fetch size 的游標逐列讀取 CMI 的 users 資料表，
+ * 每滿一段即放入有界佇列；寫入端 (呼叫端執行緒) 取出後整段交給 {@link ChunkWriter} 批次寫入，
+ * 讀取與寫入因此重疊進行，記憶體中最多只有佇列容量內的數段帳戶。
+ * </p>
+ * <p>
+ * 只依賴 JDBC 連線，可直接對本機的 CMI SQLite 資料庫副本執行。
+ * 提供 {@link ImportJournal} 時以餘額作為來源指紋，餘額未變更的玩家不會再次寫入，
+ * 且每段帳戶改由日誌與其指紋在同一個交易中寫入，不經過 {@link ChunkWriter}。
+ * </p>
+ *
+ * @author Smile
+ */
+public class CMIDatabaseReader {
+
+    /**
+     * 佇列中代表讀取完畢的標記
+     */
+    private static final Object END = new Object();
+
+    /**
+     * 回報進度的最短間隔 (毫秒)
+     */
+    private static final long REPORT_INTERVAL_MILLIS = 2000L;
+
+    private final Logger logger;
+    private final int chunkSize;
+    private final int queueCapacity;
+
+    /**
+     * 單段帳戶的寫入器。
+     */
+    @FunctionalInterface
+    public interface ChunkWriter {
+        /**
+         * 寫入一段帳戶 (未提供匯入工作日誌時使用)。
+         *
+         * @param chunk 帳戶
+         * @throws Exception 若寫入失敗
+         */
+        void write(List<Account> chunk) throws Exception;
+    }
+
+    /**
+     * 建立 CMI 資料庫串流讀取器。
+     *
+     * @param logger        日誌記錄器
+     * @param chunkSize     每段讀取與寫入的帳戶數 (亦作為 JDBC fetch size)
+     * @param queueCapacity 讀取端最多預先讀取的段數
+     */
+    public CMIDatabaseReader(Logger logger, int chunkSize, int queueCapacity) {
+        this.logger = logger;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.queueCapacity = Math.max(1, queueCapacity);
+    }
+
+    /**
+     * 串流匯入 CMI users 資料表。
+     *
+     * @param source           CMI 資料庫連線 (僅讀取)
+     * @param table            users 資料表名稱
+     * @param journal          匯入工作日誌 (可為 null)
+     * @param dryRun           是否為試跑 (不寫入)
+     * @param writer           帳戶寫入器 (提供日誌時不使用)
+     * @param progressCallback 進度回調 (可為 null，在呼叫端執行緒上呼叫)
+     * @return 匯入結果
+     * @throws SQLException 若讀取失敗
+     */
+    public Migrator.MigrationResult stream(Connection source, String table, ImportJournal journal, boolean dryRun,
+            ChunkWriter writer, Consumer<Migrator.Progress> progressCallback) throws SQLException {
+        int total = count(source, table);
+
+        BlockingQueue<Object> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Reader reader = new Reader(source, table, journal, queue, cancelled);
+        Thread readerThread = new Thread(reader, "AceEconomy-Import-CMI");
+        readerThread.setDaemon(true);
+        readerThread.start();
+
+        int imported = 0;
+        int failed = 0;
+        double totalBalance = 0;
+        long startTime = System.nanoTime();
+        long lastReport = System.currentTimeMillis();
+        try {
+            while (true) {
+                Object item = queue.take();
+                if (item == END) {
+                    break;
+                }
+                if (item instanceof Throwable failure) {
+                    throw new SQLException("讀取 CMI 資料庫失敗: " + failure.getMessage(), failure);
+                }
+
+                Chunk chunk = (Chunk) item;
+                try {
+                    if (dryRun) {
+                        // 試跑不寫入
+                    } else if (journal != null) {
+                        // 帳戶與指紋一起提交，不會出現帳戶已寫入但下次仍重新匯入的情況
+                        journal.commit(chunk.accounts(), chunk.sources(), reader.read);
+                    } else {
+                        writer.write(chunk.accounts());
+                    }
+                    imported += chunk.accounts().size();
+                    totalBalance += chunk.balance();
+                } catch (Exception e) {
+                    logger.warning("批次寫入 " + chunk.accounts().size() + " 個帳戶失敗: " + e.getMessage());
+                    failed += chunk.accounts().size();
+                }
+
+                long now = System.currentTimeMillis();
+                if (progressCallback != null && now - lastReport >= REPORT_INTERVAL_MILLIS) {
+                    lastReport = now;
+                    progressCallback.accept(new Migrator.Progress(reader.read, total, rate(reader.read, startTime)));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("匯入 CMI 資料時被中斷", e);
+        } finally {
+            cancelled.set(true);
+            queue.clear();
+            try {
+                readerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (!dryRun && journal != null) {
+            try {
+                journal.complete(reader.read);
+            } catch (SQLException e) {
+                logger.warning("無法記錄匯入工作完成狀態: " + e.getMessage());
+            }
+        }
+        if (progressCallback != null) {
+            progressCallback.accept(new Migrator.Progress(reader.read, Math.max(total, reader.read),
+                    rate(reader.read, startTime)));
+        }
+        return new Migrator.MigrationResult(imported, failed + reader.invalid, reader.skipped, reader.read,
+                totalBalance, dryRun);
+    }
+
+    private static int count(Connection conn, String table) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static long rate(long rows, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed > 0 ? rows * TimeUnit.SECONDS.toNanos(1) / elapsed : rows;
+    }
+
+    /**
+     * 一段帳戶與其來源指紋。
+     */
+    private record Chunk(List<Account> accounts, List<MigrationJobStore.Fingerprint> sources, double balance) {
+    }
+
+    /**
+     * 讀取端：逐列讀取 users 資料表並分段放入佇列。
+     */
+    private final class Reader implements Runnable {
+        private final Connection source;
+        private final String table;
+        private final ImportJournal journal;
+        private final BlockingQueue<Object> queue;
+        private final AtomicBoolean cancelled;
+        private volatile int read;
+        private volatile int skipped;
+        private volatile int invalid;
+
+        private Reader(Connection source, String table, ImportJournal journal, BlockingQueue<Object> queue,
+                AtomicBoolean cancelled) {
+            this.source = source;
+            this.table = table;
+            this.journal = journal;
+            this.queue = queue;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        public void run() {
+            String sql = "SELECT player_uuid, username, Balance FROM " + table;
+            try (PreparedStatement pstmt = source.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY)) {
+                pstmt.setFetchSize(chunkSize);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    List<Account> accounts = new ArrayList<>(chunkSize);
+                    List<MigrationJobStore.Fingerprint> sources = new ArrayList<>(chunkSize);
+                    double balance = 0;
+                    while (rs.next()) {
+                        read++;
+                        String uuidString = rs.getString(1);
+                        String name = rs.getString(2);
+                        double money = rs.getDouble(3);
+
+                        UUID uuid;
+                        try {
+                            uuid = UUID.fromString(uuidString != null ? uuidString.trim() : "");
+                        } catch (IllegalArgumentException e) {
+                            // 無效的 UUID，計入失敗
+                            invalid++;
+                            continue;
+                        }
+                        String fingerprint = Double.toString(money);
+                        if (journal != null && journal.isImported(uuidString, fingerprint)) {
+                            skipped++;
+                            continue;
+                        }
+
+                        accounts.add(new Account(uuid, name != null && !name.isEmpty() ? name : "Unknown", money));
+                        sources.add(new MigrationJobStore.Fingerprint(uuidString, fingerprint));
+                        balance += money;
+                        if (accounts.size() >= chunkSize) {
+                            if (!put(new Chunk(accounts, sources, balance))) {
+                                return;
+                            }
+                            accounts = new ArrayList<>(chunkSize);
+                            sources = new ArrayList<>(chunkSize);
+                            balance = 0;
+                        }
+                    }
+                    if (!accounts.isEmpty() && !put(new Chunk(accounts, sources, balance))) {
+                        return;
+                    }
+                }
+                put(END);
+            } catch (Throwable t) {
+                put(t);
+            }
+        }
+
+        /**
+         * 放入佇列；寫入端已停止時放棄並回傳 false。
+         */
+        private boolean put(Object item) {
+            try {
+                while (!cancelled.get()) {
+                    if (queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+    }
+}
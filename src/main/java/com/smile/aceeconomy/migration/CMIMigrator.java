@@ -2,21 +2,30 @@ package com.smile.aceeconomy.migration;
 
 import com.smile.aceeconomy.AceEconomy;
 import com.smile.aceeconomy.data.Account;
+import com.smile.aceeconomy.manager.ConfigManager;
+import com.smile.aceeconomy.storage.MigrationJobStore;
 import com.smile.aceeconomy.storage.StorageHandler;
+import com.smile.aceeconomy.storage.StorageProvider;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 /**
  * CMI 資料遷移器。
  * <p>
- * 從 CMI 的 playerdata 資料夾匯入玩家經濟資料。
+ * 優先從 CMI 的 SQLite 資料庫 (users 資料表) 匯入玩家經濟資料：
+ * 以 {@link CMIDatabaseReader} 串流讀取，每段直接批次寫入儲存層。
+ * 找不到資料庫時改為讀取 playerdata 資料夾，檔案以 {@link FileImportPipeline} 平行解析並批次寫入。
  * </p>
  *
  * @author Smile
@@ -24,10 +33,17 @@ import java.util.logging.Logger;
 public class CMIMigrator implements Migrator {
 
     private final StorageHandler storageHandler;
+    private final StorageProvider storageProvider;
     private final Logger logger;
+    private final ConfigManager configManager;
 
     private static final String CMI_FOLDER = "plugins/CMI/playerdata";
 
+    /**
+     * CMI 資料庫中的玩家資料表
+     */
+    private static final String CMI_USERS_TABLE = "users";
+
     /**
      * 建立 CMI 遷移器。
      *
@@ -35,7 +51,9 @@ public class CMIMigrator implements Migrator {
      */
     public CMIMigrator(AceEconomy plugin) {
         this.storageHandler = plugin.getStorageHandler();
+        this.storageProvider = plugin.getStorageProvider();
         this.logger = plugin.getLogger();
+        this.configManager = plugin.getConfigManager();
     }
 
     @Override
@@ -46,88 +64,119 @@ public class CMIMigrator implements Migrator {
     @Override
     public boolean isAvailable() {
         File cmiFolder = new File(CMI_FOLDER);
-        return cmiFolder.exists() && cmiFolder.isDirectory();
+        return new File(configManager.getCmiDatabase()).isFile() || (cmiFolder.exists() && cmiFolder.isDirectory());
     }
 
     @Override
-    public CompletableFuture<MigrationResult> migrate(CommandSender sender, Consumer<Integer> progressCallback) {
+    public CompletableFuture<MigrationResult> migrate(CommandSender sender, boolean dryRun,
+            Consumer<Progress> progressCallback) {
         return CompletableFuture.supplyAsync(() -> {
+            File database = new File(configManager.getCmiDatabase());
+            if (database.isFile()) {
+                return migrateDatabase(database, dryRun, progressCallback);
+            }
+
             File playerdataFolder = new File(CMI_FOLDER);
 
             if (!playerdataFolder.exists() || !playerdataFolder.isDirectory()) {
                 logger.warning("找不到 CMI playerdata 資料夾: " + CMI_FOLDER);
-                return new MigrationResult(0, 0, 0);
+                return new MigrationResult(0, 0, 0, 0, 0.0, dryRun);
             }
 
-            File[] userFiles = playerdataFolder.listFiles((dir, name) -> name.endsWith(".yml"));
-            if (userFiles == null || userFiles.length == 0) {
-                logger.info("CMI playerdata 資料夾是空的");
-                return new MigrationResult(0, 0, 0);
-            }
+            logger.info("開始遷移 CMI 資料" + (dryRun ? " (試跑)" : "") + "...");
 
-            int totalCount = userFiles.length;
-            AtomicInteger successCount = new AtomicInteger(0);
-            AtomicInteger failCount = new AtomicInteger(0);
-            AtomicInteger processedCount = new AtomicInteger(0);
-
-            logger.info("開始遷移 CMI 資料，共 " + totalCount + " 個帳戶...");
-
-            for (File userFile : userFiles) {
-                try {
-                    String fileName = userFile.getName();
-                    // 檔名格式: uuid.yml
-                    String uuidString = fileName.replace(".yml", "");
-
-                    UUID uuid;
-                    try {
-                        uuid = UUID.fromString(uuidString);
-                    } catch (IllegalArgumentException e) {
-                        // 非 UUID 格式，跳過
-                        logger.warning("跳過非 UUID 格式檔案: " + fileName);
-                        failCount.incrementAndGet();
-                        continue;
-                    }
-
-                    // 載入 YAML
-                    YamlConfiguration config = YamlConfiguration.loadConfiguration(userFile);
-
-                    // 讀取餘額 (CMI 使用 Economy.money 路徑)
-                    double money = config.getDouble("Economy.money", 0.0);
+            MigrationResult result;
+            try {
+                ImportJournal journal = ImportJournal.open(storageProvider, "cmi");
+                if (journal != null && journal.previous() != null
+                        && journal.previous().status() == MigrationJobStore.Status.RUNNING) {
+                    logger.info("繼續未完成的 CMI 匯入工作 (已匯入 " + journal.importedCount() + " 個檔案)");
+                }
+                FileImportPipeline pipeline = new FileImportPipeline(storageHandler, logger,
+                        configManager.getImportWorkers(), configManager.getMigrationBatchSize(), journal);
+                result = pipeline.run(playerdataFolder.toPath(), "*.yml", this::parse, dryRun, progressCallback);
+            } catch (IOException | SQLException e) {
+                throw new RuntimeException("匯入 CMI 資料失敗: " + e.getMessage(), e);
+            }
 
-                    // 如果 Economy.money 不存在，嘗試其他可能的路徑
-                    if (money == 0.0) {
-                        money = config.getDouble("economy.money", 0.0);
-                    }
-                    if (money == 0.0) {
-                        money = config.getDouble("Money", 0.0);
-                    }
+            if (result.totalCount() == 0) {
+                logger.info("CMI playerdata 資料夾是空的");
+            } else {
+                logger.info("CMI 遷移完成！成功: " + result.successCount() + ", 略過: " + result.skippedCount()
+                        + ", 失敗: " + result.failCount());
+            }
+            return result;
+        }, Migrator.dedicatedThread("AceEconomy-Migrate-CMI"));
+    }
 
-                    // 讀取玩家名稱
-                    String playerName = config.getString("userName", "Unknown");
-                    if (playerName == null || playerName.isEmpty()) {
-                        playerName = config.getString("name", "Unknown");
+    /**
+     * 從 CMI 的 SQLite 資料庫串流匯入。
+     */
+    private MigrationResult migrateDatabase(File database, boolean dryRun, Consumer<Progress> progressCallback) {
+        logger.info("開始從 CMI 資料庫 " + database.getPath() + " 遷移資料" + (dryRun ? " (試跑)" : "") + "...");
+
+        CMIDatabaseReader reader = new CMIDatabaseReader(logger, configManager.getMigrationBatchSize(),
+                configManager.getMigrationQueueCapacity());
+        MigrationResult result;
+        try {
+            Class.forName("org.sqlite.JDBC");
+            try (Connection source = DriverManager.getConnection("jdbc:sqlite:" + database.getAbsolutePath())) {
+                ImportJournal journal = ImportJournal.open(storageProvider, "cmi-database");
+                result = reader.stream(source, CMI_USERS_TABLE, journal, dryRun, chunk -> {
+                    if (storageProvider != null) {
+                        storageProvider.saveAccounts(chunk).join();
+                    } else {
+                        storageHandler.saveAccounts(chunk).join();
                     }
-
-                    // 建立帳戶並儲存
-                    Account account = new Account(uuid, playerName, money);
-                    storageHandler.saveAccount(account).join(); // 同步等待完成
-
-                    successCount.incrementAndGet();
-
-                } catch (Exception e) {
-                    logger.warning("遷移檔案時發生錯誤: " + userFile.getName() + " - " + e.getMessage());
-                    failCount.incrementAndGet();
-                }
-
-                // 回報進度
-                int processed = processedCount.incrementAndGet();
-                if (processed % 50 == 0 || processed == totalCount) {
-                    progressCallback.accept(processed);
-                }
+                }, progressCallback);
             }
+        } catch (ClassNotFoundException | SQLException e) {
+            throw new RuntimeException("匯入 CMI 資料庫失敗: " + e.getMessage(), e);
+        }
 
-            logger.info("CMI 遷移完成！成功: " + successCount.get() + ", 失敗: " + failCount.get());
-            return new MigrationResult(successCount.get(), failCount.get(), totalCount);
-        });
+        logger.info("CMI 遷移完成！成功: " + result.successCount() + ", 略過: " + result.skippedCount()
+                + ", 失敗: " + result.failCount());
+        return result;
+    }
+
+    /**
+     * 解析單一 playerdata 檔案 (在匯入工作執行緒上執行)。
+     */
+    private Account parse(Path file) throws Exception {
+        String fileName = file.getFileName().toString();
+        // 檔名格式: uuid.yml
+        String uuidString = fileName.substring(0, fileName.length() - ".yml".length());
+
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(uuidString);
+        } catch (IllegalArgumentException e) {
+            // 非 UUID 格式，跳過
+            logger.warning("跳過非 UUID 格式檔案: " + fileName);
+            return null;
+        }
+
+        // 載入 YAML (格式錯誤時拋出例外，計入失敗)
+        YamlConfiguration config = new YamlConfiguration();
+        config.load(file.toFile());
+
+        // 讀取餘額 (CMI 使用 Economy.money 路徑)
+        double money = FileImportPipeline.readAmount(config.get("Economy.money"));
+
+        // 如果 Economy.money 不存在，嘗試其他可能的路徑
+        if (money == 0.0) {
+            money = FileImportPipeline.readAmount(config.get("economy.money"));
+        }
+        if (money == 0.0) {
+            money = FileImportPipeline.readAmount(config.get("Money"));
+        }
+
+        // 讀取玩家名稱
+        String playerName = config.getString("userName");
+        if (playerName == null || playerName.isEmpty()) {
+            playerName = config.getString("name", "Unknown");
+        }
+
+        return new Account(uuid, playerName, money);
     }
 }
@@ -2,14 +2,19 @@ package com.smile.aceeconomy.migration;
 
 import com.smile.aceeconomy.AceEconomy;
 import com.smile.aceeconomy.data.Account;
+import com.smile.aceeconomy.manager.ConfigManager;
+import com.smile.aceeconomy.storage.MigrationJobStore;
 import com.smile.aceeconomy.storage.StorageHandler;
+import com.smile.aceeconomy.storage.StorageProvider;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.logging.Logger;
 
@@ -17,6 +22,7 @@ import java.util.logging.Logger;
  * EssentialsX 資料遷移器。
  * <p>
  * 從 EssentialsX 的 userdata 資料夾匯入玩家經濟資料。
+ * 檔案以 {@link FileImportPipeline} 平行解析並批次寫入。
  * </p>
  *
  * @author Smile
@@ -24,7 +30,9 @@ import java.util.logging.Logger;
 public class EssentialsMigrator implements Migrator {
 
     private final StorageHandler storageHandler;
+    private final StorageProvider storageProvider;
     private final Logger logger;
+    private final ConfigManager configManager;
 
     private static final String ESSENTIALS_FOLDER = "plugins/Essentials/userdata";
 
@@ -35,7 +43,9 @@ public class EssentialsMigrator implements Migrator {
      */
     public EssentialsMigrator(AceEconomy plugin) {
         this.storageHandler = plugin.getStorageHandler();
+        this.storageProvider = plugin.getStorageProvider();
         this.logger = plugin.getLogger();
+        this.configManager = plugin.getConfigManager();
     }
 
     @Override
@@ -50,76 +60,72 @@ public class EssentialsMigrator implements Migrator {
     }
 
     @Override
-    public CompletableFuture<MigrationResult> migrate(CommandSender sender, Consumer<Integer> progressCallback) {
+    public CompletableFuture<MigrationResult> migrate(CommandSender sender, boolean dryRun,
+            Consumer<Progress> progressCallback) {
         return CompletableFuture.supplyAsync(() -> {
             File userdataFolder = new File(ESSENTIALS_FOLDER);
 
             if (!userdataFolder.exists() || !userdataFolder.isDirectory()) {
                 logger.warning("找不到 EssentialsX userdata 資料夾: " + ESSENTIALS_FOLDER);
-                return new MigrationResult(0, 0, 0);
+                return new MigrationResult(0, 0, 0, 0, 0.0, dryRun);
             }
 
-            File[] userFiles = userdataFolder.listFiles((dir, name) -> name.endsWith(".yml"));
-            if (userFiles == null || userFiles.length == 0) {
-                logger.info("EssentialsX userdata 資料夾是空的");
-                return new MigrationResult(0, 0, 0);
-            }
+            logger.info("開始遷移 EssentialsX 資料" + (dryRun ? " (試跑)" : "") + "...");
 
-            int totalCount = userFiles.length;
-            AtomicInteger successCount = new AtomicInteger(0);
-            AtomicInteger failCount = new AtomicInteger(0);
-            AtomicInteger processedCount = new AtomicInteger(0);
-
-            logger.info("開始遷移 EssentialsX 資料，共 " + totalCount + " 個帳戶...");
-
-            for (File userFile : userFiles) {
-                try {
-                    String fileName = userFile.getName();
-                    // 檔名格式: uuid.yml
-                    String uuidString = fileName.replace(".yml", "");
-
-                    UUID uuid;
-                    try {
-                        uuid = UUID.fromString(uuidString);
-                    } catch (IllegalArgumentException e) {
-                        // 可能是舊版格式（玩家名稱），跳過
-                        logger.warning("跳過非 UUID 格式檔案: " + fileName);
-                        failCount.incrementAndGet();
-                        continue;
-                    }
-
-                    // 載入 YAML
-                    YamlConfiguration config = YamlConfiguration.loadConfiguration(userFile);
-
-                    // 讀取餘額
-                    double money = config.getDouble("money", 0.0);
-
-                    // 讀取玩家名稱（如果有）
-                    String playerName = config.getString("last-account-name", "Unknown");
-                    if (playerName == null || playerName.isEmpty()) {
-                        playerName = config.getString("lastAccountName", "Unknown");
-                    }
-
-                    // 建立帳戶並儲存
-                    Account account = new Account(uuid, playerName, money);
-                    storageHandler.saveAccount(account).join(); // 同步等待完成
-
-                    successCount.incrementAndGet();
-
-                } catch (Exception e) {
-                    logger.warning("遷移檔案時發生錯誤: " + userFile.getName() + " - " + e.getMessage());
-                    failCount.incrementAndGet();
+            MigrationResult result;
+            try {
+                ImportJournal journal = ImportJournal.open(storageProvider, "essentials");
+                if (journal != null && journal.previous() != null
+                        && journal.previous().status() == MigrationJobStore.Status.RUNNING) {
+                    logger.info("繼續未完成的 EssentialsX 匯入工作 (已匯入 " + journal.importedCount() + " 個檔案)");
                 }
+                FileImportPipeline pipeline = new FileImportPipeline(storageHandler, logger,
+                        configManager.getImportWorkers(), configManager.getMigrationBatchSize(), journal);
+                result = pipeline.run(userdataFolder.toPath(), "*.yml", this::parse, dryRun, progressCallback);
+            } catch (IOException | SQLException e) {
+                throw new RuntimeException("匯入 EssentialsX 資料失敗: " + e.getMessage(), e);
+            }
 
-                // 回報進度
-                int processed = processedCount.incrementAndGet();
-                if (processed % 50 == 0 || processed == totalCount) {
-                    progressCallback.accept(processed);
-                }
+            if (result.totalCount() == 0) {
+                logger.info("EssentialsX userdata 資料夾是空的");
+            } else {
+                logger.info("EssentialsX 遷移完成！成功: " + result.successCount() + ", 略過: " + result.skippedCount()
+                        + ", 失敗: " + result.failCount());
             }
+            return result;
+        }, Migrator.dedicatedThread("AceEconomy-Migrate-Essentials"));
+    }
 
-            logger.info("EssentialsX 遷移完成！成功: " + successCount.get() + ", 失敗: " + failCount.get());
-            return new MigrationResult(successCount.get(), failCount.get(), totalCount);
-        });
+    /**
+     * 解析單一 userdata 檔案 (在匯入工作執行緒上執行)。
+     */
+    private Account parse(Path file) throws Exception {
+        String fileName = file.getFileName().toString();
+        // 檔名格式: uuid.yml
+        String uuidString = fileName.substring(0, fileName.length() - ".yml".length());
+
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(uuidString);
+        } catch (IllegalArgumentException e) {
+            // 可能是舊版格式（玩家名稱），跳過
+            logger.warning("跳過非 UUID 格式檔案: " + fileName);
+            return null;
+        }
+
+        // 載入 YAML (格式錯誤時拋出例外，計入失敗)
+        YamlConfiguration config = new YamlConfiguration();
+        config.load(file.toFile());
+
+        // 讀取餘額 (EssentialsX 以字串保存)
+        double money = FileImportPipeline.readAmount(config.get("money"));
+
+        // 讀取玩家名稱（如果有）
+        String playerName = config.getString("last-account-name");
+        if (playerName == null || playerName.isEmpty()) {
+            playerName = config.getString("lastAccountName", "Unknown");
+        }
+
+        return new Account(uuid, playerName, money);
     }
 }
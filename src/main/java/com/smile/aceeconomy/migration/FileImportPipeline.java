@@ -0,0 +1,326 @@
+package com.smile.aceeconomy.migration;
+
+import com.smile.aceeconomy.data.Account;
+import com.smile.aceeconomy.storage.MigrationJobStore;
+import com.smile.aceeconomy.storage.StorageHandler;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * 檔案匯入管線。
+ * <p>
+ * 以 NIO {@link DirectoryStream} 逐項列出資料夾 (不先建立完整的檔案清單)，
+ * 將每個檔案的解析工作交給有界的工作執行緒池平行處理；
+ * 解析出的帳戶經由有界佇列交給單一寫入執行緒，累積成批後以
+ * {@link StorageHandler#saveAccounts} 在同一個交易中批次寫入。
+ * </p>
+ * <p>
+ * 工作佇列滿載時由列出檔案的執行緒自行解析，寫入端跟不上時解析端會在佇列上等待，
+ * 因此記憶體中最多只有數個批次的帳戶。試跑模式只解析與統計，不寫入任何資料。
+ * </p>
+ * <p>
+ * 提供 {@link ImportJournal} 時，每個檔案以大小與修改時間作為來源指紋：
+ * 已以相同指紋匯入的檔案不再解析，每批帳戶與該批的指紋、檢查點在同一個交易中寫入。
+ * </p>
+ *
+ * @author Smile
+ */
+public class FileImportPipeline {
+
+    /**
+     * 回報進度的最短間隔 (毫秒)
+     */
+    private static final long REPORT_INTERVAL_MILLIS = 2000L;
+
+    private final StorageHandler storageHandler;
+    private final Logger logger;
+    private final int workers;
+    private final int batchSize;
+    private final ImportJournal journal;
+
+    /**
+     * 單一檔案的解析器。
+     */
+    @FunctionalInterface
+    public interface AccountParser {
+        /**
+         * 解析檔案。
+         *
+         * @param file 資料檔案
+         * @return 帳戶，若檔案應跳過則回傳 null (計入失敗)
+         * @throws Exception 若解析失敗
+         */
+        Account parse(Path file) throws Exception;
+    }
+
+    /**
+     * 建立檔案匯入管線。
+     *
+     * @param storageHandler 儲存處理器
+     * @param logger         日誌記錄器
+     * @param workers        解析執行緒數
+     * @param batchSize      每批寫入的帳戶數
+     * @param journal        匯入工作日誌 (可為 null，此時不續傳)
+     */
+    public FileImportPipeline(StorageHandler storageHandler, Logger logger, int workers, int batchSize,
+            ImportJournal journal) {
+        this.storageHandler = storageHandler;
+        this.logger = logger;
+        this.workers = Math.max(1, workers);
+        this.batchSize = Math.max(1, batchSize);
+        this.journal = journal;
+    }
+
+    /**
+     * 執行匯入。
+     *
+     * @param directory        資料夾
+     * @param glob             檔名比對模式 (例如 {@code *.yml})
+     * @param parser           檔案解析器
+     * @param dryRun           是否為試跑 (不寫入)
+     * @param progressCallback 進度回調 (在寫入執行緒上呼叫)
+     * @return 匯入結果
+     * @throws IOException 若無法列出資料夾
+     */
+    public Migrator.MigrationResult run(Path directory, String glob, AccountParser parser, boolean dryRun,
+            Consumer<Migrator.Progress> progressCallback) throws IOException {
+        AtomicInteger discovered = new AtomicInteger();
+        AtomicInteger processed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        BlockingQueue<Parsed> parsed = new ArrayBlockingQueue<>(batchSize * 2);
+
+        Writer writer = new Writer(parsed, dryRun, discovered, processed, failed, progressCallback);
+        Thread writerThread = new Thread(writer, "AceEconomy-Import-Writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        AtomicInteger threadId = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers * 4), runnable -> {
+                    Thread thread = new Thread(runnable, "AceEconomy-Import-" + threadId.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : files) {
+                discovered.incrementAndGet();
+                pool.execute(() -> parseFile(file, parser, parsed, writer, processed, failed, skipped));
+            }
+        } finally {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                pool.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            writer.finish();
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (journal != null && !dryRun && !writer.aborted) {
+            try {
+                journal.complete(processed.get());
+            } catch (Exception e) {
+                logger.warning("無法記錄匯入工作完成狀態: " + e.getMessage());
+            }
+        }
+
+        return new Migrator.MigrationResult(writer.imported, failed.get(), skipped.get(), discovered.get(),
+                writer.totalBalance, dryRun);
+    }
+
+    private void parseFile(Path file, AccountParser parser, BlockingQueue<Parsed> parsed, Writer writer,
+            AtomicInteger processed, AtomicInteger failed, AtomicInteger skipped) {
+        try {
+            String key = file.getFileName().toString();
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            String fingerprint = attributes.size() + ":" + attributes.lastModifiedTime().toMillis();
+            if (journal != null && journal.isImported(key, fingerprint)) {
+                // 已以相同內容匯入過
+                skipped.incrementAndGet();
+                return;
+            }
+
+            Account account = parser.parse(file);
+            if (account != null) {
+                Parsed item = new Parsed(account, new MigrationJobStore.Fingerprint(key, fingerprint));
+                // 寫入端已停止時不再等待佇列空位，否則解析執行緒會永遠阻塞
+                while (!parsed.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                    if (writer.stopped) {
+                        failed.incrementAndGet();
+                        return;
+                    }
+                }
+            } else {
+                failed.incrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            failed.incrementAndGet();
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warning("遷移檔案時發生錯誤: " + file.getFileName() + " - " + e.getMessage());
+            failed.incrementAndGet();
+        } finally {
+            processed.incrementAndGet();
+        }
+    }
+
+    /**
+     * 將設定檔中的金額轉為 double (支援數字與字串，例如 EssentialsX 以字串保存的 BigDecimal)。
+     *
+     * @param raw 設定值
+     * @return 金額，無法解析時為 0
+     */
+    public static double readAmount(Object raw) {
+        if (raw instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (raw != null) {
+            try {
+                return Double.parseDouble(raw.toString().trim());
+            } catch (NumberFormatException ignored) {
+                // 視為 0
+            }
+        }
+        return 0.0;
+    }
+
+    /**
+     * 解析完成的帳戶與其來源指紋。
+     */
+    private record Parsed(Account account, MigrationJobStore.Fingerprint source) {
+    }
+
+    /**
+     * 寫入端：累積成批後寫入，並定期回報進度。
+     */
+    private final class Writer implements Runnable {
+        private final BlockingQueue<Parsed> parsed;
+        private final boolean dryRun;
+        private final AtomicInteger discovered;
+        private final AtomicInteger processed;
+        private final AtomicInteger failed;
+        private final Consumer<Migrator.Progress> progressCallback;
+        private final long startNanos = System.nanoTime();
+        private volatile boolean done;
+        private volatile int imported;
+        private volatile double totalBalance;
+        private volatile boolean aborted;
+        private volatile boolean stopped;
+
+        private Writer(BlockingQueue<Parsed> parsed, boolean dryRun, AtomicInteger discovered,
+                AtomicInteger processed, AtomicInteger failed, Consumer<Migrator.Progress> progressCallback) {
+            this.parsed = parsed;
+            this.dryRun = dryRun;
+            this.discovered = discovered;
+            this.processed = processed;
+            this.failed = failed;
+            this.progressCallback = progressCallback;
+        }
+
+        private void finish() {
+            done = true;
+        }
+
+        @Override
+        public void run() {
+            List<Parsed> batch = new ArrayList<>(batchSize);
+            long lastReport = System.currentTimeMillis();
+            try {
+                while (true) {
+                    Parsed item = parsed.poll(100, TimeUnit.MILLISECONDS);
+                    if (item != null) {
+                        batch.add(item);
+                        if (batch.size() >= batchSize) {
+                            flush(batch);
+                        }
+                    } else if (done && parsed.isEmpty()) {
+                        break;
+                    }
+
+                    long now = System.currentTimeMillis();
+                    if (now - lastReport >= REPORT_INTERVAL_MILLIS) {
+                        lastReport = now;
+                        report();
+                    }
+                }
+            } catch (InterruptedException e) {
+                aborted = true;
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                aborted = true;
+                logger.severe("匯入寫入執行緒發生未預期的錯誤: " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                stopped = true;
+            }
+            flush(batch);
+            report();
+        }
+
+        private void flush(List<Parsed> batch) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            double sum = 0;
+            List<Account> accounts = new ArrayList<>(batch.size());
+            List<MigrationJobStore.Fingerprint> sources = new ArrayList<>(batch.size());
+            for (Parsed item : batch) {
+                accounts.add(item.account());
+                sources.add(item.source());
+                sum += item.account().getBalance();
+            }
+            try {
+                if (dryRun) {
+                    // 試跑不寫入
+                } else if (journal != null) {
+                    // 帳戶與指紋一起提交，不會出現帳戶已寫入但下次仍重新匯入的情況
+                    journal.commit(accounts, sources, processed.get());
+                } else {
+                    storageHandler.saveAccounts(accounts).join();
+                }
+                imported += batch.size();
+                totalBalance += sum;
+            } catch (Exception e) {
+                logger.warning("批次寫入 " + batch.size() + " 個帳戶失敗: " + e.getMessage());
+                failed.addAndGet(batch.size());
+            }
+            batch.clear();
+        }
+
+        private void report() {
+            if (progressCallback == null) {
+                return;
+            }
+            int handled = processed.get();
+            long elapsed = System.nanoTime() - startNanos;
+            long perSecond = elapsed > 0 ? handled * TimeUnit.SECONDS.toNanos(1) / elapsed : handled;
+            try {
+                progressCallback.accept(new Migrator.Progress(handled, discovered.get(), perSecond));
+            } catch (Exception e) {
+                // 回報失敗不應中斷匯入
+                logger.warning("回報匯入進度失敗: " + e.getMessage());
+            }
+        }
+    }
+}
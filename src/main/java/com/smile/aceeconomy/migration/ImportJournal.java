@@ -0,0 +1,139 @@
+package com.smile.aceeconomy.migration;
+
+import com.smile.aceeconomy.data.Account;
+import com.smile.aceeconomy.storage.MigrationJobStore;
+import com.smile.aceeconomy.storage.MigrationJobStore.Fingerprint;
+import com.smile.aceeconomy.storage.MigrationJobStore.Job;
+import com.smile.aceeconomy.storage.MigrationJobStore.Status;
+import com.smile.aceeconomy.storage.StorageProvider;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 匯入工作日誌。
+ * <p>
+ * 將 {@code /aceeco import} 作為可續傳的工作記錄在 {@code ace_migration_jobs}：
+ * 每批帳戶與該批記錄的來源指紋、檢查點在同一條連線、同一個交易中寫入。
+ * 再次執行同一來源的匯入時，來源指紋未變更的記錄會直接略過，
+ * 因此中斷後可從上次的進度繼續，也不會以舊資料覆寫之後已變動的餘額。
+ * </p>
+ *
+ * @author Smile
+ */
+public class ImportJournal {
+
+    private final StorageProvider storageProvider;
+    private final MigrationJobStore store;
+    private final String jobId;
+    private final Job previous;
+    private final Map<String, String> imported;
+
+    private ImportJournal(StorageProvider storageProvider, MigrationJobStore store, String jobId, Job previous,
+            Map<String, String> imported) {
+        this.storageProvider = storageProvider;
+        this.store = store;
+        this.jobId = jobId;
+        this.previous = previous;
+        this.imported = imported;
+    }
+
+    /**
+     * 開啟指定來源的匯入日誌 (讀取上次的工作狀態與已匯入的指紋)。
+     *
+     * @param storageProvider 儲存提供者 (JSON 儲存時為 null)
+     * @param source          來源名稱 (例如 essentials)
+     * @return 匯入日誌，若目前不是 SQL 儲存則為 null
+     * @throws SQLException 若讀取失敗
+     */
+    public static ImportJournal open(StorageProvider storageProvider, String source) throws SQLException {
+        if (storageProvider == null) {
+            return null;
+        }
+        MigrationJobStore store = new MigrationJobStore(storageProvider.isMySQL());
+        String jobId = "import:" + source;
+        try (Connection conn = storageProvider.openMigrationReadConnection()) {
+            return new ImportJournal(storageProvider, store, jobId, store.find(conn, jobId),
+                    store.loadFingerprints(conn, jobId));
+        }
+    }
+
+    /**
+     * 取得上次執行的工作狀態。
+     *
+     * @return 工作，若從未執行則為 null
+     */
+    public Job previous() {
+        return previous;
+    }
+
+    /**
+     * 取得已匯入的記錄數。
+     *
+     * @return 記錄數
+     */
+    public int importedCount() {
+        return imported.size();
+    }
+
+    /**
+     * 檢查記錄是否已以相同的來源指紋匯入過。
+     *
+     * @param key         記錄鍵
+     * @param fingerprint 來源指紋
+     * @return 是否已匯入
+     */
+    public boolean isImported(String key, String fingerprint) {
+        return fingerprint.equals(imported.get(key));
+    }
+
+    /**
+     * 在同一個交易中寫入一批帳戶及其來源指紋與檢查點。
+     * <p>
+     * 任一部分失敗時整批回滾，帳戶與指紋不會只提交其中一方。
+     * </p>
+     *
+     * @param accounts  該批帳戶
+     * @param batch     該批記錄的來源指紋
+     * @param processed 本次執行已處理的記錄數
+     * @throws SQLException 若寫入失敗
+     */
+    public void commit(Collection<Account> accounts, List<Fingerprint> batch, long processed) throws SQLException {
+        String checkpoint = batch.isEmpty() ? null : batch.get(batch.size() - 1).key();
+        write(accounts, batch, Status.RUNNING, checkpoint, processed);
+    }
+
+    /**
+     * 將工作標記為已完成。
+     *
+     * @param processed 本次執行已處理的記錄數
+     * @throws SQLException 若寫入失敗
+     */
+    public void complete(long processed) throws SQLException {
+        write(List.of(), List.of(), Status.COMPLETED, null, processed);
+    }
+
+    private void write(Collection<Account> accounts, List<Fingerprint> batch, Status status, String checkpoint,
+            long processed) throws SQLException {
+        try (Connection conn = storageProvider.openMigrationWriteConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                if (!accounts.isEmpty()) {
+                    storageProvider.writeAccounts(conn, accounts);
+                }
+                store.saveFingerprints(conn, jobId, batch);
+                store.save(conn, new Job(jobId, status, checkpoint, processed, 0, System.currentTimeMillis()));
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+}
@@ -3,12 +3,14 @@ package com.smile.aceeconomy.migration;
 import org.bukkit.command.CommandSender;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 /**
  * 資料遷移介面。
  * <p>
  * 定義從其他經濟插件匯入資料的通用介面。
+ * 匯入以可續傳的工作執行 (見 {@link ImportJournal})，中斷後再次執行會略過已匯入的記錄。
  * </p>
  *
  * @author Smile
@@ -33,15 +35,53 @@ public interface Migrator {
      * 執行資料遷移。
      *
      * @param sender           指令發送者（用於回報進度）
-     * @param progressCallback 進度回調（傳入已處理數量）
+     * @param dryRun           是否為試跑（只解析與統計，不寫入）
+     * @param progressCallback 進度回調（傳入目前進度）
      * @return 遷移結果，包含成功與失敗數量
      */
-    CompletableFuture<MigrationResult> migrate(CommandSender sender, Consumer<Integer> progressCallback);
+    CompletableFuture<MigrationResult> migrate(CommandSender sender, boolean dryRun,
+            Consumer<Progress> progressCallback);
+
+    /**
+     * 建立為每個工作啟動一條專用執行緒的執行器。
+     * <p>
+     * 遷移會長時間執行並在內部等待儲存層的寫入，若放在儲存執行器上會佔住其並行名額
+     * (名額用盡時甚至會等待自己排入的工作而死結)，放在共用 ForkJoinPool 上則會阻塞其他插件。
+     * </p>
+     *
+     * @param name 執行緒名稱
+     * @return 執行器
+     */
+    static Executor dedicatedThread(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            thread.start();
+        };
+    }
+
+    /**
+     * 遷移進度。
+     *
+     * @param processed  已處理數量
+     * @param discovered 目前已發現的總數（來源列舉完成前會持續增加）
+     * @param perSecond  平均每秒處理數量
+     */
+    record Progress(int processed, int discovered, long perSecond) {
+    }
 
     /**
      * 遷移結果。
+     *
+     * @param successCount 成功匯入（試跑時為可匯入）的帳戶數
+     * @param failCount    失敗數
+     * @param skippedCount 先前已以相同來源指紋匯入而略過的數量
+     * @param totalCount   來源總數
+     * @param totalBalance 成功帳戶的預設貨幣餘額總和
+     * @param dryRun       是否為試跑
      */
-    record MigrationResult(int successCount, int failCount, int totalCount) {
+    record MigrationResult(int successCount, int failCount, int skippedCount, int totalCount, double totalBalance,
+            boolean dryRun) {
         /**
          * 是否有錯誤。
          *
@@ -121,6 +121,31 @@ public class DatabaseConnection {
         return dataSource.getConnection();
     }
 
+    /**
+     * 取得供查詢使用的資料庫連線。
+     * <p>
+     * 預設與 {@link #getConnection()} 相同；支援讀寫分離的儲存層會回傳唯讀連線。
+     * </p>
+     *
+     * @return 資料庫連線
+     * @throws SQLException 若無法取得連線
+     */
+    public Connection getReadConnection() throws SQLException {
+        return getConnection();
+    }
+
+    /**
+     * 取得此連線來源的預編譯陳述式快取。
+     * <p>
+     * 預設不快取；SQLite 儲存層會回傳其連線共用的快取。
+     * </p>
+     *
+     * @return 陳述式快取
+     */
+    public StatementCache getStatementCache() {
+        return StatementCache.DISABLED;
+    }
+
     /**
      * 檢查是否使用 MySQL。
      *
@@ -10,6 +10,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -28,18 +29,22 @@ public class JsonStorageHandler implements StorageHandler {
     private final Path dataFolder;
     private final Gson gson;
     private final Logger logger;
+    private final Executor executor;
 
     /**
      * 建立 JSON 儲存處理器。
      *
      * @param dataFolder 插件資料目錄
      * @param logger     日誌記錄器
+     * @param executor   儲存執行器
      */
-    public JsonStorageHandler(Path dataFolder, Logger logger) {
+    public JsonStorageHandler(Path dataFolder, Logger logger, Executor executor) {
         this.dataFolder = dataFolder.resolve("data");
         this.logger = logger;
+        this.executor = executor;
         this.gson = new GsonBuilder()
                 .setPrettyPrinting()
+                .registerTypeAdapter(Account.class, new AccountSerializer())
                 .registerTypeAdapter(Account.class, new AccountDeserializer())
                 .create();
     }
@@ -77,7 +82,7 @@ public class JsonStorageHandler implements StorageHandler {
                 logger.log(Level.WARNING, "無法載入帳戶資料: " + uuid, e);
                 return null;
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -91,7 +96,23 @@ public class JsonStorageHandler implements StorageHandler {
             } catch (IOException e) {
                 logger.log(Level.SEVERE, "無法儲存帳戶資料: " + account.getOwner(), e);
             }
-        });
+        }, executor);
+    }
+
+    /**
+     * 同步讀取單一帳戶 JSON 檔案 (用於匯入至其他儲存)。
+     *
+     * @param file 帳戶檔案
+     * @return 帳戶
+     * @throws IOException 若讀取失敗
+     */
+    Account readAccountFile(Path file) throws IOException {
+        String json = Files.readString(file, StandardCharsets.UTF_8);
+        Account account = gson.fromJson(json, Account.class);
+        if (account == null) {
+            throw new IOException("空的帳戶檔案");
+        }
+        return account;
     }
 
     /**
@@ -104,6 +125,31 @@ public class JsonStorageHandler implements StorageHandler {
         return dataFolder.resolve(uuid.toString() + ".json");
     }
 
+    /**
+     * 自定義 Account 序列化器。
+     * <p>
+     * Account 內部以貨幣序號陣列存放餘額，序號僅在本次執行期間有效，
+     * 因此明確輸出為以貨幣 ID 為鍵的 balances 物件。
+     * </p>
+     */
+    private static class AccountSerializer implements com.google.gson.JsonSerializer<Account> {
+        @Override
+        public com.google.gson.JsonElement serialize(Account account, java.lang.reflect.Type typeOfSrc,
+                com.google.gson.JsonSerializationContext context) {
+            com.google.gson.JsonObject jsonObject = new com.google.gson.JsonObject();
+            jsonObject.addProperty("owner", account.getOwner().toString());
+            jsonObject.addProperty("ownerName", account.getOwnerName());
+
+            com.google.gson.JsonObject balancesObj = new com.google.gson.JsonObject();
+            for (java.util.Map.Entry<String, Double> entry : new java.util.TreeMap<>(account.getBalances())
+                    .entrySet()) {
+                balancesObj.addProperty(entry.getKey(), entry.getValue());
+            }
+            jsonObject.add("balances", balancesObj);
+            return jsonObject;
+        }
+    }
+
     /**
      * 自定義 Account 反序列化器，用於處理舊版資料 (balance -> balances)。
      */
@@ -44,6 +44,22 @@ public class LegacyConnectionAdapter extends DatabaseConnection {
         throw new SQLException("Current StorageProvider does not support legacy JDBC connection access.");
     }
 
+    @Override
+    public Connection getReadConnection() throws SQLException {
+        if (provider instanceof SQLiteImplementation) {
+            return ((SQLiteImplementation) provider).getReadConnection();
+        }
+        return getConnection();
+    }
+
+    @Override
+    public StatementCache getStatementCache() {
+        if (provider instanceof SQLiteImplementation) {
+            return ((SQLiteImplementation) provider).getStatementCache();
+        }
+        return StatementCache.DISABLED;
+    }
+
     @Override
     public boolean isMySQL() {
         return provider instanceof MySQLImplementation;
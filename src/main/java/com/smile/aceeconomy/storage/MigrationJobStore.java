@@ -0,0 +1,168 @@
+package com.smile.aceeconomy.storage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 遷移工作存放區。
+ * <p>
+ * 讀寫 {@code ace_migration_jobs} (每個工作的狀態與檢查點) 與
+ * {@code ace_migration_records} (已匯入記錄的來源指紋)。
+ * 所有方法都使用呼叫端提供的連線且不自行提交，
+ * 呼叫端可將檢查點與該批資料放在同一個交易中提交。
+ * </p>
+ *
+ * @author Smile
+ */
+public class MigrationJobStore {
+
+    private final boolean mysql;
+
+    /**
+     * 建立遷移工作存放區。
+     *
+     * @param mysql 資料庫是否為 MySQL (決定 upsert 語法)
+     */
+    public MigrationJobStore(boolean mysql) {
+        this.mysql = mysql;
+    }
+
+    /**
+     * 查詢工作。
+     *
+     * @param conn  資料庫連線
+     * @param jobId 工作 ID
+     * @return 工作，若不存在則為 null
+     * @throws SQLException 若查詢失敗
+     */
+    public Job find(Connection conn, String jobId) throws SQLException {
+        String sql = "SELECT status, checkpoint, processed, checksum, updated_at FROM ace_migration_jobs"
+                + " WHERE job_id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, jobId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return new Job(jobId, Status.valueOf(rs.getString("status")), rs.getString("checkpoint"),
+                        rs.getLong("processed"), rs.getLong("checksum"), rs.getLong("updated_at"));
+            }
+        }
+    }
+
+    /**
+     * 寫入工作狀態 (以 job_id 覆寫)。
+     *
+     * @param conn 資料庫連線
+     * @param job  工作
+     * @throws SQLException 若寫入失敗
+     */
+    public void save(Connection conn, Job job) throws SQLException {
+        String sql = (mysql ? "REPLACE INTO " : "INSERT OR REPLACE INTO ")
+                + "ace_migration_jobs (job_id, status, checkpoint, processed, checksum, updated_at)"
+                + " VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, job.jobId());
+            pstmt.setString(2, job.status().name());
+            pstmt.setString(3, job.checkpoint());
+            pstmt.setLong(4, job.processed());
+            pstmt.setLong(5, job.checksum());
+            pstmt.setLong(6, job.updatedAt());
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * 讀取工作已匯入記錄的來源指紋。
+     *
+     * @param conn  資料庫連線
+     * @param jobId 工作 ID
+     * @return 記錄鍵 → 指紋
+     * @throws SQLException 若查詢失敗
+     */
+    public Map<String, String> loadFingerprints(Connection conn, String jobId) throws SQLException {
+        Map<String, String> fingerprints = new HashMap<>();
+        String sql = "SELECT record_key, fingerprint FROM ace_migration_records WHERE job_id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, jobId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    fingerprints.put(rs.getString(1), rs.getString(2));
+                }
+            }
+        }
+        return fingerprints;
+    }
+
+    /**
+     * 記錄一批已匯入記錄的來源指紋。
+     *
+     * @param conn    資料庫連線
+     * @param jobId   工作 ID
+     * @param records 記錄
+     * @throws SQLException 若寫入失敗
+     */
+    public void saveFingerprints(Connection conn, String jobId, Collection<Fingerprint> records)
+            throws SQLException {
+        if (records.isEmpty()) {
+            return;
+        }
+        String sql = (mysql ? "REPLACE INTO " : "INSERT OR REPLACE INTO ")
+                + "ace_migration_records (job_id, record_key, fingerprint) VALUES (?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Fingerprint record : records) {
+                pstmt.setString(1, jobId);
+                pstmt.setString(2, record.key());
+                pstmt.setString(3, record.fingerprint());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * 工作狀態。
+     */
+    public enum Status {
+        /**
+         * 執行中或中途中斷 (可續傳)
+         */
+        RUNNING,
+        /**
+         * 已完成
+         */
+        COMPLETED,
+        /**
+         * 驗證失敗，下次需從頭開始
+         */
+        FAILED
+    }
+
+    /**
+     * 遷移工作。
+     *
+     * @param jobId      工作 ID
+     * @param status     狀態
+     * @param checkpoint 最後提交的記錄鍵 (可為 null)
+     * @param processed  已提交的記錄數
+     * @param checksum   已提交記錄的檢查碼總和
+     * @param updatedAt  最後更新時間 (毫秒)
+     */
+    public record Job(String jobId, Status status, String checkpoint, long processed, long checksum,
+            long updatedAt) {
+    }
+
+    /**
+     * 已匯入記錄的來源指紋。
+     *
+     * @param key         記錄鍵 (例如檔名)
+     * @param fingerprint 來源指紋
+     */
+    public record Fingerprint(String key, String fingerprint) {
+    }
+}
@@ -86,6 +86,18 @@ public class SchemaManager {
             if (currentVersion < 6) {
                 migrateV6(conn);
             }
+            if (currentVersion < 7) {
+                migrateV7(conn);
+            }
+            if (currentVersion < 8) {
+                migrateV8(conn);
+            }
+            if (currentVersion < 9) {
+                migrateV9(conn);
+            }
+            if (currentVersion < 10) {
+                migrateV10(conn);
+            }
 
             logger.info("[AceEconomy] Database migration complete.");
 
@@ -553,6 +565,234 @@ public class SchemaManager {
         }
     }
 
+    /**
+     * V7: ace_balances 新增定點數欄位。
+     * balance_minor (BIGINT) 儲存最小單位數量，minor_scale 記錄其小數位數。
+     * 原 balance 欄位保留並持續同步，供排行榜與停用定點數時使用。
+     */
+    private void migrateV7(Connection conn) throws SQLException {
+        logger.info("[AceEconomy] Applying Migration V7: Fixed-point balance columns...");
+
+        String tableName = "ace_balances";
+
+        boolean autoCommit = conn.getAutoCommit();
+        try {
+            if (isMySQL)
+                conn.setAutoCommit(false);
+
+            if (!columnExists(conn, tableName, "balance_minor")) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("ALTER TABLE " + tableName + " ADD COLUMN balance_minor BIGINT NULL");
+                }
+            }
+            if (!columnExists(conn, tableName, "minor_scale")) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("ALTER TABLE " + tableName + " ADD COLUMN minor_scale INT NULL");
+                }
+            }
+
+            if (isMySQL)
+                conn.commit();
+            recordMigration(conn, 7, "Fixed-point balance columns");
+            logger.info("遷移 V7 成功！");
+
+        } catch (SQLException e) {
+            if (isMySQL)
+                conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * V8: ace_users 新增正規化小寫名稱欄位與索引。
+     * username_lower 為 LOWER(username) 的虛擬生成欄位，由資料庫自動維護，
+     * 名稱查詢改以 username_lower = ? 比對，可使用索引而不必對整張表套用 LOWER()。
+     */
+    private void migrateV8(Connection conn) throws SQLException {
+        logger.info("[AceEconomy] Applying Migration V8: Normalized username column...");
+
+        String tableName = "ace_users";
+
+        boolean autoCommit = conn.getAutoCommit();
+        try {
+            if (isMySQL)
+                conn.setAutoCommit(false);
+
+            // SQLite 的欄位中繼資料不列出生成欄位，改以查詢確認
+            if (!columnSelectable(conn, tableName, "username_lower")) {
+                String sql = isMySQL
+                        ? "ALTER TABLE " + tableName
+                                + " ADD COLUMN username_lower VARCHAR(16) GENERATED ALWAYS AS (LOWER(username)) VIRTUAL"
+                        : "ALTER TABLE " + tableName
+                                + " ADD COLUMN username_lower TEXT GENERATED ALWAYS AS (LOWER(username)) VIRTUAL";
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate(sql);
+                }
+            }
+
+            try (Statement stmt = conn.createStatement()) {
+                if (isMySQL) {
+                    try {
+                        stmt.executeUpdate("ALTER TABLE " + tableName
+                                + " ADD INDEX idx_username_lower (username_lower, last_seen)");
+                    } catch (SQLException e) {
+                        // 忽略 Duplicate key name
+                    }
+                } else {
+                    stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_username_lower ON " + tableName
+                            + " (username_lower, last_seen)");
+                }
+            }
+
+            if (isMySQL)
+                conn.commit();
+            recordMigration(conn, 8, "Normalized username column");
+            logger.info("遷移 V8 成功！");
+
+        } catch (SQLException e) {
+            if (isMySQL)
+                conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * V9: ace_transaction_logs 新增 (sender_uuid, timestamp) 與 (receiver_uuid, timestamp) 複合索引。
+     * 交易歷史改為以 (timestamp, log_id) 游標分頁，並將 sender_uuid = ? OR receiver_uuid = ?
+     * 拆成兩段 UNION，每段皆為此索引上的範圍掃描 (log_id 為主鍵，已隱含於索引尾端)。
+     */
+    private void migrateV9(Connection conn) throws SQLException {
+        logger.info("[AceEconomy] Applying Migration V9: Transaction history indexes...");
+
+        String tableName = "ace_transaction_logs";
+
+        boolean autoCommit = conn.getAutoCommit();
+        try {
+            if (isMySQL)
+                conn.setAutoCommit(false);
+
+            try (Statement stmt = conn.createStatement()) {
+                if (isMySQL) {
+                    try {
+                        stmt.executeUpdate("ALTER TABLE " + tableName
+                                + " ADD INDEX idx_sender_time (sender_uuid, timestamp)");
+                    } catch (SQLException e) {
+                        // 忽略 Duplicate key name
+                    }
+                    try {
+                        stmt.executeUpdate("ALTER TABLE " + tableName
+                                + " ADD INDEX idx_receiver_time (receiver_uuid, timestamp)");
+                    } catch (SQLException e) {
+                        // 忽略 Duplicate key name
+                    }
+                } else {
+                    stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_sender_time ON " + tableName
+                            + " (sender_uuid, timestamp)");
+                    stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_receiver_time ON " + tableName
+                            + " (receiver_uuid, timestamp)");
+                }
+            }
+
+            if (isMySQL)
+                conn.commit();
+            recordMigration(conn, 9, "Transaction history indexes");
+            logger.info("遷移 V9 成功！");
+
+        } catch (SQLException e) {
+            if (isMySQL)
+                conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * V10: 建立 ace_migration_jobs 與 ace_migration_records 表。
+     * 匯入與儲存遷移以可續傳的工作執行：每提交一批即在 ace_migration_jobs 記錄檢查點，
+     * ace_migration_records 則保存已匯入記錄的來源指紋，重新執行時可略過未變更的記錄。
+     */
+    private void migrateV10(Connection conn) throws SQLException {
+        logger.info("[AceEconomy] Applying Migration V10: Migration jobs...");
+
+        String jobsSql = isMySQL ? """
+                CREATE TABLE IF NOT EXISTS ace_migration_jobs (
+                    job_id VARCHAR(64) PRIMARY KEY,
+                    status VARCHAR(16) NOT NULL,
+                    checkpoint VARCHAR(255),
+                    processed BIGINT NOT NULL DEFAULT 0,
+                    checksum BIGINT NOT NULL DEFAULT 0,
+                    updated_at BIGINT NOT NULL DEFAULT 0
+                ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+                """ : """
+                CREATE TABLE IF NOT EXISTS ace_migration_jobs (
+                    job_id TEXT PRIMARY KEY,
+                    status TEXT NOT NULL,
+                    checkpoint TEXT,
+                    processed INTEGER NOT NULL DEFAULT 0,
+                    checksum INTEGER NOT NULL DEFAULT 0,
+                    updated_at INTEGER NOT NULL DEFAULT 0
+                )
+                """;
+        String recordsSql = isMySQL ? """
+                CREATE TABLE IF NOT EXISTS ace_migration_records (
+                    job_id VARCHAR(64) NOT NULL,
+                    record_key VARCHAR(191) NOT NULL,
+                    fingerprint VARCHAR(64) NOT NULL,
+                    PRIMARY KEY (job_id, record_key)
+                ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+                """ : """
+                CREATE TABLE IF NOT EXISTS ace_migration_records (
+                    job_id TEXT NOT NULL,
+                    record_key TEXT NOT NULL,
+                    fingerprint TEXT NOT NULL,
+                    PRIMARY KEY (job_id, record_key)
+                )
+                """;
+
+        boolean autoCommit = conn.getAutoCommit();
+        try {
+            if (isMySQL)
+                conn.setAutoCommit(false);
+
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(jobsSql);
+                stmt.execute(recordsSql);
+            }
+
+            if (isMySQL)
+                conn.commit();
+            recordMigration(conn, 10, "Migration jobs");
+            logger.info("遷移 V10 成功！");
+
+        } catch (SQLException e) {
+            if (isMySQL)
+                conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private boolean columnExists(Connection conn, String tableName, String columnName) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getColumns(null, null, tableName, columnName)) {
+            return rs.next();
+        }
+    }
+
+    private boolean columnSelectable(Connection conn, String tableName, String columnName) {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT " + columnName + " FROM " + tableName + " LIMIT 1")) {
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
     private boolean tableHasData(Connection conn, String tableName) throws SQLException {
         try (Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery("SELECT 1 FROM " + tableName + " LIMIT 1")) {
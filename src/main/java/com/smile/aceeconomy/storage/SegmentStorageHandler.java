@@ -0,0 +1,757 @@
+package com.smile.aceeconomy.storage;
+
+import com.smile.aceeconomy.data.Account;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * 日誌結構 (segment) 檔案儲存處理器。
+ * <p>
+ * 所有帳戶以精簡的二進位記錄附加寫入 plugins/AceEconomy/segments/ 下的 segment 檔案，
+ * 記憶體中維護 UUID → 檔案位置的索引，啟動時依序重播所有 segment 重建 (後寫入者為準)。
+ * 目前寫入中的 segment 超過大小上限後即封存並開啟下一個。
+ * </p>
+ * <p>
+ * 寫入採群組提交：單一寫入執行緒收集等待中的記錄，一次寫入後只呼叫一次 fsync，
+ * 之後才更新索引並完成各自的 Future。背景執行緒定期將過期記錄比例過高的封存 segment
+ * 壓縮為只含最新記錄的新檔案 (先寫暫存檔再以原子性更名取代)。
+ * </p>
+ * <p>
+ * 每筆記錄的格式為 {@code [長度][CRC32][內容]}；啟動時若最後一個 segment 結尾有不完整的記錄
+ * (寫入途中當機)，會截斷至最後一筆完整記錄。
+ * </p>
+ *
+ * @author Smile
+ */
+public class SegmentStorageHandler implements StorageHandler {
+
+    /**
+     * 記錄標頭大小 (內容長度 + CRC32)
+     */
+    private static final int HEADER_SIZE = 8;
+
+    /**
+     * 單筆記錄內容的長度上限 (用於辨識損毀的標頭)
+     */
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+
+    /**
+     * 從 JSON 目錄匯入時每次提交的帳戶數
+     */
+    private static final int IMPORT_BATCH_SIZE = 1000;
+
+    /**
+     * 檢查是否需要壓縮的間隔 (秒)
+     */
+    private static final long COMPACTION_CHECK_SECONDS = 30L;
+
+    private static final String SEGMENT_PREFIX = "accounts-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    /**
+     * JSON 資料目錄匯入完成的標記檔
+     */
+    private static final String IMPORT_MARKER = "json-import.done";
+
+    private static final boolean WINDOWS = System.getProperty("os.name", "").startsWith("Windows");
+
+    private final Path pluginFolder;
+    private final Path segmentFolder;
+    private final Logger logger;
+    private final Executor executor;
+    private final long segmentSize;
+    private final long commitIntervalMillis;
+    private final double compactionThreshold;
+
+    /**
+     * UUID → 最新記錄位置
+     */
+    private final Map<UUID, Location> index = new ConcurrentHashMap<>();
+
+    /**
+     * segment 編號 → segment
+     */
+    private final Map<Integer, Segment> segments = new ConcurrentHashMap<>();
+
+    /**
+     * 讀取持有讀鎖；壓縮替換檔案與索引時持有寫鎖
+     */
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    private final LinkedBlockingQueue<PendingWrite> pending = new LinkedBlockingQueue<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * 加入寫入佇列與關閉時的狀態切換互斥，確保關閉後不會再有寫入進入佇列
+     */
+    private final Object lifecycleLock = new Object();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private volatile Segment active;
+    private Thread writerThread;
+    private ScheduledExecutorService compactor;
+
+    /**
+     * 建立 segment 儲存處理器。
+     *
+     * @param pluginFolder         插件資料目錄
+     * @param logger               日誌記錄器
+     * @param executor             儲存執行器
+     * @param segmentSize          單一 segment 的大小上限 (位元組)
+     * @param commitIntervalMillis 群組提交時等待更多寫入的時間 (毫秒)
+     * @param compactionThreshold  封存 segment 的過期記錄比例達到此值時壓縮
+     */
+    public SegmentStorageHandler(Path pluginFolder, Logger logger, Executor executor, long segmentSize,
+            long commitIntervalMillis, double compactionThreshold) {
+        this.pluginFolder = pluginFolder;
+        this.segmentFolder = pluginFolder.resolve("segments");
+        this.logger = logger;
+        this.executor = executor;
+        this.segmentSize = Math.max(4096, segmentSize);
+        this.commitIntervalMillis = Math.max(0, commitIntervalMillis);
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    @Override
+    public void initialize() {
+        try {
+            Files.createDirectories(segmentFolder);
+            deleteLeftovers();
+            recover();
+            if (!Files.exists(segmentFolder.resolve(IMPORT_MARKER))) {
+                importJson(pluginFolder.resolve("data"));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("無法初始化 segment 儲存: " + e.getMessage(), e);
+        }
+
+        running.set(true);
+        writerThread = new Thread(this::writeLoop, "AceEconomy-Segment-Writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AceEconomy-Segment-Compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(this::compactIfNeeded, COMPACTION_CHECK_SECONDS, COMPACTION_CHECK_SECONDS,
+                TimeUnit.SECONDS);
+
+        logger.info("Segment 儲存已初始化: " + index.size() + " 個帳戶，" + segments.size() + " 個 segment");
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (lifecycleLock) {
+            if (!running.compareAndSet(true, false)) {
+                return;
+            }
+        }
+        // 不中斷壓縮執行緒 (中斷會關閉正在讀寫的 FileChannel)
+        compactor.shutdown();
+        try {
+            writerThread.join();
+            compactor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // 寫入執行緒結束前最後一刻送達的寫入直接在此提交 (之後的寫入已被拒絕)
+        List<PendingWrite> late = new ArrayList<>();
+        pending.drainTo(late);
+        List<Record> records = new ArrayList<>();
+        for (PendingWrite write : late) {
+            records.addAll(write.records());
+        }
+        try {
+            append(records);
+            late.forEach(write -> write.future().complete(null));
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "無法寫入 segment (" + records.size() + " 筆帳戶)", e);
+            late.forEach(write -> write.future().completeExceptionally(e));
+        }
+
+        for (Segment segment : segments.values()) {
+            segment.close();
+        }
+        logger.info("Segment 儲存處理器已關閉");
+    }
+
+    @Override
+    public CompletableFuture<Account> loadAccount(UUID uuid) {
+        return CompletableFuture.supplyAsync(() -> {
+            swapLock.readLock().lock();
+            try {
+                Location location = index.get(uuid);
+                if (location == null) {
+                    return null;
+                }
+                return decode(read(segments.get(location.segment()), location));
+            } catch (IOException e) {
+                // 不可回傳 null，否則呼叫端會把既有玩家當成新玩家並以預設餘額覆寫
+                logger.log(Level.SEVERE, "無法載入帳戶資料: " + uuid, e);
+                throw new RuntimeException(e);
+            } finally {
+                swapLock.readLock().unlock();
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAccount(Account account) {
+        return saveAccounts(List.of(account));
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAccounts(Collection<Account> accounts) {
+        if (accounts.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        PendingWrite write = new PendingWrite(new ArrayList<>(accounts.size()), new CompletableFuture<>());
+        for (Account account : accounts) {
+            write.records().add(new Record(account.getOwner(), encode(account)));
+        }
+        synchronized (lifecycleLock) {
+            if (!running.get()) {
+                write.future().completeExceptionally(new IllegalStateException("Segment 儲存已關閉"));
+                return write.future();
+            }
+            pending.add(write);
+        }
+        return write.future();
+    }
+
+    // ==================== 群組提交 ====================
+
+    /**
+     * 寫入執行緒：取出所有等待中的寫入，一次寫入並 fsync 後再完成 Future。
+     */
+    private void writeLoop() {
+        List<PendingWrite> batch = new ArrayList<>();
+        while (running.get() || !pending.isEmpty()) {
+            try {
+                PendingWrite first = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                if (commitIntervalMillis > 0) {
+                    // 等待一小段時間以合併更多寫入至同一次 fsync
+                    Thread.sleep(commitIntervalMillis);
+                }
+            } catch (InterruptedException e) {
+                // 關閉時仍會寫完佇列中的資料
+            }
+            pending.drainTo(batch);
+
+            List<Record> records = new ArrayList<>();
+            for (PendingWrite write : batch) {
+                records.addAll(write.records());
+            }
+            try {
+                append(records);
+                for (PendingWrite write : batch) {
+                    write.future().complete(null);
+                }
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "無法寫入 segment (" + records.size() + " 筆帳戶)", e);
+                for (PendingWrite write : batch) {
+                    write.future().completeExceptionally(e);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * 將記錄附加至目前的 segment，fsync 後更新索引 (僅由寫入執行緒或初始化流程呼叫)。
+     */
+    private void append(List<Record> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        if (active.size.get() >= segmentSize) {
+            roll();
+        }
+
+        int total = 0;
+        for (Record record : records) {
+            total += record.data().length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+        for (Record record : records) {
+            buffer.put(record.data());
+        }
+        buffer.flip();
+
+        Segment segment = active;
+        long base = segment.size.get();
+        long position = base;
+        while (buffer.hasRemaining()) {
+            position += segment.channel.write(buffer, position);
+        }
+        segment.channel.force(false);
+        segment.size.set(position);
+
+        long offset = base;
+        for (Record record : records) {
+            Location previous = index.put(record.uuid(), new Location(segment.id, offset, record.data().length));
+            markDead(previous);
+            offset += record.data().length;
+        }
+    }
+
+    /**
+     * 封存目前的 segment 並開啟下一個。
+     */
+    private void roll() throws IOException {
+        Segment next = Segment.open(segmentFolder, active.id + 1);
+        // 新檔案的目錄項目須先落盤，否則之後 fsync 的記錄可能隨檔案一起遺失
+        syncFolder();
+        segments.put(next.id, next);
+        active = next;
+    }
+
+    private void markDead(Location location) {
+        if (location != null) {
+            Segment segment = segments.get(location.segment());
+            if (segment != null) {
+                segment.dead.addAndGet(location.length());
+            }
+        }
+    }
+
+    // ==================== 啟動與匯入 ====================
+
+    /**
+     * 依序重播所有 segment 以重建索引；最後一個 segment 結尾的不完整記錄會被截斷。
+     */
+    private void recover() throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(segmentFolder,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    ids.add(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    logger.warning("略過無法辨識的 segment 檔案: " + name);
+                }
+            }
+        }
+        ids.sort(null);
+        if (ids.isEmpty()) {
+            ids.add(1);
+        }
+
+        for (int i = 0; i < ids.size(); i++) {
+            Segment segment = Segment.open(segmentFolder, ids.get(i));
+            segments.put(segment.id, segment);
+            long valid = replay(segment);
+            if (valid < segment.channel.size()) {
+                boolean last = i == ids.size() - 1;
+                logger.warning("Segment " + segment.id + " 在位置 " + valid + " 之後的記錄不完整"
+                        + (last ? "，已截斷" : "，已略過"));
+                if (last) {
+                    segment.channel.truncate(valid);
+                    segment.channel.force(true);
+                }
+            }
+            segment.size.set(valid);
+            active = segment;
+        }
+    }
+
+    /**
+     * 讀取 segment 中的所有完整記錄並更新索引。
+     *
+     * @return 最後一筆完整記錄結尾的位置
+     */
+    private long replay(Segment segment) throws IOException {
+        long offset = 0;
+        try (InputStream raw = Files.newInputStream(segment.path);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(raw, 1 << 16))) {
+            while (true) {
+                int length;
+                int crc;
+                try {
+                    length = in.readInt();
+                    crc = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (length <= 16 || length > MAX_RECORD_SIZE) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                try {
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    break;
+                }
+                if (checksum(payload) != crc) {
+                    break;
+                }
+                ByteBuffer key = ByteBuffer.wrap(payload, 0, 16);
+                UUID uuid = new UUID(key.getLong(), key.getLong());
+                int size = HEADER_SIZE + length;
+                markDead(index.put(uuid, new Location(segment.id, offset, size)));
+                offset += size;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * 從舊的 JSON 資料目錄匯入帳戶 (JSON 檔案保持不變)。
+     * <p>
+     * 全部寫入並 fsync 後才建立完成標記；標記存在前每次啟動都會重新執行，
+     * 並略過索引中已有的帳戶，因此中斷的匯入會從上次的進度繼續，
+     * 也不會以 JSON 的舊資料覆寫已寫入 segment 的帳戶。
+     * </p>
+     */
+    private void importJson(Path jsonFolder) throws IOException {
+        if (!Files.isDirectory(jsonFolder)) {
+            return;
+        }
+        JsonStorageHandler json = new JsonStorageHandler(pluginFolder, logger, Runnable::run);
+        List<Record> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        int imported = 0;
+        int failed = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(jsonFolder, "*.json")) {
+            for (Path file : files) {
+                try {
+                    Account account = json.readAccountFile(file);
+                    if (index.containsKey(account.getOwner())) {
+                        // 先前中斷的匯入已寫入，或之後已有新的資料
+                        continue;
+                    }
+                    batch.add(new Record(account.getOwner(), encode(account)));
+                } catch (Exception e) {
+                    logger.warning("無法匯入 JSON 帳戶檔案: " + file.getFileName() + " - " + e.getMessage());
+                    failed++;
+                    continue;
+                }
+                if (batch.size() >= IMPORT_BATCH_SIZE) {
+                    append(batch);
+                    imported += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+        append(batch);
+        imported += batch.size();
+        if (imported > 0 || failed > 0) {
+            logger.info("已從 JSON 資料目錄匯入 " + imported + " 個帳戶" + (failed > 0 ? "，失敗 " + failed + " 個" : ""));
+        }
+
+        try (FileChannel marker = FileChannel.open(segmentFolder.resolve(IMPORT_MARKER), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            marker.write(ByteBuffer.wrap((imported + " " + failed + "\n").getBytes(StandardCharsets.UTF_8)));
+            marker.force(true);
+        }
+        syncFolder();
+    }
+
+    /**
+     * fsync segment 目錄，讓檔案的建立、更名與刪除落盤。
+     * <p>
+     * Windows 無法以 FileChannel 開啟目錄 (NTFS 的目錄變更由檔案系統日誌保護)，因此略過。
+     * </p>
+     */
+    private void syncFolder() throws IOException {
+        if (WINDOWS) {
+            return;
+        }
+        try (FileChannel folder = FileChannel.open(segmentFolder, StandardOpenOption.READ)) {
+            folder.force(true);
+        }
+    }
+
+    private void deleteLeftovers() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(segmentFolder, "*.tmp")) {
+            for (Path file : files) {
+                // 壓縮途中當機留下的暫存檔
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // ==================== 背景壓縮 ====================
+
+    /**
+     * 若封存 segment 的過期記錄比例達到門檻，將其壓縮為單一 segment。
+     * <p>
+     * 存活的記錄寫入暫存檔並 fsync 後，以原子性更名取代編號最大的封存 segment，
+     * fsync 目錄後再刪除其餘封存 segment。任何一步中斷時，重播結果都與壓縮前相同。
+     * </p>
+     */
+    void compactIfNeeded() {
+        if (!compacting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int activeId = active.id;
+            List<Segment> sealed = new ArrayList<>();
+            long bytes = 0;
+            long dead = 0;
+            for (Segment segment : new TreeMap<>(segments).values()) {
+                if (segment.id < activeId) {
+                    sealed.add(segment);
+                    bytes += segment.size.get();
+                    dead += segment.dead.get();
+                }
+            }
+            if (sealed.isEmpty() || bytes == 0 || (double) dead / bytes < compactionThreshold) {
+                return;
+            }
+            compact(sealed);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Segment 壓縮失敗", e);
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    private void compact(List<Segment> sealed) throws IOException {
+        long start = System.currentTimeMillis();
+        Segment last = sealed.get(sealed.size() - 1);
+        Map<Integer, Segment> sources = new HashMap<>();
+        for (Segment segment : sealed) {
+            sources.put(segment.id, segment);
+        }
+
+        // 1. 複製仍為最新版本的記錄至暫存檔
+        Path temp = segmentFolder.resolve(SEGMENT_PREFIX + last.id + ".tmp");
+        Map<UUID, Location[]> moved = new HashMap<>();
+        long size = 0;
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Map.Entry<UUID, Location> entry : index.entrySet()) {
+                Location location = entry.getValue();
+                Segment source = sources.get(location.segment());
+                if (source == null) {
+                    continue;
+                }
+                ByteBuffer record = ByteBuffer.wrap(readRecord(source, location));
+                Location target = new Location(last.id, size, location.length());
+                while (record.hasRemaining()) {
+                    size += out.write(record, size);
+                }
+                moved.put(entry.getKey(), new Location[] { location, target });
+            }
+            out.force(true);
+        }
+
+        // 2. 取代檔案並更新索引 (持有寫鎖，讀取端不會看到不一致的位置)
+        long dead = 0;
+        swapLock.writeLock().lock();
+        try {
+            for (Segment segment : sealed) {
+                segment.close();
+            }
+            Files.move(temp, last.path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            // 更名落盤前不可刪除其他封存 segment，否則當機後兩者可能同時遺失
+            syncFolder();
+            Segment compacted = Segment.open(segmentFolder, last.id);
+            compacted.size.set(size);
+            for (Segment segment : sealed) {
+                segments.remove(segment.id);
+            }
+            segments.put(compacted.id, compacted);
+
+            for (Map.Entry<UUID, Location[]> entry : moved.entrySet()) {
+                Location[] locations = entry.getValue();
+                if (!index.replace(entry.getKey(), locations[0], locations[1])) {
+                    // 複製期間已有新版本寫入
+                    dead += locations[1].length();
+                }
+            }
+            compacted.dead.addAndGet(dead);
+
+            for (Segment segment : sealed) {
+                if (segment != last) {
+                    Files.deleteIfExists(segment.path);
+                }
+            }
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        logger.info("Segment 壓縮完成: " + sealed.size() + " 個 segment → " + (size / 1024) + " KB ("
+                + (System.currentTimeMillis() - start) + " ms)");
+    }
+
+    // ==================== 記錄編碼 ====================
+
+    /**
+     * 將帳戶編碼為完整記錄 (含標頭)。
+     */
+    private static byte[] encode(Account account) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(account.getOwner().getMostSignificantBits());
+            out.writeLong(account.getOwner().getLeastSignificantBits());
+            String name = account.getOwnerName();
+            out.writeUTF(name != null ? name : "");
+            Map<String, Double> balances = account.getBalances();
+            out.writeShort(balances.size());
+            for (Map.Entry<String, Double> entry : balances.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeDouble(entry.getValue());
+            }
+            byte[] payload = bytes.toByteArray();
+
+            ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+            record.putInt(payload.length);
+            record.putInt(checksum(payload));
+            record.put(payload);
+            return record.array();
+        } catch (IOException e) {
+            // ByteArrayOutputStream 不會拋出 IOException
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Account decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        UUID uuid = new UUID(in.readLong(), in.readLong());
+        String name = in.readUTF();
+        int count = in.readUnsignedShort();
+        Map<String, Double> balances = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            balances.put(in.readUTF(), in.readDouble());
+        }
+        return new Account(uuid, name.isEmpty() ? "Unknown" : name, balances);
+    }
+
+    /**
+     * 讀取記錄內容並驗證 CRC。
+     */
+    private static byte[] read(Segment segment, Location location) throws IOException {
+        ByteBuffer record = ByteBuffer.wrap(readRecord(segment, location));
+        int length = record.getInt();
+        int crc = record.getInt();
+        byte[] payload = new byte[length];
+        record.get(payload);
+        if (checksum(payload) != crc) {
+            throw new IOException("記錄 CRC 不符 (segment " + location.segment() + " @ " + location.offset() + ")");
+        }
+        return payload;
+    }
+
+    /**
+     * 讀取完整記錄 (含標頭)。
+     */
+    private static byte[] readRecord(Segment segment, Location location) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(location.length());
+        long position = location.offset();
+        while (buffer.hasRemaining()) {
+            int read = segment.channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Segment " + location.segment() + " 意外結束");
+            }
+        }
+        return buffer.array();
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * 記錄位置。
+     *
+     * @param segment segment 編號
+     * @param offset  記錄在檔案中的起始位置
+     * @param length  記錄長度 (含標頭)
+     */
+    private record Location(int segment, long offset, int length) {
+    }
+
+    /**
+     * 已編碼的記錄。
+     */
+    private record Record(UUID uuid, byte[] data) {
+    }
+
+    /**
+     * 等待群組提交的寫入。
+     */
+    private record PendingWrite(List<Record> records, CompletableFuture<Void> future) {
+    }
+
+    /**
+     * 單一 segment 檔案。
+     */
+    private static final class Segment {
+        private final int id;
+        private final Path path;
+        private final FileChannel channel;
+        private final AtomicLong size = new AtomicLong();
+        private final AtomicLong dead = new AtomicLong();
+
+        private Segment(int id, Path path, FileChannel channel) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+        }
+
+        private static Segment open(Path folder, int id) throws IOException {
+            Path path = folder.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            Segment segment = new Segment(id, path, channel);
+            segment.size.set(channel.size());
+            return segment;
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // 關閉時的錯誤不影響資料
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.smile.aceeconomy.storage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 預編譯陳述式快取。
+ * <p>
+ * SQLite 驅動沒有類似 MySQL {@code cachePrepStmts} 的陳述式快取，每次
+ * {@code prepareStatement} 都會重新解析 SQL。此快取依實體連線 (從連線池代理物件 unwrap 取得)
+ * 保存已編譯的陳述式，連線歸還連線池後仍然保留，下次借出同一條連線時直接重用。
+ * 實體連線被連線池淘汰 (關閉) 後，對應的快取會在下一條新連線出現時清除。
+ * </p>
+ * <p>
+ * 同一條連線同時只會被一個執行緒借用，因此單一連線的快取不需額外同步。
+ * </p>
+ *
+ * @author Smile
+ */
+public class StatementCache {
+
+    /**
+     * 不快取的實例 (每次建立新陳述式並於使用後關閉)。
+     */
+    public static final StatementCache DISABLED = new StatementCache(0);
+
+    private final int maxPerConnection;
+    private final Map<Connection, Map<String, PreparedStatement>> caches = new ConcurrentHashMap<>();
+
+    // 統計數據
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong parseNanos = new AtomicLong();
+
+    /**
+     * 建立陳述式快取。
+     *
+     * @param maxPerConnection 每條連線最多快取的陳述式數量 (0 表示停用)
+     */
+    public StatementCache(int maxPerConnection) {
+        this.maxPerConnection = Math.max(0, maxPerConnection);
+    }
+
+    /**
+     * 取得 (或建立) 陳述式。
+     * <p>
+     * 必須以 try-with-resources 使用回傳的 {@link Lease}；關閉時會清除參數與批次，
+     * 但不會關閉已快取的陳述式。
+     * </p>
+     *
+     * @param conn 連線 (可為連線池代理物件)
+     * @param sql  SQL
+     * @return 陳述式租用
+     * @throws SQLException 若無法建立陳述式
+     */
+    public Lease prepare(Connection conn, String sql) throws SQLException {
+        if (maxPerConnection == 0) {
+            return new Lease(timedPrepare(conn, sql), false);
+        }
+
+        Connection physical = conn.unwrap(Connection.class);
+        Map<String, PreparedStatement> statements = caches.get(physical);
+        if (statements == null) {
+            // 新的實體連線代表舊連線可能已被淘汰，順便清除已關閉連線的快取
+            purgeClosed();
+            statements = newLru();
+            caches.put(physical, statements);
+        }
+
+        PreparedStatement statement = statements.get(sql);
+        if (statement != null && !statement.isClosed()) {
+            hits.incrementAndGet();
+            return new Lease(statement, true);
+        }
+
+        statement = timedPrepare(physical, sql);
+        statements.put(sql, statement);
+        return new Lease(statement, true);
+    }
+
+    private PreparedStatement timedPrepare(Connection conn, String sql) throws SQLException {
+        long start = System.nanoTime();
+        PreparedStatement statement = conn.prepareStatement(sql);
+        parseNanos.addAndGet(System.nanoTime() - start);
+        misses.incrementAndGet();
+        return statement;
+    }
+
+    private void purgeClosed() {
+        caches.entrySet().removeIf(entry -> {
+            try {
+                return entry.getKey().isClosed();
+            } catch (SQLException e) {
+                return true;
+            }
+        });
+    }
+
+    private Map<String, PreparedStatement> newLru() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= maxPerConnection) {
+                    return false;
+                }
+                evictions.incrementAndGet();
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * 關閉並清除所有快取的陳述式 (須在關閉連線池之前呼叫)。
+     */
+    public void clear() {
+        for (Map<String, PreparedStatement> statements : caches.values()) {
+            statements.values().forEach(StatementCache::closeQuietly);
+        }
+        caches.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+            // 連線可能已關閉
+        }
+    }
+
+    /**
+     * 取得統計快照。
+     *
+     * @return 統計數據
+     */
+    public Metrics getMetrics() {
+        return new Metrics(hits.get(), misses.get(), evictions.get(), parseNanos.get());
+    }
+
+    /**
+     * 陳述式租用。
+     */
+    public static final class Lease implements AutoCloseable {
+
+        private final PreparedStatement statement;
+        private final boolean cached;
+
+        private Lease(PreparedStatement statement, boolean cached) {
+            this.statement = statement;
+            this.cached = cached;
+        }
+
+        /**
+         * 取得陳述式。
+         *
+         * @return 陳述式
+         */
+        public PreparedStatement statement() {
+            return statement;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (cached) {
+                statement.clearBatch();
+                statement.clearParameters();
+            } else {
+                statement.close();
+            }
+        }
+    }
+
+    /**
+     * 陳述式快取統計數據。
+     *
+     * @param hits       累計命中次數 (省略的解析次數)
+     * @param misses     累計建立 (解析) 次數
+     * @param evictions  累計因超過上限而淘汰的陳述式數
+     * @param parseNanos 累計解析耗時 (奈秒)
+     */
+    public record Metrics(long hits, long misses, long evictions, long parseNanos) {
+
+        /**
+         * 以平均解析耗時估算命中所省下的時間。
+         *
+         * @return 估計省下的解析時間 (奈秒)
+         */
+        public long estimatedSavedNanos() {
+            return misses == 0 ? 0 : hits * (parseNanos / misses);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.smile.aceeconomy.storage;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * 儲存層專用執行器。
+ * <p>
+ * 取代 {@code CompletableFuture.supplyAsync/runAsync} 預設使用的共用 ForkJoinPool，
+ * 避免阻塞的 JDBC 與檔案 I/O 佔用其他插件共用的執行緒。支援兩種模式：
+ * </p>
+ * <ul>
+ * <li>{@link Mode#VIRTUAL}：每個工作一條虛擬執行緒，並以信號量限制同時執行數
+ * (預設與連線池大小相同，避免大量執行緒在連線池前排隊)</li>
+ * <li>{@link Mode#PLATFORM}：固定大小的平台執行緒池</li>
+ * </ul>
+ *
+ * @author Smile
+ */
+public class StorageExecutor implements Executor {
+
+    /**
+     * 執行模式。
+     */
+    public enum Mode {
+        VIRTUAL,
+        PLATFORM;
+
+        /**
+         * 解析設定值，無法辨識時回傳 {@link #VIRTUAL}。
+         *
+         * @param value 設定值
+         * @return 執行模式
+         */
+        public static Mode parse(String value) {
+            if (value != null && value.trim().equalsIgnoreCase("platform")) {
+                return PLATFORM;
+            }
+            return VIRTUAL;
+        }
+    }
+
+    private static final String THREAD_PREFIX = "AceEconomy-Storage-";
+
+    private final Mode mode;
+    private final int maxConcurrency;
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+    private final Logger logger;
+
+    private volatile boolean shutdown = false;
+
+    // 統計數據
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * 建立儲存執行器。
+     *
+     * @param mode           執行模式
+     * @param maxConcurrency 最大同時執行工作數
+     * @param logger         日誌記錄器
+     */
+    public StorageExecutor(Mode mode, int maxConcurrency, Logger logger) {
+        this.mode = mode;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.logger = logger;
+
+        if (mode == Mode.VIRTUAL) {
+            ThreadFactory factory = Thread.ofVirtual().name(THREAD_PREFIX, 0).factory();
+            this.delegate = Executors.newThreadPerTaskExecutor(factory);
+            this.permits = new Semaphore(this.maxConcurrency, true);
+        } else {
+            AtomicInteger counter = new AtomicInteger();
+            this.delegate = new ThreadPoolExecutor(this.maxConcurrency, this.maxConcurrency, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                        Thread thread = new Thread(r, THREAD_PREFIX + counter.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            ((ThreadPoolExecutor) this.delegate).allowCoreThreadTimeOut(true);
+            this.permits = null;
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (shutdown) {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("儲存執行器已關閉");
+        }
+
+        queued.incrementAndGet();
+        try {
+            delegate.execute(() -> run(command));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            throw e;
+        }
+    }
+
+    private void run(Runnable command) {
+        boolean acquired = false;
+        try {
+            if (permits != null) {
+                permits.acquire();
+                acquired = true;
+            }
+            queued.decrementAndGet();
+            active.incrementAndGet();
+            try {
+                command.run();
+                completed.incrementAndGet();
+            } catch (Throwable t) {
+                // CompletableFuture 已自行捕捉例外，此處僅處理直接提交的工作
+                failed.incrementAndGet();
+                logger.warning("[AceEconomy] 儲存工作執行失敗: " + t.getMessage());
+            } finally {
+                active.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            Thread.currentThread().interrupt();
+        } finally {
+            if (acquired) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * 停止接收新工作，並等待已提交的工作完成。
+     * <p>
+     * 必須在延遲寫入與交易日誌排空之後、連線池關閉之前呼叫。
+     * </p>
+     *
+     * @param timeoutMillis 等待時限 (毫秒)
+     */
+    public void shutdown(long timeoutMillis) {
+        shutdown = true;
+        delegate.shutdown();
+        try {
+            if (!delegate.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.warning("[AceEconomy] 儲存執行器未能在時限內完成，尚有 " + (queued.get() + active.get())
+                        + " 個工作被中斷");
+                delegate.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            delegate.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        Metrics metrics = getMetrics();
+        logger.info("[AceEconomy] 儲存執行器已關閉 (完成 " + metrics.completed() + " 個工作，失敗 " + metrics.failed()
+                + " 個，拒絕 " + metrics.rejected() + " 個)");
+    }
+
+    /**
+     * 執行器是否已關閉。
+     *
+     * @return 是否已關閉
+     */
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * 取得統計快照。
+     *
+     * @return 統計數據
+     */
+    public Metrics getMetrics() {
+        return new Metrics(mode, maxConcurrency, queued.get(), active.get(), completed.get(), failed.get(),
+                rejected.get());
+    }
+
+    /**
+     * 儲存執行器統計數據。
+     *
+     * @param mode           執行模式
+     * @param maxConcurrency 最大同時執行工作數
+     * @param queued         等待執行的工作數
+     * @param active         執行中的工作數
+     * @param completed      累計完成工作數
+     * @param failed         累計拋出例外的工作數
+     * @param rejected       累計被拒絕的工作數
+     */
+    public record Metrics(Mode mode, int maxConcurrency, int queued, int active, long completed, long failed,
+            long rejected) {
+    }
+}
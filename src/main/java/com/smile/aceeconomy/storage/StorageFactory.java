@@ -5,6 +5,7 @@ import com.smile.aceeconomy.manager.ConfigManager;
 import com.smile.aceeconomy.storage.implementation.MySQLImplementation;
 import com.smile.aceeconomy.storage.implementation.SQLiteImplementation;
 
+import java.util.concurrent.Executor;
 import java.util.logging.Logger;
 
 /**
@@ -24,23 +25,24 @@ public class StorageFactory {
      *
      * @param plugin        插件實例
      * @param configManager 設定管理器
+     * @param executor      儲存執行器 (所有非同步查詢皆在此執行)
      * @return 初始化的 StorageProvider
      */
-    public static StorageProvider create(AceEconomy plugin, ConfigManager configManager) {
+    public static StorageProvider create(AceEconomy plugin, ConfigManager configManager, Executor executor) {
         String type = configManager.getDatabaseType().toLowerCase();
 
         logger.info("[AceEconomy] 初始化儲存系統，類型: " + type);
 
         switch (type) {
             case "mysql", "mariadb" -> {
-                return new MySQLImplementation(plugin, configManager);
+                return new MySQLImplementation(plugin, configManager, executor);
             }
             case "sqlite" -> {
-                return new SQLiteImplementation(plugin);
+                return new SQLiteImplementation(plugin, executor);
             }
             default -> {
                 logger.warning("[AceEconomy] 未知的儲存系統類型: " + type + "，預設使用 SQLite。");
-                return new SQLiteImplementation(plugin);
+                return new SQLiteImplementation(plugin, executor);
             }
         }
     }
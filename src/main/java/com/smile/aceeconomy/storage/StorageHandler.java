@@ -2,6 +2,7 @@ package com.smile.aceeconomy.storage;
 
 import com.smile.aceeconomy.data.Account;
 
+import java.util.Collection;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -35,6 +36,35 @@ public interface StorageHandler {
      */
     CompletableFuture<Void> saveAccount(Account account);
 
+    /**
+     * 非同步批次儲存多個玩家帳戶資料。
+     * <p>
+     * 預設實作會逐一呼叫 {@link #saveAccount(Account)}，
+     * 支援批次寫入的實作應覆寫此方法以減少 I/O 次數。
+     * </p>
+     *
+     * @param accounts 要儲存的帳戶集合
+     * @return 全部儲存完成時完成的 CompletableFuture
+     */
+    default CompletableFuture<Void> saveAccounts(Collection<Account> accounts) {
+        return CompletableFuture.allOf(accounts.stream()
+                .map(this::saveAccount)
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * 是否支援局部寫入。
+     * <p>
+     * 若為 true，傳入 {@link #saveAccount(Account)} 的帳戶可只包含部分貨幣，
+     * 未包含的貨幣將保持原值；若為 false，帳戶必須包含所有貨幣。
+     * </p>
+     *
+     * @return 是否支援局部寫入
+     */
+    default boolean supportsPartialWrites() {
+        return false;
+    }
+
     /**
      * 初始化儲存處理器。
      * <p>
@@ -1,5 +1,8 @@
 package com.smile.aceeconomy.storage;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -42,6 +45,32 @@ public interface StorageProvider {
      */
     CompletableFuture<Void> setBalance(UUID uuid, String currency, double amount);
 
+    /**
+     * 批次儲存多個帳戶的所有餘額與玩家名稱。
+     * <p>
+     * 所有寫入在同一個連線、同一個交易中以 JDBC batch 執行，
+     * 並直接使用帳戶中的玩家名稱，不再另外查詢。
+     * 任一筆失敗時整批回滾，並以例外完成 Future。
+     * </p>
+     *
+     * @param accounts 要儲存的帳戶集合
+     * @return 完成時的 Future
+     */
+    CompletableFuture<Void> saveAccounts(Collection<com.smile.aceeconomy.data.Account> accounts);
+
+    /**
+     * 在呼叫端提供的連線上寫入多個帳戶 (不提交、不回滾)。
+     * <p>
+     * 供需要與其他資料 (例如匯入工作的來源指紋) 在同一個交易中提交的呼叫端使用，
+     * 寫入內容與 {@link #saveAccounts(Collection)} 相同。
+     * </p>
+     *
+     * @param conn     已關閉自動提交的連線
+     * @param accounts 要儲存的帳戶集合
+     * @throws SQLException 若寫入失敗
+     */
+    void writeAccounts(Connection conn, Collection<com.smile.aceeconomy.data.Account> accounts) throws SQLException;
+
     /**
      * 取得玩家所有貨幣餘額。
      *
@@ -50,23 +79,75 @@ public interface StorageProvider {
      */
     CompletableFuture<Map<String, Double>> getBalances(UUID uuid);
 
+    /**
+     * 批次載入多個玩家的完整帳戶 (名稱與所有貨幣餘額)。
+     * <p>
+     * 以單一 JOIN 查詢同時讀取 ace_users 與 ace_balances，
+     * 用於登入高峰時合併多位玩家的帳戶載入。
+     * 找不到 (或名稱未知) 的玩家不會出現在結果中。
+     * </p>
+     *
+     * @param uuids 玩家 UUID 集合
+     * @return UUID -> 帳戶 的 Map
+     */
+    CompletableFuture<Map<UUID, com.smile.aceeconomy.data.Account>> loadAccounts(Collection<UUID> uuids);
+
+    /**
+     * 逐筆走訪 ace_balances 的所有餘額 (串流讀取，不一次載入記憶體)。
+     * <p>
+     * 用於啟動時建立記憶體排行榜索引。visitor 在資料庫執行緒上被呼叫。
+     * </p>
+     *
+     * @param visitor 每筆餘額的處理器
+     * @return 走訪的筆數
+     */
+    CompletableFuture<Integer> forEachBalance(BalanceVisitor visitor);
+
+    /**
+     * 餘額走訪處理器。
+     */
+    @FunctionalInterface
+    interface BalanceVisitor {
+        /**
+         * 處理一筆餘額。
+         *
+         * @param uuid       玩家 UUID
+         * @param currencyId 貨幣 ID
+         * @param balance    餘額
+         * @param username   玩家名稱 (可能為 null)
+         */
+        void accept(UUID uuid, String currencyId, double balance, String username);
+    }
+
     /**
      * 取得排行榜。
      *
      * @param currency 貨幣 ID
      * @param limit    取前幾名
-     * @return 玩家名稱 -> 餘額 的 Map (注意：這裡回傳名稱而非 UUID，方便顯示)
+     * @return 玩家名稱 -> 餘額 的 Map，依餘額由高至低排序 (注意：這裡回傳名稱而非 UUID，方便顯示)
      *         return Map of PlayerName to Balance.
      */
     CompletableFuture<Map<String, Double>> getTopAccounts(String currency, int limit);
 
     /**
-     * 透過名稱取得 UUID。
+     * 透過名稱取得玩家 (不區分大小寫)。
+     * <p>
+     * 以正規化的小寫名稱欄位比對；若同一名稱曾被多位玩家使用，回傳最近上線的玩家。
+     * 回傳的名稱為資料庫中保存的原始大小寫，而非查詢時輸入的名稱。
+     * </p>
      *
      * @param name 玩家名稱
-     * @return 玩家 UUID
+     * @return 玩家紀錄，若找不到則為 null
+     */
+    CompletableFuture<com.smile.aceeconomy.data.UserRecord> getUserByName(String name);
+
+    /**
+     * 取得最近上線的玩家 (用於預熱名稱索引)。
+     *
+     * @param limit 最多筆數
+     * @return 玩家紀錄，依最近上線時間由新至舊排序
      */
-    CompletableFuture<UUID> getUuidByName(String name);
+    CompletableFuture<java.util.List<com.smile.aceeconomy.data.UserRecord>> getRecentUsers(int limit);
 
     /**
      * 透過 UUID 取得名稱。
@@ -86,17 +167,25 @@ public interface StorageProvider {
     CompletableFuture<Void> updatePlayerName(UUID uuid, String name);
 
     /**
-     * 導出所有資料庫資料 (用於遷移)。
+     * 是否為 MySQL/MariaDB (決定遷移時使用的 SQL 方言)。
      *
-     * @return 完整資料 (包含所有 users 與 balances)
+     * @return 是否為 MySQL
      */
-    CompletableFuture<com.smile.aceeconomy.data.DataDump> dumpAllData();
+    boolean isMySQL();
 
     /**
-     * 匯入資料 (用於遷移)。
+     * 開啟遷移用的讀取連線 (串流讀取來源資料表，呼叫端負責關閉)。
      *
-     * @param dump 資料轉儲物件
-     * @return 完成時的 Future
+     * @return 資料庫連線
+     * @throws SQLException 若無法取得連線
+     */
+    Connection openMigrationReadConnection() throws SQLException;
+
+    /**
+     * 開啟遷移用的寫入連線 (分批寫入目標資料表，呼叫端負責關閉)。
+     *
+     * @return 資料庫連線
+     * @throws SQLException 若無法取得連線
      */
-    CompletableFuture<Void> importData(com.smile.aceeconomy.data.DataDump dump);
+    Connection openMigrationWriteConnection() throws SQLException;
 }
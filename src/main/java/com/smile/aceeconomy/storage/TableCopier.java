@@ -0,0 +1,548 @@
+package com.smile.aceeconomy.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * 資料表串流複製工具 (用於儲存遷移)。
+ * <p>
+ * 讀取端以唯讀、單向的游標逐列讀取來源資料表，每滿一批即放入有界佇列；
+ * 寫入端 (呼叫端執行緒) 從佇列取出批次，以 JDBC batch 寫入目標並逐批提交。
+ * 佇列容量限制了同時存在於記憶體的列數，不論資料表多大都不會整表載入。
+ * </p>
+ * <p>
+ * 讀取端同時計算列數，以及與列順序無關的檢查碼 (每列 CRC32 的總和)，
+ * 複製完成後可用 {@link #scan} 以相同方式重新讀取目標資料表進行比對。
+ * </p>
+ * <p>
+ * 來源依主鍵排序讀取，每批提交時可透過 {@link CheckpointWriter} 在同一個交易中記錄檢查點
+ * (最後一列的主鍵與累計的列數、檢查碼)；中斷後以該檢查點從下一個主鍵繼續複製。
+ * </p>
+ *
+ * @author Smile
+ */
+public class TableCopier {
+
+    /**
+     * 佇列中代表讀取完畢的標記
+     */
+    private static final Object END = new Object();
+
+    /**
+     * 複合主鍵編碼時的分隔字元
+     */
+    private static final String KEY_SEPARATOR = "\u001F";
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final int batchSize;
+    private final int queueCapacity;
+    private final long progressIntervalMillis;
+
+    /**
+     * 建立資料表複製工具。
+     *
+     * @param batchSize              每批讀取與提交的列數 (亦作為 JDBC fetch size)
+     * @param queueCapacity          讀取端最多預先讀取的批次數
+     * @param progressIntervalMillis 回報進度的最短間隔 (毫秒)
+     */
+    public TableCopier(int batchSize, int queueCapacity, long progressIntervalMillis) {
+        this.batchSize = Math.max(1, batchSize);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.progressIntervalMillis = progressIntervalMillis;
+    }
+
+    /**
+     * 將來源資料表串流複製到目標資料表 (以主鍵覆寫已存在的列)。
+     *
+     * @param table        資料表定義
+     * @param source       來源連線 (僅讀取)
+     * @param target       目標連線 (逐批提交)
+     * @param targetMySQL  目標是否為 MySQL
+     * @param expectedRows 預估列數 (僅用於進度顯示)
+     * @param from         續傳的檢查點 (從頭開始時為 {@link Checkpoint#START})
+     * @param checkpoints  每批提交前記錄檢查點 (可為 null)
+     * @param listener     進度回報 (可為 null)
+     * @return 累計 (含檢查點之前) 的列數與檢查碼
+     * @throws SQLException 若讀取或寫入失敗
+     */
+    public Totals copy(Table table, Connection source, Connection target, boolean targetMySQL, long expectedRows,
+            Checkpoint from, CheckpointWriter checkpoints, ProgressListener listener) throws SQLException {
+        BlockingQueue<Object> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Reader reader = new Reader(table, source, from, queue, cancelled);
+        Thread readerThread = new Thread(reader, "AceEconomy-Migration-" + table.name());
+        readerThread.setDaemon(true);
+        readerThread.start();
+
+        long written = from.rows();
+        long checksum = from.checksum();
+        long startTime = System.nanoTime();
+        long lastReport = System.currentTimeMillis();
+        boolean autoCommit = target.getAutoCommit();
+        try (PreparedStatement pstmt = target.prepareStatement(table.upsertSql(targetMySQL))) {
+            target.setAutoCommit(false);
+            while (true) {
+                Object item = queue.take();
+                if (item == END) {
+                    break;
+                }
+                if (item instanceof Throwable failure) {
+                    throw new SQLException("讀取 " + table.name() + " 失敗: " + failure.getMessage(), failure);
+                }
+
+                Batch batch = (Batch) item;
+                for (Object[] row : batch.rows()) {
+                    table.bind(pstmt, row);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                written += batch.rows().size();
+                checksum += batch.checksum();
+                if (checkpoints != null) {
+                    Object[] last = batch.rows().get(batch.rows().size() - 1);
+                    checkpoints.write(target, new Checkpoint(table.keyOf(last), written, checksum));
+                }
+                target.commit();
+
+                long now = System.currentTimeMillis();
+                if (listener != null && now - lastReport >= progressIntervalMillis) {
+                    lastReport = now;
+                    listener.onProgress(table.name(), written, expectedRows,
+                            rate(written - from.rows(), startTime));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("遷移 " + table.name() + " 時被中斷", e);
+        } catch (SQLException e) {
+            try {
+                target.rollback();
+            } catch (SQLException ignored) {
+                // 保留原始例外
+            }
+            throw e;
+        } finally {
+            cancelled.set(true);
+            queue.clear();
+            try {
+                readerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            target.setAutoCommit(autoCommit);
+        }
+
+        if (listener != null) {
+            listener.onProgress(table.name(), written, Math.max(expectedRows, written),
+                    rate(written - from.rows(), startTime));
+        }
+        return new Totals(written, checksum);
+    }
+
+    /**
+     * 串流讀取資料表並計算列數與檢查碼 (用於驗證)。
+     *
+     * @param table 資料表定義
+     * @param conn  資料庫連線
+     * @return 列數與檢查碼
+     * @throws SQLException 若讀取失敗
+     */
+    public Totals scan(Table table, Connection conn) throws SQLException {
+        long rows = 0;
+        long checksum = 0;
+        try (PreparedStatement pstmt = openCursor(conn, table.selectSql());
+                ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                checksum += checksum(table.read(rs));
+                rows++;
+            }
+        }
+        return new Totals(rows, checksum);
+    }
+
+    /**
+     * 取得資料表列數。
+     *
+     * @param conn  資料庫連線
+     * @param table 資料表名稱
+     * @return 列數
+     * @throws SQLException 若查詢失敗
+     */
+    public static long count(Connection conn, String table) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * 開啟唯讀、單向的串流游標。
+     * MySQL Connector/J 只有在 fetch size 為 {@link Integer#MIN_VALUE} 時才逐列串流，
+     * 其他驅動 (MariaDB、SQLite) 則依 fetch size 分段讀取。
+     */
+    private PreparedStatement openCursor(Connection conn, String sql) throws SQLException {
+        PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        String driver = conn.getMetaData().getDriverName();
+        pstmt.setFetchSize(driver != null && driver.startsWith("MySQL") ? Integer.MIN_VALUE : batchSize);
+        return pstmt;
+    }
+
+    private static long rate(long rows, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed > 0 ? rows * TimeUnit.SECONDS.toNanos(1) / elapsed : rows;
+    }
+
+    /**
+     * 計算單列的檢查碼 (與欄位值的來源驅動無關)。
+     */
+    static long checksum(Object[] row) {
+        CRC32 crc = new CRC32();
+        for (Object value : row) {
+            String canonical;
+            if (value == null) {
+                canonical = "\0";
+            } else if (value instanceof Boolean bool) {
+                canonical = bool ? "1" : "0";
+            } else {
+                canonical = value.toString();
+            }
+            crc.update(canonical.getBytes(StandardCharsets.UTF_8));
+            crc.update(0x1F);
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * 讀取端：依主鍵順序逐列讀取來源並分批放入佇列。
+     */
+    private final class Reader implements Runnable {
+        private final Table table;
+        private final Connection source;
+        private final Checkpoint from;
+        private final BlockingQueue<Object> queue;
+        private final AtomicBoolean cancelled;
+
+        private Reader(Table table, Connection source, Checkpoint from, BlockingQueue<Object> queue,
+                AtomicBoolean cancelled) {
+            this.table = table;
+            this.source = source;
+            this.from = from;
+            this.queue = queue;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        public void run() {
+            boolean resume = from.lastKey() != null;
+            try (PreparedStatement pstmt = openCursor(source, table.cursorSql(resume))) {
+                if (resume) {
+                    table.bindKeyset(pstmt, from.lastKey());
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    List<Object[]> rows = new ArrayList<>(batchSize);
+                    long sum = 0;
+                    while (rs.next()) {
+                        Object[] row = table.read(rs);
+                        sum += checksum(row);
+                        rows.add(row);
+                        if (rows.size() >= batchSize) {
+                            if (!put(new Batch(rows, sum))) {
+                                return;
+                            }
+                            rows = new ArrayList<>(batchSize);
+                            sum = 0;
+                        }
+                    }
+                    if (!rows.isEmpty() && !put(new Batch(rows, sum))) {
+                        return;
+                    }
+                }
+                put(END);
+            } catch (Throwable t) {
+                put(t);
+            }
+        }
+
+        /**
+         * 放入佇列；寫入端已停止時放棄並回傳 false。
+         */
+        private boolean put(Object item) {
+            try {
+                while (!cancelled.get()) {
+                    if (queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 欄位型別 (決定讀取、綁定與檢查碼的正規化方式)。
+     */
+    public enum ColumnType {
+        STRING,
+        LONG,
+        DOUBLE,
+        BOOLEAN,
+        /**
+         * 時間欄位統一以 {@code yyyy-MM-dd HH:mm:ss} 字串搬移，
+         * 可同時相容 SQLite 的文字時間與 MySQL 的 DATETIME。
+         */
+        TIMESTAMP;
+
+        Object read(ResultSet rs, int index) throws SQLException {
+            return switch (this) {
+                case STRING -> rs.getString(index);
+                case LONG -> {
+                    long value = rs.getLong(index);
+                    yield rs.wasNull() ? null : value;
+                }
+                case DOUBLE -> {
+                    double value = rs.getDouble(index);
+                    yield rs.wasNull() ? null : value;
+                }
+                case BOOLEAN -> {
+                    boolean value = rs.getBoolean(index);
+                    yield rs.wasNull() ? null : value;
+                }
+                case TIMESTAMP -> normalizeTimestamp(rs.getObject(index));
+            };
+        }
+
+        void bind(PreparedStatement pstmt, int index, Object value) throws SQLException {
+            if (value == null) {
+                pstmt.setNull(index, switch (this) {
+                    case LONG -> Types.BIGINT;
+                    case DOUBLE -> Types.DOUBLE;
+                    case BOOLEAN -> Types.BOOLEAN;
+                    case STRING, TIMESTAMP -> Types.VARCHAR;
+                });
+                return;
+            }
+            switch (this) {
+                case LONG -> pstmt.setLong(index, (Long) value);
+                case DOUBLE -> pstmt.setDouble(index, (Double) value);
+                case BOOLEAN -> pstmt.setBoolean(index, (Boolean) value);
+                case STRING, TIMESTAMP -> pstmt.setString(index, (String) value);
+            }
+        }
+
+        private static String normalizeTimestamp(Object value) {
+            if (value == null) {
+                return null;
+            }
+            if (value instanceof Timestamp timestamp) {
+                return timestamp.toLocalDateTime().format(TIMESTAMP_FORMAT);
+            }
+            if (value instanceof LocalDateTime dateTime) {
+                return dateTime.format(TIMESTAMP_FORMAT);
+            }
+            if (value instanceof java.util.Date date) {
+                return new Timestamp(date.getTime()).toLocalDateTime().format(TIMESTAMP_FORMAT);
+            }
+            if (value instanceof Number millis) {
+                return new Timestamp(millis.longValue()).toLocalDateTime().format(TIMESTAMP_FORMAT);
+            }
+            String text = value.toString().replace('T', ' ');
+            return text.length() > 19 ? text.substring(0, 19) : text;
+        }
+    }
+
+    /**
+     * 欄位定義。
+     *
+     * @param name 欄位名稱
+     * @param type 欄位型別
+     */
+    public record Column(String name, ColumnType type) {
+    }
+
+    /**
+     * 資料表定義。
+     *
+     * @param name    資料表名稱
+     * @param columns 要搬移的欄位 (需包含主鍵)
+     * @param key     主鍵欄位 (依序)
+     */
+    public record Table(String name, List<Column> columns, List<String> key) {
+
+        String selectSql() {
+            return "SELECT " + columnList() + " FROM " + name;
+        }
+
+        /**
+         * 依主鍵排序的讀取語句；續傳時只讀取檢查點之後的列。
+         */
+        String cursorSql(boolean resume) {
+            StringBuilder sql = new StringBuilder(selectSql());
+            if (resume) {
+                // (k1 > ?) OR (k1 = ? AND k2 > ?) ...
+                List<String> terms = new ArrayList<>();
+                for (int i = 0; i < key.size(); i++) {
+                    StringBuilder term = new StringBuilder("(");
+                    for (int j = 0; j < i; j++) {
+                        term.append(key.get(j)).append(" = ? AND ");
+                    }
+                    terms.add(term.append(key.get(i)).append(" > ?)").toString());
+                }
+                sql.append(" WHERE ").append(String.join(" OR ", terms));
+            }
+            return sql.append(" ORDER BY ").append(String.join(", ", key)).toString();
+        }
+
+        void bindKeyset(PreparedStatement pstmt, Object[] lastKey) throws SQLException {
+            int index = 1;
+            for (int i = 0; i < key.size(); i++) {
+                for (int j = 0; j <= i; j++) {
+                    keyColumn(j).type().bind(pstmt, index++, lastKey[j]);
+                }
+            }
+        }
+
+        Object[] keyOf(Object[] row) {
+            Object[] values = new Object[key.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = row[columns.indexOf(keyColumn(i))];
+            }
+            return values;
+        }
+
+        /**
+         * 將主鍵值編碼為可保存的字串。
+         *
+         * @param values 主鍵值
+         * @return 編碼後的字串
+         */
+        public String encodeKey(Object[] values) {
+            return Arrays.stream(values).map(String::valueOf).collect(Collectors.joining(KEY_SEPARATOR));
+        }
+
+        /**
+         * 解碼 {@link #encodeKey} 產生的字串。
+         *
+         * @param encoded 編碼後的字串
+         * @return 主鍵值
+         */
+        public Object[] decodeKey(String encoded) {
+            String[] parts = encoded.split(KEY_SEPARATOR, -1);
+            Object[] values = new Object[key.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = keyColumn(i).type() == ColumnType.LONG ? Long.parseLong(parts[i]) : parts[i];
+            }
+            return values;
+        }
+
+        private Column keyColumn(int index) {
+            String keyName = key.get(index);
+            return columns.stream().filter(c -> c.name().equals(keyName)).findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException(name + " 沒有主鍵欄位 " + keyName));
+        }
+
+        String upsertSql(boolean mysql) {
+            String placeholders = columns.stream().map(c -> "?").collect(Collectors.joining(", "));
+            return (mysql ? "REPLACE INTO " : "INSERT OR REPLACE INTO ") + name + " (" + columnList()
+                    + ") VALUES (" + placeholders + ")";
+        }
+
+        Object[] read(ResultSet rs) throws SQLException {
+            Object[] row = new Object[columns.size()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = columns.get(i).type().read(rs, i + 1);
+            }
+            return row;
+        }
+
+        void bind(PreparedStatement pstmt, Object[] row) throws SQLException {
+            for (int i = 0; i < row.length; i++) {
+                columns.get(i).type().bind(pstmt, i + 1, row[i]);
+            }
+        }
+
+        private String columnList() {
+            return columns.stream().map(Column::name).collect(Collectors.joining(", "));
+        }
+    }
+
+    /**
+     * 列數與檢查碼。
+     *
+     * @param rows     列數
+     * @param checksum 各列 CRC32 的總和
+     */
+    public record Totals(long rows, long checksum) {
+    }
+
+    /**
+     * 複製檢查點。
+     *
+     * @param lastKey  最後提交列的主鍵值 (從頭開始時為 null)
+     * @param rows     已提交的累計列數
+     * @param checksum 已提交列的累計檢查碼
+     */
+    public record Checkpoint(Object[] lastKey, long rows, long checksum) {
+
+        /**
+         * 從頭開始
+         */
+        public static final Checkpoint START = new Checkpoint(null, 0, 0);
+    }
+
+    /**
+     * 佇列中的一批列。
+     */
+    private record Batch(List<Object[]> rows, long checksum) {
+    }
+
+    /**
+     * 檢查點寫入器。
+     */
+    @FunctionalInterface
+    public interface CheckpointWriter {
+        /**
+         * 在該批提交前寫入檢查點 (與該批資料位於同一個交易)。
+         *
+         * @param target     目標連線
+         * @param checkpoint 檢查點
+         * @throws SQLException 若寫入失敗
+         */
+        void write(Connection target, Checkpoint checkpoint) throws SQLException;
+    }
+
+    /**
+     * 進度回報。
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * 回報複製進度 (在寫入端執行緒上呼叫)。
+         *
+         * @param table         資料表名稱
+         * @param copied        已提交的列數
+         * @param total         預估總列數
+         * @param rowsPerSecond 平均每秒列數
+         */
+        void onProgress(String table, long copied, long total, long rowsPerSecond);
+    }
+}
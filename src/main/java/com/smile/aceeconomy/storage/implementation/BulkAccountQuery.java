@@ -0,0 +1,133 @@
+package com.smile.aceeconomy.storage.implementation;
+
+import com.smile.aceeconomy.data.Account;
+import com.smile.aceeconomy.storage.StatementCache;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 批次帳戶載入查詢。
+ * <p>
+ * 以單一 {@code ace_users LEFT JOIN ace_balances} 查詢一次取得多個玩家的名稱與所有貨幣餘額。
+ * IN 子句的參數數量只使用固定的幾種大小，不足的部分以最後一個 UUID 補齊
+ * (重複的值不影響結果)，讓陳述式快取只需保存少數幾種 SQL。
+ * </p>
+ *
+ * @author Smile
+ */
+final class BulkAccountQuery {
+
+    /**
+     * IN 子句的參數數量 (由小到大)
+     */
+    private static final int[] CHUNK_ROWS = {1, 4, 16, 64, 256};
+    private static final String[] SELECT_SQL = new String[CHUNK_ROWS.length];
+
+    static {
+        for (int i = 0; i < CHUNK_ROWS.length; i++) {
+            SELECT_SQL[i] = """
+                    SELECT u.uuid, u.username, b.currency_id, b.balance, b.balance_minor, b.minor_scale
+                    FROM ace_users u
+                    LEFT JOIN ace_balances b ON b.uuid = u.uuid
+                    WHERE u.uuid IN (%s)
+                    """.formatted(String.join(", ", Collections.nCopies(CHUNK_ROWS[i], "?")));
+        }
+    }
+
+    private BulkAccountQuery() {
+    }
+
+    /**
+     * 載入多個帳戶。
+     * <p>
+     * 找不到或名稱未知的 UUID 不會出現在結果中。
+     * </p>
+     *
+     * @param conn       資料庫連線
+     * @param statements 陳述式快取
+     * @param uuids      要載入的 UUID (不可重複)
+     * @return UUID -> 帳戶
+     * @throws SQLException 若查詢失敗
+     */
+    static Map<UUID, Account> load(Connection conn, StatementCache statements, List<UUID> uuids)
+            throws SQLException {
+        Map<UUID, String> names = new HashMap<>();
+        Map<UUID, Map<String, Double>> balances = new LinkedHashMap<>();
+
+        int offset = 0;
+        while (offset < uuids.size()) {
+            int index = chunkIndex(uuids.size() - offset);
+            int rows = CHUNK_ROWS[index];
+            int count = Math.min(rows, uuids.size() - offset);
+
+            try (StatementCache.Lease lease = statements.prepare(conn, SELECT_SQL[index])) {
+                PreparedStatement pstmt = lease.statement();
+                for (int i = 0; i < rows; i++) {
+                    // 不足的參數以本段最後一個 UUID 補齊
+                    UUID uuid = uuids.get(offset + Math.min(i, count - 1));
+                    pstmt.setString(i + 1, uuid.toString());
+                }
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        String username = rs.getString("username");
+                        if (username == null || "Unknown".equals(username)) {
+                            continue;
+                        }
+                        UUID uuid = UUID.fromString(rs.getString("uuid"));
+                        names.putIfAbsent(uuid, username);
+                        Map<String, Double> accountBalances = balances.computeIfAbsent(uuid, k -> new HashMap<>());
+
+                        // LEFT JOIN：沒有任何餘額的玩家 currency_id 為 NULL
+                        String currencyId = rs.getString("currency_id");
+                        if (currencyId != null) {
+                            accountBalances.put(currencyId, MinorUnitColumns.read(rs, currencyId));
+                        }
+                    }
+                }
+            }
+            offset += count;
+        }
+
+        Map<UUID, Account> accounts = new HashMap<>(balances.size() * 2);
+        for (Map.Entry<UUID, Map<String, Double>> entry : balances.entrySet()) {
+            UUID uuid = entry.getKey();
+            accounts.put(uuid, new Account(uuid, names.get(uuid), entry.getValue()));
+        }
+        return accounts;
+    }
+
+    /**
+     * 去除重複的 UUID (保留順序)。
+     *
+     * @param uuids UUID 集合
+     * @return 不重複的 UUID 列表
+     */
+    static List<UUID> distinct(Collection<UUID> uuids) {
+        return new ArrayList<>(new LinkedHashSet<>(uuids));
+    }
+
+    /**
+     * 選擇可容納剩餘 UUID 的最小參數數量；超過最大值時使用最大值並分段查詢。
+     */
+    private static int chunkIndex(int remaining) {
+        for (int i = 0; i < CHUNK_ROWS.length; i++) {
+            if (CHUNK_ROWS[i] >= remaining) {
+                return i;
+            }
+        }
+        return CHUNK_ROWS.length - 1;
+    }
+}
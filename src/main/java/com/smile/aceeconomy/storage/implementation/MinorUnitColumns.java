@@ -0,0 +1,102 @@
+package com.smile.aceeconomy.storage.implementation;
+
+import com.smile.aceeconomy.data.Currency;
+import com.smile.aceeconomy.data.CurrencyIndex;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collection;
+
+/**
+ * ace_balances 定點數欄位輔助工具。
+ * <p>
+ * 啟用定點數模式時，餘額同時寫入 balance (DOUBLE) 與 balance_minor (BIGINT 最小單位)，
+ * 並以 minor_scale 記錄寫入時的小數位數；讀取時優先採用小數位數相符的 balance_minor。
+ * 未啟用時兩欄寫入 NULL，之後重新啟用會自動由 balance 回填。
+ * </p>
+ *
+ * @author Smile
+ */
+final class MinorUnitColumns {
+
+    private MinorUnitColumns() {
+    }
+
+    /**
+     * 綁定 balance_minor 與 minor_scale 參數。
+     *
+     * @param pstmt      PreparedStatement
+     * @param index      balance_minor 參數位置 (minor_scale 緊接其後)
+     * @param currencyId 貨幣 ID
+     * @param amount     餘額
+     * @throws SQLException 若綁定失敗
+     */
+    static void bind(PreparedStatement pstmt, int index, String currencyId, double amount) throws SQLException {
+        int scale = CurrencyIndex.scaleOf(currencyId);
+        if (scale >= 0) {
+            pstmt.setLong(index, Currency.toMinorUnits(amount, scale));
+            pstmt.setInt(index + 1, scale);
+        } else {
+            pstmt.setNull(index, Types.BIGINT);
+            pstmt.setNull(index + 1, Types.INTEGER);
+        }
+    }
+
+    /**
+     * 從查詢結果讀取餘額 (需包含 balance、balance_minor、minor_scale 欄位)。
+     *
+     * @param rs         查詢結果
+     * @param currencyId 貨幣 ID
+     * @return 餘額
+     * @throws SQLException 若讀取失敗
+     */
+    static double read(ResultSet rs, String currencyId) throws SQLException {
+        int scale = CurrencyIndex.scaleOf(currencyId);
+        if (scale >= 0) {
+            long minor = rs.getLong("balance_minor");
+            if (!rs.wasNull()) {
+                int storedScale = rs.getInt("minor_scale");
+                if (!rs.wasNull() && storedScale == scale) {
+                    return Currency.fromMinorUnits(minor, scale);
+                }
+            }
+        }
+        return rs.getDouble("balance");
+    }
+
+    /**
+     * 依 balance 回填缺少或小數位數不符的 balance_minor。
+     *
+     * @param conn       資料庫連線
+     * @param isMySQL    是否為 MySQL
+     * @param currencies 已啟用定點數的貨幣
+     * @return 回填的列數
+     * @throws SQLException 若更新失敗
+     */
+    static int backfill(Connection conn, boolean isMySQL, Collection<Currency> currencies) throws SQLException {
+        String sql = """
+                UPDATE ace_balances
+                SET balance_minor = CAST(ROUND(balance * ?) AS %s), minor_scale = ?
+                WHERE currency_id = ? AND (balance_minor IS NULL OR minor_scale IS NULL OR minor_scale <> ?)
+                """.formatted(isMySQL ? "SIGNED" : "INTEGER");
+
+        int updated = 0;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Currency currency : currencies) {
+                int scale = CurrencyIndex.scaleOf(currency.id());
+                if (scale < 0) {
+                    continue;
+                }
+                pstmt.setLong(1, Currency.toMinorUnits(1.0, scale));
+                pstmt.setInt(2, scale);
+                pstmt.setString(3, currency.id());
+                pstmt.setInt(4, scale);
+                updated += pstmt.executeUpdate();
+            }
+        }
+        return updated;
+    }
+}
@@ -1,8 +1,10 @@
 package com.smile.aceeconomy.storage.implementation;
 
 import com.smile.aceeconomy.AceEconomy;
+import com.smile.aceeconomy.data.UserRecord;
 import com.smile.aceeconomy.manager.ConfigManager;
 import com.smile.aceeconomy.storage.SchemaManager;
+import com.smile.aceeconomy.storage.StatementCache;
 import com.smile.aceeconomy.storage.StorageProvider;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
@@ -11,10 +13,15 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.logging.Logger;
 
 /**
@@ -31,6 +38,7 @@ public class MySQLImplementation implements StorageProvider {
     private final AceEconomy plugin;
     private final ConfigManager configManager;
     private final Logger logger;
+    private final Executor executor;
 
     private HikariDataSource dataSource;
 
@@ -38,10 +46,37 @@ public class MySQLImplementation implements StorageProvider {
     private static final String TABLE_BALANCES = "ace_balances";
     private static final String TABLE_USERS = "ace_users";
 
-    public MySQLImplementation(AceEconomy plugin, ConfigManager configManager) {
+    private static final String UPSERT_USER = """
+            INSERT INTO %s (uuid, username, last_seen)
+            VALUES (?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                username = VALUES(username),
+                last_seen = VALUES(last_seen)
+            """.formatted(TABLE_USERS);
+
+    private static final String UPSERT_BALANCE = """
+            INSERT INTO %s (uuid, currency_id, balance, username, balance_minor, minor_scale, last_updated)
+            VALUES (?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
+            ON DUPLICATE KEY UPDATE
+                balance = VALUES(balance),
+                username = VALUES(username),
+                balance_minor = VALUES(balance_minor),
+                minor_scale = VALUES(minor_scale),
+                last_updated = CURRENT_TIMESTAMP
+            """.formatted(TABLE_BALANCES);
+
+    /**
+     * 建立 MySQL 儲存實作。
+     *
+     * @param plugin        插件實例
+     * @param configManager 設定管理器
+     * @param executor      儲存執行器
+     */
+    public MySQLImplementation(AceEconomy plugin, ConfigManager configManager, Executor executor) {
         this.plugin = plugin;
         this.configManager = configManager;
         this.logger = plugin.getLogger();
+        this.executor = executor;
     }
 
     @Override
@@ -102,6 +137,16 @@ public class MySQLImplementation implements StorageProvider {
             SchemaManager schemaManager = new SchemaManager(plugin, this::getConnection, true);
             schemaManager.migrate();
 
+            // 定點數模式：回填 balance_minor
+            if (configManager.isFixedPointEnabled()) {
+                try (Connection conn = getConnection()) {
+                    int rows = MinorUnitColumns.backfill(conn, true, configManager.getCurrencies().values());
+                    if (rows > 0) {
+                        logger.info("[AceEconomy] 已回填 " + rows + " 筆定點數餘額");
+                    }
+                }
+            }
+
         } catch (SQLException e) {
             logger.severe("MySQL 初始化失敗: " + e.getMessage());
             e.printStackTrace();
@@ -138,7 +183,8 @@ public class MySQLImplementation implements StorageProvider {
     @Override
     public CompletableFuture<Double> getBalance(UUID uuid, String currency) {
         return CompletableFuture.supplyAsync(() -> {
-            String sql = "SELECT balance FROM " + TABLE_BALANCES + " WHERE uuid = ? AND currency_id = ?";
+            String sql = "SELECT balance, balance_minor, minor_scale FROM " + TABLE_BALANCES
+                    + " WHERE uuid = ? AND currency_id = ?";
             try (Connection conn = dataSource.getConnection();
                     PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
@@ -147,7 +193,7 @@ public class MySQLImplementation implements StorageProvider {
 
                 try (ResultSet rs = pstmt.executeQuery()) {
                     if (rs.next()) {
-                        return rs.getDouble("balance");
+                        return MinorUnitColumns.read(rs, currency);
                     }
                 }
             } catch (SQLException e) {
@@ -155,14 +201,15 @@ public class MySQLImplementation implements StorageProvider {
                 e.printStackTrace();
             }
             return 0.0;
-        });
+        }, executor);
     }
 
     @Override
     public CompletableFuture<Map<String, Double>> getBalances(UUID uuid) {
         return CompletableFuture.supplyAsync(() -> {
             Map<String, Double> balances = new HashMap<>();
-            String sql = "SELECT currency_id, balance FROM " + TABLE_BALANCES + " WHERE uuid = ?";
+            String sql = "SELECT currency_id, balance, balance_minor, minor_scale FROM " + TABLE_BALANCES
+                    + " WHERE uuid = ?";
             try (Connection conn = dataSource.getConnection();
                     PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
@@ -170,7 +217,8 @@ public class MySQLImplementation implements StorageProvider {
 
                 try (ResultSet rs = pstmt.executeQuery()) {
                     while (rs.next()) {
-                        balances.put(rs.getString("currency_id"), rs.getDouble("balance"));
+                        String currencyId = rs.getString("currency_id");
+                        balances.put(currencyId, MinorUnitColumns.read(rs, currencyId));
                     }
                 }
             } catch (SQLException e) {
@@ -178,7 +226,25 @@ public class MySQLImplementation implements StorageProvider {
                 e.printStackTrace();
             }
             return balances;
-        });
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, com.smile.aceeconomy.data.Account>> loadAccounts(Collection<UUID> uuids) {
+        if (uuids.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection conn = dataSource.getConnection()) {
+                // MySQL 驅動已啟用 cachePrepStmts，不需額外的陳述式快取
+                return BulkAccountQuery.load(conn, StatementCache.DISABLED, BulkAccountQuery.distinct(uuids));
+            } catch (SQLException e) {
+                // 不可回傳空結果，否則呼叫端會把既有玩家當成新玩家並覆寫餘額
+                logger.severe("批次載入帳戶失敗 (" + uuids.size() + " 位玩家): " + e.getMessage());
+                throw new RuntimeException(e);
+            }
+        }, executor);
     }
 
     @Override
@@ -186,11 +252,13 @@ public class MySQLImplementation implements StorageProvider {
         return CompletableFuture.runAsync(() -> {
             // MySQL Syntax: INSERT ... ON DUPLICATE KEY UPDATE
             String sql = """
-                    INSERT INTO %s (uuid, currency_id, balance, username, last_updated)
-                    VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)
+                    INSERT INTO %s (uuid, currency_id, balance, username, balance_minor, minor_scale, last_updated)
+                    VALUES (?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
                     ON DUPLICATE KEY UPDATE
                         balance = VALUES(balance),
                         username = VALUES(username),
+                        balance_minor = VALUES(balance_minor),
+                        minor_scale = VALUES(minor_scale),
                         last_updated = CURRENT_TIMESTAMP
                     """.formatted(TABLE_BALANCES);
 
@@ -203,19 +271,113 @@ public class MySQLImplementation implements StorageProvider {
 
                 String username = getNameByUuidSync(uuid);
                 pstmt.setString(4, username);
+                MinorUnitColumns.bind(pstmt, 5, currency, amount);
 
                 pstmt.executeUpdate();
             } catch (SQLException e) {
                 logger.severe("設定餘額錯誤 (" + uuid + "): " + e.getMessage());
                 e.printStackTrace();
             }
-        });
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAccounts(Collection<com.smile.aceeconomy.data.Account> accounts) {
+        if (accounts.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.runAsync(() -> {
+            try (Connection conn = dataSource.getConnection()) {
+                boolean originalAutoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+
+                try {
+                    writeAccounts(conn, accounts);
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(originalAutoCommit);
+                }
+
+            } catch (SQLException e) {
+                logger.severe("批次儲存帳戶錯誤 (" + accounts.size() + " 個帳戶): " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException("Batch save failed", e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public void writeAccounts(Connection conn, Collection<com.smile.aceeconomy.data.Account> accounts)
+            throws SQLException {
+        try (PreparedStatement userStmt = conn.prepareStatement(UPSERT_USER);
+                PreparedStatement balanceStmt = conn.prepareStatement(UPSERT_BALANCE)) {
+            long now = System.currentTimeMillis();
+
+            for (com.smile.aceeconomy.data.Account account : accounts) {
+                String uuid = account.getOwner().toString();
+                String username = account.getOwnerName();
+
+                // 使用記憶體中的名稱，不再回查 ace_users
+                userStmt.setString(1, uuid);
+                userStmt.setString(2, username);
+                userStmt.setLong(3, now);
+                userStmt.addBatch();
+
+                for (Map.Entry<String, Double> entry : account.getBalances().entrySet()) {
+                    balanceStmt.setString(1, uuid);
+                    balanceStmt.setString(2, entry.getKey());
+                    balanceStmt.setDouble(3, entry.getValue());
+                    balanceStmt.setString(4, username);
+                    MinorUnitColumns.bind(balanceStmt, 5, entry.getKey(), entry.getValue());
+                    balanceStmt.addBatch();
+                }
+            }
+
+            userStmt.executeBatch();
+            balanceStmt.executeBatch();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Integer> forEachBalance(BalanceVisitor visitor) {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT uuid, currency_id, balance, balance_minor, minor_scale, username FROM "
+                    + TABLE_BALANCES;
+            int rows = 0;
+            try (Connection conn = dataSource.getConnection();
+                    PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                            ResultSet.CONCUR_READ_ONLY)) {
+
+                // Connector/J 只有在 fetch size 為 Integer.MIN_VALUE 時才逐列串流，否則會一次載入整張表
+                String driver = conn.getMetaData().getDriverName();
+                pstmt.setFetchSize(driver != null && driver.startsWith("MySQL") ? Integer.MIN_VALUE : 1000);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        String currencyId = rs.getString("currency_id");
+                        visitor.accept(UUID.fromString(rs.getString("uuid")), currencyId,
+                                MinorUnitColumns.read(rs, currencyId), rs.getString("username"));
+                        rows++;
+                    }
+                }
+
+            } catch (SQLException e) {
+                logger.severe("走訪餘額資料時發生錯誤: " + e.getMessage());
+                throw new RuntimeException(e);
+            }
+            return rows;
+        }, executor);
     }
 
     @Override
     public CompletableFuture<Map<String, Double>> getTopAccounts(String currency, int limit) {
         return CompletableFuture.supplyAsync(() -> {
-            Map<String, Double> leaderboard = new HashMap<>();
+            // 使用 LinkedHashMap 保留 ORDER BY 的順序
+            Map<String, Double> leaderboard = new java.util.LinkedHashMap<>();
             String sql = """
                     SELECT username, balance FROM %s
                     WHERE currency_id = ? AND username IS NOT NULL
@@ -239,37 +401,59 @@ public class MySQLImplementation implements StorageProvider {
                 e.printStackTrace();
             }
             return leaderboard;
-        });
+        }, executor);
     }
 
     @Override
-    public CompletableFuture<UUID> getUuidByName(String name) {
+    public CompletableFuture<UserRecord> getUserByName(String name) {
         if (name == null || name.isBlank())
             return CompletableFuture.completedFuture(null);
 
         return CompletableFuture.supplyAsync(() -> {
-            String sql = "SELECT uuid FROM " + TABLE_USERS + " WHERE LOWER(username) = LOWER(?)";
+            String sql = "SELECT uuid, username FROM " + TABLE_USERS
+                    + " WHERE username_lower = ? ORDER BY last_seen DESC LIMIT 1";
             try (Connection conn = dataSource.getConnection();
                     PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-                pstmt.setString(1, name.trim());
+                pstmt.setString(1, name.trim().toLowerCase(Locale.ROOT));
                 try (ResultSet rs = pstmt.executeQuery()) {
                     if (rs.next()) {
-                        return UUID.fromString(rs.getString("uuid"));
+                        return new UserRecord(UUID.fromString(rs.getString("uuid")), rs.getString("username"));
                     }
                 }
             } catch (SQLException e) {
                 logger.warning("查詢 UUID 失敗 (" + name + "): " + e.getMessage());
             }
             return null;
-        });
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<List<UserRecord>> getRecentUsers(int limit) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<UserRecord> users = new ArrayList<>();
+            String sql = "SELECT uuid, username FROM " + TABLE_USERS + " ORDER BY last_seen DESC LIMIT ?";
+            try (Connection conn = dataSource.getConnection();
+                    PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+                pstmt.setInt(1, limit);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        users.add(new UserRecord(UUID.fromString(rs.getString("uuid")), rs.getString("username")));
+                    }
+                }
+            } catch (SQLException e) {
+                logger.warning("查詢最近上線玩家失敗: " + e.getMessage());
+            }
+            return users;
+        }, executor);
     }
 
     @Override
     public CompletableFuture<String> getNameByUuid(UUID uuid) {
         if (uuid == null)
             return CompletableFuture.completedFuture(null);
-        return CompletableFuture.supplyAsync(() -> getNameByUuidSync(uuid));
+        return CompletableFuture.supplyAsync(() -> getNameByUuidSync(uuid), executor);
     }
 
     private String getNameByUuidSync(UUID uuid) {
@@ -309,102 +493,21 @@ public class MySQLImplementation implements StorageProvider {
             } catch (SQLException e) {
                 logger.warning("更新名稱快取失敗: " + e.getMessage());
             }
-        });
+        }, executor);
     }
 
     @Override
-    public CompletableFuture<com.smile.aceeconomy.data.DataDump> dumpAllData() {
-        return CompletableFuture.supplyAsync(() -> {
-            java.util.List<com.smile.aceeconomy.data.UserRecord> users = new java.util.ArrayList<>();
-            java.util.List<com.smile.aceeconomy.data.BalanceRecord> balances = new java.util.ArrayList<>();
-
-            try (Connection conn = dataSource.getConnection()) {
-                // Dump Users
-                try (java.sql.Statement stmt = conn.createStatement();
-                        ResultSet rs = stmt.executeQuery("SELECT uuid, username FROM " + TABLE_USERS)) {
-                    while (rs.next()) {
-                        users.add(new com.smile.aceeconomy.data.UserRecord(
-                                UUID.fromString(rs.getString("uuid")),
-                                rs.getString("username")));
-                    }
-                }
-
-                // Dump Balances
-                try (java.sql.Statement stmt = conn.createStatement();
-                        ResultSet rs = stmt.executeQuery("SELECT uuid, currency_id, balance FROM " + TABLE_BALANCES)) {
-                    while (rs.next()) {
-                        balances.add(new com.smile.aceeconomy.data.BalanceRecord(
-                                UUID.fromString(rs.getString("uuid")),
-                                rs.getString("currency_id"),
-                                rs.getDouble("balance")));
-                    }
-                }
-            } catch (SQLException e) {
-                logger.severe("資料導出失敗: " + e.getMessage());
-                throw new RuntimeException(e);
-            }
-            return new com.smile.aceeconomy.data.DataDump(users, balances);
-        });
+    public boolean isMySQL() {
+        return true;
     }
 
     @Override
-    public CompletableFuture<Void> importData(com.smile.aceeconomy.data.DataDump dump) {
-        return CompletableFuture.runAsync(() -> {
-            // MySQL uses REPLACE INTO for upset-like behavior (Delete then Insert)
-            // Or INSERT ... ON DUPLICATE KEY UPDATE.
-            // Using REPLACE INTO is simpler for migration.
-            String insertUser = "REPLACE INTO " + TABLE_USERS + " (uuid, username, last_seen) VALUES (?, ?, ?)";
-            // Updated to populate username
-            String insertBalance = "REPLACE INTO " + TABLE_BALANCES
-                    + " (uuid, currency_id, balance, username, last_updated) VALUES (?, ?, ?, ?, ?)";
-
-            // Map UUID to Username for balance insertion
-            Map<UUID, String> userMap = new HashMap<>();
-
-            try (Connection conn = dataSource.getConnection()) {
-                conn.setAutoCommit(false);
-
-                try (PreparedStatement pstmt = conn.prepareStatement(insertUser)) {
-                    for (com.smile.aceeconomy.data.UserRecord user : dump.users()) {
-                        pstmt.setString(1, user.uuid().toString());
-                        pstmt.setString(2, user.name());
-                        pstmt.setLong(3, System.currentTimeMillis());
-                        pstmt.addBatch();
-
-                        userMap.put(user.uuid(), user.name());
-                    }
-                    pstmt.executeBatch();
-                }
-
-                try (PreparedStatement pstmt = conn.prepareStatement(insertBalance)) {
-                    for (com.smile.aceeconomy.data.BalanceRecord balance : dump.balances()) {
-                        pstmt.setString(1, balance.uuid().toString());
-                        pstmt.setString(2, balance.currency());
-                        pstmt.setDouble(3, balance.amount());
-
-                        String username = userMap.getOrDefault(balance.uuid(), "Unknown");
-                        pstmt.setString(4, username);
-
-                        pstmt.setTimestamp(5, new java.sql.Timestamp(System.currentTimeMillis()));
-                        pstmt.addBatch();
-                    }
-                    pstmt.executeBatch();
-                }
-
-                conn.commit();
-                conn.setAutoCommit(true);
-                logger.info("資料匯入成功: (" + dump.users().size() + " users, " + dump.balances().size() + " balances)");
+    public Connection openMigrationReadConnection() throws SQLException {
+        return getConnection();
+    }
 
-            } catch (SQLException e) {
-                logger.severe("資料匯入失敗: " + e.getMessage());
-                try (Connection conn = dataSource.getConnection()) {
-                    if (!conn.getAutoCommit())
-                        conn.rollback();
-                } catch (SQLException ex) {
-                    ex.printStackTrace();
-                }
-                throw new RuntimeException("Import failed", e);
-            }
-        });
+    @Override
+    public Connection openMigrationWriteConnection() throws SQLException {
+        return getConnection();
     }
 }
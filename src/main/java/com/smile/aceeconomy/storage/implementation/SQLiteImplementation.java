@@ -1,7 +1,10 @@
 package com.smile.aceeconomy.storage.implementation;
 
 import com.smile.aceeconomy.AceEconomy;
+import com.smile.aceeconomy.data.UserRecord;
+import com.smile.aceeconomy.manager.ConfigManager;
 import com.smile.aceeconomy.storage.SchemaManager;
+import com.smile.aceeconomy.storage.StatementCache;
 import com.smile.aceeconomy.storage.StorageProvider;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
@@ -11,10 +14,18 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
@@ -23,6 +34,11 @@ import java.util.logging.Logger;
  * 實作 {@link StorageProvider} 介面，使用 HikariCP 管理 SQLite 連線。
  * 提供完整的非同步資料庫操作，包含餘額管理與玩家快取。
  * </p>
+ * <p>
+ * 連線拓撲：WAL 模式下讀取不會被寫入阻擋，因此讀取使用多條唯讀連線的連線池，
+ * 在儲存執行器上平行執行；所有寫入則依提交順序排入單一寫入執行緒，
+ * 由唯一的寫入連線依序執行，寫入順序固定且不會發生 SQLITE_BUSY 競爭。
+ * </p>
  *
  * @author Smile
  */
@@ -30,56 +46,120 @@ public class SQLiteImplementation implements StorageProvider {
 
     private final AceEconomy plugin;
     private final Logger logger;
+    private final Executor executor;
 
+    // 寫入連線池 (單一連線)，僅由寫入執行緒與交易日誌使用
     private HikariDataSource dataSource;
+    // 唯讀連線池
+    private HikariDataSource readDataSource;
+    // 寫入佇列：單一執行緒依序執行所有寫入
+    private final ExecutorService writer;
+    // 預編譯陳述式快取 (讀取與寫入連線共用)
+    private final StatementCache statements = new StatementCache(STATEMENTS_PER_CONNECTION);
 
     // Table names
     private static final String TABLE_BALANCES = "ace_balances";
     private static final String TABLE_USERS = "ace_users";
 
+    // 熱門查詢 (以常數保存，讓陳述式快取可直接以 SQL 字串命中)
+    private static final String SELECT_BALANCE = "SELECT balance, balance_minor, minor_scale FROM " + TABLE_BALANCES
+            + " WHERE uuid = ? AND currency_id = ?";
+    private static final String SELECT_BALANCES = "SELECT currency_id, balance, balance_minor, minor_scale FROM "
+            + TABLE_BALANCES + " WHERE uuid = ?";
+    private static final String SELECT_USERNAME = "SELECT username FROM " + TABLE_USERS + " WHERE uuid = ?";
+    private static final String SELECT_USER_BY_NAME = "SELECT uuid, username FROM " + TABLE_USERS
+            + " WHERE username_lower = ? ORDER BY last_seen DESC LIMIT 1";
+    private static final String UPSERT_BALANCE = """
+            INSERT INTO %s (uuid, currency_id, balance, username, balance_minor, minor_scale, last_updated)
+            VALUES (?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
+            ON CONFLICT(uuid, currency_id) DO UPDATE SET
+                balance = excluded.balance,
+                username = excluded.username,
+                balance_minor = excluded.balance_minor,
+                minor_scale = excluded.minor_scale,
+                last_updated = CURRENT_TIMESTAMP
+            """.formatted(TABLE_BALANCES);
+    private static final String UPSERT_USER = """
+            INSERT INTO %s (uuid, username, last_seen)
+            VALUES (?, ?, ?)
+            ON CONFLICT(uuid) DO UPDATE SET
+                username = excluded.username,
+                last_seen = excluded.last_seen
+            """.formatted(TABLE_USERS);
+
+    /**
+     * 每條連線最多快取的陳述式數量
+     */
+    private static final int STATEMENTS_PER_CONNECTION = 64;
+
     /**
      * 建立 SQLite 儲存實作。
      *
-     * @param plugin 插件實例
+     * @param plugin   插件實例
+     * @param executor 儲存執行器
      */
-    public SQLiteImplementation(AceEconomy plugin) {
+    public SQLiteImplementation(AceEconomy plugin, Executor executor) {
         this.plugin = plugin;
         this.logger = plugin.getLogger();
+        this.executor = executor;
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "AceEconomy-SQLite-Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     @Override
     public void init() {
         try {
-            // 設定 HikariCP
-            HikariConfig config = new HikariConfig();
-
             File dbFile = new File(plugin.getDataFolder(), "database.db");
-            config.setDriverClassName("org.sqlite.JDBC");
-            config.setJdbcUrl("jdbc:sqlite:" + dbFile.getAbsolutePath());
+            ConfigManager configManager = plugin.getConfigManager();
+            long mmapSize = configManager.getSQLiteMmapSize();
 
-            // SQLite 連線池設定 (單一連線)
-            config.setPoolName("AceEconomy-SQLite-Pool");
+            // 寫入連線池 (單一連線)
+            HikariConfig config = createConfig(dbFile, mmapSize);
+            config.setPoolName("AceEconomy-SQLite-Writer");
             config.setMaximumPoolSize(1);
             config.setMinimumIdle(1);
-            config.setIdleTimeout(300000);
-            config.setMaxLifetime(600000);
-            config.setConnectionTimeout(10000);
-            config.setLeakDetectionThreshold(10000);
-
-            // SQLite 特殊設定 (WAL mode for better concurrency)
-            config.addDataSourceProperty("journal_mode", "WAL");
-
             dataSource = new HikariDataSource(config);
 
-            // 測試連線
+            // 確認 PRAGMA 確實生效 (WAL 為資料庫層級設定，必須在開啟讀取連線前確認)
             try (Connection conn = dataSource.getConnection()) {
-                logger.info("[AceEconomy] SQLite 連線池初始化成功: " + dbFile.getAbsolutePath());
+                verifyPragmas(conn, mmapSize, true);
+                logger.info("[AceEconomy] SQLite 寫入連線初始化成功: " + dbFile.getAbsolutePath());
+            }
+
+            // 唯讀連線池
+            int readers = configManager.getSQLiteReaderPoolSize();
+            if (readers <= 0) {
+                readers = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+            }
+            HikariConfig readConfig = createConfig(dbFile, mmapSize);
+            readConfig.setPoolName("AceEconomy-SQLite-Reader");
+            readConfig.setMaximumPoolSize(readers);
+            readConfig.setMinimumIdle(1);
+            readConfig.setConnectionInitSql("PRAGMA query_only = 1");
+            readDataSource = new HikariDataSource(readConfig);
+
+            try (Connection conn = readDataSource.getConnection()) {
+                verifyPragmas(conn, mmapSize, false);
+                logger.info("[AceEconomy] SQLite 唯讀連線池初始化成功 (" + readers + " 條連線)");
             }
 
             // 執行資料庫遷移
             SchemaManager schemaManager = new SchemaManager(plugin, this::getConnection, false);
             schemaManager.migrate();
 
+            // 定點數模式：回填 balance_minor
+            if (plugin.getConfigManager().isFixedPointEnabled()) {
+                try (Connection conn = getConnection()) {
+                    int rows = MinorUnitColumns.backfill(conn, false, plugin.getConfigManager().getCurrencies().values());
+                    if (rows > 0) {
+                        logger.info("[AceEconomy] 已回填 " + rows + " 筆定點數餘額");
+                    }
+                }
+            }
+
             // 修復可能的 NULL username (Leaderboard fix)
             fixNullUsernames();
 
@@ -92,8 +172,86 @@ public class SQLiteImplementation implements StorageProvider {
         }
     }
 
+    /**
+     * 建立共用的 HikariCP 設定。
+     * <p>
+     * PRAGMA 以驅動程式屬性傳入，sqlite-jdbc 會在每條連線開啟時套用。
+     * </p>
+     *
+     * @param dbFile   資料庫檔案
+     * @param mmapSize 記憶體映射大小 (bytes)
+     * @return HikariCP 設定
+     */
+    private HikariConfig createConfig(File dbFile, long mmapSize) {
+        HikariConfig config = new HikariConfig();
+        config.setDriverClassName("org.sqlite.JDBC");
+        config.setJdbcUrl("jdbc:sqlite:" + dbFile.getAbsolutePath());
+        config.setIdleTimeout(300000);
+        config.setMaxLifetime(600000);
+        config.setConnectionTimeout(10000);
+        config.setLeakDetectionThreshold(10000);
+
+        config.addDataSourceProperty("journal_mode", "WAL");
+        config.addDataSourceProperty("synchronous", "NORMAL");
+        config.addDataSourceProperty("busy_timeout", "5000");
+        if (mmapSize > 0) {
+            config.addDataSourceProperty("mmap_size", String.valueOf(mmapSize));
+        }
+        return config;
+    }
+
+    /**
+     * 確認連線的 PRAGMA 設定，未生效時明確設定並記錄警告。
+     *
+     * @param conn     資料庫連線
+     * @param mmapSize 預期的記憶體映射大小 (bytes)
+     * @param writable 是否為寫入連線 (只有寫入連線可切換 journal_mode)
+     * @throws SQLException 若查詢失敗
+     */
+    private void verifyPragmas(Connection conn, long mmapSize, boolean writable) throws SQLException {
+        try (java.sql.Statement stmt = conn.createStatement()) {
+            String journalMode = queryPragma(stmt, "journal_mode");
+            if (!"wal".equalsIgnoreCase(journalMode) && writable) {
+                logger.warning("[AceEconomy] SQLite journal_mode 為 " + journalMode + "，改為 WAL");
+                journalMode = queryPragma(stmt, "journal_mode = WAL");
+            }
+            if (!"wal".equalsIgnoreCase(journalMode)) {
+                logger.warning("[AceEconomy] 無法啟用 SQLite WAL 模式 (目前為 " + journalMode + ")，讀取將被寫入阻擋");
+            }
+
+            // synchronous: 1 = NORMAL
+            if (!"1".equals(queryPragma(stmt, "synchronous"))) {
+                stmt.execute("PRAGMA synchronous = NORMAL");
+            }
+
+            if (mmapSize > 0) {
+                String actual = queryPragma(stmt, "mmap_size");
+                if (actual == null || Long.parseLong(actual) < mmapSize) {
+                    // 部分平台或編譯選項會限制 mmap 上限，僅記錄
+                    logger.info("[AceEconomy] SQLite mmap_size 為 " + actual + " (設定值 " + mmapSize + ")");
+                }
+            }
+        }
+    }
+
+    private static String queryPragma(java.sql.Statement stmt, String pragma) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA " + pragma)) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    /**
+     * 將寫入排入寫入佇列。
+     *
+     * @param task 寫入工作
+     * @return 完成時的 Future
+     */
+    private CompletableFuture<Void> write(Runnable task) {
+        return CompletableFuture.runAsync(task, writer);
+    }
+
     private void fixNullUsernames() {
-        CompletableFuture.runAsync(() -> {
+        write(() -> {
             try (Connection conn = dataSource.getConnection();
                     java.sql.Statement stmt = conn.createStatement()) {
 
@@ -115,6 +273,26 @@ public class SQLiteImplementation implements StorageProvider {
 
     @Override
     public void shutdown() {
+        // 先排空寫入佇列，再關閉連線池
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warning("[AceEconomy] SQLite 寫入佇列未能在時限內排空");
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        StatementCache.Metrics metrics = statements.getMetrics();
+        logger.info("[AceEconomy] SQLite 陳述式快取: 命中 " + metrics.hits() + " 次，解析 " + metrics.misses()
+                + " 次，估計省下 " + TimeUnit.NANOSECONDS.toMillis(metrics.estimatedSavedNanos()) + "ms");
+        statements.clear();
+
+        if (readDataSource != null && !readDataSource.isClosed()) {
+            readDataSource.close();
+        }
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
             logger.info("[AceEconomy] SQLite 連線池已關閉");
@@ -122,7 +300,10 @@ public class SQLiteImplementation implements StorageProvider {
     }
 
     /**
-     * 取得資料庫連線 (供 SchemaManager 使用)。
+     * 取得寫入連線 (供 SchemaManager 與交易日誌使用)。
+     * <p>
+     * 寫入連線只有一條，持有期間會阻擋寫入佇列，請盡快關閉。
+     * </p>
      *
      * @return 資料庫連線
      * @throws SQLException 若無法取得連線
@@ -134,16 +315,38 @@ public class SQLiteImplementation implements StorageProvider {
         return dataSource.getConnection();
     }
 
+    /**
+     * 取得預編譯陳述式快取。
+     *
+     * @return 陳述式快取
+     */
+    public StatementCache getStatementCache() {
+        return statements;
+    }
+
+    /**
+     * 取得唯讀連線 (供查詢使用，不會與寫入競爭)。
+     *
+     * @return 唯讀資料庫連線
+     * @throws SQLException 若無法取得連線
+     */
+    public Connection getReadConnection() throws SQLException {
+        if (readDataSource == null || readDataSource.isClosed()) {
+            throw new SQLException("資料庫連線池未初始化或已關閉");
+        }
+        return readDataSource.getConnection();
+    }
+
     /**
      * 檢查連線池是否健康。
      *
      * @return 連線池是否健康
      */
     public boolean isHealthy() {
-        if (dataSource == null || dataSource.isClosed()) {
+        if (readDataSource == null || readDataSource.isClosed()) {
             return false;
         }
-        try (Connection conn = dataSource.getConnection()) {
+        try (Connection conn = readDataSource.getConnection()) {
             return conn.isValid(5);
         } catch (SQLException e) {
             return false;
@@ -153,16 +356,16 @@ public class SQLiteImplementation implements StorageProvider {
     @Override
     public CompletableFuture<Double> getBalance(UUID uuid, String currency) {
         return CompletableFuture.supplyAsync(() -> {
-            String sql = "SELECT balance FROM " + TABLE_BALANCES + " WHERE uuid = ? AND currency_id = ?";
-            try (Connection conn = dataSource.getConnection();
-                    PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            try (Connection conn = readDataSource.getConnection();
+                    StatementCache.Lease lease = statements.prepare(conn, SELECT_BALANCE)) {
 
+                PreparedStatement pstmt = lease.statement();
                 pstmt.setString(1, uuid.toString());
                 pstmt.setString(2, currency);
 
                 try (ResultSet rs = pstmt.executeQuery()) {
                     if (rs.next()) {
-                        return rs.getDouble("balance");
+                        return MinorUnitColumns.read(rs, currency);
                     }
                 }
 
@@ -172,22 +375,23 @@ public class SQLiteImplementation implements StorageProvider {
             }
 
             return 0.0;
-        });
+        }, executor);
     }
 
     @Override
     public CompletableFuture<Map<String, Double>> getBalances(UUID uuid) {
         return CompletableFuture.supplyAsync(() -> {
             Map<String, Double> balances = new HashMap<>();
-            String sql = "SELECT currency_id, balance FROM " + TABLE_BALANCES + " WHERE uuid = ?";
-            try (Connection conn = dataSource.getConnection();
-                    PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            try (Connection conn = readDataSource.getConnection();
+                    StatementCache.Lease lease = statements.prepare(conn, SELECT_BALANCES)) {
 
+                PreparedStatement pstmt = lease.statement();
                 pstmt.setString(1, uuid.toString());
 
                 try (ResultSet rs = pstmt.executeQuery()) {
                     while (rs.next()) {
-                        balances.put(rs.getString("currency_id"), rs.getDouble("balance"));
+                        String currencyId = rs.getString("currency_id");
+                        balances.put(currencyId, MinorUnitColumns.read(rs, currencyId));
                     }
                 }
 
@@ -197,24 +401,33 @@ public class SQLiteImplementation implements StorageProvider {
             }
 
             return balances;
-        });
+        }, executor);
     }
 
     @Override
-    public CompletableFuture<Void> setBalance(UUID uuid, String currency, double amount) {
-        return CompletableFuture.runAsync(() -> {
-            String sql = """
-                    INSERT INTO %s (uuid, currency_id, balance, username, last_updated)
-                    VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)
-                    ON CONFLICT(uuid, currency_id) DO UPDATE SET
-                        balance = excluded.balance,
-                        username = excluded.username,
-                        last_updated = CURRENT_TIMESTAMP
-                    """.formatted(TABLE_BALANCES);
+    public CompletableFuture<Map<UUID, com.smile.aceeconomy.data.Account>> loadAccounts(Collection<UUID> uuids) {
+        if (uuids.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
 
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection conn = readDataSource.getConnection()) {
+                return BulkAccountQuery.load(conn, statements, BulkAccountQuery.distinct(uuids));
+            } catch (SQLException e) {
+                // 不可回傳空結果，否則呼叫端會把既有玩家當成新玩家並覆寫餘額
+                logger.severe("批次載入帳戶失敗 (" + uuids.size() + " 位玩家): " + e.getMessage());
+                throw new RuntimeException(e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> setBalance(UUID uuid, String currency, double amount) {
+        return write(() -> {
             try (Connection conn = dataSource.getConnection();
-                    PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    StatementCache.Lease lease = statements.prepare(conn, UPSERT_BALANCE)) {
 
+                PreparedStatement pstmt = lease.statement();
                 pstmt.setString(1, uuid.toString());
                 pstmt.setString(2, currency);
                 pstmt.setDouble(3, amount);
@@ -222,6 +435,7 @@ public class SQLiteImplementation implements StorageProvider {
                 // Reuse the same connection to query username (avoid nested pool deadlock)
                 String username = getNameByUuidSync(conn, uuid);
                 pstmt.setString(4, username);
+                MinorUnitColumns.bind(pstmt, 5, currency, amount);
 
                 pstmt.executeUpdate();
 
@@ -232,10 +446,103 @@ public class SQLiteImplementation implements StorageProvider {
         });
     }
 
+    @Override
+    public CompletableFuture<Void> saveAccounts(Collection<com.smile.aceeconomy.data.Account> accounts) {
+        if (accounts.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return write(() -> {
+            try (Connection conn = dataSource.getConnection()) {
+                boolean originalAutoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+
+                try {
+                    writeAccounts(conn, accounts);
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(originalAutoCommit);
+                }
+
+            } catch (SQLException e) {
+                logger.severe("批次儲存帳戶時發生錯誤 (" + accounts.size() + " 個帳戶): " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException("Batch save failed", e);
+            }
+        });
+    }
+
+    @Override
+    public void writeAccounts(Connection conn, Collection<com.smile.aceeconomy.data.Account> accounts)
+            throws SQLException {
+        try (StatementCache.Lease userLease = statements.prepare(conn, UPSERT_USER);
+                StatementCache.Lease balanceLease = statements.prepare(conn, UPSERT_BALANCE)) {
+            PreparedStatement userStmt = userLease.statement();
+            PreparedStatement balanceStmt = balanceLease.statement();
+            long now = System.currentTimeMillis();
+
+            for (com.smile.aceeconomy.data.Account account : accounts) {
+                String uuid = account.getOwner().toString();
+                String username = account.getOwnerName();
+
+                // 使用記憶體中的名稱，不再回查 ace_users
+                userStmt.setString(1, uuid);
+                userStmt.setString(2, username);
+                userStmt.setLong(3, now);
+                userStmt.addBatch();
+
+                for (Map.Entry<String, Double> entry : account.getBalances().entrySet()) {
+                    balanceStmt.setString(1, uuid);
+                    balanceStmt.setString(2, entry.getKey());
+                    balanceStmt.setDouble(3, entry.getValue());
+                    balanceStmt.setString(4, username);
+                    MinorUnitColumns.bind(balanceStmt, 5, entry.getKey(), entry.getValue());
+                    balanceStmt.addBatch();
+                }
+            }
+
+            userStmt.executeBatch();
+            balanceStmt.executeBatch();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Integer> forEachBalance(BalanceVisitor visitor) {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT uuid, currency_id, balance, balance_minor, minor_scale, username FROM "
+                    + TABLE_BALANCES;
+            int rows = 0;
+            try (Connection conn = readDataSource.getConnection();
+                    PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                            ResultSet.CONCUR_READ_ONLY)) {
+
+                pstmt.setFetchSize(1000);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        String currencyId = rs.getString("currency_id");
+                        visitor.accept(UUID.fromString(rs.getString("uuid")), currencyId,
+                                MinorUnitColumns.read(rs, currencyId), rs.getString("username"));
+                        rows++;
+                    }
+                }
+
+            } catch (SQLException e) {
+                logger.severe("走訪餘額資料時發生錯誤: " + e.getMessage());
+                throw new RuntimeException(e);
+            }
+            return rows;
+        }, executor);
+    }
+
     @Override
     public CompletableFuture<Map<String, Double>> getTopAccounts(String currency, int limit) {
         return CompletableFuture.supplyAsync(() -> {
-            Map<String, Double> leaderboard = new HashMap<>();
+            // 使用 LinkedHashMap 保留 ORDER BY 的順序
+            Map<String, Double> leaderboard = new java.util.LinkedHashMap<>();
 
             String sql = """
                     SELECT username, balance FROM %s
@@ -244,7 +551,7 @@ public class SQLiteImplementation implements StorageProvider {
                     LIMIT ?
                     """.formatted(TABLE_BALANCES);
 
-            try (Connection conn = dataSource.getConnection();
+            try (Connection conn = readDataSource.getConnection();
                     PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
                 pstmt.setString(1, currency);
@@ -264,25 +571,25 @@ public class SQLiteImplementation implements StorageProvider {
             }
 
             return leaderboard;
-        });
+        }, executor);
     }
 
     @Override
-    public CompletableFuture<UUID> getUuidByName(String name) {
+    public CompletableFuture<UserRecord> getUserByName(String name) {
         if (name == null || name.isBlank()) {
             return CompletableFuture.completedFuture(null);
         }
 
         return CompletableFuture.supplyAsync(() -> {
-            String sql = "SELECT uuid FROM " + TABLE_USERS + " WHERE LOWER(username) = LOWER(?)";
-            try (Connection conn = dataSource.getConnection();
-                    PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            try (Connection conn = readDataSource.getConnection();
+                    StatementCache.Lease lease = statements.prepare(conn, SELECT_USER_BY_NAME)) {
 
-                pstmt.setString(1, name.trim());
+                PreparedStatement pstmt = lease.statement();
+                pstmt.setString(1, name.trim().toLowerCase(Locale.ROOT));
 
                 try (ResultSet rs = pstmt.executeQuery()) {
                     if (rs.next()) {
-                        return UUID.fromString(rs.getString("uuid"));
+                        return new UserRecord(UUID.fromString(rs.getString("uuid")), rs.getString("username"));
                     }
                 }
 
@@ -291,7 +598,29 @@ public class SQLiteImplementation implements StorageProvider {
             }
 
             return null;
-        });
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<List<UserRecord>> getRecentUsers(int limit) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<UserRecord> users = new ArrayList<>();
+            String sql = "SELECT uuid, username FROM " + TABLE_USERS + " ORDER BY last_seen DESC LIMIT ?";
+            try (Connection conn = readDataSource.getConnection();
+                    PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+                pstmt.setInt(1, limit);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        users.add(new UserRecord(UUID.fromString(rs.getString("uuid")), rs.getString("username")));
+                    }
+                }
+
+            } catch (SQLException e) {
+                logger.warning("查詢最近上線玩家失敗: " + e.getMessage());
+            }
+            return users;
+        }, executor);
     }
 
     @Override
@@ -300,7 +629,7 @@ public class SQLiteImplementation implements StorageProvider {
             return CompletableFuture.completedFuture(null);
         }
 
-        return CompletableFuture.supplyAsync(() -> getNameByUuidSync(uuid));
+        return CompletableFuture.supplyAsync(() -> getNameByUuidSync(uuid), executor);
     }
 
     /**
@@ -310,7 +639,7 @@ public class SQLiteImplementation implements StorageProvider {
      * @return 玩家名稱，若找不到則回傳 "Unknown"
      */
     private String getNameByUuidSync(UUID uuid) {
-        try (Connection conn = dataSource.getConnection()) {
+        try (Connection conn = readDataSource.getConnection()) {
             return getNameByUuidSync(conn, uuid);
         } catch (SQLException e) {
             logger.warning("查詢玩家名稱失敗 (取得連線失敗, " + uuid + "): " + e.getMessage());
@@ -326,9 +655,9 @@ public class SQLiteImplementation implements StorageProvider {
      * @return 玩家名稱，若找不到則回傳 "Unknown"
      */
     private String getNameByUuidSync(Connection conn, UUID uuid) {
-        String sql = "SELECT username FROM " + TABLE_USERS + " WHERE uuid = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (StatementCache.Lease lease = statements.prepare(conn, SELECT_USERNAME)) {
 
+            PreparedStatement pstmt = lease.statement();
             pstmt.setString(1, uuid.toString());
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -346,18 +675,11 @@ public class SQLiteImplementation implements StorageProvider {
 
     @Override
     public CompletableFuture<Void> updatePlayerName(UUID uuid, String name) {
-        return CompletableFuture.runAsync(() -> {
-            String sql = """
-                    INSERT INTO %s (uuid, username, last_seen)
-                    VALUES (?, ?, ?)
-                    ON CONFLICT(uuid) DO UPDATE SET
-                        username = excluded.username,
-                        last_seen = excluded.last_seen
-                    """.formatted(TABLE_USERS);
-
+        return write(() -> {
             try (Connection conn = dataSource.getConnection();
-                    PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    StatementCache.Lease lease = statements.prepare(conn, UPSERT_USER)) {
 
+                PreparedStatement pstmt = lease.statement();
                 pstmt.setString(1, uuid.toString());
                 pstmt.setString(2, name);
                 pstmt.setLong(3, System.currentTimeMillis());
@@ -370,97 +692,17 @@ public class SQLiteImplementation implements StorageProvider {
     }
 
     @Override
-    public CompletableFuture<com.smile.aceeconomy.data.DataDump> dumpAllData() {
-        return CompletableFuture.supplyAsync(() -> {
-            java.util.List<com.smile.aceeconomy.data.UserRecord> users = new java.util.ArrayList<>();
-            java.util.List<com.smile.aceeconomy.data.BalanceRecord> balances = new java.util.ArrayList<>();
-
-            try (Connection conn = dataSource.getConnection()) {
-                // Dump Users
-                try (java.sql.Statement stmt = conn.createStatement();
-                        ResultSet rs = stmt.executeQuery("SELECT uuid, username FROM " + TABLE_USERS)) {
-                    while (rs.next()) {
-                        users.add(new com.smile.aceeconomy.data.UserRecord(
-                                UUID.fromString(rs.getString("uuid")),
-                                rs.getString("username")));
-                    }
-                }
-
-                // Dump Balances
-                try (java.sql.Statement stmt = conn.createStatement();
-                        ResultSet rs = stmt.executeQuery("SELECT uuid, currency_id, balance FROM " + TABLE_BALANCES)) {
-                    while (rs.next()) {
-                        balances.add(new com.smile.aceeconomy.data.BalanceRecord(
-                                UUID.fromString(rs.getString("uuid")),
-                                rs.getString("currency_id"),
-                                rs.getDouble("balance")));
-                    }
-                }
-            } catch (SQLException e) {
-                logger.severe("資料導出失敗: " + e.getMessage());
-                throw new RuntimeException(e);
-            }
-            return new com.smile.aceeconomy.data.DataDump(users, balances);
-        });
+    public boolean isMySQL() {
+        return false;
     }
 
     @Override
-    public CompletableFuture<Void> importData(com.smile.aceeconomy.data.DataDump dump) {
-        return CompletableFuture.runAsync(() -> {
-            String insertUser = "INSERT OR REPLACE INTO " + TABLE_USERS
-                    + " (uuid, username, last_seen) VALUES (?, ?, ?)";
-            // Updated to populate username
-            String insertBalance = "INSERT OR REPLACE INTO " + TABLE_BALANCES
-                    + " (uuid, currency_id, balance, username, last_updated) VALUES (?, ?, ?, ?, ?)";
-
-            // Map UUID to Username for balance insertion
-            Map<UUID, String> userMap = new HashMap<>();
-
-            try (Connection conn = dataSource.getConnection()) {
-                conn.setAutoCommit(false);
-
-                try (PreparedStatement pstmt = conn.prepareStatement(insertUser)) {
-                    for (com.smile.aceeconomy.data.UserRecord user : dump.users()) {
-                        pstmt.setString(1, user.uuid().toString());
-                        pstmt.setString(2, user.name());
-                        pstmt.setLong(3, System.currentTimeMillis());
-                        pstmt.addBatch();
-
-                        userMap.put(user.uuid(), user.name());
-                    }
-                    pstmt.executeBatch();
-                }
-
-                try (PreparedStatement pstmt = conn.prepareStatement(insertBalance)) {
-                    for (com.smile.aceeconomy.data.BalanceRecord balance : dump.balances()) {
-                        pstmt.setString(1, balance.uuid().toString());
-                        pstmt.setString(2, balance.currency());
-                        pstmt.setDouble(3, balance.amount());
-
-                        String username = userMap.getOrDefault(balance.uuid(), "Unknown");
-                        pstmt.setString(4, username);
-
-                        pstmt.setLong(5, System.currentTimeMillis());
-                        pstmt.addBatch();
-                    }
-                    pstmt.executeBatch();
-                }
-
-                conn.commit();
-                conn.setAutoCommit(true);
-                logger.info("資料匯入成功: (" + dump.users().size() + " users, " + dump.balances().size() + " balances)");
+    public Connection openMigrationReadConnection() throws SQLException {
+        return getReadConnection();
+    }
 
-            } catch (SQLException e) {
-                logger.severe("資料匯入失敗: " + e.getMessage());
-                // Try rollback
-                try (Connection conn = dataSource.getConnection()) {
-                    if (!conn.getAutoCommit())
-                        conn.rollback();
-                } catch (SQLException ex) {
-                    ex.printStackTrace();
-                }
-                throw new RuntimeException("Import failed", e);
-            }
-        });
+    @Override
+    public Connection openMigrationWriteConnection() throws SQLException {
+        return getConnection();
     }
 }
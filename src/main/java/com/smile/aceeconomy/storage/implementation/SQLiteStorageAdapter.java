@@ -1,9 +1,12 @@
 package com.smile.aceeconomy.storage.implementation;
 
 import com.smile.aceeconomy.data.Account;
+import com.smile.aceeconomy.manager.LoginBatcher;
 import com.smile.aceeconomy.storage.StorageHandler;
 import com.smile.aceeconomy.storage.StorageProvider;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -19,48 +22,40 @@ import java.util.concurrent.CompletableFuture;
 public class SQLiteStorageAdapter implements StorageHandler {
 
     private final StorageProvider storageProvider;
+    private final LoginBatcher loginBatcher;
 
-    public SQLiteStorageAdapter(StorageProvider storageProvider) {
+    /**
+     * 建立 SQLite 儲存適配器。
+     *
+     * @param storageProvider 儲存提供者
+     * @param loginBatcher    登入帳戶載入批次器
+     */
+    public SQLiteStorageAdapter(StorageProvider storageProvider, LoginBatcher loginBatcher) {
         this.storageProvider = storageProvider;
+        this.loginBatcher = loginBatcher;
     }
 
     @Override
     public CompletableFuture<Account> loadAccount(UUID uuid) {
-        // StorageHandler 需要載入完整 Account 物件
-        // 但 StorageProvider 只提供個別欄位查詢
-        // 這裡需要組合多次查詢來建構 Account
-
-        return storageProvider.getNameByUuid(uuid).thenCompose(username -> {
-            if (username == null || "Unknown".equals(username)) {
-                return CompletableFuture.completedFuture(null);
-            }
-
-            return storageProvider.getBalances(uuid).thenApply(balances -> {
-                // 使用 Map 建構子建立 Account
-                return new Account(uuid, username, balances);
-            });
-        });
+        // 合併同一時間窗口內的載入請求，以單一 JOIN 查詢取得名稱與所有餘額
+        return loginBatcher.load(uuid);
     }
 
     @Override
     public CompletableFuture<Void> saveAccount(Account account) {
-        // 儲存帳戶需要將每個貨幣的餘額分別寫入
-        CompletableFuture<Void>[] futures = account.getBalances().entrySet().stream()
-                .map(entry -> storageProvider.setBalance(
-                        account.getOwner(),
-                        entry.getKey(),
-                        entry.getValue()))
-                .toArray(CompletableFuture[]::new);
+        // 單一帳戶亦走批次路徑：一個連線、一個交易寫入所有貨幣與名稱
+        return storageProvider.saveAccounts(List.of(account));
+    }
 
-        // 同時更新玩家名稱
-        CompletableFuture<Void> updateName = storageProvider.updatePlayerName(
-                account.getOwner(),
-                account.getOwnerName());
+    @Override
+    public CompletableFuture<Void> saveAccounts(Collection<Account> accounts) {
+        return storageProvider.saveAccounts(accounts);
+    }
 
-        // 等待所有操作完成
-        return CompletableFuture.allOf(
-                CompletableFuture.allOf(futures),
-                updateName);
+    @Override
+    public boolean supportsPartialWrites() {
+        // 每個貨幣為獨立的資料列，未包含的貨幣不會被覆寫
+        return true;
     }
 
     @Override
@@ -70,6 +65,7 @@ public class SQLiteStorageAdapter implements StorageHandler {
 
     @Override
     public void shutdown() {
-        // StorageProvider 會自己處理關閉
+        // 送出尚未處理的載入請求；StorageProvider 會自己處理關閉
+        loginBatcher.shutdown();
     }
 }
@@ -0,0 +1,225 @@
+package com.smile.aceeconomy.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 指令補全用的前綴樹 (不區分大小寫)。
+ * <p>
+ * 每個節點保存其子樹中依字母排序的前 N 個字詞 (不可變清單)，
+ * 補全時只需沿著前綴走到對應節點並回傳該清單，不必掃描所有字詞或建立新清單。
+ * </p>
+ * <p>
+ * 寫入 (玩家加入/離開、重載貨幣) 以自身為鎖，並重新計算路徑上各節點的清單；
+ * 讀取不加鎖，節點的子節點陣列與清單皆以寫入時複製的方式替換。
+ * </p>
+ *
+ * @author Smile
+ */
+public class PrefixTrie {
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final int maxResults;
+    private final Node root = new Node('\0');
+    private int size;
+
+    /**
+     * 建立前綴樹。
+     *
+     * @param maxResults 每次補全最多回傳的字詞數
+     */
+    public PrefixTrie(int maxResults) {
+        this.maxResults = Math.max(1, maxResults);
+    }
+
+    /**
+     * 加入字詞 (保留原始大小寫顯示，比對時不區分大小寫)。
+     *
+     * @param word 字詞
+     */
+    public synchronized void add(String word) {
+        if (word == null || word.isEmpty()) {
+            return;
+        }
+        String key = word.toLowerCase(Locale.ROOT);
+        Node[] path = new Node[key.length() + 1];
+        Node node = root;
+        path[0] = node;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+            path[i + 1] = node;
+        }
+        if (node.word == null) {
+            size++;
+        }
+        node.word = word;
+        refresh(path);
+    }
+
+    /**
+     * 移除字詞。
+     *
+     * @param word 字詞 (不區分大小寫)
+     */
+    public synchronized void remove(String word) {
+        if (word == null || word.isEmpty()) {
+            return;
+        }
+        String key = word.toLowerCase(Locale.ROOT);
+        Node[] path = new Node[key.length() + 1];
+        Node node = root;
+        path[0] = node;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.child(key.charAt(i));
+            if (node == null) {
+                return;
+            }
+            path[i + 1] = node;
+        }
+        if (node.word == null) {
+            return;
+        }
+        node.word = null;
+        size--;
+
+        // 由下而上移除已無字詞的節點
+        for (int i = key.length(); i > 0; i--) {
+            if (path[i].word != null || path[i].children.length > 0) {
+                break;
+            }
+            path[i - 1].removeChild(path[i].c);
+        }
+        refresh(path);
+    }
+
+    /**
+     * 以新的字詞集合取代全部內容。
+     *
+     * @param words 字詞集合
+     */
+    public synchronized void replaceAll(Collection<String> words) {
+        root.children = NO_CHILDREN;
+        root.word = null;
+        root.top = List.of();
+        size = 0;
+        for (String word : words) {
+            add(word);
+        }
+    }
+
+    /**
+     * 取得前綴符合的字詞。
+     *
+     * @param prefix 前綴 (不區分大小寫)
+     * @return 依字母排序的不可變清單，最多 {@code maxResults} 筆
+     */
+    public List<String> complete(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(Character.toLowerCase(prefix.charAt(i)));
+        }
+        return node != null ? node.top : List.of();
+    }
+
+    /**
+     * 取得字詞數。
+     *
+     * @return 字詞數
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 由下而上重新計算路徑上各節點的前 N 個字詞 (須持有鎖)。
+     */
+    private void refresh(Node[] path) {
+        for (int i = path.length - 1; i >= 0; i--) {
+            Node node = path[i];
+            if (node == null) {
+                continue;
+            }
+            List<String> top = new ArrayList<>(maxResults);
+            if (node.word != null) {
+                top.add(node.word);
+            }
+            // 子節點依字元排序，依序合併其清單即為字母順序
+            for (Node child : node.children) {
+                for (String word : child.top) {
+                    if (top.size() >= maxResults) {
+                        break;
+                    }
+                    top.add(word);
+                }
+                if (top.size() >= maxResults) {
+                    break;
+                }
+            }
+            node.top = List.copyOf(top);
+        }
+    }
+
+    private static final class Node {
+        private final char c;
+        private volatile Node[] children = NO_CHILDREN;
+        private volatile List<String> top = List.of();
+        private String word;
+
+        private Node(char c) {
+            this.c = c;
+        }
+
+        private Node child(char key) {
+            Node[] current = children;
+            int low = 0;
+            int high = current.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midChar = current[mid].c;
+                if (midChar < key) {
+                    low = mid + 1;
+                } else if (midChar > key) {
+                    high = mid - 1;
+                } else {
+                    return current[mid];
+                }
+            }
+            return null;
+        }
+
+        private Node childOrCreate(char key) {
+            Node existing = child(key);
+            if (existing != null) {
+                return existing;
+            }
+            Node created = new Node(key);
+            Node[] current = children;
+            int index = 0;
+            while (index < current.length && current[index].c < key) {
+                index++;
+            }
+            Node[] updated = new Node[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            updated[index] = created;
+            System.arraycopy(current, index, updated, index + 1, current.length - index);
+            children = updated;
+            return created;
+        }
+
+        private void removeChild(char key) {
+            Node[] current = children;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].c == key) {
+                    Node[] updated = Arrays.copyOf(current, current.length - 1);
+                    System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                    children = updated;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.smile.aceeconomy.data;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Account 餘額格單元測試。
+ * <p>
+ * 測試未設定貨幣、CAS 更新，以及新增貨幣擴充陣列時的並行正確性。
+ * </p>
+ */
+class AccountTest {
+
+    @Test
+    @DisplayName("未設定的貨幣餘額為 0 且不出現在餘額 Map 中")
+    void testAbsentCurrency() {
+        Account account = new Account(UUID.randomUUID(), "Steve", Map.of("dollar", 50.0));
+
+        assertEquals(0.0, account.getBalance("never-seen-" + UUID.randomUUID()), 0.001);
+        assertEquals(Map.of("dollar", 50.0), account.getBalances());
+    }
+
+    @Test
+    @DisplayName("CAS 與 getAndSet 應回傳正確結果")
+    void testCompareAndSet() {
+        Account account = new Account(UUID.randomUUID(), "Steve", 100.0);
+
+        assertFalse(account.compareAndSetBalance("dollar", 99.0, 1.0));
+        assertTrue(account.compareAndSetBalance("dollar", 100.0, 80.0));
+        assertEquals(80.0, account.getAndSetBalance("dollar", 10.0), 0.001);
+        assertEquals(15.0, account.addBalance("dollar", 5.0), 0.001);
+        assertEquals(15.0, account.getBalance(), 0.001);
+    }
+
+    @Test
+    @DisplayName("新增貨幣擴充陣列時不應遺失並行的存款")
+    void testGrowDuringConcurrentUpdates() throws InterruptedException {
+        Account account = new Account(UUID.randomUUID(), "Steve", 0.0);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        String prefix = "grow-" + UUID.randomUUID() + "-";
+
+        for (int i = 0; i < 2000; i++) {
+            final int n = i;
+            executor.submit(() -> account.addBalance("dollar", 1.0));
+            if (n % 100 == 0) {
+                executor.submit(() -> account.setBalance(prefix + n, n));
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(2000.0, account.getBalance("dollar"), 0.001);
+        assertEquals(1900.0, account.getBalance(prefix + 1900), 0.001);
+        assertEquals(21, account.getBalances().size());
+    }
+
+    @Test
+    @DisplayName("定點數模式下重複小額存款不應累積誤差")
+    void testFixedPointArithmetic() {
+        String currencyId = "fixed-" + UUID.randomUUID();
+        assertTrue(CurrencyIndex.configureScale(currencyId, 2));
+        Account account = new Account(UUID.randomUUID(), "Steve", Map.of(currencyId, 0.1));
+
+        account.addBalance(currencyId, 0.2);
+        assertEquals(30L, account.getBalanceMinor(currencyId));
+        assertTrue(account.compareAndSetBalance(currencyId, 0.3, 0.0));
+
+        for (int i = 0; i < 1000; i++) {
+            account.addBalance(currencyId, 0.01);
+        }
+        assertEquals(10.0, account.getBalance(currencyId));
+        assertTrue(account.compareAndSetBalanceMinor(currencyId, 1000L, 999L));
+        assertEquals(9.99, account.getBalances().get(currencyId));
+    }
+
+    @Test
+    @DisplayName("未啟用定點數的貨幣不可使用最小單位 API")
+    void testMinorApiRequiresFixedPoint() {
+        Account account = new Account(UUID.randomUUID(), "Steve", 1.0);
+        assertThrows(IllegalStateException.class, () -> account.getBalanceMinor("dollar"));
+    }
+}
@@ -75,4 +75,31 @@ class CurrencyTest {
         assertTrue(dollar.isDefault(), "dollar 應為預設貨幣");
         assertFalse(token.isDefault(), "token 不應為預設貨幣");
     }
+
+    @Test
+    @DisplayName("測試由格式推導最小單位")
+    void testScaleFromFormat() {
+        Currency dollar = new Currency("dollar", "金幣", "$", "#,##0.00", true);
+        Currency token = new Currency("token", "代幣", "ⓒ", "#,##0", false);
+
+        assertEquals(2, dollar.scale());
+        assertEquals(0, token.scale());
+        assertEquals(30L, dollar.toMinorUnits(0.1 + 0.2));
+        assertEquals(0.3, dollar.fromMinorUnits(30L));
+        assertEquals(2L, token.toMinorUnits(1.5));
+    }
+
+    @Test
+    @DisplayName("無法以最小單位表示的金額應拋出例外，而非截斷為 Long.MAX_VALUE")
+    void testToMinorUnitsRejectsOverflow() {
+        Currency dollar = new Currency("dollar", "金幣", "$", "#,##0.00", true);
+
+        assertEquals(9_000_000_000_000_000_000L, dollar.toMinorUnits(9e16));
+        assertThrows(IllegalArgumentException.class, () -> dollar.toMinorUnits(1e17));
+        assertThrows(IllegalArgumentException.class, () -> dollar.toMinorUnits(-1e17));
+        assertThrows(IllegalArgumentException.class, () -> dollar.toMinorUnits(Double.POSITIVE_INFINITY));
+        assertThrows(IllegalArgumentException.class, () -> dollar.toMinorUnits(Double.NaN));
+        assertTrue(Currency.isRepresentable(9.2e10, Currency.MAX_SCALE));
+        assertFalse(Currency.isRepresentable(9.3e10, Currency.MAX_SCALE));
+    }
 }
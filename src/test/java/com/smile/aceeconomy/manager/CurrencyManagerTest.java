@@ -281,4 +281,214 @@ class CurrencyManagerTest {
         }
     }
 
+    // ==================== 轉帳測試 ====================
+
+    @Nested
+    @DisplayName("轉帳測試")
+    class TransferTests {
+
+        @Test
+        @DisplayName("轉帳應同時更新雙方餘額")
+        void testTransferSuccess() {
+            UUID targetUuid = UUID.randomUUID();
+            currencyManager.createAccount(playerUuid, "Sender");
+            currencyManager.createAccount(targetUuid, "Receiver");
+
+            boolean result = currencyManager.transfer(playerUuid, targetUuid, "dollar", 40.0);
+
+            assertTrue(result, "轉帳應該成功");
+            assertEquals(60.0, currencyManager.getBalance(playerUuid), 0.001);
+            assertEquals(140.0, currencyManager.getBalance(targetUuid), 0.001);
+        }
+
+        @Test
+        @DisplayName("餘額不足時雙方餘額皆不變")
+        void testTransferInsufficientFunds() {
+            UUID targetUuid = UUID.randomUUID();
+            currencyManager.createAccount(playerUuid, "Sender");
+            currencyManager.createAccount(targetUuid, "Receiver");
+
+            assertThrows(com.smile.aceeconomy.exception.InsufficientFundsException.class,
+                    () -> currencyManager.transfer(playerUuid, targetUuid, "dollar", 500.0));
+
+            assertEquals(100.0, currencyManager.getBalance(playerUuid), 0.001);
+            assertEquals(100.0, currencyManager.getBalance(targetUuid), 0.001);
+        }
+
+        @Test
+        @DisplayName("不能轉帳給自己或未載入的帳戶")
+        void testTransferInvalidTargets() {
+            currencyManager.createAccount(playerUuid, "Sender");
+
+            assertFalse(currencyManager.transfer(playerUuid, playerUuid, "dollar", 10.0));
+            assertFalse(currencyManager.transfer(playerUuid, UUID.randomUUID(), "dollar", 10.0));
+            assertEquals(100.0, currencyManager.getBalance(playerUuid), 0.001);
+        }
+
+        @Test
+        @DisplayName("雙向併發轉帳不應死鎖且總額守恆")
+        void testConcurrentOppositeTransfers() throws InterruptedException {
+            UUID targetUuid = UUID.randomUUID();
+            currencyManager.createAccount(playerUuid, "A");
+            currencyManager.createAccount(targetUuid, "B");
+
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            for (int i = 0; i < 1000; i++) {
+                boolean forward = i % 2 == 0;
+                executor.submit(() -> {
+                    try {
+                        if (forward) {
+                            currencyManager.transfer(playerUuid, targetUuid, "dollar", 1.0);
+                        } else {
+                            currencyManager.transfer(targetUuid, playerUuid, "dollar", 1.0);
+                        }
+                    } catch (com.smile.aceeconomy.exception.InsufficientFundsException ignored) {
+                        // 餘額暫時不足屬正常情況
+                    }
+                });
+            }
+
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS), "不應發生死鎖");
+            assertEquals(200.0,
+                    currencyManager.getBalance(playerUuid) + currencyManager.getBalance(targetUuid), 0.001,
+                    "總額應守恆");
+        }
+    }
+
+    // ==================== 定點數模式測試 ====================
+
+    @Nested
+    @DisplayName("定點數模式")
+    class FixedPointTests {
+
+        @Test
+        @DisplayName("交易紀錄應記錄四捨五入至最小單位後實際套用的金額")
+        void testLogsAppliedAmount() {
+            String currencyId = "fixed-" + UUID.randomUUID();
+            assertTrue(com.smile.aceeconomy.data.CurrencyIndex.configureScale(currencyId, 2));
+            Currency fixed = new Currency(currencyId, "點數", "P", "#,##0.00", false);
+            lenient().when(configManager.getCurrencies()).thenReturn(Map.of(
+                    "dollar", DOLLAR,
+                    currencyId, fixed));
+            lenient().when(configManager.getCurrency(currencyId)).thenReturn(fixed);
+
+            LogManager logManager = mock(LogManager.class);
+            currencyManager.setLogManager(logManager);
+            UUID targetUuid = UUID.randomUUID();
+            currencyManager.createAccount(playerUuid, "Sender");
+            currencyManager.createAccount(targetUuid, "Receiver");
+
+            assertTrue(currencyManager.deposit(playerUuid, currencyId, 1.006));
+            assertTrue(currencyManager.transfer(playerUuid, targetUuid, currencyId, 0.334));
+
+            assertEquals(0.68, currencyManager.getBalance(playerUuid, currencyId), 1e-9);
+            assertEquals(0.33, currencyManager.getBalance(targetUuid, currencyId), 1e-9);
+            verify(logManager).logTransaction(isNull(), eq(playerUuid), eq(1.01), eq(currencyId),
+                    eq(com.smile.aceeconomy.data.TransactionType.DEPOSIT), isNull(), eq("System Deposit"), isNull());
+            verify(logManager).logTransaction(eq(playerUuid), eq(targetUuid), eq(0.33), eq(currencyId),
+                    eq(com.smile.aceeconomy.data.TransactionType.PAY), isNull(), eq("Transfer"), isNull());
+        }
+
+        @Test
+        @DisplayName("已負債的付款人轉出極大金額時不應溢位，雙方餘額不變")
+        void testNegativePayerCannotOverflow() {
+            String currencyId = fixedCurrency(true);
+            lenient().when(configManager.isAllowNegativeBalance()).thenReturn(true);
+            org.bukkit.entity.Player player = mock(org.bukkit.entity.Player.class);
+            when(player.getUniqueId()).thenReturn(playerUuid);
+            when(permissionManager.getDebtLimit(player)).thenReturn(1e16);
+            LimitCache limitCache = new LimitCache(plugin, permissionManager);
+            limitCache.refresh(player);
+            currencyManager.setLimitCache(limitCache);
+
+            UUID targetUuid = UUID.randomUUID();
+            currencyManager.createAccount(playerUuid, "Debtor");
+            currencyManager.createAccount(targetUuid, "Receiver");
+            assertTrue(currencyManager.setBalance(playerUuid, currencyId, -5e15));
+            double targetBefore = currencyManager.getBalance(targetUuid, currencyId);
+
+            // -5e17 - 9e18 (最小單位) 超出 long 範圍，不可繞回正數而通過債務檢查
+            assertThrows(com.smile.aceeconomy.exception.InsufficientFundsException.class,
+                    () -> currencyManager.transfer(playerUuid, targetUuid, currencyId, 9e16));
+            assertFalse(currencyManager.transfer(playerUuid, targetUuid, currencyId, Double.POSITIVE_INFINITY));
+            assertFalse(currencyManager.transfer(playerUuid, targetUuid, currencyId, 1e300));
+            assertFalse(currencyManager.transfer(playerUuid, targetUuid, currencyId, Double.NaN));
+            assertFalse(currencyManager.hasEnough(playerUuid, currencyId, Double.POSITIVE_INFINITY));
+
+            assertEquals(-5e15, currencyManager.getBalance(playerUuid, currencyId), 0.0);
+            assertEquals(targetBefore, currencyManager.getBalance(targetUuid, currencyId), 0.0);
+        }
+
+        @Test
+        @DisplayName("入帳後溢位的存款與轉帳應被拒絕，餘額不變")
+        void testCreditOverflowIsRejected() {
+            String currencyId = fixedCurrency(false);
+            UUID targetUuid = UUID.randomUUID();
+            currencyManager.createAccount(playerUuid, "Sender");
+            currencyManager.createAccount(targetUuid, "Receiver");
+
+            assertTrue(currencyManager.deposit(targetUuid, currencyId, 9e16));
+            assertFalse(currencyManager.deposit(targetUuid, currencyId, 9e16));
+            assertFalse(currencyManager.deposit(targetUuid, currencyId, Double.POSITIVE_INFINITY));
+            assertFalse(currencyManager.setBalance(targetUuid, currencyId, Double.NaN));
+            assertFalse(currencyManager.setBalance(targetUuid, currencyId, 1e17));
+            assertEquals(9e16, currencyManager.getBalance(targetUuid, currencyId), 0.0);
+
+            assertTrue(currencyManager.deposit(playerUuid, currencyId, 9e16));
+            assertFalse(currencyManager.transfer(playerUuid, targetUuid, currencyId, 9e16));
+            assertEquals(9e16, currencyManager.getBalance(playerUuid, currencyId), 0.0);
+            assertEquals(9e16, currencyManager.getBalance(targetUuid, currencyId), 0.0);
+        }
+
+        /**
+         * 註冊一個小數位數為 2 的新貨幣 (CurrencyIndex 為全域狀態，每個測試使用不同 ID)。
+         */
+        private String fixedCurrency(boolean isDefault) {
+            String currencyId = "fixed-" + UUID.randomUUID();
+            assertTrue(com.smile.aceeconomy.data.CurrencyIndex.configureScale(currencyId, 2));
+            Currency fixed = new Currency(currencyId, "點數", "P", "#,##0.00", isDefault);
+            lenient().when(configManager.getCurrencies()).thenReturn(Map.of(
+                    "dollar", DOLLAR,
+                    currencyId, fixed));
+            lenient().when(configManager.getCurrency(currencyId)).thenReturn(fixed);
+            if (isDefault) {
+                lenient().when(configManager.getDefaultCurrency()).thenReturn(fixed);
+            }
+            return currencyId;
+        }
+    }
+
+    // ==================== 限制快取測試 ====================
+
+    @Nested
+    @DisplayName("玩家限制快取")
+    class LimitCacheTests {
+
+        @Test
+        @DisplayName("已快取的負債上限不應再查詢權限插件")
+        void testCachedDebtLimit() {
+            lenient().when(configManager.isAllowNegativeBalance()).thenReturn(true);
+            org.bukkit.entity.Player player = mock(org.bukkit.entity.Player.class);
+            when(player.getUniqueId()).thenReturn(playerUuid);
+            when(permissionManager.getDebtLimit(player)).thenReturn(500.0);
+
+            LimitCache limitCache = new LimitCache(plugin, permissionManager);
+            limitCache.refresh(player);
+            currencyManager.setLimitCache(limitCache);
+            currencyManager.createAccount(playerUuid, "TestPlayer");
+
+            // 100 - 550 = -450，在負債上限 500 之內
+            assertTrue(currencyManager.withdraw(playerUuid, "dollar", 550.0, null));
+            assertTrue(currencyManager.hasEnough(playerUuid, "dollar", 50.0));
+            assertFalse(currencyManager.hasEnough(playerUuid, "dollar", 51.0));
+            assertEquals(500.0, currencyManager.getDebtLimit(playerUuid), 0.001);
+
+            // 只有 refresh 時查詢一次
+            verify(permissionManager, times(1)).getDebtLimit(any(org.bukkit.OfflinePlayer.class));
+            // 最大餘額沒有使用者，不應查詢
+            verify(permissionManager, never()).getMaxBalance(any(org.bukkit.entity.Player.class));
+        }
+    }
+
 }
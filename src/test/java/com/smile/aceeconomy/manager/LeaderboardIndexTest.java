@@ -0,0 +1,100 @@
+package com.smile.aceeconomy.manager;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LeaderboardIndex 單元測試。
+ * <p>
+ * 測試排序、名次查詢、更新與初始載入不覆蓋即時資料。
+ * </p>
+ */
+class LeaderboardIndexTest {
+
+    @Test
+    @DisplayName("前 N 名應依餘額由高至低排序")
+    void testTopOrdering() {
+        LeaderboardIndex index = new LeaderboardIndex();
+        index.update(UUID.randomUUID(), "Low", 10.0);
+        index.update(UUID.randomUUID(), "High", 300.0);
+        index.update(UUID.randomUUID(), "Mid", 50.0);
+
+        List<LeaderboardManager.TopEntry> top = index.top(10);
+
+        assertEquals(List.of("High", "Mid", "Low"), top.stream().map(LeaderboardManager.TopEntry::name).toList());
+        assertEquals(1, top.get(0).rank());
+        assertEquals(3, top.get(2).rank());
+        assertEquals(2, index.top(2).size());
+    }
+
+    @Test
+    @DisplayName("更新餘額後名次應隨之變動")
+    void testRankAfterUpdate() {
+        LeaderboardIndex index = new LeaderboardIndex();
+        UUID steve = UUID.randomUUID();
+        UUID alex = UUID.randomUUID();
+        index.update(steve, "Steve", 100.0);
+        index.update(alex, "Alex", 200.0);
+        assertEquals(2, index.rankOf(steve));
+
+        index.update(steve, "Steve", 500.0);
+
+        assertEquals(1, index.rankOf(steve));
+        assertEquals(2, index.rankOf(alex));
+        assertEquals(2, index.size());
+        assertEquals(-1, index.rankOf(UUID.randomUUID()));
+    }
+
+    @Test
+    @DisplayName("初始載入不應覆蓋已存在的即時資料")
+    void testPutIfAbsent() {
+        LeaderboardIndex index = new LeaderboardIndex();
+        UUID steve = UUID.randomUUID();
+        index.update(steve, "Steve", 999.0);
+
+        index.putIfAbsent(steve, "Steve", 1.0);
+
+        assertEquals(999.0, index.top(1).get(0).balance(), 0.001);
+    }
+
+    @Test
+    @DisplayName("大量隨機更新後名次應與排序結果一致")
+    void testRandomizedAgainstSort() {
+        LeaderboardIndex index = new LeaderboardIndex();
+        Random random = new Random(42);
+        List<UUID> players = new ArrayList<>();
+        double[] balances = new double[2000];
+        for (int i = 0; i < balances.length; i++) {
+            players.add(UUID.randomUUID());
+            index.update(players.get(i), "P" + i, 0.0);
+        }
+        for (int round = 0; round < 10_000; round++) {
+            int i = random.nextInt(balances.length);
+            balances[i] = random.nextInt(1000);
+            index.update(players.get(i), "P" + i, balances[i]);
+        }
+        for (int i = 0; i < 50; i++) {
+            index.remove(players.get(i));
+        }
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 50; i < balances.length; i++) {
+            expected.add(i);
+        }
+        expected.sort(Comparator.<Integer>comparingDouble(i -> -balances[i])
+                .thenComparing(i -> players.get(i)));
+
+        for (int rank = 0; rank < expected.size(); rank += 97) {
+            assertEquals(rank + 1, index.rankOf(players.get(expected.get(rank))));
+        }
+        assertEquals("P" + expected.get(0), index.top(1).get(0).name());
+    }
+}
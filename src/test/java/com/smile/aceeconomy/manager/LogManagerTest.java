@@ -0,0 +1,281 @@
+package com.smile.aceeconomy.manager;
+
+import com.google.gson.Gson;
+import com.smile.aceeconomy.AceEconomy;
+import com.smile.aceeconomy.data.TransactionType;
+import com.smile.aceeconomy.storage.DatabaseConnection;
+import com.smile.aceeconomy.storage.StatementCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.*;
+
+/**
+ * LogManager 單元測試。
+ * <p>
+ * 以 SQLite 檔案資料庫測試交易歷史的游標分頁、交易日誌的刷新與交易回溯。
+ * </p>
+ */
+class LogManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String url;
+    private DatabaseConnection databaseConnection;
+    private CurrencyManager currencyManager;
+    private LogManager logManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        url = "jdbc:sqlite:" + tempDir.resolve("test.db");
+        try (Connection conn = DriverManager.getConnection(url);
+                Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("""
+                    CREATE TABLE ace_transaction_logs (
+                        log_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        transaction_id TEXT NOT NULL,
+                        timestamp DATETIME DEFAULT CURRENT_TIMESTAMP,
+                        sender_uuid TEXT,
+                        receiver_uuid TEXT,
+                        currency_type TEXT NOT NULL,
+                        amount REAL NOT NULL,
+                        type TEXT NOT NULL,
+                        reverted BOOLEAN DEFAULT 0,
+                        banknote_uuid TEXT,
+                        old_balance REAL
+                    )""");
+        }
+
+        databaseConnection = mock(DatabaseConnection.class);
+        when(databaseConnection.getConnection()).thenAnswer(inv -> DriverManager.getConnection(url));
+        when(databaseConnection.getReadConnection()).thenAnswer(inv -> DriverManager.getConnection(url));
+        when(databaseConnection.getStatementCache()).thenReturn(new StatementCache(0));
+        when(databaseConnection.isMySQL()).thenReturn(false);
+
+        ConfigManager configManager = mock(ConfigManager.class);
+        when(configManager.getJournalQueueCapacity()).thenReturn(1024);
+        when(configManager.getJournalFlushLatency()).thenReturn(5L);
+        when(configManager.getJournalMaxBatchSize()).thenReturn(100);
+        when(configManager.getJournalOverflowPolicy()).thenReturn("SPILL");
+
+        AceEconomy plugin = mock(AceEconomy.class);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("test"));
+        when(plugin.getDataFolder()).thenReturn(tempDir.toFile());
+        when(plugin.getConfigManager()).thenReturn(configManager);
+
+        currencyManager = mock(CurrencyManager.class);
+        logManager = new LogManager(plugin, databaseConnection, currencyManager, Runnable::run);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logManager.shutdown();
+    }
+
+    @Test
+    @DisplayName("游標分頁應能讀取第一頁之後的記錄")
+    void testHistoryPagesPastFirstPage() throws Exception {
+        UUID player = UUID.randomUUID();
+        try (Connection conn = DriverManager.getConnection(url);
+                PreparedStatement pstmt = conn.prepareStatement(
+                        "INSERT INTO ace_transaction_logs (transaction_id, sender_uuid, receiver_uuid,"
+                                + " currency_type, amount, type) VALUES (?, ?, ?, 'dollar', ?, 'PAY')")) {
+            for (int i = 0; i < 25; i++) {
+                pstmt.setString(1, UUID.randomUUID().toString());
+                // 交替作為發送者與接收者，讓兩個分支都有記錄
+                pstmt.setString(2, i % 2 == 0 ? player.toString() : UUID.randomUUID().toString());
+                pstmt.setString(3, i % 2 == 0 ? UUID.randomUUID().toString() : player.toString());
+                pstmt.setDouble(4, i);
+                pstmt.executeUpdate();
+            }
+        }
+
+        List<Integer> sizes = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>();
+        LogManager.HistoryCursor cursor = null;
+        do {
+            LogManager.HistoryPage page = logManager.getHistory(player, cursor, 10).join();
+            sizes.add(page.logs().size());
+            page.logs().forEach(log -> ids.add(log.logId()));
+            cursor = page.next();
+        } while (cursor != null && sizes.size() < 5);
+
+        assertEquals(List.of(10, 10, 5), sizes);
+        assertEquals(25, new HashSet<>(ids).size());
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i) < ids.get(i - 1), "應由新到舊排序");
+        }
+
+        // 直接跳到第三頁應與逐頁翻閱的結果相同
+        LogManager.HistoryCursor skipped = logManager.seekHistory(player, null, 20).join();
+        assertNotNull(skipped);
+        List<Integer> thirdPage = logManager.getHistory(player, skipped, 10).join().logs().stream()
+                .map(LogManager.TransactionLog::logId)
+                .toList();
+        assertEquals(ids.subList(20, 25), thirdPage);
+    }
+
+    @Test
+    @DisplayName("經由交易日誌寫入的記錄應保留交易時間並可跨頁讀取")
+    void testJournalRowsKeepCreatedAt() throws Exception {
+        UUID player = UUID.randomUUID();
+        long past = Instant.parse("2020-01-01T00:00:00Z").toEpochMilli();
+        File logDir = tempDir.resolve("journal").toFile();
+        logDir.mkdirs();
+        TransactionJournal journal = new TransactionJournal(databaseConnection, Logger.getLogger("test"),
+                new Gson(), logDir, 1024, 5, 100, TransactionJournal.OverflowPolicy.SPILL);
+        // 較舊的交易較晚寫入 (例如重播溢出檔)，log_id 較大但時間較早
+        journal.append(new TransactionJournal.Entry(UUID.randomUUID().toString(), null, player, null,
+                "dollar", 2.0, TransactionType.WITHDRAW, null, null, System.currentTimeMillis()));
+        journal.append(new TransactionJournal.Entry(UUID.randomUUID().toString(), null, player, null,
+                "dollar", 1.0, TransactionType.WITHDRAW, null, null, past));
+        journal.shutdown();
+
+        try (Connection conn = DriverManager.getConnection(url);
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery(
+                        "SELECT timestamp FROM ace_transaction_logs WHERE amount = 1.0")) {
+            assertTrue(rs.next());
+            assertEquals("2020-01-01 00:00:00", rs.getString("timestamp"));
+        }
+
+        LogManager.HistoryPage first = logManager.getHistory(player, null, 1).join();
+        assertEquals(2.0, first.logs().get(0).amount());
+        assertNotNull(first.next());
+
+        LogManager.HistoryPage second = logManager.getHistory(player, first.next(), 1).join();
+        assertEquals(1, second.logs().size());
+        assertEquals(1.0, second.logs().get(0).amount());
+
+        Set<Integer> ids = Set.of(first.logs().get(0).logId(), second.logs().get(0).logId());
+        assertEquals(2, ids.size());
+    }
+
+    @Test
+    @DisplayName("刷新交易日誌應寫入佇列與溢出檔中的所有紀錄")
+    void testFlushWritesQueueAndSpill() throws Exception {
+        UUID player = UUID.randomUUID();
+        Gson gson = new Gson();
+        File logDir = tempDir.resolve("journal").toFile();
+        logDir.mkdirs();
+        // 上次執行留下的溢出檔
+        Files.writeString(new File(logDir, "journal-spill.jsonl").toPath(), gson.toJson(
+                new TransactionJournal.Entry(UUID.randomUUID().toString(), null, player, null, "dollar", 1.0,
+                        TransactionType.WITHDRAW, null, null, System.currentTimeMillis())) + "\n");
+
+        TransactionJournal journal = new TransactionJournal(databaseConnection, Logger.getLogger("test"), gson,
+                logDir, 1024, 5, 100, TransactionJournal.OverflowPolicy.SPILL);
+        try {
+            journal.append(new TransactionJournal.Entry(UUID.randomUUID().toString(), null, player, null,
+                    "dollar", 2.0, TransactionType.WITHDRAW, null, null, System.currentTimeMillis()));
+            journal.flush().get(10, TimeUnit.SECONDS);
+
+            try (Connection conn = DriverManager.getConnection(url);
+                    Statement stmt = conn.createStatement();
+                    ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM ace_transaction_logs")) {
+                assertTrue(rs.next());
+                assertEquals(2, rs.getInt(1));
+            }
+            assertFalse(new File(logDir, "journal-spill.jsonl").exists());
+        } finally {
+            journal.shutdown();
+        }
+
+        // 關閉後的刷新請求應立即失敗而非永遠等待
+        assertTrue(journal.flush().isCompletedExceptionally());
+    }
+
+    private String insertPay(UUID sender, UUID receiver, double amount) throws SQLException {
+        String transactionId = UUID.randomUUID().toString();
+        try (Connection conn = DriverManager.getConnection(url);
+                PreparedStatement pstmt = conn.prepareStatement(
+                        "INSERT INTO ace_transaction_logs (transaction_id, sender_uuid, receiver_uuid,"
+                                + " currency_type, amount, type) VALUES (?, ?, ?, 'dollar', ?, 'PAY')")) {
+            pstmt.setString(1, transactionId);
+            pstmt.setString(2, sender.toString());
+            pstmt.setString(3, receiver.toString());
+            pstmt.setDouble(4, amount);
+            pstmt.executeUpdate();
+        }
+        return transactionId;
+    }
+
+    @Test
+    @DisplayName("回溯交易期間應釘選雙方帳戶並在完成後釋放")
+    void testRollbackPinsAccounts() throws Exception {
+        UUID sender = UUID.randomUUID();
+        UUID receiver = UUID.randomUUID();
+        String transactionId = insertPay(sender, receiver, 25.0);
+
+        OfflineAccountCache.Lease senderLease = mock(OfflineAccountCache.Lease.class);
+        OfflineAccountCache.Lease receiverLease = mock(OfflineAccountCache.Lease.class);
+        when(currencyManager.acquireAccount(sender)).thenReturn(CompletableFuture.completedFuture(senderLease));
+        when(currencyManager.acquireAccount(receiver)).thenReturn(CompletableFuture.completedFuture(receiverLease));
+        // 餘額操作時租用仍未釋放
+        when(currencyManager.withdraw(receiver, 25.0, true)).thenAnswer(inv -> {
+            verify(receiverLease, never()).close();
+            return true;
+        });
+        when(currencyManager.deposit(sender, 25.0)).thenAnswer(inv -> {
+            verify(senderLease, never()).close();
+            return true;
+        });
+
+        String result = logManager.rollbackTransaction(transactionId).join();
+
+        assertTrue(result.contains("已成功回溯"), result);
+        verify(currencyManager).withdraw(receiver, 25.0, true);
+        verify(currencyManager).deposit(sender, 25.0);
+        verify(currencyManager, never()).loadAccount(any());
+        verify(senderLease).close();
+        verify(receiverLease).close();
+        assertTrue(logManager.getTransaction(transactionId).join().reverted());
+    }
+
+    @Test
+    @DisplayName("接收者帳戶不存在時不應回溯並釋放已取得的租用")
+    void testRollbackMissingReceiver() throws Exception {
+        UUID sender = UUID.randomUUID();
+        UUID receiver = UUID.randomUUID();
+        String transactionId = insertPay(sender, receiver, 25.0);
+
+        OfflineAccountCache.Lease senderLease = mock(OfflineAccountCache.Lease.class);
+        when(currencyManager.acquireAccount(sender)).thenReturn(CompletableFuture.completedFuture(senderLease));
+        when(currencyManager.acquireAccount(receiver)).thenReturn(CompletableFuture.completedFuture(null));
+
+        String result = logManager.rollbackTransaction(transactionId).join();
+
+        assertTrue(result.contains("接收者帳戶不存在"), result);
+        verify(currencyManager, never()).withdraw(any(), anyDouble(), anyBoolean());
+        verify(currencyManager, never()).deposit(any(), anyDouble());
+        verify(senderLease).close();
+        assertFalse(logManager.getTransaction(transactionId).join().reverted());
+    }
+}
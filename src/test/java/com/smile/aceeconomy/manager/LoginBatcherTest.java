@@ -0,0 +1,161 @@
+package com.smile.aceeconomy.manager;
+
+import com.smile.aceeconomy.data.Account;
+import com.smile.aceeconomy.storage.StorageProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * LoginBatcher 單元測試。
+ * <p>
+ * 測試時間窗口內的請求合併、數量上限、重複 UUID 與查詢失敗的傳遞。
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LoginBatcherTest {
+
+    @Mock
+    private StorageProvider storageProvider;
+
+    @Mock
+    private Logger logger;
+
+    private LoginBatcher loginBatcher;
+
+    @AfterEach
+    void tearDown() {
+        if (loginBatcher != null) {
+            loginBatcher.shutdown();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void answerWithAccounts() {
+        when(storageProvider.loadAccounts(anyCollection())).thenAnswer(invocation -> {
+            Collection<UUID> uuids = invocation.getArgument(0);
+            Map<UUID, Account> accounts = new HashMap<>();
+            for (UUID uuid : uuids) {
+                accounts.put(uuid, new Account(uuid, "Player", 100.0));
+            }
+            return CompletableFuture.completedFuture(accounts);
+        });
+    }
+
+    @Test
+    @DisplayName("時間窗口內的請求應合併為一次查詢")
+    @SuppressWarnings("unchecked")
+    void testBatchesWithinWindow() throws Exception {
+        answerWithAccounts();
+        // 使用很長的窗口，僅透過 flush 觸發
+        loginBatcher = new LoginBatcher(storageProvider, logger, 60_000L, 1000);
+
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        CompletableFuture<Account> firstFuture = loginBatcher.load(first);
+        CompletableFuture<Account> secondFuture = loginBatcher.load(second);
+        assertFalse(firstFuture.isDone());
+
+        loginBatcher.flush();
+
+        assertEquals(first, firstFuture.get(5, TimeUnit.SECONDS).getOwner());
+        assertEquals(second, secondFuture.get(5, TimeUnit.SECONDS).getOwner());
+
+        ArgumentCaptor<Collection<UUID>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(storageProvider, times(1)).loadAccounts(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertEquals(1, loginBatcher.getMetrics().batches());
+    }
+
+    @Test
+    @DisplayName("窗口結束後應自動送出")
+    void testWindowElapses() throws Exception {
+        answerWithAccounts();
+        loginBatcher = new LoginBatcher(storageProvider, logger, 5L, 1000);
+
+        UUID uuid = UUID.randomUUID();
+        assertEquals(uuid, loginBatcher.load(uuid).get(5, TimeUnit.SECONDS).getOwner());
+    }
+
+    @Test
+    @DisplayName("達到數量上限時應立即送出")
+    void testMaxBatchSize() throws Exception {
+        answerWithAccounts();
+        loginBatcher = new LoginBatcher(storageProvider, logger, 60_000L, 3);
+
+        CompletableFuture<Account> first = loginBatcher.load(UUID.randomUUID());
+        loginBatcher.load(UUID.randomUUID());
+        loginBatcher.load(UUID.randomUUID());
+
+        assertNotNull(first.get(5, TimeUnit.SECONDS));
+        verify(storageProvider, times(1)).loadAccounts(anyCollection());
+        assertEquals(3, loginBatcher.getMetrics().largestBatch());
+    }
+
+    @Test
+    @DisplayName("同一批次中重複的 UUID 應共用同一個 Future")
+    void testDuplicateUuid() {
+        answerWithAccounts();
+        loginBatcher = new LoginBatcher(storageProvider, logger, 60_000L, 1000);
+
+        UUID uuid = UUID.randomUUID();
+        assertSame(loginBatcher.load(uuid), loginBatcher.load(uuid));
+    }
+
+    @Test
+    @DisplayName("找不到的帳戶應以 null 完成")
+    void testMissingAccount() throws Exception {
+        when(storageProvider.loadAccounts(anyCollection())).thenReturn(CompletableFuture.completedFuture(Map.of()));
+        loginBatcher = new LoginBatcher(storageProvider, logger, 0L, 1000);
+
+        assertNull(loginBatcher.load(UUID.randomUUID()).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("查詢失敗應以例外完成整批 Future")
+    void testFailurePropagates() {
+        when(storageProvider.loadAccounts(anyCollection()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("db down")));
+        loginBatcher = new LoginBatcher(storageProvider, logger, 60_000L, 1000);
+
+        CompletableFuture<Account> first = loginBatcher.load(UUID.randomUUID());
+        CompletableFuture<Account> second = loginBatcher.load(UUID.randomUUID());
+        loginBatcher.flush();
+
+        assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("關閉時應送出尚未處理的請求")
+    void testShutdownFlushes() throws Exception {
+        answerWithAccounts();
+        loginBatcher = new LoginBatcher(storageProvider, logger, 60_000L, 1000);
+
+        CompletableFuture<Account> future = loginBatcher.load(UUID.randomUUID());
+        loginBatcher.shutdown();
+
+        assertNotNull(future.get(5, TimeUnit.SECONDS));
+        loginBatcher = null;
+    }
+}
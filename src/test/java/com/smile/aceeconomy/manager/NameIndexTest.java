@@ -0,0 +1,96 @@
+package com.smile.aceeconomy.manager;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * NameIndex 單元測試。
+ * <p>
+ * 測試不區分大小寫的查詢、改名、名稱被沿用、前綴搜尋與容量淘汰。
+ * </p>
+ */
+class NameIndexTest {
+
+    @Test
+    @DisplayName("名稱查詢應不區分大小寫")
+    void testCaseInsensitiveLookup() {
+        NameIndex index = new NameIndex(100);
+        UUID uuid = UUID.randomUUID();
+        index.put(uuid, "Steve");
+
+        assertEquals(uuid, index.getUuid("steve"));
+        assertEquals(uuid, index.getUuid(" STEVE "));
+        assertEquals("Steve", index.getName(uuid));
+        assertNull(index.getUuid("Alex"));
+    }
+
+    @Test
+    @DisplayName("玩家改名後舊名稱應失效")
+    void testRename() {
+        NameIndex index = new NameIndex(100);
+        UUID uuid = UUID.randomUUID();
+        index.put(uuid, "OldName");
+        index.put(uuid, "NewName");
+
+        assertNull(index.getUuid("OldName"));
+        assertEquals(uuid, index.getUuid("newname"));
+        assertEquals("NewName", index.getName(uuid));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("名稱被其他玩家沿用時應指向新玩家")
+    void testNameReused() {
+        NameIndex index = new NameIndex(100);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        index.put(first, "Steve");
+        index.put(second, "steve");
+
+        assertEquals(second, index.getUuid("Steve"));
+        assertNull(index.getName(first));
+
+        // 原玩家之後改名不應影響新玩家
+        index.put(first, "Alex");
+        assertEquals(second, index.getUuid("Steve"));
+        assertEquals(first, index.getUuid("Alex"));
+    }
+
+    @Test
+    @DisplayName("前綴搜尋應依名稱排序並限制筆數")
+    void testComplete() {
+        NameIndex index = new NameIndex(100);
+        index.put(UUID.randomUUID(), "Steve");
+        index.put(UUID.randomUUID(), "stan");
+        index.put(UUID.randomUUID(), "Stella");
+        index.put(UUID.randomUUID(), "Alex");
+
+        assertEquals(List.of("stan", "Stella", "Steve"), index.complete("ST", 10));
+        assertEquals(List.of("stan", "Stella"), index.complete("st", 2));
+        assertEquals(List.of(), index.complete("z", 10));
+    }
+
+    @Test
+    @DisplayName("超過容量時應淘汰最久未使用的項目")
+    void testEviction() {
+        NameIndex index = new NameIndex(10);
+        UUID keep = UUID.randomUUID();
+        index.put(keep, "Keep");
+        for (int i = 0; i < 9; i++) {
+            index.put(UUID.randomUUID(), "Player" + i);
+        }
+        // 存取 Keep，使其成為最近使用
+        assertEquals(keep, index.getUuid("keep"));
+
+        index.put(UUID.randomUUID(), "Overflow");
+
+        assertTrue(index.size() <= 10);
+        assertEquals(keep, index.getUuid("Keep"));
+        assertNull(index.getUuid("Player0"));
+    }
+}
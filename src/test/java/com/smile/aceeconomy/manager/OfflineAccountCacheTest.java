@@ -0,0 +1,170 @@
+package com.smile.aceeconomy.manager;
+
+import com.smile.aceeconomy.data.Account;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OfflineAccountCache 單元測試。
+ * <p>
+ * 測試單次載入 (single-flight)、容量淘汰、存取後過期與放入/移除。
+ * </p>
+ */
+class OfflineAccountCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private OfflineAccountCache newCache(int maxSize, long ttlSeconds) {
+        return new OfflineAccountCache(uuid -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(new Account(uuid, "Player", 100.0));
+        }, maxSize, ttlSeconds, clock::get);
+    }
+
+    @Test
+    @DisplayName("已快取的帳戶不應重新載入")
+    void testHit() throws Exception {
+        OfflineAccountCache cache = newCache(10, 60);
+        UUID uuid = UUID.randomUUID();
+
+        Account first = cache.get(uuid).get(5, TimeUnit.SECONDS);
+        Account second = cache.get(uuid).get(5, TimeUnit.SECONDS);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getMetrics().hits());
+    }
+
+    @Test
+    @DisplayName("並行請求同一個帳戶應共用同一次載入")
+    void testSingleFlight() throws Exception {
+        CompletableFuture<Account> pending = new CompletableFuture<>();
+        OfflineAccountCache cache = new OfflineAccountCache(uuid -> {
+            loads.incrementAndGet();
+            return pending;
+        }, 10, 60, clock::get);
+        UUID uuid = UUID.randomUUID();
+
+        CompletableFuture<Account> first = cache.get(uuid);
+        CompletableFuture<Account> second = cache.get(uuid);
+        assertSame(first, second);
+
+        pending.complete(new Account(uuid, "Player", 1.0));
+        assertNotNull(first.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        assertNotNull(cache.getIfPresent(uuid));
+    }
+
+    @Test
+    @DisplayName("超過容量時應淘汰最久未使用的帳戶")
+    void testLruEviction() throws Exception {
+        OfflineAccountCache cache = newCache(2, 60);
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+
+        cache.get(a).get(5, TimeUnit.SECONDS);
+        cache.get(b).get(5, TimeUnit.SECONDS);
+        // 存取 a，使 b 成為最久未使用
+        assertNotNull(cache.getIfPresent(a));
+        cache.get(c).get(5, TimeUnit.SECONDS);
+
+        assertNotNull(cache.getIfPresent(a));
+        assertNull(cache.getIfPresent(b));
+        assertNotNull(cache.getIfPresent(c));
+        assertEquals(1, cache.getMetrics().evictions());
+    }
+
+    @Test
+    @DisplayName("未被存取超過存活時間的帳戶應過期")
+    void testExpiry() throws Exception {
+        OfflineAccountCache cache = newCache(10, 60);
+        UUID uuid = UUID.randomUUID();
+        cache.get(uuid).get(5, TimeUnit.SECONDS);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertNotNull(cache.getIfPresent(uuid));
+
+        // 存取會延長存活時間
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(59));
+        assertNotNull(cache.getIfPresent(uuid));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        assertNull(cache.getIfPresent(uuid));
+        assertEquals(1, cache.getMetrics().expirations());
+    }
+
+    @Test
+    @DisplayName("載入完成時應沿用載入期間放入的較新帳戶")
+    void testPutDuringLoad() throws Exception {
+        CompletableFuture<Account> pending = new CompletableFuture<>();
+        OfflineAccountCache cache = new OfflineAccountCache(uuid -> pending, 10, 60, clock::get);
+        UUID uuid = UUID.randomUUID();
+
+        CompletableFuture<Account> future = cache.get(uuid);
+        Account newer = new Account(uuid, "Player", 500.0);
+        cache.put(newer);
+        pending.complete(new Account(uuid, "Player", 100.0));
+
+        assertSame(newer, future.get(5, TimeUnit.SECONDS));
+        assertSame(newer, cache.getIfPresent(uuid));
+    }
+
+    @Test
+    @DisplayName("不存在的帳戶不應被快取")
+    void testMissingAccount() throws Exception {
+        OfflineAccountCache cache = new OfflineAccountCache(uuid -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(null);
+        }, 10, 60, clock::get);
+        UUID uuid = UUID.randomUUID();
+
+        assertNull(cache.get(uuid).get(5, TimeUnit.SECONDS));
+        assertNull(cache.get(uuid).get(5, TimeUnit.SECONDS));
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("移除後應回傳被移除的帳戶")
+    void testRemove() throws Exception {
+        OfflineAccountCache cache = newCache(10, 60);
+        UUID uuid = UUID.randomUUID();
+        Account account = cache.get(uuid).get(5, TimeUnit.SECONDS);
+
+        assertSame(account, cache.remove(uuid));
+        assertNull(cache.remove(uuid));
+        assertNull(cache.getIfPresent(uuid));
+    }
+
+    @Test
+    @DisplayName("釘選中的帳戶不應被淘汰或過期，並行租用應共用同一個帳戶")
+    void testPinnedSurvivesEviction() throws Exception {
+        OfflineAccountCache cache = newCache(0, 60);
+        UUID uuid = UUID.randomUUID();
+
+        OfflineAccountCache.Lease first = cache.acquire(uuid).get(5, TimeUnit.SECONDS);
+        OfflineAccountCache.Lease second = cache.acquire(uuid).get(5, TimeUnit.SECONDS);
+        assertSame(first.account(), second.account());
+        assertEquals(1, loads.get());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(120));
+        assertSame(first.account(), cache.getIfPresent(uuid));
+
+        first.close();
+        first.close(); // 重複關閉不應重複解除釘選
+        assertEquals(1, cache.size());
+
+        second.close();
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,42 @@
+package com.smile.aceeconomy.manager;
+
+import com.smile.aceeconomy.data.UserRecord;
+import com.smile.aceeconomy.storage.StorageProvider;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * UserCacheManager 單元測試。
+ * <p>
+ * 測試名稱索引未命中時從資料庫回填的行為。
+ * </p>
+ */
+class UserCacheManagerTest {
+
+    @Test
+    @DisplayName("查詢未快取的名稱後應以資料庫中的原始大小寫回填")
+    void testBackfillUsesStoredName() {
+        UUID uuid = UUID.randomUUID();
+        StorageProvider storageProvider = mock(StorageProvider.class);
+        when(storageProvider.getUserByName("sTEVE"))
+                .thenReturn(CompletableFuture.completedFuture(new UserRecord(uuid, "Steve")));
+        UserCacheManager cache = new UserCacheManager(storageProvider, Logger.getLogger("test"), 100);
+
+        assertEquals(uuid, cache.getUUID("sTEVE").join());
+
+        assertEquals("Steve", cache.getName(uuid).join());
+        assertEquals(List.of("Steve"), cache.completeNames("st", 10));
+        // 第二次查詢由記憶體索引回應
+        assertEquals(uuid, cache.getUUID("steve").join());
+        verify(storageProvider, times(1)).getUserByName(anyString());
+        verify(storageProvider, never()).getNameByUuid(any());
+    }
+}
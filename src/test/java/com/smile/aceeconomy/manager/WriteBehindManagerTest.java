@@ -0,0 +1,128 @@
+package com.smile.aceeconomy.manager;
+
+import com.smile.aceeconomy.data.Account;
+import com.smile.aceeconomy.storage.StorageHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * WriteBehindManager 單元測試。
+ * <p>
+ * 測試髒資料合併、批次刷新、失敗重試與關閉時排空。
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class WriteBehindManagerTest {
+
+    @Mock
+    private StorageHandler storageHandler;
+
+    @Mock
+    private Logger logger;
+
+    private WriteBehindManager writeBehindManager;
+
+    @BeforeEach
+    void setUp() {
+        when(storageHandler.supportsPartialWrites()).thenReturn(true);
+        when(storageHandler.saveAccounts(anyCollection())).thenReturn(CompletableFuture.completedFuture(null));
+        // 使用很長的間隔，僅透過 flushNow / shutdown 觸發刷新
+        writeBehindManager = new WriteBehindManager(storageHandler, logger, 60_000L, 10_000, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBehindManager.shutdown();
+    }
+
+    @Test
+    @DisplayName("多次變動同一帳戶應合併為一次寫入")
+    @SuppressWarnings("unchecked")
+    void testCoalescing() throws Exception {
+        Account account = new Account(UUID.randomUUID(), "Steve", 100.0);
+
+        for (int i = 0; i < 50; i++) {
+            account.setBalance("dollar", 100.0 + i);
+            writeBehindManager.markDirty(account, "dollar");
+        }
+        assertEquals(1, writeBehindManager.getPendingCount());
+
+        writeBehindManager.flushNow().get(5, TimeUnit.SECONDS);
+
+        ArgumentCaptor<Collection<Account>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(storageHandler, times(1)).saveAccounts(captor.capture());
+        List<Account> saved = new ArrayList<>(captor.getValue());
+        assertEquals(1, saved.size());
+        assertEquals(149.0, saved.get(0).getBalance("dollar"), 0.001);
+        assertEquals(0, writeBehindManager.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("局部寫入時快照僅包含變動的貨幣")
+    @SuppressWarnings("unchecked")
+    void testPartialSnapshot() throws Exception {
+        Account account = new Account(UUID.randomUUID(), "Alex", 100.0);
+        account.setBalance("token", 5.0);
+        writeBehindManager.markDirty(account, "token");
+
+        writeBehindManager.flushNow().get(5, TimeUnit.SECONDS);
+
+        ArgumentCaptor<Collection<Account>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(storageHandler).saveAccounts(captor.capture());
+        Account snapshot = captor.getValue().iterator().next();
+        assertEquals(1, snapshot.getBalances().size());
+        assertEquals(5.0, snapshot.getBalance("token"), 0.001);
+    }
+
+    @Test
+    @DisplayName("寫入失敗的帳戶應重新排入佇列")
+    void testRequeueOnFailure() throws Exception {
+        when(storageHandler.saveAccounts(anyCollection()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("db down")));
+
+        Account account = new Account(UUID.randomUUID(), "Steve", 100.0);
+        writeBehindManager.markDirty(account, "dollar");
+        writeBehindManager.flushNow().get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, writeBehindManager.getPendingCount());
+        assertSame(account, writeBehindManager.getPendingAccount(account.getOwner()));
+        assertEquals(1, writeBehindManager.getMetrics().failedFlushes());
+    }
+
+    @Test
+    @DisplayName("關閉時應排空所有髒帳戶")
+    void testDrainOnShutdown() {
+        for (int i = 0; i < 250; i++) {
+            writeBehindManager.markDirty(new Account(UUID.randomUUID(), "P" + i, 1.0), "dollar");
+        }
+
+        writeBehindManager.shutdown();
+
+        assertEquals(0, writeBehindManager.getPendingCount());
+        assertEquals(250, writeBehindManager.getMetrics().totalFlushed());
+        // batch-size 為 100，應分為 3 批
+        verify(storageHandler, times(3)).saveAccounts(any());
+    }
+}
@@ -0,0 +1,223 @@
+package com.smile.aceeconomy.migration;
+
+import com.smile.aceeconomy.data.Account;
+import com.smile.aceeconomy.storage.StorageProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * CMIDatabaseReader 單元測試。
+ * <p>
+ * 以本機 SQLite 檔案模擬 CMI 資料庫，測試串流分段、無效 UUID、試跑、寫入失敗與中斷後續傳。
+ * </p>
+ */
+class CMIDatabaseReaderTest {
+
+    private static final int PLAYERS = 25;
+
+    @TempDir
+    Path tempDir;
+
+    private Path database;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = tempDir.resolve("cmi.sqlite.db");
+        try (Connection conn = open();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE users (id INTEGER PRIMARY KEY, player_uuid TEXT, username TEXT,"
+                    + " Balance DOUBLE)");
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO users (player_uuid, username, Balance) VALUES (?, ?, ?)")) {
+                for (int i = 0; i < PLAYERS; i++) {
+                    pstmt.setString(1, UUID.randomUUID().toString());
+                    pstmt.setString(2, "Player" + i);
+                    pstmt.setDouble(3, i);
+                    pstmt.addBatch();
+                }
+                pstmt.setString(1, "not-a-uuid");
+                pstmt.setString(2, "Broken");
+                pstmt.setDouble(3, 100);
+                pstmt.addBatch();
+                pstmt.executeBatch();
+            }
+        }
+    }
+
+    private Connection open() throws SQLException {
+        return DriverManager.getConnection("jdbc:sqlite:" + database.toAbsolutePath());
+    }
+
+    private Connection openTarget() throws SQLException {
+        return DriverManager.getConnection("jdbc:sqlite:" + tempDir.resolve("target.db").toAbsolutePath());
+    }
+
+    @Test
+    @DisplayName("應分段串流所有玩家，無效 UUID 計入失敗")
+    void testStreamsInChunks() throws SQLException {
+        List<Integer> chunkSizes = new ArrayList<>();
+        List<Account> written = new ArrayList<>();
+        CMIDatabaseReader reader = new CMIDatabaseReader(Logger.getLogger("test"), 10, 2);
+
+        Migrator.MigrationResult result;
+        try (Connection conn = open()) {
+            result = reader.stream(conn, "users", null, false, chunk -> {
+                chunkSizes.add(chunk.size());
+                written.addAll(chunk);
+            }, null);
+        }
+
+        assertEquals(List.of(10, 10, 5), chunkSizes);
+        assertEquals(PLAYERS, written.size());
+        assertEquals(PLAYERS, result.successCount());
+        assertEquals(1, result.failCount());
+        assertEquals(PLAYERS + 1, result.totalCount());
+        assertEquals(300.0, result.totalBalance(), 0.0001); // 0 + 1 + ... + 24
+        assertEquals("Player0", written.get(0).getOwnerName());
+    }
+
+    @Test
+    @DisplayName("試跑不應寫入任何帳戶")
+    void testDryRun() throws SQLException {
+        CMIDatabaseReader reader = new CMIDatabaseReader(Logger.getLogger("test"), 10, 2);
+
+        Migrator.MigrationResult result;
+        try (Connection conn = open()) {
+            result = reader.stream(conn, "users", null, true, chunk -> fail("試跑不應寫入"), null);
+        }
+
+        assertTrue(result.dryRun());
+        assertEquals(PLAYERS, result.successCount());
+    }
+
+    @Test
+    @DisplayName("寫入失敗的整段應計入失敗並繼續處理後續分段")
+    void testWriterFailure() throws SQLException {
+        List<Integer> attempts = new ArrayList<>();
+        CMIDatabaseReader reader = new CMIDatabaseReader(Logger.getLogger("test"), 10, 2);
+
+        Migrator.MigrationResult result;
+        try (Connection conn = open()) {
+            result = reader.stream(conn, "users", null, false, chunk -> {
+                attempts.add(chunk.size());
+                if (attempts.size() == 1) {
+                    throw new IllegalStateException("模擬寫入失敗");
+                }
+            }, null);
+        }
+
+        assertEquals(3, attempts.size());
+        assertEquals(15, result.successCount());
+        assertEquals(11, result.failCount());
+    }
+
+    @Test
+    @DisplayName("批次之間中斷後續傳不應覆寫期間變動過的餘額")
+    void testResumeDoesNotOverwriteChangedBalance() throws Exception {
+        try (Connection conn = openTarget();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE balances (uuid TEXT PRIMARY KEY, balance DOUBLE)");
+            stmt.execute("CREATE TABLE ace_migration_jobs (job_id TEXT PRIMARY KEY, status TEXT NOT NULL,"
+                    + " checkpoint TEXT, processed INTEGER NOT NULL DEFAULT 0,"
+                    + " checksum INTEGER NOT NULL DEFAULT 0, updated_at INTEGER NOT NULL DEFAULT 0)");
+            stmt.execute("CREATE TABLE ace_migration_records (job_id TEXT NOT NULL, record_key TEXT NOT NULL,"
+                    + " fingerprint TEXT NOT NULL, PRIMARY KEY (job_id, record_key))");
+        }
+
+        // 第一段寫入後，後續批次在帳戶寫入途中失敗 (模擬中斷)
+        AtomicInteger batches = new AtomicInteger();
+        AtomicInteger failAfter = new AtomicInteger(1);
+        StorageProvider provider = mock(StorageProvider.class);
+        when(provider.isMySQL()).thenReturn(false);
+        when(provider.openMigrationReadConnection()).thenAnswer(inv -> openTarget());
+        when(provider.openMigrationWriteConnection()).thenAnswer(inv -> openTarget());
+        doAnswer(inv -> {
+            Connection conn = inv.getArgument(0);
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT OR REPLACE INTO balances (uuid, balance) VALUES (?, ?)")) {
+                for (Account account : inv.<Collection<Account>>getArgument(1)) {
+                    pstmt.setString(1, account.getOwner().toString());
+                    pstmt.setDouble(2, account.getBalance());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            if (batches.incrementAndGet() > failAfter.get()) {
+                throw new SQLException("模擬中斷");
+            }
+            return null;
+        }).when(provider).writeAccounts(any(Connection.class), anyCollection());
+
+        CMIDatabaseReader reader = new CMIDatabaseReader(Logger.getLogger("test"), 10, 2);
+        try (Connection conn = open()) {
+            Migrator.MigrationResult first = reader.stream(conn, "users", ImportJournal.open(provider, "cmi"),
+                    false, chunk -> fail("提供日誌時不應使用寫入器"), null);
+            assertEquals(10, first.successCount());
+        }
+        // 失敗的批次已整批回滾，只有第一段寫入
+        assertEquals(10, count("SELECT COUNT(*) FROM balances"));
+        assertEquals(10, count("SELECT COUNT(*) FROM ace_migration_records"));
+
+        // 中斷期間第一段的玩家餘額變動
+        String changed;
+        try (Connection conn = openTarget();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT uuid FROM balances LIMIT 1")) {
+            assertTrue(rs.next());
+            changed = rs.getString(1);
+        }
+        try (Connection conn = openTarget();
+                PreparedStatement pstmt = conn.prepareStatement("UPDATE balances SET balance = 999 WHERE uuid = ?")) {
+            pstmt.setString(1, changed);
+            pstmt.executeUpdate();
+        }
+
+        failAfter.set(Integer.MAX_VALUE);
+        try (Connection conn = open()) {
+            Migrator.MigrationResult resumed = reader.stream(conn, "users", ImportJournal.open(provider, "cmi"),
+                    false, chunk -> fail("提供日誌時不應使用寫入器"), null);
+            assertEquals(PLAYERS - 10, resumed.successCount());
+            assertEquals(10, resumed.skippedCount());
+        }
+
+        assertEquals(PLAYERS, count("SELECT COUNT(*) FROM balances"));
+        try (Connection conn = openTarget();
+                PreparedStatement pstmt = conn.prepareStatement("SELECT balance FROM balances WHERE uuid = ?")) {
+            pstmt.setString(1, changed);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals(999.0, rs.getDouble(1));
+            }
+        }
+    }
+
+    private int count(String sql) throws SQLException {
+        try (Connection conn = openTarget();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.smile.aceeconomy.migration;
+
+import com.smile.aceeconomy.data.Account;
+import com.smile.aceeconomy.storage.StorageHandler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * FileImportPipeline 單元測試。
+ * <p>
+ * 測試進度回調失敗時匯入仍能完成，不會讓解析執行緒卡在佇列上。
+ * </p>
+ */
+class FileImportPipelineTest {
+
+    private static final int FILES = 60;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("進度回調拋出例外時匯入仍應完成")
+    void testProgressCallbackFailureDoesNotHang() throws Exception {
+        for (int i = 0; i < FILES; i++) {
+            Files.writeString(tempDir.resolve(i + ".yml"), "money: " + i);
+        }
+
+        AtomicInteger saved = new AtomicInteger();
+        StorageHandler storageHandler = mock(StorageHandler.class);
+        when(storageHandler.saveAccounts(anyCollection())).thenAnswer(inv -> {
+            saved.addAndGet(inv.<Collection<Account>>getArgument(0).size());
+            return CompletableFuture.completedFuture(null);
+        });
+
+        // 每批 1 筆、解析稍慢，讓匯入跨過至少一次定期進度回報
+        FileImportPipeline pipeline = new FileImportPipeline(storageHandler, Logger.getLogger("test"), 1, 1, null);
+        FileImportPipeline.AccountParser parser = file -> {
+            Thread.sleep(100);
+            return new Account(UUID.randomUUID(), file.getFileName().toString(), 1.0);
+        };
+
+        Migrator.MigrationResult result = assertTimeoutPreemptively(Duration.ofSeconds(30),
+                () -> pipeline.run(tempDir, "*.yml", parser, false, progress -> {
+                    throw new IllegalStateException("回調失敗");
+                }));
+
+        assertEquals(FILES, result.totalCount());
+        assertEquals(FILES, result.successCount());
+        assertEquals(0, result.failCount());
+        assertEquals(FILES, saved.get());
+    }
+}
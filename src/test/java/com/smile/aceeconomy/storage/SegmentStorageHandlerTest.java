@@ -0,0 +1,220 @@
+package com.smile.aceeconomy.storage;
+
+import com.smile.aceeconomy.data.Account;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SegmentStorageHandler 單元測試。
+ * <p>
+ * 測試重啟後重建索引、不完整記錄截斷、背景壓縮、JSON 資料目錄匯入與關閉時的寫入。
+ * </p>
+ */
+class SegmentStorageHandlerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private SegmentStorageHandler handler;
+
+    private SegmentStorageHandler open() {
+        handler = new SegmentStorageHandler(tempDir, Logger.getLogger("test"), Runnable::run, 4096, 0, 0.5);
+        handler.initialize();
+        return handler;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (handler != null) {
+            handler.shutdown();
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir.resolve("segments"))) {
+            return files.filter(p -> p.toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+
+    @Test
+    @DisplayName("重新啟動後應以最後一次寫入的資料重建索引")
+    void testReopenRebuildsIndex() {
+        UUID uuid = UUID.randomUUID();
+        open().saveAccount(new Account(uuid, "Steve", Map.of("dollar", 10.0, "coins", 3.0))).join();
+        handler.saveAccount(new Account(uuid, "Steve", Map.of("dollar", 25.5, "coins", 3.0))).join();
+        handler.shutdown();
+
+        Account loaded = open().loadAccount(uuid).join();
+        assertNotNull(loaded);
+        assertEquals("Steve", loaded.getOwnerName());
+        assertEquals(25.5, loaded.getBalance("dollar"), 0.0001);
+        assertEquals(3.0, loaded.getBalance("coins"), 0.0001);
+        assertNull(handler.loadAccount(UUID.randomUUID()).join());
+    }
+
+    @Test
+    @DisplayName("結尾不完整的記錄應被截斷，之前的記錄保持可讀")
+    void testTornTailIsTruncated() throws IOException {
+        UUID uuid = UUID.randomUUID();
+        open().saveAccount(new Account(uuid, "Alex", 42.0)).join();
+        handler.shutdown();
+
+        Path segment = segmentFiles().get(segmentFiles().size() - 1);
+        long validSize = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            // 模擬寫入途中當機：只有標頭與部分內容
+            channel.write(ByteBuffer.wrap(new byte[] { 0, 0, 0, 64, 1, 2, 3, 4, 5, 6 }));
+        }
+
+        assertEquals(42.0, open().loadAccount(uuid).join().getBalance(), 0.0001);
+        assertEquals(validSize, Files.size(segment));
+    }
+
+    @Test
+    @DisplayName("記錄損毀時載入應以例外完成，而非回傳 null 被當成新玩家")
+    void testCorruptedRecordFailsLoad() throws IOException {
+        UUID uuid = UUID.randomUUID();
+        open().saveAccount(new Account(uuid, "Alex", 42.0)).join();
+
+        // 在不重新啟動的情況下竄改記錄內容 (CRC 於讀取時驗證)
+        Path segment = segmentFiles().get(segmentFiles().size() - 1);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 0x7f }), Files.size(segment) - 1);
+        }
+
+        CompletionException e = assertThrows(CompletionException.class, () -> handler.loadAccount(uuid).join());
+        assertInstanceOf(IOException.class, e.getCause().getCause());
+    }
+
+    @Test
+    @DisplayName("壓縮應移除過期記錄並保留每個帳戶的最新資料")
+    void testCompaction() throws IOException {
+        open();
+        List<UUID> players = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            players.add(UUID.randomUUID());
+        }
+        // 多次覆寫以產生多個封存 segment 與大量過期記錄
+        for (int round = 0; round < 30; round++) {
+            List<Account> batch = new ArrayList<>();
+            for (int i = 0; i < players.size(); i++) {
+                batch.add(new Account(players.get(i), "Player" + i, round * 100.0 + i));
+            }
+            handler.saveAccounts(batch).join();
+        }
+        int before = segmentFiles().size();
+        assertTrue(before > 2);
+
+        handler.compactIfNeeded();
+        assertTrue(segmentFiles().size() < before);
+        for (int i = 0; i < players.size(); i++) {
+            assertEquals(2900.0 + i, handler.loadAccount(players.get(i)).join().getBalance(), 0.0001);
+        }
+
+        // 壓縮後重新啟動仍應讀到相同資料
+        handler.shutdown();
+        open();
+        for (int i = 0; i < players.size(); i++) {
+            assertEquals(2900.0 + i, handler.loadAccount(players.get(i)).join().getBalance(), 0.0001);
+        }
+    }
+
+    @Test
+    @DisplayName("首次啟用時應匯入 JSON 資料目錄")
+    void testImportsJsonFolder() throws IOException {
+        UUID uuid = UUID.randomUUID();
+        Path data = Files.createDirectories(tempDir.resolve("data"));
+        Files.writeString(data.resolve(uuid + ".json"), """
+                {"owner": "%s", "ownerName": "Legacy", "balances": {"dollar": 12.5}}
+                """.formatted(uuid), StandardCharsets.UTF_8);
+        Files.writeString(data.resolve("broken.json"), "{", StandardCharsets.UTF_8);
+
+        Account loaded = open().loadAccount(uuid).join();
+        assertNotNull(loaded);
+        assertEquals("Legacy", loaded.getOwnerName());
+        assertEquals(12.5, loaded.getBalance(), 0.0001);
+    }
+
+    @Test
+    @DisplayName("JSON 匯入未完成時應在下次啟動繼續，完成後不再匯入")
+    void testJsonImportResumesUntilMarked() throws IOException {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID late = UUID.randomUUID();
+        Path data = Files.createDirectories(tempDir.resolve("data"));
+        writeJson(data, first, 10.0);
+
+        open().saveAccount(new Account(first, "Player", 99.0)).join();
+        handler.shutdown();
+        // 模擬匯入途中中斷：完成標記尚未建立
+        Files.delete(tempDir.resolve("segments").resolve("json-import.done"));
+        writeJson(data, second, 20.0);
+
+        open();
+        assertEquals(99.0, handler.loadAccount(first).join().getBalance(), 0.0001);
+        assertEquals(20.0, handler.loadAccount(second).join().getBalance(), 0.0001);
+        handler.shutdown();
+
+        writeJson(data, late, 30.0);
+        assertNull(open().loadAccount(late).join());
+    }
+
+    @Test
+    @DisplayName("與關閉同時送出的寫入都應完成 (成功或失敗)，不會永遠等待")
+    void testSavesRacingShutdownAllComplete() throws Exception {
+        open();
+        List<CompletableFuture<Void>> futures = new CopyOnWriteArrayList<>();
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                while (!stop.get()) {
+                    futures.add(handler.saveAccount(new Account(UUID.randomUUID(), "Racer", 1.0)));
+                }
+            });
+            thread.start();
+            writers.add(thread);
+        }
+        Thread.sleep(50);
+        handler.shutdown();
+        stop.set(true);
+        for (Thread thread : writers) {
+            thread.join();
+        }
+
+        assertFalse(futures.isEmpty());
+        for (CompletableFuture<Void> future : futures) {
+            assertTrue(future.isDone(), "關閉後不應留下未完成的寫入");
+        }
+        assertThrows(CompletionException.class,
+                () -> handler.saveAccount(new Account(UUID.randomUUID(), "Late", 1.0)).join());
+    }
+
+    private static void writeJson(Path data, UUID uuid, double balance) throws IOException {
+        Files.writeString(data.resolve(uuid + ".json"), """
+                {"owner": "%s", "ownerName": "Player", "balances": {"dollar": %s}}
+                """.formatted(uuid, balance), StandardCharsets.UTF_8);
+    }
+}
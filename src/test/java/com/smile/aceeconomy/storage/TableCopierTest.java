@@ -0,0 +1,154 @@
+package com.smile.aceeconomy.storage;
+
+import com.smile.aceeconomy.storage.TableCopier.Column;
+import com.smile.aceeconomy.storage.TableCopier.ColumnType;
+import com.smile.aceeconomy.storage.TableCopier.Table;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TableCopier 與 MigrationJobStore 單元測試。
+ * <p>
+ * 以兩個 SQLite 檔案資料庫測試串流複製、中途中斷與從檢查點續傳。
+ * </p>
+ */
+class TableCopierTest {
+
+    private static final int PLAYERS = 125;
+    private static final int BATCH_SIZE = 50;
+    private static final String JOB_ID = "migrate:sqlite:ace_balances";
+
+    private static final Table BALANCES = new Table("ace_balances", List.of(
+            new Column("uuid", ColumnType.STRING),
+            new Column("currency_id", ColumnType.STRING),
+            new Column("balance", ColumnType.DOUBLE),
+            new Column("username", ColumnType.STRING),
+            new Column("balance_minor", ColumnType.LONG)),
+            List.of("uuid", "currency_id"));
+
+    @TempDir
+    Path tempDir;
+
+    private final MigrationJobStore jobs = new MigrationJobStore(false);
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection source = open("source.db");
+                Statement stmt = source.createStatement()) {
+            stmt.execute(createBalances());
+            try (PreparedStatement pstmt = source.prepareStatement(
+                    "INSERT INTO ace_balances VALUES (?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < PLAYERS; i++) {
+                    String uuid = UUID.randomUUID().toString();
+                    // 每位玩家兩種貨幣，讓同一個 uuid 可能跨越批次邊界
+                    for (String currency : List.of("dollar", "gem")) {
+                        pstmt.setString(1, uuid);
+                        pstmt.setString(2, currency);
+                        pstmt.setDouble(3, i + 0.25);
+                        pstmt.setString(4, i % 10 == 0 ? null : "Player" + i);
+                        pstmt.setLong(5, i * 100L + 25);
+                        pstmt.addBatch();
+                    }
+                }
+                pstmt.executeBatch();
+            }
+        }
+
+        try (Connection target = open("target.db");
+                Statement stmt = target.createStatement()) {
+            stmt.execute(createBalances());
+            stmt.execute("CREATE TABLE ace_migration_jobs (job_id TEXT PRIMARY KEY, status TEXT NOT NULL,"
+                    + " checkpoint TEXT, processed INTEGER NOT NULL DEFAULT 0,"
+                    + " checksum INTEGER NOT NULL DEFAULT 0, updated_at INTEGER NOT NULL DEFAULT 0)");
+        }
+    }
+
+    private static String createBalances() {
+        return "CREATE TABLE ace_balances (uuid TEXT NOT NULL, currency_id TEXT NOT NULL, balance REAL,"
+                + " username TEXT, balance_minor INTEGER, PRIMARY KEY (uuid, currency_id))";
+    }
+
+    private Connection open(String name) throws SQLException {
+        return DriverManager.getConnection("jdbc:sqlite:" + tempDir.resolve(name).toAbsolutePath());
+    }
+
+    private TableCopier.CheckpointWriter saveCheckpoint(AtomicInteger calls, int failAt) {
+        return (conn, checkpoint) -> {
+            if (calls.incrementAndGet() == failAt) {
+                throw new SQLException("模擬中斷");
+            }
+            jobs.save(conn, new MigrationJobStore.Job(JOB_ID, MigrationJobStore.Status.RUNNING,
+                    BALANCES.encodeKey(checkpoint.lastKey()), checkpoint.rows(), checkpoint.checksum(),
+                    System.currentTimeMillis()));
+        };
+    }
+
+    @Test
+    @DisplayName("完整複製後目標的列數與檢查碼應與來源相同")
+    void testCopyMatchesSource() throws SQLException {
+        TableCopier copier = new TableCopier(BATCH_SIZE, 2, 0);
+
+        try (Connection source = open("source.db");
+                Connection target = open("target.db")) {
+            TableCopier.Totals copied = copier.copy(BALANCES, source, target, false,
+                    TableCopier.count(source, BALANCES.name()), TableCopier.Checkpoint.START,
+                    saveCheckpoint(new AtomicInteger(), -1), null);
+
+            TableCopier.Totals expected = copier.scan(BALANCES, source);
+            assertEquals(PLAYERS * 2L, expected.rows());
+            assertEquals(expected, copied);
+            assertEquals(expected, copier.scan(BALANCES, target));
+        }
+    }
+
+    @Test
+    @DisplayName("中途中斷後應從檢查點續傳，結果與來源相同")
+    void testAbortAndResume() throws SQLException {
+        TableCopier copier = new TableCopier(BATCH_SIZE, 2, 0);
+
+        try (Connection source = open("source.db");
+                Connection target = open("target.db")) {
+            long expectedRows = TableCopier.count(source, BALANCES.name());
+
+            // 第三批寫入檢查點時中斷：該批整批回滾，只保留前兩批與其檢查點
+            assertThrows(SQLException.class, () -> copier.copy(BALANCES, source, target, false, expectedRows,
+                    TableCopier.Checkpoint.START, saveCheckpoint(new AtomicInteger(), 3), null));
+            assertEquals(2L * BATCH_SIZE, TableCopier.count(target, BALANCES.name()));
+
+            MigrationJobStore.Job job = jobs.find(target, JOB_ID);
+            assertNotNull(job);
+            assertEquals(MigrationJobStore.Status.RUNNING, job.status());
+            assertEquals(2L * BATCH_SIZE, job.processed());
+
+            AtomicInteger progress = new AtomicInteger();
+            TableCopier.Checkpoint from = new TableCopier.Checkpoint(BALANCES.decodeKey(job.checkpoint()),
+                    job.processed(), job.checksum());
+            TableCopier.Totals copied = copier.copy(BALANCES, source, target, false, expectedRows, from,
+                    saveCheckpoint(progress, -1), null);
+
+            // 續傳只複製檢查點之後的批次
+            assertEquals(3, progress.get());
+            TableCopier.Totals expected = copier.scan(BALANCES, source);
+            assertEquals(expected, copied);
+            assertEquals(expected, copier.scan(BALANCES, target));
+
+            job = jobs.find(target, JOB_ID);
+            assertEquals(expected.rows(), job.processed());
+            assertEquals(expected.checksum(), job.checksum());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.smile.aceeconomy.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PrefixTrie 單元測試。
+ * <p>
+ * 測試排序、不區分大小寫、數量上限、移除與整批取代。
+ * </p>
+ */
+class PrefixTrieTest {
+
+    @Test
+    @DisplayName("補全結果應依字母排序且不區分大小寫")
+    void testSortedCaseInsensitive() {
+        PrefixTrie trie = new PrefixTrie(10);
+        trie.add("Steve");
+        trie.add("alex");
+        trie.add("Stan");
+        trie.add("stella");
+
+        assertEquals(List.of("Stan", "stella", "Steve"), trie.complete("st"));
+        assertEquals(List.of("Stan", "stella", "Steve"), trie.complete("ST"));
+        assertEquals(List.of("alex", "Stan", "stella", "Steve"), trie.complete(""));
+        assertEquals(List.of(), trie.complete("x"));
+    }
+
+    @Test
+    @DisplayName("補全結果應限制筆數")
+    void testMaxResults() {
+        PrefixTrie trie = new PrefixTrie(2);
+        trie.add("a1");
+        trie.add("a2");
+        trie.add("a3");
+
+        assertEquals(List.of("a1", "a2"), trie.complete("a"));
+
+        trie.remove("a1");
+        assertEquals(List.of("a2", "a3"), trie.complete("a"));
+    }
+
+    @Test
+    @DisplayName("移除字詞後不應再出現，且不影響共用前綴的字詞")
+    void testRemove() {
+        PrefixTrie trie = new PrefixTrie(10);
+        trie.add("Steve");
+        trie.add("Stev");
+
+        trie.remove("STEVE");
+        assertEquals(List.of("Stev"), trie.complete("st"));
+        assertEquals(1, trie.size());
+
+        trie.remove("Stev");
+        assertEquals(List.of(), trie.complete(""));
+        assertEquals(0, trie.size());
+
+        // 移除不存在的字詞不應出錯
+        trie.remove("Nobody");
+    }
+
+    @Test
+    @DisplayName("整批取代應清除舊內容")
+    void testReplaceAll() {
+        PrefixTrie trie = new PrefixTrie(10);
+        trie.add("dollar");
+        trie.replaceAll(List.of("token", "gem"));
+
+        assertEquals(List.of("gem", "token"), trie.complete(""));
+        assertEquals(List.of(), trie.complete("d"));
+    }
+}